@@ -0,0 +1,39 @@
+package fenetre;
+
+import java.awt.Color;
+
+/**
+ * Accès d'une leçon au tableau illustré (à n'utiliser que depuis l'EDT)
+ */
+public interface ContexteLecon {
+	String nomTableau();
+
+	String type();
+
+	int taille();
+
+	boolean estAlloue();
+
+	/**
+	 * Valeur affichée d'une case (sans délimiteurs)
+	 */
+	String lire(int index);
+
+	/**
+	 * Affecte une case comme le ferait t[index] = valeur
+	 * @throws IllegalStateException si le tableau n'est pas alloué
+	 * @throws IllegalArgumentException si la valeur n'est pas valide pour le type
+	 */
+	void affecter(int index, String valeur);
+
+	/**
+	 * Colore le fond d'une case
+	 * @throws IndexOutOfBoundsException si l'indice est hors du tableau
+	 */
+	void colorer(int index, Color couleur);
+
+	/**
+	 * Rend aux cases colorées par la leçon le fond qu'elles avaient avant (vert d'une case affectée...)
+	 */
+	void effacerCouleurs();
+}
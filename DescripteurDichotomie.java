@@ -0,0 +1,145 @@
+package fenetre;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Module fourni avec l'application : recherche dichotomique pas à pas
+ */
+public final class DescripteurDichotomie implements DescripteurLecon {
+	@Override
+	public String nom() {
+		return "Recherche dichotomique";
+	}
+
+	@Override
+	public String categorie() {
+		return "Algorithme";
+	}
+
+	@Override
+	public String description() {
+		return "Recherche d'une valeur dans le tableau trié, en divisant l'intervalle par deux à chaque étape";
+	}
+
+	@Override
+	public Lecon creer() {
+		return new LeconDichotomie();
+	}
+}
+
+/**
+ * Recherche dichotomique sur le tableau illustré : intervalle [bas, haut] en bleu,
+ * milieu en orange, case trouvée en vert
+ */
+final class LeconDichotomie implements Lecon {
+	private static final Color COULEUR_INTERVALLE = new Color(200, 220, 255);
+	private static final Color COULEUR_MILIEU = new Color(255, 200, 120);
+	private static final Color COULEUR_TROUVEE = new Color(150, 230, 150);
+	private int bas;
+	private int haut;
+	private int tailleRecherche;   // taille au début de la recherche, revérifiée à chaque étape
+	private boolean terminee = true;
+
+	@Override
+	public JComponent creerVue(ContexteLecon contexte) {
+		JTextField chercheeField = new JTextField(10);
+		JButton commencerButton = new JButton("Commencer");
+		JButton etapeButton = new JButton("Étape");
+		JTextArea journal = new JTextArea(10, 50);
+		journal.setEditable(false);
+		journal.setFont(new Font("Monospaced", Font.PLAIN, 12));
+		etapeButton.setEnabled(false);
+
+		commencerButton.addActionListener(e -> {
+			journal.setText("");
+			contexte.effacerCouleurs();
+			if (!contexte.estAlloue()) {
+				journal.append("Le tableau n'est pas alloué : exécutez d'abord sa déclaration\n");
+				return;
+			}
+			for (int i = 1; i < contexte.taille(); i++) {
+				if (comparer(contexte, contexte.lire(i - 1), contexte.lire(i)) > 0) {
+					journal.append(String.format("%s[%d] > %s[%d] : le tableau doit être trié%n",
+							contexte.nomTableau(), i - 1, contexte.nomTableau(), i));
+					return;
+				}
+			}
+			bas = 0;
+			haut = contexte.taille() - 1;
+			tailleRecherche = contexte.taille();
+			terminee = false;
+			colorer(contexte, -1);
+			journal.append(String.format("bas = %d, haut = %d%n", bas, haut));
+			etapeButton.setEnabled(true);
+		});
+
+		etapeButton.addActionListener(e -> {
+			if (terminee) return;
+			// Tableau redimensionné, reconstruit ou autre onglet depuis l'étape précédente
+			if (!contexte.estAlloue() || contexte.taille() != tailleRecherche) {
+				journal.append("Le tableau a changé : recherche interrompue, cliquer sur Commencer\n");
+				terminee = true;
+				etapeButton.setEnabled(false);
+				return;
+			}
+			String cherchee = chercheeField.getText().trim();
+			if (bas > haut) {
+				journal.append("bas > haut : " + cherchee + " est absent, renvoie -(bas + 1) = " + -(bas + 1) + "\n");
+				contexte.effacerCouleurs();
+				terminee = true;
+			} else {
+				int milieu = (bas + haut) >>> 1;
+				String valeur = contexte.lire(milieu);
+				int comparaison = comparer(contexte, valeur, cherchee);
+				String ligne = String.format("milieu = (%d + %d) >>> 1 = %d : %s[%d] = %s", bas, haut, milieu,
+						contexte.nomTableau(), milieu, valeur);
+				if (comparaison == 0) {
+					journal.append(ligne + " : trouvé\n");
+					contexte.effacerCouleurs();
+					contexte.colorer(milieu, COULEUR_TROUVEE);
+					terminee = true;
+				} else {
+					if (comparaison < 0) bas = milieu + 1;
+					else haut = milieu - 1;
+					journal.append(ligne + (comparaison < 0 ? " < " : " > ") + cherchee
+							+ String.format(" → bas = %d, haut = %d%n", bas, haut));
+					colorer(contexte, milieu);
+				}
+			}
+			etapeButton.setEnabled(!terminee);
+		});
+
+		JPanel commandes = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		commandes.add(new JLabel("Valeur cherchée :"));
+		commandes.add(chercheeField);
+		commandes.add(commencerButton);
+		commandes.add(etapeButton);
+		JPanel vue = new JPanel(new BorderLayout(5, 5));
+		vue.add(commandes, BorderLayout.NORTH);
+		vue.add(new JScrollPane(journal), BorderLayout.CENTER);
+		return vue;
+	}
+
+	private void colorer(ContexteLecon contexte, int milieu) {
+		contexte.effacerCouleurs();
+		for (int i = bas; i <= haut; i++) {
+			contexte.colorer(i, COULEUR_INTERVALLE);
+		}
+		if (milieu >= 0) contexte.colorer(milieu, COULEUR_MILIEU);
+	}
+
+	/**
+	 * Ordre des valeurs : numérique si les deux textes sont des nombres, lexicographique sinon
+	 */
+	private static int comparer(ContexteLecon contexte, String a, String b) {
+		if (!contexte.type().equals("String") && !contexte.type().equals("char")) {
+			try {
+				return Double.compare(Double.parseDouble(a), Double.parseDouble(b));
+			} catch (NumberFormatException e) {
+				// comparaison lexicographique (boolean, valeur cherchée non numérique)
+			}
+		}
+		return a.compareTo(b);
+	}
+}
@@ -0,0 +1,103 @@
+package fenetre;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Module fourni avec l'application : histogramme des valeurs numériques
+ */
+public final class DescripteurHistogramme implements DescripteurLecon {
+	@Override
+	public String nom() {
+		return "Histogramme des valeurs";
+	}
+
+	@Override
+	public String categorie() {
+		return "Vue";
+	}
+
+	@Override
+	public String description() {
+		return "Une barre par case, hauteur proportionnelle à la valeur";
+	}
+
+	@Override
+	public Lecon creer() {
+		return new LeconHistogramme();
+	}
+}
+
+/**
+ * Classe distincte du descripteur (plutôt qu'une lambda) : sa vérification chargerait
+ * VueHistogramme, donc Swing, dès la découverte du module
+ */
+final class LeconHistogramme implements Lecon {
+	@Override
+	public JComponent creerVue(ContexteLecon contexte) {
+		return new VueHistogramme(contexte);
+	}
+}
+
+/**
+ * Barres des valeurs du tableau illustré, relues à chaque dessin
+ */
+final class VueHistogramme extends JComponent {
+	private static final long serialVersionUID = 1L;
+	private final ContexteLecon contexte;
+	private final Timer rafraichissement = new Timer(250, e -> repaint());
+
+	VueHistogramme(ContexteLecon contexte) {
+		this.contexte = contexte;
+		setPreferredSize(new Dimension(520, 220));
+	}
+
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		// Relecture périodique tant que la vue est affichée : elle suit l'exécution sans écouteur sur le tableau
+		rafraichissement.start();
+	}
+
+	@Override
+	public void removeNotify() {
+		rafraichissement.stop();
+		super.removeNotify();
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		g.setColor(Color.WHITE);
+		g.fillRect(0, 0, getWidth(), getHeight());
+		int n = contexte.taille();
+		if (!contexte.estAlloue() || n == 0) {
+			g.setColor(Color.GRAY);
+			g.drawString(contexte.nomTableau() + " n'est pas alloué", 10, 20);
+			return;
+		}
+		double[] valeurs = new double[n];
+		double min = 0;
+		double max = 0;
+		for (int i = 0; i < n; i++) {
+			String texte = contexte.lire(i);
+			try {
+				valeurs[i] = texte.equals("true") ? 1 : texte.equals("false") ? 0 : Double.parseDouble(texte);
+			} catch (NumberFormatException e) {
+				valeurs[i] = texte.length() == 1 ? texte.charAt(0) : texte.length();
+			}
+			min = Math.min(min, valeurs[i]);
+			max = Math.max(max, valeurs[i]);
+		}
+		double etendue = Math.max(1e-9, max - min);
+		int zero = 10 + (int) ((getHeight() - 20) * max / etendue);
+		double largeur = (getWidth() - 20) / (double) n;
+		g.setColor(new Color(60, 90, 160));
+		for (int i = 0; i < n; i++) {
+			int x = 10 + (int) (i * largeur);
+			int y = 10 + (int) ((getHeight() - 20) * (max - valeurs[i]) / etendue);
+			g.fillRect(x, Math.min(y, zero), Math.max(1, (int) largeur - 1), Math.abs(zero - y));
+		}
+		g.setColor(Color.GRAY);
+		g.drawLine(10, zero, getWidth() - 10, zero);
+	}
+}
@@ -0,0 +1,28 @@
+package fenetre;
+
+/**
+ * Module de leçon installable (carte de méthode, algorithme ou vue), découvert par
+ * ServiceLoader dans les fichiers META-INF/services/fenetre.DescripteurLecon
+ * du chemin de classes
+ * Le descripteur doit rester léger : il est instancié au démarrage pour remplir le menu
+ * Leçons. Les classes de la leçon elle-même ne sont chargées qu'au premier choix, par
+ * creer(). Interface publique (et fournisseurs publics avec constructeur sans argument),
+ * comme l'exige ServiceLoader pour des modules livrés dans d'autres archives.
+ */
+public interface DescripteurLecon {
+	String nom();
+
+	/**
+	 * Rubrique du menu : "Méthode", "Algorithme" ou "Vue"
+	 */
+	String categorie();
+
+	default String description() {
+		return "";
+	}
+
+	/**
+	 * Crée la leçon ; appelé une seule fois, au premier choix dans le menu
+	 */
+	Lecon creer();
+}
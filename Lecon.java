@@ -0,0 +1,10 @@
+package fenetre;
+
+import javax.swing.JComponent;
+
+/**
+ * Leçon instanciée : sa vue est créée au premier affichage puis conservée
+ */
+public interface Lecon {
+	JComponent creerVue(ContexteLecon contexte);
+}
@@ -3,6 +3,7 @@ package fenetre;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
 import javax.swing.border.*;
 import javax.swing.text.*;
 import java.util.HashMap;
@@ -18,8 +19,18 @@ import java.util.List;
 public class TableauIllustrator extends JFrame {
 
 	// ----- ATTRIBUTS PRINCIPAUX -----
-	// Types disponibles pour les éléments du tableau
-	private final String[] TYPES_ELEMENTS = {"int", "double", "String", "char", "boolean"};
+	// Types disponibles pour les éléments du tableau (ordre du registre des descripteurs)
+	private final String[] TYPES_ELEMENTS = DescripteurType.noms();
+
+	// Descripteur du type sélectionné, résolu à chaque changement de type
+	private DescripteurType descripteur = DescripteurType.pour(TYPES_ELEMENTS[0]);
+
+	// Nombre d'éléments à partir duquel la validation de la méthode 2 est parallélisée
+	// (jamais atteint depuis l'interface, limitée à 100 cases : seulement par un appel direct à validerValeurs)
+	private static final int SEUIL_VALIDATION_PARALLELE = 8192;
+
+	// Durée d'une étape d'exécution animée (et d'une image dans les exports)
+	private static final int PERIODE_ETAPE_MS = 400;
 
 	// Exemples de valeurs pour chaque type
 	private Map<String, String[]> exemples = new HashMap<>();
@@ -35,6 +46,7 @@ public class TableauIllustrator extends JFrame {
 	private JPanel illustrationPanel;
 	private JPanel codePanel1; // Pour méthode 1
 	private JPanel codePanel2; // Pour méthode 2
+	private JPanel codePanel3; // Pour méthode 3
 	private JPanel codeMainPanel; // Conteneur des deux panels de code
 
 	// Contrôles pour configurer le tableau
@@ -43,23 +55,99 @@ public class TableauIllustrator extends JFrame {
 	private JSpinner tailleSpinner;
 	private JRadioButton methode1Radio;
 	private JRadioButton methode2Radio;
+	private JRadioButton methode3Radio;
+
+	// Méthode 3 : initialisation par une boucle for
+	private JTextField expressionTextField;
+	private JCheckBox remplissageParalleleCheckBox;
+	private JLabel compteurBoucleLabel;
+	private String[] valeursMethode3; // valeurs calculées à l'entrée dans la boucle
 
 	// Éléments pour l'affichage et l'interaction
 	private JTextField[] valeursFields; // Champs de saisie des valeurs
-	private JLabel[] illustrationLabels; // Affichage des valeurs dans l'illustration
-	private JPanel[] illustrationCasePanels; // Cases du tableau dans l'illustration
+	private EtiquetteValeur[] illustrationLabels; // Affichage des valeurs dans l'illustration
+	private CaseAnimee[] illustrationCasePanels; // Cases du tableau dans l'illustration
 
 	// Scrollbars pour la navigation
 	private JScrollPane scrollPane1;
 	private JScrollPane scrollPane2;
+	private JScrollPane scrollPane3;
 	private JScrollPane illustrationScrollPane;
 
+	// Vue d'ensemble zoomable du tableau (agrégation hiérarchique des cases)
+	private ArbreAgregation agregation = new ArbreAgregation();
+	private PanelApercu panelApercu;
+
+	// Barre de statistiques sous l'illustration (lue dans l'arbre d'agrégation)
+	private final ComptageValeurs comptageValeurs = new ComptageValeurs();
+	private final Resume resumeStatistiques = new Resume();
+	private JLabel statistiquesLabel;
+	private boolean statistiquesEnAttente = false;
+
+	// Tableau primitif alloué pour l'illustration (int[], long[]... selon le type)
+	private StockageTableau stockage = descripteur.creerStockage(0);
+
+	// Espace de travail : un onglet par tableau, seul l'onglet actif a des composants
+	private final List<OngletTableau> onglets = new ArrayList<>();
+	private OngletTableau ongletActif;
+	private JTabbedPane barreOnglets;
+	private boolean changementOnglet = false;
+	private JMenuItem fermerTableauMenuItem;
+
+	// Vue mémoire des références (String[]) dans une fenêtre séparée
+	private PanelTas panelTas;
+	private JDialog dialogueTas;
+	private JCheckBoxMenuItem vueTasMenuItem;
+
+	// Modules de leçons : menu rempli après le démarrage, fenêtres créées au premier choix
+	private JMenu leconsMenu;
+	private final Map<DescripteurLecon, JDialog> dialoguesLecons = new HashMap<>();
+	private ContexteLecon contexteLecon;
+
+	// Graine de la dernière génération de valeurs (proposée pour la reproduire)
+	private long derniereGraine = 42;
+
+	// Recherche de valeurs (index valeur -> indices maintenu à chaque modification)
+	private IndexValeurs indexValeurs = new IndexValeurs();
+	private JTextField rechercheTextField;
+	private JLabel rechercheResultatLabel;
+	private int[] resultatsRecherche = new int[0];
+	private int resultatCourant = -1;
+
+	// Diffusion en direct vers les postes des élèves (null si inactive)
+	private ServeurDiffusion serveurDiffusion;
+	private JCheckBoxMenuItem diffusionMenuItem;
+
+	// Enregistrement et rejeu de sessions (bancs d'essai de l'interface)
+	private SessionEnregistree sessionEnCours;   // non null pendant un enregistrement
+	private MesuresRejeu mesuresRejeu;           // non null pendant un rejeu
+	private JCheckBoxMenuItem enregistrementMenuItem;
+
+	// Trace Flight Recorder lancée depuis le menu (null si inactive)
+	private jdk.jfr.Recording trace;
+	private JCheckBoxMenuItem traceMenuItem;
+
+	// Historique d'annulation (états immuables à partage structurel)
+	private EtatTableau etatCourant;
+	private java.util.Deque<EtatTableau> annulations = new java.util.ArrayDeque<>();
+	private java.util.Deque<EtatTableau> retablissements = new java.util.ArrayDeque<>();
+	private String[] valeursImposees;          // valeurs à reprendre lors de la prochaine reconstruction
+	private boolean restaurationEnCours = false;
+	private int dernierIndexEdite = -1;
+	private long dernierInstantEdition;
+	private JMenuItem annulerMenuItem;
+	private JMenuItem retablirMenuItem;
+
+	// Rapport de validation de la méthode 2 (liste non modale des valeurs invalides)
+	private JDialog dialogueErreurs;
+	private DefaultListModel<ErreurValidation> modeleErreurs;
+
 	// ----- EXÉCUTION ET ANIMATION -----
 	private JButton executerButton;
 	private JButton executerLigneButton;
 	private JButton stopButton;
 	private List<JPanel> codeLignes; // Lignes de code pour l'animation
-	private Timer executionTimer;
+	private HorlogeAnimation horlogeAnimation; // Étapes logiques et transitions, cadencées sur l'écran
 	private int currentLineIndex = -1;
 	private boolean enExecution = false;
 	private boolean filtresActifs = false;
@@ -114,6 +202,10 @@ public class TableauIllustrator extends JFrame {
 		exemples.put("double", new String[]{"1.0", "2.5", "3.7", "4.2"});
 		exemples.put("char", new String[]{"W", "S", "S", "A"});
 		exemples.put("boolean", new String[]{"true", "false", "true", "false"});
+		exemples.put("long", new String[]{"10000000000", "-1", "2147483648", "0"});
+		exemples.put("float", new String[]{"1.5", "2.25", "3", "0.1"});
+		exemples.put("byte", new String[]{"-128", "0", "64", "127"});
+		exemples.put("short", new String[]{"1000", "-2000", "32767", "7"});
 	}
 
 	/**
@@ -136,21 +228,36 @@ public class TableauIllustrator extends JFrame {
 		mainPanel.add(controlsPanel, BorderLayout.NORTH);
 		mainPanel.add(methodePanel, BorderLayout.CENTER);
 
+		JPanel illustrationContainer = new JPanel(new BorderLayout());
+		illustrationContainer.add(creerPanelRecherche(), BorderLayout.NORTH);
+		illustrationContainer.add(illustrationScrollPane, BorderLayout.CENTER);
+
 		JPanel southPanel = new JPanel(new BorderLayout());
 		southPanel.add(codeMainPanel, BorderLayout.NORTH);
-		southPanel.add(illustrationScrollPane, BorderLayout.CENTER);
+		southPanel.add(illustrationContainer, BorderLayout.CENTER);
+		statistiquesLabel = new JLabel(" ");
+		statistiquesLabel.setFont(new Font("Monospaced", Font.PLAIN, 12));
+		statistiquesLabel.setBorder(BorderFactory.createEmptyBorder(2, 4, 2, 4));
+		JPanel apercuPanel = new JPanel(new BorderLayout());
+		apercuPanel.add(panelApercu, BorderLayout.CENTER);
+		apercuPanel.add(statistiquesLabel, BorderLayout.SOUTH);
+		southPanel.add(apercuPanel, BorderLayout.SOUTH);
 		mainPanel.add(southPanel, BorderLayout.SOUTH);
 
-		getContentPane().add(mainPanel);
+		getContentPane().add(creerBarreOnglets(), BorderLayout.NORTH);
+		getContentPane().add(mainPanel, BorderLayout.CENTER);
+		setJMenuBar(creerBarreMenus());
 
 		// Gestion du redimensionnement
 		ajouterEcouteurRedimensionnement();
 
-		// Initialisation du timer pour l'exécution animée
-		executionTimer = new Timer(400, e -> executerLigneSuivante());
+		// Initialisation de l'horloge de l'exécution animée (une étape toutes les 400 ms)
+		horlogeAnimation = new HorlogeAnimation(PERIODE_ETAPE_MS, this::executerLigneSuivante);
 
 		// Mise à jour initiale des panels
 		mettreAJourPanels();
+		rafraichirOnglets();
+		chargerDescripteursLecons();
 	}
 
 ////////////////////////////////////////////////////////////////////////////////////////////////
@@ -168,19 +275,23 @@ public class TableauIllustrator extends JFrame {
 		JPanel methodePanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 20, 10));
 		methode1Radio = new JRadioButton("Méthode 1: Déclaration + Allocation + Affectation", true);
 		methode2Radio = new JRadioButton("Méthode 2: Initialisation directe");
+		methode3Radio = new JRadioButton("Méthode 3: Boucle for");
 
 		// Regrouper les boutons radio
 		ButtonGroup group = new ButtonGroup();
 		group.add(methode1Radio);
 		group.add(methode2Radio);
+		group.add(methode3Radio);
 
 		// Ajouter les boutons au panel
 		methodePanel.add(methode1Radio);
 		methodePanel.add(methode2Radio);
+		methodePanel.add(methode3Radio);
 
 		// Ajouter les écouteurs d'événements
 		methode1Radio.addActionListener(e -> {
 			if (methode1Radio.isSelected()) {
+				enregistrerAction(GenreAction.METHODE, 1, null);
 				methodeChoisie = 1;
 				mettreAJourPanels();
 			}
@@ -188,14 +299,155 @@ public class TableauIllustrator extends JFrame {
 
 		methode2Radio.addActionListener(e -> {
 			if (methode2Radio.isSelected()) {
+				enregistrerAction(GenreAction.METHODE, 2, null);
 				methodeChoisie = 2;
 				mettreAJourPanels();
 			}
 		});
 
+		methode3Radio.addActionListener(e -> {
+			if (methode3Radio.isSelected()) {
+				enregistrerAction(GenreAction.METHODE, 3, null);
+				methodeChoisie = 3;
+				mettreAJourPanels();
+			}
+		});
+
 		return methodePanel;
 	}
 
+	/**
+	 * Renvoie le bouton radio correspondant à une méthode
+	 * @param methode Le numéro de la méthode (1, 2 ou 3)
+	 */
+	private JRadioButton boutonMethode(int methode) {
+		return methode == 1 ? methode1Radio : methode == 2 ? methode2Radio : methode3Radio;
+	}
+
+	/**
+	 * Crée la barre de menus (outils complémentaires)
+	 */
+	private JMenuBar creerBarreMenus() {
+		JMenuBar barre = new JMenuBar();
+
+		JMenu editionMenu = new JMenu("Édition");
+		int raccourci = InputEvent.CTRL_DOWN_MASK;
+		annulerMenuItem = new JMenuItem("Annuler");
+		annulerMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, raccourci));
+		annulerMenuItem.addActionListener(e -> annuler());
+		retablirMenuItem = new JMenuItem("Rétablir");
+		retablirMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, raccourci));
+		retablirMenuItem.addActionListener(e -> retablir());
+		editionMenu.add(annulerMenuItem);
+		editionMenu.add(retablirMenuItem);
+		editionMenu.addSeparator();
+
+		JMenuItem collerMenuItem = new JMenuItem("Coller un initialiseur");
+		collerMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_V, raccourci | InputEvent.SHIFT_DOWN_MASK));
+		collerMenuItem.addActionListener(e -> collerInitialiseur());
+		editionMenu.add(collerMenuItem);
+
+		JMenuItem importerMenuItem = new JMenuItem("Importer un initialiseur...");
+		importerMenuItem.addActionListener(e -> choisirEtImporterInitialiseur());
+		editionMenu.add(importerMenuItem);
+		barre.add(editionMenu);
+		mettreAJourActionsAnnulation();
+
+		JMenu tableauxMenu = new JMenu("Tableaux");
+		JMenuItem nouveauMenuItem = new JMenuItem("Nouveau tableau...");
+		nouveauMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_T, raccourci));
+		nouveauMenuItem.addActionListener(e -> nouveauTableau());
+		tableauxMenu.add(nouveauMenuItem);
+
+		JMenuItem aliasMenuItem = new JMenuItem("Alias du tableau courant (b = a)...");
+		aliasMenuItem.addActionListener(e -> aliasTableau());
+		tableauxMenu.add(aliasMenuItem);
+
+		JMenuItem copierMenuItem = new JMenuItem("System.arraycopy entre tableaux...");
+		copierMenuItem.addActionListener(e -> copierEntreTableaux());
+		tableauxMenu.add(copierMenuItem);
+
+		JMenuItem arrayListMenuItem = new JMenuItem("Croissance d'un ArrayList...");
+		arrayListMenuItem.addActionListener(e -> ouvrirSimulateurArrayList());
+		tableauxMenu.add(arrayListMenuItem);
+		tableauxMenu.addSeparator();
+
+		fermerTableauMenuItem = new JMenuItem("Fermer le tableau");
+		fermerTableauMenuItem.addActionListener(e -> fermerTableau());
+		tableauxMenu.add(fermerTableauMenuItem);
+		barre.add(tableauxMenu);
+
+		JMenu outilsMenu = new JMenu("Outils");
+
+		diffusionMenuItem = new JCheckBoxMenuItem("Diffusion en classe");
+		diffusionMenuItem.addActionListener(e -> basculerDiffusion(diffusionMenuItem.isSelected()));
+		outilsMenu.add(diffusionMenuItem);
+		outilsMenu.addSeparator();
+
+		enregistrementMenuItem = new JCheckBoxMenuItem("Enregistrer une session");
+		enregistrementMenuItem.addActionListener(e -> basculerEnregistrement(enregistrementMenuItem.isSelected()));
+		outilsMenu.add(enregistrementMenuItem);
+
+		JMenuItem rejouerMenuItem = new JMenuItem("Rejouer une session...");
+		rejouerMenuItem.addActionListener(e -> choisirEtRejouerSession());
+		outilsMenu.add(rejouerMenuItem);
+		outilsMenu.addSeparator();
+
+		traceMenuItem = new JCheckBoxMenuItem("Trace Flight Recorder");
+		traceMenuItem.addActionListener(e -> basculerTrace(traceMenuItem.isSelected()));
+		outilsMenu.add(traceMenuItem);
+		outilsMenu.addSeparator();
+
+		JMenuItem explorerMenuItem = new JMenuItem("Explorer un projet Java...");
+		explorerMenuItem.addActionListener(e -> choisirEtExplorerProjet());
+		outilsMenu.add(explorerMenuItem);
+		outilsMenu.addSeparator();
+
+		JMenuItem exporterMenuItem = new JMenuItem("Exporter l'exécution (GIF ou images)...");
+		exporterMenuItem.addActionListener(e -> choisirEtExporterExecution());
+		outilsMenu.add(exporterMenuItem);
+		outilsMenu.addSeparator();
+
+		JMenuItem localiteMenuItem = new JMenuItem("Laboratoire de localité mémoire...");
+		localiteMenuItem.addActionListener(e -> ouvrirLaboratoireLocalite());
+		outilsMenu.add(localiteMenuItem);
+
+		barre.add(outilsMenu);
+
+		JMenu genererMenu = new JMenu("Générer");
+		for (GenerateurValeurs.Modele modele : GenerateurValeurs.Modele.values()) {
+			JMenuItem item = new JMenuItem(modele.libelle);
+			item.addActionListener(e -> genererValeurs(modele));
+			genererMenu.add(item);
+		}
+		barre.add(genererMenu);
+
+		JMenu paralleleMenu = new JMenu("Parallèle");
+		for (OperationsParalleles.Operation operation : OperationsParalleles.Operation.values()) {
+			JMenuItem item = new JMenuItem(operation.libelle);
+			item.addActionListener(e -> executerOperationParallele(operation));
+			paralleleMenu.add(item);
+		}
+		barre.add(paralleleMenu);
+
+		JMenu affichageMenu = new JMenu("Affichage");
+		vueTasMenuItem = new JCheckBoxMenuItem("Vue mémoire des références (String[])");
+		vueTasMenuItem.addActionListener(e -> basculerVueTas(vueTasMenuItem.isSelected()));
+		affichageMenu.add(vueTasMenuItem);
+
+		JMenuItem statistiquesMenuItem = new JMenuItem("Statistiques mémoire (pool de String)...");
+		statistiquesMenuItem.addActionListener(e -> afficherStatistiquesMemoire());
+		affichageMenu.add(statistiquesMenuItem);
+		barre.add(affichageMenu);
+
+		leconsMenu = new JMenu("Leçons");
+		JMenuItem chargementMenuItem = new JMenuItem("Recherche des modules...");
+		chargementMenuItem.setEnabled(false);
+		leconsMenu.add(chargementMenuItem);
+		barre.add(leconsMenu);
+		return barre;
+	}
+
 	/**
 	 * Crée le panel contenant les contrôles pour configurer le tableau
 	 */
@@ -211,6 +463,7 @@ public class TableauIllustrator extends JFrame {
 		typeComboBox = new JComboBox<>(TYPES_ELEMENTS);
 		typeComboBox.setFont(new Font("SansSerif", Font.BOLD, 14));
 		typeComboBox.setPreferredSize(new Dimension(120, 30));
+		typeComboBox.addItemListener(e -> descripteur = DescripteurType.pour((String) typeComboBox.getSelectedItem()));
 
 		typePanel.add(typeLabel);
 		typePanel.add(typeComboBox);
@@ -250,14 +503,18 @@ public class TableauIllustrator extends JFrame {
 
 		// Ajouter les écouteurs de changement
 		typeComboBox.addActionListener(e -> {
+			enregistrerAction(GenreAction.TYPE, 0, (String) typeComboBox.getSelectedItem());
 			reinitialiserExecution();
 			mettreAJourPanels();
 		});
 
+		nomTextField.getDocument().addDocumentListener(new SimpleDocumentListener(
+				() -> enregistrerAction(GenreAction.NOM, 0, nomTextField.getText())));
 		nomTextField.getDocument().addDocumentListener(new SimpleDocumentListener(this::reinitialiserExecution));
 		nomTextField.getDocument().addDocumentListener(new SimpleDocumentListener(this::mettreAJourPanels));
 
 		tailleSpinner.addChangeListener(e -> {
+			enregistrerAction(GenreAction.TAILLE, (Integer) tailleSpinner.getValue(), null);
 			reinitialiserExecution();
 			mettreAJourPanels();
 		});
@@ -266,7 +523,7 @@ public class TableauIllustrator extends JFrame {
 	}
 
 	/**
-	 * Crée les panels qui afficheront le code pour les deux méthodes
+	 * Crée les panels qui afficheront le code pour les trois méthodes
 	 */
 	private void creerPanelsCode() {
 		// Panel principal pour l'affichage du code
@@ -279,7 +536,7 @@ public class TableauIllustrator extends JFrame {
 
 		executerButton.addActionListener(e -> executerTout());
 		executerLigneButton.addActionListener(e -> executerLigne());
-		stopButton.addActionListener(e -> reinitialiserExecution());
+		stopButton.addActionListener(e -> stopperExecution());
 
 		// Panel pour la méthode 1 (déclaration + allocation + affectation)
 		codePanel1 = new JPanel() {
@@ -309,16 +566,43 @@ public class TableauIllustrator extends JFrame {
 				BorderFactory.createEmptyBorder(10, 10, 10, 10)
 				));
 
-		// Scrollpanes pour les deux panels de code
+		// Panel pour la méthode 3 (boucle for et expression en fonction de i)
+		codePanel3 = new JPanel() {
+			@Override
+			public Dimension getPreferredSize() {
+				int height = getLayout().preferredLayoutSize(this).height + 20;
+				return new Dimension(800, Math.max(255, height));
+			}
+		};
+		codePanel3.setLayout(new BoxLayout(codePanel3, BoxLayout.Y_AXIS));
+		codePanel3.setBorder(BorderFactory.createCompoundBorder(
+				BorderFactory.createTitledBorder("Code Java - Méthode 3"),
+				BorderFactory.createEmptyBorder(10, 10, 10, 10)
+				));
+
+		// Champ de l'expression (conservé d'une reconstruction à l'autre)
+		expressionTextField = new JTextField("i * i", 20);
+		expressionTextField.setFont(new Font("Monospaced", Font.PLAIN, 16));
+		expressionTextField.setToolTipText("Expression en fonction de i, par ex. i * i, i % 2 == 0, \"v\" + i");
+		expressionTextField.getDocument().addDocumentListener(new SimpleDocumentListener(() -> {
+			enregistrerAction(GenreAction.EXPRESSION, 0, expressionTextField.getText());
+			expressionTextField.setBackground(Color.WHITE);
+		}));
+		remplissageParalleleCheckBox = new JCheckBox("Remplissage parallèle (fork-join) avant l'animation");
+		compteurBoucleLabel = createCodeLabel("");
+		compteurBoucleLabel.setForeground(Color.GRAY);
+
+		// Scrollpanes pour les trois panels de code
 		scrollPane1 = creerScrollPaneCode(codePanel1, true);
 		scrollPane2 = creerScrollPaneCode(codePanel2, false);
+		scrollPane3 = creerScrollPaneCode(codePanel3, true);
 
 		// Ajout des boutons d'exécution
 		JPanel buttonPanel1 = creerPanelBoutons(executerButton, executerLigneButton, stopButton);
 		JPanel buttonPanel2 = creerPanelBoutons(
 				new JButton("Exécuter tout") {{ addActionListener(e -> executerTout()); }},
 				new JButton("Exécuter ligne") {{ addActionListener(e -> executerLigne()); }},
-				new JButton("Stop") {{ addActionListener(e -> reinitialiserExecution()); }}
+				new JButton("Stop") {{ addActionListener(e -> stopperExecution()); }}
 				);
 
 		// Assemblage des panels
@@ -330,8 +614,18 @@ public class TableauIllustrator extends JFrame {
 		container2.add(scrollPane2, BorderLayout.CENTER);
 		container2.add(buttonPanel2, BorderLayout.SOUTH);
 
+		JPanel buttonPanel3 = creerPanelBoutons(
+				new JButton("Exécuter tout") {{ addActionListener(e -> executerTout()); }},
+				new JButton("Exécuter ligne") {{ addActionListener(e -> executerLigne()); }},
+				new JButton("Stop") {{ addActionListener(e -> stopperExecution()); }}
+				);
+		JPanel container3 = new JPanel(new BorderLayout());
+		container3.add(scrollPane3, BorderLayout.CENTER);
+		container3.add(buttonPanel3, BorderLayout.SOUTH);
+
 		codeMainPanel.add(container1, "1");
 		codeMainPanel.add(container2, "2");
+		codeMainPanel.add(container3, "3");
 	}
 
 	/**
@@ -394,6 +688,97 @@ public class TableauIllustrator extends JFrame {
 		illustrationScrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
 		illustrationScrollPane.getHorizontalScrollBar().setUnitIncrement(16);
 		illustrationScrollPane.setViewportView(illustrationPanel);
+
+		// Bande d'aperçu : résumé par blocs, zoom à la molette et déplacement à la souris
+		panelApercu = new PanelApercu();
+		panelApercu.setBorder(BorderFactory.createTitledBorder("Aperçu"));
+
+		// Vue mémoire : son modèle est tenu à jour même lorsque la fenêtre est fermée
+		panelTas = new PanelTas();
+	}
+
+	/**
+	 * Affiche ou masque la fenêtre de vue mémoire des références
+	 * @param visible true pour l'afficher
+	 */
+	private void basculerVueTas(boolean visible) {
+		if (dialogueTas == null) {
+			dialogueTas = new JDialog(this, "Vue mémoire : références et objets String", false);
+			JScrollPane defilement = new JScrollPane(panelTas);
+			defilement.getHorizontalScrollBar().setUnitIncrement(16);
+			defilement.getVerticalScrollBar().setUnitIncrement(16);
+			dialogueTas.add(defilement);
+			dialogueTas.setSize(800, 320);
+			dialogueTas.setLocationRelativeTo(this);
+			dialogueTas.addWindowListener(new WindowAdapter() {
+				@Override
+				public void windowClosing(WindowEvent e) {
+					vueTasMenuItem.setSelected(false);
+				}
+			});
+		}
+		dialogueTas.setVisible(visible);
+	}
+
+	/**
+	 * Affiche l'économie réalisée par le pool de chaînes sur le tableau String courant
+	 * Le tableau est parcouru par identité : sans pool, chaque case non nulle aurait sa propre
+	 * instance ; avec le pool, chaque instance distincte n'est comptée qu'une fois
+	 */
+	private void afficherStatistiquesMemoire() {
+		StringBuilder texte = new StringBuilder();
+		if (stockage != null && stockage.tableau instanceof String[]) {
+			String[] valeurs = (String[]) stockage.tableau;
+			Map<String, Boolean> instances = new java.util.IdentityHashMap<>();
+			long references = 0;
+			long sansPool = 0;
+			long avecPool = 0;
+			for (String valeur : valeurs) {
+				if (valeur == null) continue;
+				references++;
+				long octets = PoolChaines.tailleEstimee(valeur);
+				sansPool += octets;
+				if (instances.put(valeur, Boolean.TRUE) == null) avecPool += octets;
+			}
+			texte.append(String.format("%s[] : %d références non nulles vers %d objets String%n",
+					nomTextField.getText(), references, instances.size()));
+			texte.append(String.format("Sans pool : %,d octets   avec pool : %,d octets   économisés : %,d octets%n%n",
+					sansPool, avecPool, sansPool - avecPool));
+		} else {
+			texte.append("Le tableau courant n'est pas un tableau de String.\n\n");
+		}
+		texte.append(PoolChaines.COMMUN.bilan()).append('\n');
+		Runtime runtime = Runtime.getRuntime();
+		texte.append(String.format("Tas : %,d Ko utilisés sur %,d Ko",
+				(runtime.totalMemory() - runtime.freeMemory()) / 1024, runtime.totalMemory() / 1024));
+		JOptionPane.showMessageDialog(this, texte.toString(), "Statistiques mémoire", JOptionPane.INFORMATION_MESSAGE);
+	}
+
+	/**
+	 * Crée la barre de recherche de valeurs (valeur exacte ou intervalle "a..b" pour int/double)
+	 */
+	private JPanel creerPanelRecherche() {
+		JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
+		JLabel label = new JLabel("Chercher une valeur:");
+		rechercheTextField = new JTextField(12);
+		rechercheTextField.setFont(new Font("Monospaced", Font.PLAIN, 14));
+		rechercheTextField.setToolTipText("Valeur exacte, ou intervalle min..max pour int et double");
+		rechercheResultatLabel = new JLabel(" ");
+
+		JButton precedentButton = new JButton("◀");
+		JButton suivantButton = new JButton("▶");
+		precedentButton.addActionListener(e -> allerAuResultat(resultatCourant - 1));
+		suivantButton.addActionListener(e -> allerAuResultat(resultatCourant + 1));
+
+		rechercheTextField.getDocument().addDocumentListener(new SimpleDocumentListener(this::rafraichirRecherche));
+		rechercheTextField.addActionListener(e -> allerAuResultat(resultatCourant + 1));
+
+		panel.add(label);
+		panel.add(rechercheTextField);
+		panel.add(precedentButton);
+		panel.add(suivantButton);
+		panel.add(rechercheResultatLabel);
+		return panel;
 	}
 
 	/**
@@ -405,6 +790,7 @@ public class TableauIllustrator extends JFrame {
 			public void componentResized(ComponentEvent e) {
 				scrollPane1.revalidate();
 				scrollPane2.revalidate();
+				scrollPane3.revalidate();
 				illustrationScrollPane.revalidate();
 			}
 		});
@@ -433,20 +819,25 @@ public class TableauIllustrator extends JFrame {
 	 * Crée un champ de texte avec restrictions selon le type de données
 	 * @param text Le texte initial
 	 * @param columns Le nombre de colonnes
-	 * @param type Le type de données
+	 * @param type Le descripteur du type de données
 	 * @param index L'indice dans le tableau des champs
 	 * @return Un JTextField configuré
 	 */
-	private JTextField createTypeRestrictedTextField(String text, int columns, String type, int index) {
+	private JTextField createTypeRestrictedTextField(String text, int columns, DescripteurType type, int index) {
 		JTextField textField = new JTextField(text, columns);
 		textField.setFont(new Font("Monospaced", Font.PLAIN, 16));
 
 		// Ajout d'un écouteur pour réagir aux changements
 		textField.getDocument().addDocumentListener(new SimpleDocumentListener(() -> {
+			if (!updatingUI) {
+				enregistrerAction(GenreAction.VALEUR, index, textField.getText());
+				memoriserEdition(index, textField.getText());
+			}
+
 			if (!updatingUI && !enExecution && illustrationLabels != null && index < illustrationLabels.length) {
 				// Vérification de validité si en mode d'exécution avec filtres actifs
 				if (filtresActifs && enExecution) {
-					boolean valide = estValeurValide(textField.getText(), type);
+					boolean valide = type.diagnostiquer(textField.getText()) == null;
 					textField.setBackground(valide ? Color.WHITE : new Color(255, 200, 200));
 				}
 			}
@@ -458,23 +849,17 @@ public class TableauIllustrator extends JFrame {
 	/**
 	 * Crée un panneau contenant un champ de texte avec délimiteurs appropriés selon le type
 	 * @param valeurDefaut La valeur par défaut à afficher
-	 * @param type Le type de données (String, char, int, etc.)
+	 * @param type Le descripteur du type de données (String, char, int, etc.)
 	 * @param index L'indice dans le tableau des champs
 	 * @return Un JPanel contenant le champ
 	 */
-	private JPanel createTypeFieldPanel(String valeurDefaut, String type, int index) {
+	private JPanel createTypeFieldPanel(String valeurDefaut, DescripteurType type, int index) {
 	    JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
 	    panel.setBackground(null); // Hérite de la couleur du parent
 
 	    // Création du champ de texte avec la valeur par défaut
-	    // Si ce n'est pas la valeur par défaut, ajouter les délimiteurs à l'intérieur
-	    String displayValue = valeurDefaut;
-	    
-	    if (type.equals("String") && !valeurDefaut.equals("null")) {
-	        displayValue = "\"" + valeurDefaut + "\"";
-	    } else if (type.equals("char") && !valeurDefaut.equals("\\u0000")) {
-	        displayValue = "'" + valeurDefaut + "'";
-	    }
+	    // Si ce n'est pas la valeur par défaut, ajouter délimiteurs ou suffixe (L, f) du littéral
+	    String displayValue = type.litteral(valeurDefaut);
 
 	    // Création et ajout du champ de texte
 	    JTextField textField = createTypeRestrictedTextField(displayValue, 10, type, index);
@@ -486,18 +871,12 @@ public class TableauIllustrator extends JFrame {
 	
 	/**
 	 * Crée un filtre de document pour restreindre les entrées selon le type
-	 * @param type Le type de données (String, char, int, etc.)
+	 * Le filtre ne garde aucun état : une même instance peut servir à tous les champs
+	 * @param type Le descripteur du type de données (String, char, int, etc.)
 	 * @return Un DocumentFilter configuré
 	 */
-	private DocumentFilter createFilterForType(String type) {
+	private DocumentFilter createFilterForType(DescripteurType type) {
 	    return new DocumentFilter() {
-	        // Définition des modèles de validation selon le type
-	        private final Pattern intPattern = Pattern.compile("-?\\d*");
-	        private final Pattern doublePattern = Pattern.compile("-?\\d*\\.?\\d*");
-	        private final Pattern charPattern = Pattern.compile("'.'|\\\\u0000");  // 'c' ou \u0000
-	        private final Pattern booleanPattern = Pattern.compile("true|false|");
-	        private final Pattern stringPattern = Pattern.compile("\".*\"|null");  // "texte" ou null
-
 	        @Override
 	        public void insertString(FilterBypass fb, int offset, String string, AttributeSet attr) throws BadLocationException {
 	            if (isValidInput(fb, offset, string)) {
@@ -521,29 +900,7 @@ public class TableauIllustrator extends JFrame {
 	         */
 	        private boolean isValidInput(FilterBypass fb, int offset, String text) {
 	            try {
-	                String futureText = getFutureText(fb, offset, 0, text);
-
-	                switch (type) {
-	                case "int":
-	                    return intPattern.matcher(futureText).matches();
-	                case "double":
-	                    return doublePattern.matcher(futureText).matches();
-	                case "char":
-	                    // Autoriser soit '\u0000', soit un seul caractère entre apostrophes
-	                    if (futureText.equals("\\u0000")) return true;
-	                    return charPattern.matcher(futureText).matches() || 
-	                           (futureText.startsWith("'") && futureText.length() <= 3);
-	                case "boolean":
-	                    return booleanPattern.matcher(futureText).matches();
-	                case "String":
-	                    // Autoriser "null" ou du texte entre guillemets
-	                    if (futureText.equals("null")) return true;
-	                    return stringPattern.matcher(futureText).matches() || 
-	                           (futureText.startsWith("\"") && (futureText.length() == 1 || 
-	                            !futureText.substring(1).contains("\"")));
-	                default:
-	                    return true;
-	                }
+	                return type.accepteSaisie(getFutureText(fb, offset, 0, text));
 	            } catch (BadLocationException e) {
 	                return false;
 	            }
@@ -574,6 +931,8 @@ public class TableauIllustrator extends JFrame {
 	private void mettreAJourPanels() {
 		if (updatingUI) return;
 
+		EvenementReconstruction evenement = new EvenementReconstruction();
+		evenement.begin();
 		updatingUI = true;
 		try {
 			String type = (String) typeComboBox.getSelectedItem();
@@ -586,26 +945,53 @@ public class TableauIllustrator extends JFrame {
 			codeLignes = new ArrayList<>();
 
 			// Mettre à jour le panel selon la méthode choisie
+			EvenementPanneau evenementCode = new EvenementPanneau();
+			evenementCode.begin();
 			if (methodeChoisie == 1) {
 				updateMethode1Panel(type, nom, taille, valeurDefauts);
 				((CardLayout) codeMainPanel.getLayout()).show(codeMainPanel, "1");
-			} else {
+			} else if (methodeChoisie == 2) {
 				updateMethode2Panel(type, nom, taille, valeurDefauts);
 				((CardLayout) codeMainPanel.getLayout()).show(codeMainPanel, "2");
+			} else {
+				updateMethode3Panel(type, nom, taille);
+				((CardLayout) codeMainPanel.getLayout()).show(codeMainPanel, "3");
+			}
+			evenementCode.terminer("Code", type, taille, methodeChoisie);
+
+			// Reprendre les valeurs saisies (annulation, import...) plutôt que les exemples
+			if (valeursImposees != null) {
+				for (int i = 0; i < valeursFields.length && i < valeursImposees.length; i++) {
+					valeursFields[i].setText(valeursImposees[i]);
+				}
+				valeursImposees = null;
 			}
 
 			// Mettre à jour le panel d'illustration
+			EvenementPanneau evenementIllustration = new EvenementPanneau();
+			evenementIllustration.begin();
 			updateIllustrationPanel(type, nom, taille, valeurDefauts);
+			evenementIllustration.terminer("Illustration", type, taille, methodeChoisie);
+
+			// Reconstruire l'index de recherche sur les nouvelles cases (vides tant que non allouées)
+			reconstruireIndexValeurs();
+
+			// Informer les spectateurs de la nouvelle configuration
+			diffuserConfiguration();
 
 			// Mise à jour dynamique des scrollpanes
 			SwingUtilities.invokeLater(() -> {
 				scrollPane1.revalidate();
 				scrollPane2.revalidate();
+				scrollPane3.revalidate();
 				illustrationScrollPane.revalidate();
 			});
 		} finally {
 			updatingUI = false;
 		}
+		rafraichirRecherche();
+		memoriserEtat();
+		evenement.terminer((String) typeComboBox.getSelectedItem(), taille, methodeChoisie);
 	}
 	
 	/**
@@ -639,10 +1025,10 @@ public class TableauIllustrator extends JFrame {
 			ligne.add(createCodeLabel(nom + "[" + i + "] = "));
 
 			// Récupération d'une valeur par défaut si disponible
-			String valeurDefaut = (i < valeurDefauts.length) ? valeurDefauts[i] : getDefaultValue(type);
+			String valeurDefaut = (i < valeurDefauts.length) ? valeurDefauts[i] : descripteur.valeurDefaut;
 
 			// Création du champ de saisie avec délimiteurs en fonction du type
-			JPanel fieldPanel = createTypeFieldPanel(valeurDefaut, type, i);
+			JPanel fieldPanel = createTypeFieldPanel(valeurDefaut, descripteur, i);
 			ligne.add(fieldPanel);
 
 			ligne.add(createCodeLabel(";"));
@@ -676,10 +1062,10 @@ public class TableauIllustrator extends JFrame {
 		// Ajout des champs pour les valeurs du tableau
 		valeursFields = new JTextField[taille];
 		for (int i = 0; i < taille; i++) {
-			String valeurDefaut = (i < valeurDefauts.length) ? valeurDefauts[i] : getDefaultValue(type);
+			String valeurDefaut = (i < valeurDefauts.length) ? valeurDefauts[i] : descripteur.valeurDefaut;
 
 			// Création du champ de saisie avec délimiteurs en fonction du type
-			JPanel fieldPanel = createTypeFieldPanel(valeurDefaut, type, i);
+			JPanel fieldPanel = createTypeFieldPanel(valeurDefaut, descripteur, i);
 			ligne.add(fieldPanel);
 
 			// Ajout d'une virgule entre les valeurs (sauf la dernière)
@@ -697,6 +1083,52 @@ public class TableauIllustrator extends JFrame {
 		codePanel2.repaint();
 	}
 	
+	/**
+	 * Met à jour le panneau d'affichage pour la méthode 3 (allocation puis boucle for)
+	 * Les valeurs ne sont pas saisies case par case : elles sont calculées par l'expression
+	 * @param type Le type des éléments du tableau
+	 * @param nom Le nom du tableau
+	 * @param taille La taille du tableau
+	 */
+	private void updateMethode3Panel(String type, String nom, int taille) {
+		// Nettoyage des composants existants
+		codePanel3.removeAll();
+		codeLignes.clear();
+		valeursFields = new JTextField[0];
+
+		// Déclaration et allocation
+		JPanel ligne1 = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		ligne1.add(createCodeLabel(type + "[] " + nom + " = new " + type + "[" + taille + "];"));
+
+		// En-tête de la boucle
+		JPanel ligne2 = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		ligne2.add(createCodeLabel("for (int i = 0; i < " + nom + ".length; i++) {"));
+
+		// Corps de la boucle : affectation de l'expression
+		JPanel ligne3 = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		ligne3.add(createCodeLabel("    " + nom + "[i] = "));
+		ligne3.add(expressionTextField);
+		ligne3.add(createCodeLabel(";"));
+		compteurBoucleLabel.setText("");
+		ligne3.add(compteurBoucleLabel);
+
+		JPanel ligne4 = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		ligne4.add(createCodeLabel("}"));
+
+		for (JPanel ligne : new JPanel[]{ligne1, ligne2, ligne3, ligne4}) {
+			codePanel3.add(ligne);
+			codeLignes.add(ligne);
+		}
+
+		JPanel optionsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		optionsPanel.add(remplissageParalleleCheckBox);
+		codePanel3.add(optionsPanel);
+
+		// Mise à jour de l'affichage
+		codePanel3.revalidate();
+		codePanel3.repaint();
+	}
+
 	/**
 	 * Met à jour le panneau d'illustration avec les cases du tableau
 	 * @param type Le type des éléments du tableau
@@ -721,39 +1153,37 @@ public class TableauIllustrator extends JFrame {
 	    JPanel tableauPanel = new JPanel(new GridLayout(1, taille, 5, 0));
 	    tableauPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
 
-	    illustrationLabels = new JLabel[taille];
-	    illustrationCasePanels = new JPanel[taille];
+	    illustrationLabels = new EtiquetteValeur[taille];
+	    illustrationCasePanels = new CaseAnimee[taille];
+	    horlogeAnimation.annulerTransitions();
 
-	    // Valeur par défaut selon le type
-	    String valeurDefaut = getDefaultValue(type);
+	    // Valeur par défaut selon le type, et tableau primitif correspondant
+	    String valeurDefaut = descripteur.valeurDefaut;
+	    stockage = descripteur.creerStockage(taille);
+	    agregation.reinitialiser(taille, descripteur.enNombre(valeurDefaut));
+	    comptageValeurs.vider();
+	    mettreAJourStatistiques();
 
 	    // Création des cases du tableau
 	    for (int i = 0; i < taille; i++) {
 	        // Création du panneau pour la case
-	        JPanel casePanel = new JPanel(new BorderLayout());
+	        // (bordure, fonds et bandeau d'indice sont dessinés par une tuile mise en cache)
+	        CaseAnimee casePanel = new CaseAnimee(i);
 	        casePanel.setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
 	        casePanel.setBackground(Color.WHITE);
 	        casePanel.setVisible(false);  // Initialement invisible
 	        illustrationCasePanels[i] = casePanel;
 
-	        // Ajout de l'étiquette d'indice
-	        JLabel indexLabel = new JLabel("[" + i + "]", SwingConstants.CENTER);
-	        indexLabel.setFont(new Font("Monospaced", Font.BOLD, 12));
-
-	        // Création du label pour la valeur
+	        // Création du label pour la valeur (transparent : le fond vient de la tuile)
 	        JPanel valeurPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 0, 0));
-	        valeurPanel.setBackground(Color.WHITE);
+	        valeurPanel.setOpaque(false);
 
 	        // Création et ajout de l'étiquette pour la valeur (sans délimiteurs)
-	        illustrationLabels[i] = new JLabel(valeurDefaut, SwingConstants.CENTER);
+	        illustrationLabels[i] = new EtiquetteValeur(valeurDefaut);
 	        illustrationLabels[i].setFont(new Font("Monospaced", Font.PLAIN, 14));
 	        valeurPanel.add(illustrationLabels[i]);
 
-	        // Assemblage de la case
-	        JPanel indexPanel = new JPanel(new BorderLayout());
-	        indexPanel.add(indexLabel, BorderLayout.CENTER);
-
-	        casePanel.add(indexPanel, BorderLayout.NORTH);
+	        // Assemblage de la case (le bandeau d'indice est réservé par la case elle-même)
 	        casePanel.add(valeurPanel, BorderLayout.CENTER);
 
 	        tableauPanel.add(casePanel);
@@ -768,8 +1198,231 @@ public class TableauIllustrator extends JFrame {
 	    // Mise à jour de l'affichage
 	    illustrationPanel.revalidate();
 	    illustrationPanel.repaint();
+	    panelApercu.tailleChangee();
+	    panelTas.reinitialiser(taille, false);
+	}
+
+	/**
+	 * Affecte une valeur à une case de l'illustration et met à jour l'agrégation
+	 * Toute écriture dans une case doit passer par cette méthode
+	 * @param index L'indice de la case
+	 * @param valeurAffichage La valeur à afficher (sans délimiteurs)
+	 */
+	private void affecterCase(int index, String valeurAffichage) {
+		illustrationLabels[index].setText(valeurAffichage);
+		if (enExecution) {
+			horlogeAnimation.animer(illustrationLabels[index]);
+		}
+		if (compterDistinctes()) {
+			String ancienne = stockage.estDefaut(index) ? null : stockage.lire(index);
+			stockage.affecter(index, valeurAffichage);
+			comptageValeurs.remplacer(ancienne, stockage.estDefaut(index) ? null : stockage.lire(index));
+		} else {
+			stockage.affecter(index, valeurAffichage);
+		}
+		agregation.modifier(index, stockage.nombre(index), !stockage.estDefaut(index));
+		indexValeurs.modifier(index, stockage.lire(index));
+		rafraichirRecherche();
+		mettreAJourStatistiques();
+		panelApercu.repaint();
+		if (stockage.tableau instanceof String[]) {
+			panelTas.affecter(index, ((String[]) stockage.tableau)[index]);
+		}
+		if (serveurDiffusion != null) {
+			serveurDiffusion.publier(EvenementDiffusion.affectation(index, valeurAffichage));
+		}
+	}
+
+	/**
+	 * Rend une case visible (tableau alloué) avec un fondu d'apparition
+	 * @param index L'indice de la case
+	 */
+	private void afficherCase(int index) {
+		CaseAnimee casePanel = illustrationCasePanels[index];
+		if (!casePanel.isVisible()) {
+			casePanel.setVisible(true);
+			horlogeAnimation.animer(casePanel);
+			mettreAJourStatistiques();
+		}
+	}
+
+	/**
+	 * Remet toutes les cases de l'illustration à la valeur par défaut du type
+	 */
+	private void reinitialiserCases() {
+		String valeurDefaut = descripteur.valeurDefaut;
+		for (int i = 0; i < illustrationLabels.length; i++) {
+			if (illustrationLabels[i] != null) {
+				illustrationLabels[i].setText(valeurDefaut);
+			}
+		}
+		stockage = descripteur.creerStockage(illustrationLabels.length);
+		agregation.reinitialiser(illustrationLabels.length, descripteur.enNombre(valeurDefaut));
+		comptageValeurs.vider();
+		reconstruireIndexValeurs();
+		rafraichirRecherche();
+		mettreAJourStatistiques();
+		panelApercu.repaint();
+		panelTas.reinitialiser(illustrationLabels.length,
+				illustrationCasePanels.length > 0 && illustrationCasePanels[0].isVisible());
+		if (serveurDiffusion != null) {
+			serveurDiffusion.publier(EvenementDiffusion.reinitialisation(valeurDefaut,
+					illustrationCasePanels.length > 0 && illustrationCasePanels[0].isVisible()));
+		}
+	}
+
+	/**
+	 * Indique si la barre de statistiques compte les valeurs distinctes (char et String)
+	 */
+	private boolean compterDistinctes() {
+		return stockage.tableau instanceof char[] || stockage.tableau instanceof String[];
+	}
+
+	/**
+	 * Recompte les valeurs distinctes après une écriture directe dans le tableau primitif
+	 * (System.arraycopy, changement d'objet tableau)
+	 */
+	private void recompterValeurs() {
+		comptageValeurs.vider();
+		if (compterDistinctes()) {
+			for (int i = 0; i < stockage.taille; i++) {
+				if (!stockage.estDefaut(i)) comptageValeurs.remplacer(null, stockage.lire(i));
+			}
+		}
+		mettreAJourStatistiques();
+	}
+
+	/**
+	 * Demande la mise à jour de la barre de statistiques ; les écritures d'une même
+	 * rafale (exécution, copie) sont regroupées en un seul rafraîchissement
+	 */
+	private void mettreAJourStatistiques() {
+		if (statistiquesEnAttente || statistiquesLabel == null) return;
+		statistiquesEnAttente = true;
+		SwingUtilities.invokeLater(this::afficherStatistiques);
+	}
+
+	/**
+	 * Écrit la barre de statistiques à partir de la racine de l'arbre d'agrégation (O(log n))
+	 */
+	private void afficherStatistiques() {
+		statistiquesEnAttente = false;
+		int n = agregation.taille();
+		if (illustrationCasePanels.length == 0 || !illustrationCasePanels[0].isVisible()) {
+			statistiquesLabel.setText(nomTextField.getText() + " : non alloué (null)");
+			return;
+		}
+		agregation.requete(0, n, resumeStatistiques);
+		StringBuilder texte = new StringBuilder(String.format("%d / %d valeurs non par défaut",
+				resumeStatistiques.nonDefaut, n));
+		if (stockage.tableau instanceof boolean[]) {
+			texte.append(String.format("   true : %d", resumeStatistiques.nonDefaut));
+		} else if (compterDistinctes()) {
+			texte.append(String.format("   distinctes : %d", comptageValeurs.distinctes()));
+		} else if (resumeStatistiques.estNumerique()) {
+			texte.append("   somme : ").append(formaterStatistique(resumeStatistiques.somme))
+					.append("   min : ").append(formaterStatistique(resumeStatistiques.min))
+					.append("   max : ").append(formaterStatistique(resumeStatistiques.max))
+					.append(String.format("   moyenne : %.4g", resumeStatistiques.somme / n));
+		}
+		statistiquesLabel.setText(texte.toString());
+	}
+
+	private static String formaterStatistique(double valeur) {
+		return valeur == Math.rint(valeur) && Math.abs(valeur) < 1e15
+				? String.valueOf((long) valeur) : String.format("%.6g", valeur);
 	}
 	
+	/**
+	 * Reconstruit entièrement l'index de recherche à partir des valeurs stockées dans les cases
+	 * Un tableau seulement déclaré n'a aucune valeur : l'index reste vide jusqu'à l'allocation.
+	 * Ensuite, chaque écriture (affecterCase) le tient à jour.
+	 */
+	private void reconstruireIndexValeurs() {
+		String[] valeurs = new String[illustrationCasePanels.length];
+		if (illustrationCasePanels.length > 0 && illustrationCasePanels[0].isVisible()) {
+			for (int i = 0; i < stockage.taille && i < valeurs.length; i++) {
+				valeurs[i] = stockage.lire(i);
+			}
+		}
+		indexValeurs.reconstruire(valeurs, descripteur.numerique);
+		resultatsRecherche = new int[0];
+	}
+
+	/**
+	 * Relance la recherche courante et met à jour la mise en évidence des résultats
+	 */
+	private void rafraichirRecherche() {
+		if (rechercheTextField == null || updatingUI) return;
+
+		// Retirer l'ancienne mise en évidence
+		for (int index : resultatsRecherche) {
+			mettreEnEvidence(index, false, false);
+		}
+
+		String requete = rechercheTextField.getText().trim();
+		if (requete.isEmpty()) {
+			resultatsRecherche = new int[0];
+			resultatCourant = -1;
+			rechercheResultatLabel.setText(" ");
+			return;
+		}
+
+		int ancienIndex = (resultatCourant >= 0 && resultatCourant < resultatsRecherche.length)
+				? resultatsRecherche[resultatCourant] : -1;
+		resultatsRecherche = indexValeurs.rechercher(descripteur.valeurAffichee(requete));
+
+		// Conserver la position courante si elle fait toujours partie des résultats
+		resultatCourant = ancienIndex >= 0 ? java.util.Arrays.binarySearch(resultatsRecherche, ancienIndex) : -1;
+		if (resultatCourant < 0) resultatCourant = -1;
+
+		for (int index : resultatsRecherche) {
+			mettreEnEvidence(index, true, false);
+		}
+		if (resultatCourant >= 0) {
+			mettreEnEvidence(resultatsRecherche[resultatCourant], true, true);
+		}
+		rechercheResultatLabel.setText(resultatsRecherche.length + " résultat(s)");
+	}
+
+	/**
+	 * Se déplace vers un résultat de recherche (dans le code et dans l'illustration)
+	 * @param position La position dans la liste des résultats (circulaire)
+	 */
+	private void allerAuResultat(int position) {
+		if (resultatsRecherche.length == 0) return;
+		if (resultatCourant >= 0) {
+			mettreEnEvidence(resultatsRecherche[resultatCourant], true, false);
+		}
+		resultatCourant = Math.floorMod(position, resultatsRecherche.length);
+		int index = resultatsRecherche[resultatCourant];
+		mettreEnEvidence(index, true, true);
+		rechercheResultatLabel.setText((resultatCourant + 1) + "/" + resultatsRecherche.length + " : [" + index + "]");
+
+		JTextField champ = valeursFields[index];
+		champ.scrollRectToVisible(new Rectangle(0, 0, champ.getWidth(), champ.getHeight()));
+		JPanel casePanel = illustrationCasePanels[index];
+		casePanel.scrollRectToVisible(new Rectangle(0, 0, casePanel.getWidth(), casePanel.getHeight()));
+	}
+
+	/**
+	 * Met en évidence (ou non) un indice dans le champ de saisie et dans la case de l'illustration
+	 * @param index L'indice concerné
+	 * @param trouve true si l'indice fait partie des résultats
+	 * @param courant true si c'est le résultat courant
+	 */
+	private void mettreEnEvidence(int index, boolean trouve, boolean courant) {
+		if (index >= valeursFields.length || index >= illustrationCasePanels.length) return;
+		Color couleur = courant ? new Color(230, 90, 0) : new Color(255, 170, 0);
+		if (trouve) {
+			valeursFields[index].setBorder(BorderFactory.createLineBorder(couleur, 2));
+			illustrationCasePanels[index].setBorder(BorderFactory.createLineBorder(couleur, courant ? 4 : 3));
+		} else {
+			valeursFields[index].setBorder(UIManager.getBorder("TextField.border"));
+			illustrationCasePanels[index].setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
+		}
+	}
+
 	/**
 	 * Rafraîchit les composants principaux de l'interface
 	 */
@@ -809,6 +1462,8 @@ public class TableauIllustrator extends JFrame {
 	    tailleSpinner.setEnabled(false);
 	    methode1Radio.setEnabled(false);
 	    methode2Radio.setEnabled(false);
+	    methode3Radio.setEnabled(false);
+	    expressionTextField.setEnabled(false);
 
 	    // Réinitialiser l'état
 	    currentLineIndex = -1;
@@ -819,27 +1474,27 @@ public class TableauIllustrator extends JFrame {
 	    }
 
 	    // Réinitialiser l'illustration - mettre la valeur par défaut dans chaque case
-	    String type = (String) typeComboBox.getSelectedItem();
-	    String valeurDefaut = getDefaultValue(type);
 	    for (int i = 0; i < taille; i++) {
 	        illustrationCasePanels[i].setBackground(Color.WHITE);
-	        illustrationLabels[i].setText(valeurDefaut);
 	        illustrationCasePanels[i].setVisible(false);
 	    }
+	    reinitialiserCases();
 	}
 	
 	/**
 	 * Exécute toutes les lignes de code automatiquement
 	 */
 	private void executerTout() {
+		enregistrerAction(GenreAction.EXECUTER, 0, null);
 		preparerExecution();
-		executionTimer.start();
+		horlogeAnimation.demarrerEtapes();
 	}
 	
 	/**
 	 * Exécute une seule ligne de code
 	 */
 	private void executerLigne() {
+		enregistrerAction(GenreAction.LIGNE, 0, null);
 		if (!enExecution) {
 			preparerExecution();
 		}
@@ -847,20 +1502,50 @@ public class TableauIllustrator extends JFrame {
 	}
 
 	/**
-	 * Exécute la ligne suivante dans l'animation
+	 * Arrête l'exécution à la demande de l'utilisateur (bouton Stop)
+	 */
+	private void stopperExecution() {
+		enregistrerAction(GenreAction.STOP, 0, null);
+		reinitialiserExecution();
+	}
+
+	/**
+	 * Exécute la ligne suivante dans l'animation (mesurée pendant un rejeu)
 	 */
 	private void executerLigneSuivante() {
+		EvenementEtape evenement = new EvenementEtape();
+		evenement.begin();
+		long debut = System.nanoTime();
+		try {
+			avancerExecution();
+		} finally {
+			if (mesuresRejeu != null) {
+				mesuresRejeu.ajouter("ÉTAPE", System.nanoTime() - debut);
+			}
+			evenement.ligne = currentLineIndex;
+			evenement.terminer((String) typeComboBox.getSelectedItem(), taille, methodeChoisie);
+		}
+	}
+
+	/**
+	 * Passe à la ligne suivante et l'exécute
+	 */
+	private void avancerExecution() {
 		currentLineIndex++;
 
 		// Vérifier si on a terminé l'exécution
-		if (currentLineIndex >= codeLignes.size()) {
+		if (currentLineIndex >= nombreEtapes()) {
 			arreterExecution();
 			return;
 		}
 
 		// Mettre en évidence la ligne en cours d'exécution
+		int ligneCourante = ligneDeLEtape(currentLineIndex);
 		for (int i = 0; i < codeLignes.size(); i++) {
-			codeLignes.get(i).setBackground(i == currentLineIndex ? new Color(255, 255, 200) : null);
+			codeLignes.get(i).setBackground(i == ligneCourante ? new Color(255, 255, 200) : null);
+		}
+		if (serveurDiffusion != null) {
+			serveurDiffusion.publier(EvenementDiffusion.ligne(ligneCourante));
 		}
 
 		// Activer les filtres de validation pendant l'exécution
@@ -872,16 +1557,36 @@ public class TableauIllustrator extends JFrame {
 		// Logique d'exécution différente selon la méthode choisie
 		if (methodeChoisie == 2) {
 			executerLigneMethode2();
+		} else if (methodeChoisie == 3) {
+			executerLigneMethode3();
 		} else {
 			executerLigneMethode1();
 		}
 
 		// Faire défiler le scroll pour voir la ligne en cours
-		if (methodeChoisie == 1) {
-			Rectangle bounds = codeLignes.get(currentLineIndex).getBounds();
-			scrollPane1.getViewport().scrollRectToVisible(bounds);
+		if (methodeChoisie != 2 && currentLineIndex >= 0) {
+			Rectangle bounds = codeLignes.get(ligneDeLEtape(currentLineIndex)).getBounds();
+			(methodeChoisie == 1 ? scrollPane1 : scrollPane3).getViewport().scrollRectToVisible(bounds);
 		}
 	}
+
+	/**
+	 * Nombre d'étapes d'exécution : une par ligne, sauf pour la boucle de la méthode 3
+	 * (déclaration, en-tête, une itération par case, sortie de boucle)
+	 */
+	private int nombreEtapes() {
+		return methodeChoisie == 3 ? taille + 3 : codeLignes.size();
+	}
+
+	/**
+	 * Ligne de code correspondant à une étape d'exécution
+	 * @param etape L'indice de l'étape
+	 * @return L'indice de la ligne dans codeLignes
+	 */
+	private int ligneDeLEtape(int etape) {
+		if (methodeChoisie != 3 || etape < 2) return etape;
+		return etape < taille + 2 ? 2 : 3;
+	}
 	
 	/**
 	 * Exécute une ligne pour la méthode 1 (déclaration + allocation + affectation)
@@ -891,11 +1596,10 @@ public class TableauIllustrator extends JFrame {
 	    if (currentLineIndex == 0) {
 	        // Rendre toutes les cases visibles avec leur valeur par défaut (tableau déclaré et initialisé)
 	        for (int i = 0; i < taille; i++) {
-	            illustrationCasePanels[i].setVisible(true);
-	            // Afficher la valeur par défaut du type sans délimiteurs
-	            String valeurDefaut = getDefaultValue((String) typeComboBox.getSelectedItem());
-	            illustrationLabels[i].setText(valeurDefaut);
+	            afficherCase(i);
 	        }
+	        // Afficher la valeur par défaut du type sans délimiteurs
+	        reinitialiserCases();
 	    } 
 	    // Pour les lignes d'affectation
 	    else if (currentLineIndex > 0) {
@@ -903,20 +1607,20 @@ public class TableauIllustrator extends JFrame {
 	        if (indexTableau < taille) {
 	            // Vérifier si la valeur est valide
 	            String valeur = valeursFields[indexTableau].getText();
-	            String type = (String) typeComboBox.getSelectedItem();
 
-	            if (!estValeurValide(valeur, type)) {
+	            String raison = diagnostiquerValeur(valeur, descripteur);
+	            if (raison != null) {
 	                // Marquer le champ et la ligne en rouge en cas d'erreur
 	                valeursFields[indexTableau].setBackground(new Color(255, 200, 200));
 	                codeLignes.get(currentLineIndex).setBackground(new Color(255, 200, 200));
 	                
 	                // Ajouter un message d'erreur
-	                afficherMessageErreur("Erreur : vérifier le format");
+	                afficherMessageErreur("Erreur : " + raison);
 	                
 	                // Rester sur cette ligne jusqu'à correction
 	                currentLineIndex--;
-	                if (executionTimer.isRunning()) {
-	                    executionTimer.stop();
+	                if (horlogeAnimation.etapesEnCours()) {
+	                    horlogeAnimation.arreterEtapes();
 	                }
 	            } else {
 	                // Réinitialiser la couleur du champ et mettre à jour la case
@@ -925,8 +1629,8 @@ public class TableauIllustrator extends JFrame {
 	                    illustrationCasePanels[indexTableau].setBackground(new Color(200, 255, 200));
 	                    
 	                    // Extraire la valeur sans délimiteurs pour l'affichage
-	                    String valeurAffichage = extraireValeurSansDelimiteurs(valeur, type);
-	                    illustrationLabels[indexTableau].setText(valeurAffichage);
+	                    String valeurAffichage = descripteur.valeurAffichee(valeur);
+	                    affecterCase(indexTableau, valeurAffichage);
 	                }
 	            }
 	        }
@@ -938,59 +1642,107 @@ public class TableauIllustrator extends JFrame {
 	 */
 	private void executerLigneMethode2() {
 	    if (currentLineIndex == 0) {
-	        // Vérifier que toutes les valeurs sont valides
-	        boolean toutesValides = true;
-	        int premierIndexInvalide = -1;
+	        // Vérifier toutes les valeurs d'un coup (par blocs en parallèle pour les grands tableaux)
+	        String[] textes = new String[taille];
 	        for (int i = 0; i < taille; i++) {
-	            if (!estValeurValide(valeursFields[i].getText(), (String) typeComboBox.getSelectedItem())) {
-	                toutesValides = false;
-	                // Surligner en rouge le champ invalide
-	                valeursFields[i].setBackground(new Color(255, 200, 200));
-	                if (premierIndexInvalide == -1) {
-	                    premierIndexInvalide = i;
-	                }
-	            } else {
-	                valeursFields[i].setBackground(Color.WHITE);
-	            }
+	            textes[i] = valeursFields[i].getText();
+	        }
+	        List<ErreurValidation> erreurs = validerValeurs(textes, (String) typeComboBox.getSelectedItem());
+	        boolean toutesValides = erreurs.isEmpty();
+
+	        // Surligner en rouge les champs invalides
+	        for (int i = 0; i < taille; i++) {
+	            valeursFields[i].setBackground(Color.WHITE);
+	        }
+	        for (ErreurValidation erreur : erreurs) {
+	            valeursFields[erreur.index].setBackground(new Color(255, 200, 200));
 	        }
 
 	        // Si toutes les valeurs sont valides, mettre à jour l'illustration
 	        if (toutesValides) {
+	            if (dialogueErreurs != null) {
+	                dialogueErreurs.setVisible(false);
+	            }
+
+	            // Rendre toutes les cases visibles (tableau alloué)
+	            for (int i = 0; i < taille; i++) {
+	                afficherCase(i);
+	            }
+	            reinitialiserCases();
+
 	            // Mise à jour de toutes les cases en une seule fois
 	            for (int i = 0; i < taille; i++) {
-	                // Rendre la case visible et mettre à jour son contenu
-	                illustrationCasePanels[i].setVisible(true);
+	                // Mettre à jour le contenu de la case
 	                illustrationCasePanels[i].setBackground(new Color(200, 255, 200));
 	                
 	                String valeur = valeursFields[i].getText();
-	                String type = (String) typeComboBox.getSelectedItem();
 	                
 	                // Extraire la valeur sans délimiteurs pour l'affichage
-	                String valeurAffichage = extraireValeurSansDelimiteurs(valeur, type);
-	                illustrationLabels[i].setText(valeurAffichage);
+	                String valeurAffichage = descripteur.valeurAffichee(valeur);
+	                affecterCase(i, valeurAffichage);
 	            }
 	        } else {
 	            // Marquer la ligne en rouge pour indiquer une erreur
 	            codeLignes.get(currentLineIndex).setBackground(new Color(255, 200, 200));
 	            
-	            // Ajouter un message d'erreur
-	            afficherMessageErreur("Erreur : vérifier le format");
+	            // Lister toutes les erreurs
+	            afficherErreursValidation(erreurs);
 	            
 	            // Rester sur cette ligne jusqu'à correction
 	            currentLineIndex--;
-	            if (executionTimer.isRunning()) {
-	                executionTimer.stop();
+	            if (horlogeAnimation.etapesEnCours()) {
+	                horlogeAnimation.arreterEtapes();
 	            }
 	        }
 	    }
 	}
 	
+	/**
+	 * Exécute une étape pour la méthode 3 (boucle for)
+	 * L'expression est compilée une seule fois à l'entrée dans la boucle et toutes les
+	 * valeurs sont calculées (en parallèle si demandé) ; chaque itération affiche ensuite une case
+	 */
+	private void executerLigneMethode3() {
+		String type = (String) typeComboBox.getSelectedItem();
+		if (currentLineIndex == 0) {
+			// Allocation : toutes les cases prennent la valeur par défaut
+			for (int i = 0; i < taille; i++) {
+				afficherCase(i);
+			}
+			reinitialiserCases();
+		} else if (currentLineIndex == 1) {
+			try {
+				ExpressionCompilee expression = ExpressionCompilee.compiler(
+						expressionTextField.getText(), nomTextField.getText(), taille, type);
+				valeursMethode3 = expression.remplir(taille, remplissageParalleleCheckBox.isSelected());
+				expressionTextField.setBackground(Color.WHITE);
+			} catch (IllegalArgumentException | ArithmeticException e) {
+				expressionTextField.setBackground(new Color(255, 200, 200));
+				codeLignes.get(2).setBackground(new Color(255, 200, 200));
+				afficherMessageErreur("Erreur : " + (e instanceof ArithmeticException ? "division par zéro" : e.getMessage()));
+
+				// Rester sur cette ligne jusqu'à correction
+				currentLineIndex--;
+				if (horlogeAnimation.etapesEnCours()) {
+					horlogeAnimation.arreterEtapes();
+				}
+			}
+		} else if (currentLineIndex < taille + 2) {
+			int i = currentLineIndex - 2;
+			compteurBoucleLabel.setText("   // i = " + i);
+			illustrationCasePanels[i].setBackground(new Color(200, 255, 200));
+			affecterCase(i, valeursMethode3[i]);
+		} else {
+			compteurBoucleLabel.setText("   // i = " + taille + " : sortie de boucle");
+		}
+	}
+
 	/**
 	 * Arrête l'exécution animée et restaure l'interface
 	 */
 	private void arreterExecution() {
 		enExecution = false;
-		executionTimer.stop();
+		horlogeAnimation.arreterEtapes();
 
 		// Réactiver les contrôles
 		executerButton.setEnabled(true);
@@ -1000,6 +1752,8 @@ public class TableauIllustrator extends JFrame {
 		tailleSpinner.setEnabled(true);
 		methode1Radio.setEnabled(true);
 		methode2Radio.setEnabled(true);
+		methode3Radio.setEnabled(true);
+		expressionTextField.setEnabled(true);
 
 		// Désactiver les filtres de validation
 		filtresActifs = false;
@@ -1016,6 +1770,9 @@ public class TableauIllustrator extends JFrame {
 
 	    // Réinitialiser l'index et l'apparence des lignes de code
 	    currentLineIndex = -1;
+	    if (serveurDiffusion != null) {
+	        serveurDiffusion.publier(EvenementDiffusion.ligne(-1));
+	    }
 	    if (codeLignes != null) {
 	        for (JPanel ligne : codeLignes) {
 	            ligne.setBackground(null);
@@ -1028,17 +1785,13 @@ public class TableauIllustrator extends JFrame {
 
 	    // Réinitialiser les cases dans l'illustration
 	    if (illustrationCasePanels != null) {
-	        String type = (String) typeComboBox.getSelectedItem();
-	        String valeurDefaut = getDefaultValue(type);
 	        for (int i = 0; i < illustrationCasePanels.length; i++) {
 	            if (illustrationCasePanels[i] != null) {
 	                illustrationCasePanels[i].setBackground(Color.WHITE);
 	                illustrationCasePanels[i].setVisible(false);
 	            }
-	            if (illustrationLabels[i] != null) {
-	                illustrationLabels[i].setText(valeurDefaut);
-	            }
 	        }
+	        reinitialiserCases();
 	    }
 
 	    // Réinitialiser la couleur des champs de saisie
@@ -1060,121 +1813,8293 @@ public class TableauIllustrator extends JFrame {
 
 ////////////////////////////////////////////////////////////////////////////////////////////////
 	/**
-	 * VALIDATION ET GESTION DES ERREURS
-	 * Méthodes pour valider les entrées utilisateur, afficher les erreurs
-	 * et gérer les restrictions de saisie.
+	 * ANNULATION ET RÉTABLISSEMENT
+	 * Historique illimité des valeurs, tailles et types. Chaque état est un vecteur
+	 * persistant : une modification de case ne copie que le chemin vers cette case.
 	 */
 ////////////////////////////////////////////////////////////////////////////////////////////////
-	
-	/**
-	 * Vérifie si une valeur est valide pour un type donné
-	 * @param valeur La valeur à vérifier
-	 * @param type Le type souhaité
-	 * @return true si la valeur est valide pour ce type
-	 */
-	private boolean estValeurValide(String valeur, String type) {
-	    if (valeur == null) return false;
-
-	    switch (type) {
-	    case "int":
-	        return valeur.matches("-?\\d+");
-	    case "double":
-	        return valeur.matches("-?\\d*\\.?\\d*") && !valeur.equals(".");
-	    case "char":
-	        // Accepte 'c' ou \u0000
-	        return (valeur.matches("'.'") && valeur.length() == 3) || valeur.equals("\\u0000");
-	    case "boolean":
-	        return valeur.equals("true") || valeur.equals("false");
-	    case "String":
-	        // Accepte "texte" ou null
-	        return (valeur.startsWith("\"") && valeur.endsWith("\"")) || valeur.equals("null");
-	    default:
-	        return true;
-	    }
-	}
 
 	/**
-	 * Active les filtres de validation des champs selon le type sélectionné
+	 * Mémorise l'état après une reconstruction des panels (changement de type, de taille, de méthode...)
+	 * Le nouvel état n'est empilé que s'il diffère de l'état courant
 	 */
-	private void activerFiltresType() {
-		String type = (String) typeComboBox.getSelectedItem();
-		for (int i = 0; i < valeursFields.length; i++) {
-			// Supprimer l'ancien filtre s'il existe et ajouter le nouveau
-			AbstractDocument doc = (AbstractDocument) valeursFields[i].getDocument();
-			doc.setDocumentFilter(createFilterForType(type));
+	private void memoriserEtat() {
+		if (restaurationEnCours) return;
+
+		String[] valeurs = new String[valeursFields.length];
+		for (int i = 0; i < valeurs.length; i++) {
+			valeurs[i] = valeursFields[i].getText();
+		}
+		EtatTableau etat = new EtatTableau((String) typeComboBox.getSelectedItem(), methodeChoisie, taille,
+				VecteurPersistant.de(valeurs));
+		if (etatCourant != null && !etat.estIdentique(etatCourant)) {
+			annulations.push(etatCourant);
+			retablissements.clear();
 		}
+		etatCourant = etat;
+		dernierIndexEdite = -1;
+		mettreAJourActionsAnnulation();
 	}
 
 	/**
-	 * Désactive les filtres de validation des champs
+	 * Mémorise la modification d'une case en O(log n)
+	 * Les frappes successives dans un même champ sont regroupées en une seule étape d'annulation
+	 * @param index L'indice du champ modifié
+	 * @param texte Le nouveau texte du champ
 	 */
-	private void desactiverFiltresType() {
-		for (int i = 0; i < valeursFields.length; i++) {
-			AbstractDocument doc = (AbstractDocument) valeursFields[i].getDocument();
-			doc.setDocumentFilter(null);
+	private void memoriserEdition(int index, String texte) {
+		if (restaurationEnCours || etatCourant == null || index >= etatCourant.valeurs.taille()) return;
+
+		long maintenant = System.currentTimeMillis();
+		boolean regrouper = index == dernierIndexEdite && maintenant - dernierInstantEdition < 1000;
+		if (!regrouper) {
+			annulations.push(etatCourant);
 		}
+		retablissements.clear();
+		etatCourant = etatCourant.avecValeur(index, texte);
+		dernierIndexEdite = index;
+		dernierInstantEdition = maintenant;
+		mettreAJourActionsAnnulation();
 	}
-	
+
 	/**
-	 * Affiche un message d'erreur dans une boîte de dialogue
-	 * @param message Le message d'erreur à afficher
+	 * Annule la dernière modification
 	 */
-	private void afficherMessageErreur(String message) {
-	    JOptionPane.showMessageDialog(
-	        this,
-	        message,
-	        "Erreur de format",
-	        JOptionPane.ERROR_MESSAGE
-	    );
+	private void annuler() {
+		if (annulations.isEmpty()) return;
+		retablissements.push(etatCourant);
+		restaurerEtat(annulations.pop());
 	}
-	
-////////////////////////////////////////////////////////////////////////////////////////////////
-	/**
-	 * UTILITAIRES DE TRAITEMENT DES DONNÉES
-	 * Fonctions auxiliaires pour la manipulation et la conversion des données.
-	 */
-////////////////////////////////////////////////////////////////////////////////////////////////
 
 	/**
-	 * Renvoie une valeur par défaut selon le type (valeur Java réelle)
-	 * @param type Le type de données
-	 * @return Une valeur par défaut appropriée
+	 * Rétablit la dernière modification annulée
 	 */
-	private String getDefaultValue(String type) {
-	    switch (type) {
-	    case "int": return "0";
-	    case "double": return "0.0";
-	    case "String": return "null";  // Valeur par défaut réelle pour un String
-	    case "char": return "\\u0000";  // Caractère nul Unicode
-	    case "boolean": return "false";
-	    default: return "";
-	    }
-	}
-	
-	/**
-	 * Extrait la valeur sans délimiteurs (guillemets/apostrophes) pour l'affichage
-	 * @param valeur La valeur avec potentiellement des délimiteurs
-	 * @param type Le type de la valeur
-	 * @return La valeur sans délimiteurs
-	 */
-	private String extraireValeurSansDelimiteurs(String valeur, String type) {
-	    if (valeur == null || valeur.isEmpty()) return valeur;
-	    
-	    if (type.equals("String") && valeur.startsWith("\"") && valeur.endsWith("\"") && valeur.length() >= 2) {
-	        return valeur.substring(1, valeur.length() - 1);
-	    } else if (type.equals("char") && valeur.startsWith("'") && valeur.endsWith("'") && valeur.length() >= 3) {
-	        return valeur.substring(1, valeur.length() - 1);
-	    }
-	    
-	    return valeur;
+	private void retablir() {
+		if (retablissements.isEmpty()) return;
+		annulations.push(etatCourant);
+		restaurerEtat(retablissements.pop());
 	}
 
-////////////////////////////////////////////////////////////////////////////////////////////////
 	/**
-	 * CLASSES INTERNES ET INTERFACES
-	 * Définition des classes internes et interfaces utilisées par l'application.
+	 * Restaure un état mémorisé
+	 * Si seules des valeurs diffèrent, seuls les champs concernés sont modifiés (sans reconstruction)
+	 * @param etat L'état à restaurer
 	 */
-////////////////////////////////////////////////////////////////////////////////////////////////
+	private void restaurerEtat(EtatTableau etat) {
+		restaurationEnCours = true;
+		try {
+			boolean memeStructure = etat.type.equals(etatCourant.type) && etat.methode == etatCourant.methode
+					&& etat.taille == taille && etat.valeurs.taille() == valeursFields.length;
+			if (memeStructure) {
+				// Parcours des seuls sous-arbres modifiés
+				etat.valeurs.differences(etatCourant.valeurs, i -> valeursFields[i].setText(etat.valeurs.get(i)));
+			} else {
+				reinitialiserExecution();
+				updatingUI = true;
+				try {
+					typeComboBox.setSelectedItem(etat.type);
+					tailleSpinner.setValue(etat.taille);
+					boutonMethode(etat.methode).setSelected(true);
+					methodeChoisie = etat.methode;
+				} finally {
+					updatingUI = false;
+				}
+				valeursImposees = etat.valeurs.versTableau();
+				mettreAJourPanels();
+			}
+			etatCourant = etat;
+			dernierIndexEdite = -1;
+		} finally {
+			restaurationEnCours = false;
+		}
+		mettreAJourActionsAnnulation();
+	}
+
+	/**
+	 * Active ou désactive les entrées Annuler/Rétablir selon l'historique
+	 */
+	private void mettreAJourActionsAnnulation() {
+		if (annulerMenuItem != null) {
+			annulerMenuItem.setEnabled(!annulations.isEmpty());
+			retablirMenuItem.setEnabled(!retablissements.isEmpty());
+		}
+	}
+
+////////////////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * ESPACE DE TRAVAIL À PLUSIEURS TABLEAUX
+	 * Un onglet par tableau nommé. Les composants (champs, cases, code) n'existent que pour
+	 * l'onglet actif : changer d'onglet range le modèle de l'onglet quitté et reconstruit
+	 * l'interface depuis celui de l'onglet choisi.
+	 */
+////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Crée la barre d'onglets avec un premier onglet pour le tableau courant
+	 */
+	private JTabbedPane creerBarreOnglets() {
+		barreOnglets = new JTabbedPane(JTabbedPane.TOP, JTabbedPane.SCROLL_TAB_LAYOUT);
+		ongletActif = new OngletTableau(nomTableau);
+		onglets.add(ongletActif);
+		barreOnglets.addTab(ongletActif.nom, Box.createRigidArea(new Dimension(0, 0)));
+		barreOnglets.addChangeListener(e -> {
+			if (changementOnglet) return;
+			int index = barreOnglets.getSelectedIndex();
+			if (index >= 0 && onglets.get(index) != ongletActif) {
+				if (enExecution || mesuresRejeu != null) {
+					selectionnerOnglet(ongletActif);
+				} else {
+					activerOnglet(onglets.get(index));
+				}
+			}
+		});
+
+		// Le titre de l'onglet actif suit le nom du tableau
+		nomTextField.getDocument().addDocumentListener(new SimpleDocumentListener(() -> {
+			if (ongletActif != null && !changementOnglet) {
+				ongletActif.nom = nomTextField.getText();
+				barreOnglets.setTitleAt(onglets.indexOf(ongletActif), ongletActif.nom);
+			}
+		}));
+		return barreOnglets;
+	}
+
+	/**
+	 * Ajoute un tableau vide (déclaration par défaut, non alloué) et l'affiche
+	 */
+	private void nouveauTableau() {
+		if (enExecution || mesuresRejeu != null) return;
+		String nom = demanderNomTableau("Nom du nouveau tableau :");
+		if (nom == null) return;
+		ajouterOnglet(new OngletTableau(nom));
+	}
+
+	/**
+	 * Ajoute un alias du tableau courant : b = a, les deux noms désignent le même objet
+	 * Si le tableau courant n'est pas alloué, l'alias vaut null comme lui
+	 */
+	private void aliasTableau() {
+		if (enExecution || mesuresRejeu != null) return;
+		sauvegarderOngletActif();
+		String nom = demanderNomTableau("Nom de l'alias (" + "b = " + ongletActif.nom + ") :");
+		if (nom == null) return;
+		OngletTableau alias = new OngletTableau(nom);
+		alias.etat = ongletActif.etat;
+		alias.expression = ongletActif.expression;
+		alias.objet = ongletActif.objet;
+		ajouterOnglet(alias);
+	}
+
+	/**
+	 * Ferme l'onglet actif ; le dernier tableau ne peut pas être fermé
+	 */
+	private void fermerTableau() {
+		if (enExecution || mesuresRejeu != null || onglets.size() < 2) return;
+		int index = onglets.indexOf(ongletActif);
+		OngletTableau ferme = ongletActif;
+		activerOnglet(onglets.get(index == 0 ? 1 : index - 1));
+		changementOnglet = true;
+		try {
+			onglets.remove(ferme);
+			barreOnglets.removeTabAt(index);
+		} finally {
+			changementOnglet = false;
+		}
+		rafraichirOnglets();
+	}
+
+	private void ajouterOnglet(OngletTableau onglet) {
+		onglets.add(onglet);
+		changementOnglet = true;
+		try {
+			barreOnglets.addTab(onglet.nom, Box.createRigidArea(new Dimension(0, 0)));
+		} finally {
+			changementOnglet = false;
+		}
+		activerOnglet(onglet);
+	}
+
+	/**
+	 * Demande un nom de tableau : identifiant Java non utilisé par un autre onglet
+	 * @return Le nom, ou null si l'utilisateur annule
+	 */
+	private String demanderNomTableau(String question) {
+		String proposition = null;
+		for (char c = 'a'; c <= 'z' && proposition == null; c++) {
+			if (ongletNomme(String.valueOf(c)) == null) proposition = String.valueOf(c);
+		}
+		for (int i = 1; proposition == null; i++) {
+			if (ongletNomme("t" + i) == null) proposition = "t" + i;
+		}
+		while (true) {
+			String nom = (String) JOptionPane.showInputDialog(this, question, "Espace de travail",
+					JOptionPane.QUESTION_MESSAGE, null, null, proposition);
+			if (nom == null) return null;
+			nom = nom.trim();
+			if (nom.isEmpty() || !Character.isJavaIdentifierStart(nom.charAt(0))
+					|| !nom.chars().skip(1).allMatch(Character::isJavaIdentifierPart)) {
+				afficherMessageErreur("« " + nom + " » n'est pas un nom de variable Java");
+			} else if (ongletNomme(nom) != null) {
+				afficherMessageErreur("Un tableau s'appelle déjà « " + nom + " »");
+			} else {
+				return nom;
+			}
+			proposition = nom;
+		}
+	}
+
+	private OngletTableau ongletNomme(String nom) {
+		for (OngletTableau onglet : onglets) {
+			if (onglet.nom.equals(nom)) return onglet;
+		}
+		return null;
+	}
+
+	/**
+	 * Range l'état de l'interface dans le modèle de l'onglet actif
+	 * Un objet tableau réalloué (nouvelle exécution de la déclaration) remplace l'ancien pour
+	 * cet onglet seulement : les alias gardent l'ancien objet, comme en Java
+	 */
+	private void sauvegarderOngletActif() {
+		ongletActif.nom = nomTextField.getText();
+		ongletActif.etat = etatCourant;
+		ongletActif.expression = expressionTextField.getText();
+		boolean alloue = illustrationCasePanels.length > 0 && illustrationCasePanels[0].isVisible();
+		ongletActif.objet = alloue ? stockage : null;
+		ongletActif.vignette = null;
+	}
+
+	/**
+	 * Affiche un onglet : l'onglet quitté ne garde que son modèle, les composants sont
+	 * reconstruits pour le nouvel onglet puis son objet tableau est réaffiché dans les cases
+	 */
+	private void activerOnglet(OngletTableau onglet) {
+		sauvegarderOngletActif();
+		ongletActif = onglet;
+
+		reinitialiserExecution();
+		annulations = onglet.annulations;
+		retablissements = onglet.retablissements;
+		etatCourant = null;
+		changementOnglet = true;
+		updatingUI = true;
+		try {
+			nomTextField.setText(onglet.nom);
+			expressionTextField.setText(onglet.expression);
+			typeComboBox.setSelectedItem(onglet.type());
+			tailleSpinner.setValue(onglet.etat != null ? onglet.etat.taille : 4);
+			int methode = onglet.etat != null ? onglet.etat.methode : 1;
+			boutonMethode(methode).setSelected(true);
+			methodeChoisie = methode;
+		} finally {
+			updatingUI = false;
+			changementOnglet = false;
+		}
+		valeursImposees = onglet.etat != null ? onglet.etat.valeurs.versTableau() : null;
+		mettreAJourPanels();
+
+		// Réafficher l'objet tableau s'il correspond toujours à la déclaration
+		if (onglet.objet != null && onglet.objet.taille == taille
+				&& onglet.objet.tableau.getClass() == stockage.tableau.getClass()) {
+			afficherObjet(onglet.objet);
+		} else {
+			onglet.objet = null;
+		}
+		selectionnerOnglet(onglet);
+		mettreAJourActionsAnnulation();
+		rafraichirOnglets();
+	}
+
+	/**
+	 * Affiche dans les cases un objet tableau existant (alloué, éventuellement partagé)
+	 */
+	private void afficherObjet(StockageTableau objet) {
+		stockage = objet;
+		recompterValeurs();
+		panelTas.reinitialiser(objet.taille, true);
+		for (int i = 0; i < objet.taille; i++) {
+			illustrationCasePanels[i].setVisible(true);
+			affecterCase(i, objet.lire(i));
+		}
+	}
+
+	private void selectionnerOnglet(OngletTableau onglet) {
+		changementOnglet = true;
+		try {
+			barreOnglets.setSelectedIndex(onglets.indexOf(onglet));
+		} finally {
+			changementOnglet = false;
+		}
+	}
+
+	/**
+	 * Met à jour titres, vignettes et bulles d'aide (alias signalés) de tous les onglets
+	 */
+	private void rafraichirOnglets() {
+		for (int i = 0; i < onglets.size(); i++) {
+			OngletTableau onglet = onglets.get(i);
+			if (onglet.vignette == null) {
+				onglet.vignette = new ImageIcon(dessinerVignette(onglet.objet, onglet.taille()));
+			}
+			StringBuilder bulle = new StringBuilder(onglet.type() + "[" + onglet.taille() + "] "
+					+ (onglet.objet == null ? "non alloué (null)" : "alloué"));
+			for (OngletTableau autre : onglets) {
+				if (autre != onglet && onglet.objet != null && autre.objet == onglet.objet) {
+					bulle.append(", même objet que ").append(autre.nom);
+				}
+			}
+			barreOnglets.setTitleAt(i, onglet.nom);
+			barreOnglets.setIconAt(i, onglet.vignette);
+			barreOnglets.setToolTipTextAt(i, bulle.toString());
+		}
+		fermerTableauMenuItem.setEnabled(onglets.size() > 1);
+	}
+
+	/**
+	 * Vignette d'un tableau dessinée depuis son modèle : une bande où chaque colonne de
+	 * pixels représente une ou plusieurs cases (vert : affectée, blanc : valeur par défaut)
+	 */
+	private static BufferedImage dessinerVignette(StockageTableau objet, int taille) {
+		BufferedImage image = new BufferedImage(48, 14, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		int largeur = image.getWidth() - 2;
+		if (objet == null) {
+			g.setColor(Color.GRAY);
+			g.setStroke(new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 1, new float[]{2, 2}, 0));
+			g.drawRect(0, 0, image.getWidth() - 1, image.getHeight() - 1);
+		} else {
+			for (int x = 0; x < largeur; x++) {
+				int debut = (int) ((long) x * taille / largeur);
+				int fin = Math.max(debut + 1, (int) ((long) (x + 1) * taille / largeur));
+				boolean affectee = false;
+				for (int i = debut; i < fin && i < taille && !affectee; i++) {
+					affectee = !objet.estDefaut(i);
+				}
+				g.setColor(affectee ? new Color(120, 200, 120) : Color.WHITE);
+				g.drawLine(x + 1, 1, x + 1, image.getHeight() - 2);
+			}
+			g.setColor(Color.DARK_GRAY);
+			g.drawRect(0, 0, image.getWidth() - 1, image.getHeight() - 1);
+			if (taille <= largeur / 3) {
+				for (int i = 1; i < taille; i++) {
+					int x = 1 + i * largeur / taille;
+					g.drawLine(x, 1, x, image.getHeight() - 2);
+				}
+			}
+		}
+		g.dispose();
+		return image;
+	}
+
+	/**
+	 * Copie une plage d'un tableau dans un autre avec System.arraycopy, sur les objets
+	 * tableaux eux-mêmes : les alias de la destination voient la modification
+	 */
+	private void copierEntreTableaux() {
+		if (enExecution || mesuresRejeu != null) return;
+		sauvegarderOngletActif();
+		String[] noms = new String[onglets.size()];
+		for (int i = 0; i < noms.length; i++) {
+			noms[i] = onglets.get(i).nom;
+		}
+		JComboBox<String> sourceCombo = new JComboBox<>(noms);
+		JComboBox<String> destinationCombo = new JComboBox<>(noms);
+		sourceCombo.setSelectedItem(ongletActif.nom);
+		destinationCombo.setSelectedIndex(noms.length > 1 && noms[0].equals(ongletActif.nom) ? 1 : 0);
+		JSpinner srcPos = new JSpinner(new SpinnerNumberModel(0, 0, Integer.MAX_VALUE, 1));
+		JSpinner destPos = new JSpinner(new SpinnerNumberModel(0, 0, Integer.MAX_VALUE, 1));
+		JSpinner longueur = new JSpinner(new SpinnerNumberModel(ongletActif.taille(), 0, Integer.MAX_VALUE, 1));
+
+		JPanel formulaire = new JPanel(new GridLayout(0, 2, 5, 5));
+		formulaire.add(new JLabel("src"));
+		formulaire.add(sourceCombo);
+		formulaire.add(new JLabel("srcPos"));
+		formulaire.add(srcPos);
+		formulaire.add(new JLabel("dest"));
+		formulaire.add(destinationCombo);
+		formulaire.add(new JLabel("destPos"));
+		formulaire.add(destPos);
+		formulaire.add(new JLabel("length"));
+		formulaire.add(longueur);
+		if (JOptionPane.showConfirmDialog(this, formulaire, "System.arraycopy(src, srcPos, dest, destPos, length)",
+				JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+			return;
+		}
+
+		OngletTableau source = onglets.get(sourceCombo.getSelectedIndex());
+		OngletTableau destination = onglets.get(destinationCombo.getSelectedIndex());
+		int debutDestination = (Integer) destPos.getValue();
+		int nombre = (Integer) longueur.getValue();
+		if (source.objet == null || destination.objet == null) {
+			afficherMessageErreur("NullPointerException : " + (source.objet == null ? source.nom : destination.nom)
+					+ " n'est pas alloué (exécutez sa déclaration)");
+			return;
+		}
+		try {
+			System.arraycopy(source.objet.tableau, (Integer) srcPos.getValue(),
+					destination.objet.tableau, debutDestination, nombre);
+		} catch (ArrayStoreException e) {
+			afficherMessageErreur("ArrayStoreException : copie de " + source.type() + "[] vers "
+					+ destination.type() + "[] impossible");
+			return;
+		} catch (IndexOutOfBoundsException e) {
+			afficherMessageErreur("ArrayIndexOutOfBoundsException : " + e.getMessage());
+			return;
+		}
+
+		// Réafficher les cases copiées si l'objet modifié est celui de l'onglet actif
+		if (destination.objet == stockage) {
+			recompterValeurs();
+			for (int i = debutDestination; i < debutDestination + nombre; i++) {
+				affecterCase(i, stockage.lire(i));
+			}
+		}
+		for (OngletTableau onglet : onglets) {
+			if (onglet.objet == destination.objet) onglet.vignette = null;
+		}
+		rafraichirOnglets();
+	}
+
+////////////////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * IMPORT D'INITIALISEURS
+	 * Collage ou import d'un littéral Java ({1, 2, 3} ou new String[]{"a", "b"}) :
+	 * l'analyse se fait en flux, hors EDT, puis le type, la taille et les valeurs sont appliqués ensemble.
+	 */
+////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Colle l'initialiseur présent dans le presse-papiers
+	 */
+	private void collerInitialiseur() {
+		java.awt.datatransfer.Transferable contenu = Toolkit.getDefaultToolkit().getSystemClipboard().getContents(null);
+		if (contenu == null || !contenu.isDataFlavorSupported(java.awt.datatransfer.DataFlavor.stringFlavor)) {
+			afficherMessageErreur("Le presse-papiers ne contient pas de texte");
+			return;
+		}
+		try {
+			importerInitialiseur(java.awt.datatransfer.DataFlavor.stringFlavor.getReaderForText(contenu), -1, 0);
+		} catch (java.awt.datatransfer.UnsupportedFlavorException | java.io.IOException e) {
+			afficherMessageErreur("Presse-papiers illisible : " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Importe un initialiseur depuis un fichier texte (UTF-8)
+	 */
+	private void choisirEtImporterInitialiseur() {
+		JFileChooser chooser = new JFileChooser();
+		if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+		java.nio.file.Path chemin = chooser.getSelectedFile().toPath();
+		try {
+			importerInitialiseur(java.nio.file.Files.newBufferedReader(chemin, java.nio.charset.StandardCharsets.UTF_8),
+					java.nio.file.Files.size(chemin), 0);
+		} catch (java.io.IOException e) {
+			afficherMessageErreur("Fichier illisible : " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Analyse un initialiseur en arrière-plan avec une fenêtre de progression, puis l'applique
+	 * @param source Le texte à analyser (fermé à la fin de l'analyse)
+	 * @param longueur La longueur approximative en caractères, ou -1 si inconnue
+	 * @param methode La méthode à afficher (1 ou 2), ou 0 pour garder la méthode courante
+	 */
+	private void importerInitialiseur(java.io.Reader source, long longueur, int methode) {
+		if (enExecution || mesuresRejeu != null) {
+			try {
+				source.close();
+			} catch (java.io.IOException e) {
+				// rien à faire
+			}
+			return;
+		}
+		int tailleMax = (Integer) ((SpinnerNumberModel) tailleSpinner.getModel()).getMaximum();
+
+		JProgressBar barre = new JProgressBar(0, 100);
+		barre.setIndeterminate(longueur <= 0);
+		barre.setStringPainted(true);
+		barre.setString("Analyse...");
+		JDialog progression = new JDialog(this, "Import d'un initialiseur", false);
+		JButton annulerButton = new JButton("Annuler");
+		JPanel contenu = new JPanel(new BorderLayout(10, 10));
+		contenu.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+		contenu.add(barre, BorderLayout.CENTER);
+		contenu.add(annulerButton, BorderLayout.EAST);
+		progression.add(contenu);
+		progression.pack();
+		progression.setLocationRelativeTo(this);
+
+		SwingWorker<InitialiseurLu, Void> analyse = new SwingWorker<InitialiseurLu, Void>() {
+			@Override
+			protected InitialiseurLu doInBackground() throws Exception {
+				try (java.io.Reader lecteur = source) {
+					return new LecteurInitialiseur(lecteur, tailleMax, lus -> {
+						if (longueur > 0) {
+							setProgress((int) Math.min(100, lus * 100 / longueur));
+						}
+					}, this::isCancelled).lire();
+				}
+			}
+
+			@Override
+			protected void done() {
+				progression.dispose();
+				if (isCancelled()) return;
+				try {
+					appliquerInitialiseur(get(), tailleMax, methode);
+				} catch (java.util.concurrent.ExecutionException e) {
+					afficherMessageErreur("Initialiseur invalide : " + e.getCause().getMessage());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		analyse.addPropertyChangeListener(e -> {
+			if ("progress".equals(e.getPropertyName())) {
+				barre.setValue((Integer) e.getNewValue());
+				barre.setString(e.getNewValue() + " %");
+			}
+		});
+		annulerButton.addActionListener(e -> analyse.cancel(true));
+
+		// La fenêtre n'apparaît que si l'analyse dure (les petits collages restent instantanés)
+		Timer apparition = new Timer(300, e -> {
+			if (!analyse.isDone()) progression.setVisible(true);
+		});
+		apparition.setRepeats(false);
+		apparition.start();
+		analyse.execute();
+	}
+
+	/**
+	 * Applique un initialiseur analysé : type, nom, taille et valeurs en une seule reconstruction
+	 * @param initialiseur Le résultat de l'analyse
+	 * @param tailleMax La taille maximale autorisée par l'interface
+	 * @param methode La méthode à afficher (1 ou 2), ou 0 pour garder la méthode courante
+	 */
+	private void appliquerInitialiseur(InitialiseurLu initialiseur, int tailleMax, int methode) {
+		if (initialiseur.nombre == 0) {
+			afficherMessageErreur("Initialiseur vide : un tableau doit contenir au moins un élément");
+			return;
+		}
+		if (initialiseur.nombre > tailleMax) {
+			afficherMessageErreur("L'initialiseur contient " + initialiseur.nombre
+					+ " éléments : la taille maximale est " + tailleMax);
+			return;
+		}
+
+		reinitialiserExecution();
+		updatingUI = true;
+		try {
+			typeComboBox.setSelectedItem(initialiseur.type);
+			tailleSpinner.setValue(initialiseur.nombre);
+			if (initialiseur.nom != null) {
+				nomTextField.setText(initialiseur.nom);
+			}
+			// La méthode 3 n'a pas de champs de valeurs : un initialiseur relève de la méthode 2
+			int cible = methode != 0 ? methode : methodeChoisie == 3 ? 2 : methodeChoisie;
+			boutonMethode(cible).setSelected(true);
+			methodeChoisie = cible;
+		} finally {
+			updatingUI = false;
+		}
+		valeursImposees = initialiseur.textes;
+		mettreAJourPanels();
+	}
+
+////////////////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * GÉNÉRATION DE VALEURS
+	 * Remplissage du tableau par un modèle (aléatoire, trié, presque trié, doublons),
+	 * reproductible à partir d'une graine.
+	 */
+////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Remplit les champs avec des valeurs générées selon un modèle
+	 * @param modele Le modèle de génération
+	 */
+	private void genererValeurs(GenerateurValeurs.Modele modele) {
+		if (enExecution || mesuresRejeu != null) return;
+
+		long graine;
+		if (modele == GenerateurValeurs.Modele.ALEATOIRE_GRAINE) {
+			String saisie = JOptionPane.showInputDialog(this, "Graine :", Long.toString(derniereGraine));
+			if (saisie == null) return;
+			try {
+				graine = Long.parseLong(saisie.trim());
+			} catch (NumberFormatException e) {
+				afficherMessageErreur("Graine invalide : un entier est attendu");
+				return;
+			}
+		} else {
+			graine = new java.util.SplittableRandom().nextLong();
+		}
+		derniereGraine = graine;
+
+		String type = (String) typeComboBox.getSelectedItem();
+		String[] textes = GenerateurValeurs.generer(type, taille, modele, graine, true);
+		int tailleMax = (Integer) ((SpinnerNumberModel) tailleSpinner.getModel()).getMaximum();
+		appliquerInitialiseur(new InitialiseurLu(type, null, textes, taille), tailleMax, 0);
+	}
+
+////////////////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * OPÉRATIONS PARALLÈLES
+	 * Tri, map, filtre-réduction et préfixe parallèles sur le tableau alloué : les morceaux
+	 * traités par chaque ouvrier sont colorés dans l'illustration et tracés dans le temps.
+	 */
+////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Lance une opération parallèle en arrière-plan sur l'objet tableau affiché
+	 * @param operation L'opération choisie dans le menu
+	 */
+	private void executerOperationParallele(OperationsParalleles.Operation operation) {
+		if (enExecution || mesuresRejeu != null) return;
+		if (illustrationCasePanels.length == 0 || !illustrationCasePanels[0].isVisible()) {
+			afficherMessageErreur("Le tableau n'est pas alloué : exécutez d'abord sa déclaration");
+			return;
+		}
+		if (!OperationsParalleles.accepte(stockage.tableau)) {
+			afficherMessageErreur("Les opérations parallèles portent sur les tableaux int[], long[] et double[]");
+			return;
+		}
+
+		StockageTableau cible = stockage;
+		Object copie = java.lang.reflect.Array.newInstance(cible.tableau.getClass().getComponentType(), cible.taille);
+		System.arraycopy(cible.tableau, 0, copie, 0, cible.taille);
+		setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+		new SwingWorker<OperationsParalleles.Resultat, Void>() {
+			@Override
+			protected OperationsParalleles.Resultat doInBackground() {
+				return OperationsParalleles.executer(operation, copie);
+			}
+
+			@Override
+			protected void done() {
+				setCursor(Cursor.getDefaultCursor());
+				try {
+					afficherOperationParallele(get(), cible);
+				} catch (java.util.concurrent.ExecutionException e) {
+					afficherMessageErreur("Opération impossible : " + e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}.execute();
+	}
+
+	/**
+	 * Applique le résultat aux cases, les colore selon l'ouvrier qui les a traitées
+	 * (dernière phase) et ouvre la chronologie avec l'accélération mesurée
+	 * @param cible L'objet tableau de départ (ignoré s'il a été remplacé entre-temps)
+	 */
+	private void afficherOperationParallele(OperationsParalleles.Resultat resultat, StockageTableau cible) {
+		if (cible == stockage) {
+			if (resultat.tableau != null) {
+				System.arraycopy(resultat.tableau, 0, stockage.tableau, 0, stockage.taille);
+				for (int i = 0; i < stockage.taille; i++) {
+					affecterCase(i, stockage.lire(i));
+				}
+			}
+			OperationsParalleles.Trace trace = resultat.trace;
+			for (int k = 0; k < trace.nombre(); k++) {
+				if (trace.phase[k].equals("fusion") || trace.phase[k].equals("somme")) continue;
+				for (int i = trace.debut[k]; i < trace.fin[k]; i++) {
+					illustrationCasePanels[i].setBackground(PanelTraceParallele.couleur(trace.ouvrier[k]));
+				}
+			}
+		}
+
+		StringBuilder texte = new StringBuilder();
+		texte.append(String.format("%s   (%d éléments, parallélisme du pool commun : %d)%n",
+				resultat.operation.libelle, resultat.taille, resultat.parallelisme));
+		if (resultat.valeur != null) {
+			texte.append("Résultat : ").append(resultat.valeur).append('\n');
+		}
+		texte.append(String.format("Séquentiel : %.1f µs   parallèle : %.1f µs   accélération : ×%.2f   (%d morceaux relevés)",
+				resultat.nanosSequentiel / 1000.0, resultat.nanosParallele / 1000.0,
+				resultat.nanosSequentiel / (double) Math.max(1, resultat.nanosParallele), resultat.trace.nombre()));
+		if (resultat.operation == OperationsParalleles.Operation.TRI) {
+			texte.append("\nArrays.parallelSort ne se découpe qu'au-delà de 4096 éléments et avec plus d'un ouvrier ;")
+					.append("\nla chronologie montre les morceaux d'un tri fusion fork-join au même grain que les flux.");
+		} else if (resultat.operation == OperationsParalleles.Operation.PREFIXE) {
+			texte.append("\nLes durées mesurent Arrays.parallelPrefix, dont le découpage n'est pas observable ;")
+					.append("\nla chronologie montre un préfixe réimplémenté en deux passes (sommes par morceau, puis cumul).");
+		}
+		JTextArea entete = new JTextArea(texte.toString());
+		entete.setEditable(false);
+		entete.setOpaque(false);
+		entete.setFont(new Font("Monospaced", Font.PLAIN, 12));
+
+		JDialog dialogue = new JDialog(this, "Opération parallèle", false);
+		JPanel contenu = new JPanel(new BorderLayout(5, 5));
+		contenu.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+		contenu.add(entete, BorderLayout.NORTH);
+		contenu.add(new JScrollPane(new PanelTraceParallele(resultat.trace)), BorderLayout.CENTER);
+		dialogue.add(contenu);
+		dialogue.pack();
+		dialogue.setLocationRelativeTo(this);
+		dialogue.setVisible(true);
+	}
+
+////////////////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * SIMULATEUR DE CROISSANCE D'ARRAYLIST
+	 * Séquence d'add et de remove rejouée sur un tableau de stockage simulé (pas à pas ou
+	 * en résumé), puis sur un vrai ArrayList et sur un tableau brut, chronométrés.
+	 */
+////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Ouvre le simulateur à côté de l'illustration ; les valeurs ajoutées sont celles du
+	 * tableau affiché (ou les exemples du type s'il n'est pas alloué)
+	 */
+	private void ouvrirSimulateurArrayList() {
+		String[] valeurs;
+		if (illustrationCasePanels.length > 0 && illustrationCasePanels[0].isVisible()) {
+			valeurs = new String[stockage.taille];
+			for (int i = 0; i < valeurs.length; i++) {
+				valeurs[i] = stockage.lire(i);
+			}
+		} else {
+			valeurs = exemples.get(descripteur.nom);
+		}
+
+		JSpinner operationsSpinner = new JSpinner(new SpinnerNumberModel(1_000_000, 1, 50_000_000, 100_000));
+		JSpinner retraitsSpinner = new JSpinner(new SpinnerNumberModel(25, 0, 100, 5));
+		JComboBox<SimulationArrayList.Retrait> retraitCombo = new JComboBox<>(SimulationArrayList.Retrait.values());
+		JSpinner graineSpinner = new JSpinner(new SpinnerNumberModel(42, 0, Integer.MAX_VALUE, 1));
+		JButton pasButton = new JButton("Pas");
+		JButton animerButton = new JButton("Animer");
+		JButton recommencerButton = new JButton("Recommencer");
+		JButton resumeButton = new JButton("Résumé");
+		PanelArrayList panel = new PanelArrayList();
+		JTextArea compteurs = new JTextArea(3, 60);
+		compteurs.setEditable(false);
+		compteurs.setOpaque(false);
+		compteurs.setFont(new Font("Monospaced", Font.PLAIN, 12));
+
+		SimulationArrayList[] simulation = new SimulationArrayList[1];
+		Runnable recommencer = () -> {
+			simulation[0] = new SimulationArrayList((Integer) graineSpinner.getValue(), (Integer) retraitsSpinner.getValue(),
+					(SimulationArrayList.Retrait) retraitCombo.getSelectedItem(), valeurs, true);
+			panel.afficher(simulation[0]);
+			compteurs.setText(texteCompteurs(simulation[0], -1, -1));
+		};
+		Runnable pas = () -> {
+			simulation[0].pas();
+			panel.afficher(simulation[0]);
+			compteurs.setText(texteCompteurs(simulation[0], -1, -1));
+		};
+		HorlogeAnimation horloge = new HorlogeAnimation(PERIODE_ETAPE_MS / 2, pas);
+		recommencer.run();
+
+		pasButton.addActionListener(e -> pas.run());
+		animerButton.addActionListener(e -> {
+			if (horloge.etapesEnCours()) {
+				horloge.arreterEtapes();
+				animerButton.setText("Animer");
+			} else {
+				horloge.demarrerEtapes();
+				animerButton.setText("Pause");
+			}
+		});
+		recommencerButton.addActionListener(e -> recommencer.run());
+
+		JDialog dialogue = new JDialog(this, "Croissance d'un ArrayList", false);
+		java.util.concurrent.atomic.AtomicReference<SwingWorker<long[], Void>> resume = new java.util.concurrent.atomic.AtomicReference<>();
+		resumeButton.addActionListener(e -> {
+			if (resume.get() != null) {
+				resume.get().cancel(false);
+				return;
+			}
+			horloge.arreterEtapes();
+			animerButton.setText("Animer");
+			long nombre = ((Number) operationsSpinner.getValue()).longValue();
+			SimulationArrayList rejeu = new SimulationArrayList((Integer) graineSpinner.getValue(),
+					(Integer) retraitsSpinner.getValue(), (SimulationArrayList.Retrait) retraitCombo.getSelectedItem(), valeurs, false);
+			resumeButton.setText("Annuler");
+			compteurs.setText("Rejeu de " + nombre + " opérations...");
+			SwingWorker<long[], Void> rejeuEnCours = new SwingWorker<long[], Void>() {
+				@Override
+				protected long[] doInBackground() {
+					rejeu.executer(nombre, this::isCancelled);
+					long liste = rejeu.chronometrerArrayList(nombre, this::isCancelled);
+					long brut = rejeu.chronometrerTableauBrut(nombre, this::isCancelled);
+					return new long[]{liste, brut};
+				}
+
+				@Override
+				protected void done() {
+					resume.set(null);
+					resumeButton.setText("Résumé");
+					if (isCancelled()) {
+						compteurs.setText(texteCompteurs(rejeu, -1, -1) + "\n(rejeu annulé)");
+						panel.afficher(rejeu);
+						return;
+					}
+					try {
+						long[] durees = get();
+						simulation[0] = rejeu;
+						panel.afficher(rejeu);
+						compteurs.setText(texteCompteurs(rejeu, durees[0], durees[1]));
+					} catch (java.util.concurrent.ExecutionException ex) {
+						afficherMessageErreur("Rejeu impossible : " + ex.getCause());
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			};
+			resume.set(rejeuEnCours);
+			rejeuEnCours.execute();
+		});
+
+		JPanel commandes = new JPanel(new FlowLayout(FlowLayout.LEFT, 6, 4));
+		commandes.add(new JLabel("Remove (%) :"));
+		commandes.add(retraitsSpinner);
+		commandes.add(retraitCombo);
+		commandes.add(new JLabel("Graine :"));
+		commandes.add(graineSpinner);
+		commandes.add(pasButton);
+		commandes.add(animerButton);
+		commandes.add(recommencerButton);
+		commandes.add(new JLabel("   Opérations :"));
+		commandes.add(operationsSpinner);
+		commandes.add(resumeButton);
+
+		JPanel contenu = new JPanel(new BorderLayout(5, 5));
+		contenu.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+		contenu.add(commandes, BorderLayout.NORTH);
+		contenu.add(panel, BorderLayout.CENTER);
+		contenu.add(compteurs, BorderLayout.SOUTH);
+		dialogue.add(contenu);
+		dialogue.addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosing(WindowEvent e) {
+				horloge.arreterEtapes();
+				if (resume.get() != null) resume.get().cancel(false);
+			}
+		});
+		dialogue.pack();
+		// À droite de la fenêtre principale si l'écran le permet
+		dialogue.setLocation(Math.max(0, Math.min(getX() + getWidth(),
+				Toolkit.getDefaultToolkit().getScreenSize().width - dialogue.getWidth())), getY());
+		dialogue.setVisible(true);
+	}
+
+	/**
+	 * Compteurs d'une simulation, avec les durées mesurées en mode résumé
+	 * @param nanosListe Durée sur un vrai ArrayList (-1 si non mesurée)
+	 * @param nanosBrut Durée sur un tableau brut préalloué (-1 si non mesurée)
+	 */
+	private static String texteCompteurs(SimulationArrayList simulation, long nanosListe, long nanosBrut) {
+		StringBuilder texte = new StringBuilder(String.format(
+				"opérations : %,d (add %,d, remove %,d)   size : %,d   capacité : %,d   agrandissements : %,d%n"
+				+ "éléments recopiés (Arrays.copyOf) : %,d   décalés (remove) : %,d   coût amorti : %.3f écritures / opération",
+				simulation.operations, simulation.ajouts, simulation.retraits, simulation.taille, simulation.capacite,
+				simulation.redimensionnements, simulation.copies, simulation.decalages, simulation.coutAmorti()));
+		if (nanosListe >= 0 && nanosBrut >= 0) {
+			double operations = Math.max(1, simulation.operations);
+			texte.append(String.format("%nArrayList réel : %.1f ms (%.1f ns / op)   tableau brut préalloué (%,d cases) : %.1f ms (%.1f ns / op)",
+					nanosListe / 1e6, nanosListe / operations, simulation.tailleMax, nanosBrut / 1e6, nanosBrut / operations));
+		}
+		return texte.toString();
+	}
+
+////////////////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * LABORATOIRE DE LOCALITÉ MÉMOIRE
+	 * Parcours réels de grands tableaux (séquentiel, inverse, par pas, aléatoire, matrice en
+	 * lignes ou en colonnes) chronométrés ; l'ordre d'accès est montré dans l'illustration.
+	 */
+////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Ouvre le laboratoire à côté de la fenêtre principale
+	 */
+	private void ouvrirLaboratoireLocalite() {
+		JSpinner tailleLaboSpinner = new JSpinner(new SpinnerNumberModel(4_000_000, 1_000, 64_000_000, 1_000_000));
+		JSpinner pasSpinner = new JSpinner(new SpinnerNumberModel(16, 1, 4096, 1));
+		JButton mesurerButton = new JButton("Mesurer");
+		JLabel etatLabel = new JLabel(" ");
+		javax.swing.table.DefaultTableModel modele = new javax.swing.table.DefaultTableModel(
+				new Object[]{"Parcours", "ns / élément", "écart type", "CV", "min", "Go/s", "mesures"}, 0) {
+			@Override
+			public boolean isCellEditable(int ligne, int colonne) {
+				return false;
+			}
+		};
+		JTable table = new JTable(modele);
+		table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		table.getColumnModel().getColumn(0).setPreferredWidth(260);
+		List<LaboratoireLocalite.Mesure> mesures = new ArrayList<>();
+
+		// La ligne choisie colore les cases de l'illustration selon l'ordre de visite
+		table.getSelectionModel().addListSelectionListener(e -> {
+			int ligne = table.getSelectedRow();
+			if (e.getValueIsAdjusting() || ligne < 0) return;
+			LaboratoireLocalite.Mesure mesure = mesures.get(ligne);
+			etatLabel.setText(appliquerCarteAcces(mesure.parcours, (Integer) pasSpinner.getValue())
+					? String.format("%s : %.3f ns / élément (bleu : premiers accès, rouge : derniers)",
+							mesure.parcours.name().toLowerCase(), mesure.nanosParElement)
+					: "Allouez le tableau illustré pour voir l'ordre des accès");
+		});
+
+		mesurerButton.addActionListener(e -> {
+			int tailleLabo = (Integer) tailleLaboSpinner.getValue();
+			int pas = (Integer) pasSpinner.getValue();
+			mesurerButton.setEnabled(false);
+			modele.setRowCount(0);
+			mesures.clear();
+			new SwingWorker<Void, LaboratoireLocalite.Mesure>() {
+				@Override
+				protected Void doInBackground() {
+					LaboratoireLocalite laboratoire = new LaboratoireLocalite(tailleLabo, pas);
+					for (LaboratoireLocalite.Parcours parcours : LaboratoireLocalite.Parcours.values()) {
+						publish(laboratoire.mesurer(parcours));
+					}
+					return null;
+				}
+
+				@Override
+				protected void process(List<LaboratoireLocalite.Mesure> nouvelles) {
+					for (LaboratoireLocalite.Mesure mesure : nouvelles) {
+						mesures.add(mesure);
+						modele.addRow(new Object[]{
+								mesure.parcours.libelle + (mesure.parcours == LaboratoireLocalite.Parcours.PAS ? " (p = " + pas + ")" : ""),
+								String.format("%.3f", mesure.nanosParElement),
+								String.format("%.3f", mesure.ecartType),
+								String.format("%.1f %%", 100 * mesure.ecartType / mesure.nanosParElement),
+								String.format("%.3f", mesure.minimum),
+								String.format("%.2f", Integer.BYTES / mesure.nanosParElement),
+								mesure.mesures});
+					}
+					etatLabel.setText("Mesure en cours (" + mesures.size() + " / " + LaboratoireLocalite.Parcours.values().length + ")...");
+				}
+
+				@Override
+				protected void done() {
+					mesurerButton.setEnabled(true);
+					try {
+						get();
+						etatLabel.setText(String.format("%,d éléments int (matrice %d × %d), préchauffage puis mesures répétées",
+								tailleLabo, (int) Math.sqrt(tailleLabo), (int) Math.sqrt(tailleLabo)));
+						if (table.getRowCount() > 0) table.setRowSelectionInterval(0, 0);
+					} catch (java.util.concurrent.ExecutionException ex) {
+						etatLabel.setText(" ");
+						afficherMessageErreur(ex.getCause() instanceof OutOfMemoryError
+								? "Mémoire insuffisante pour " + tailleLabo + " éléments" : "Mesure impossible : " + ex.getCause());
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}.execute();
+		});
+
+		JPanel commandes = new JPanel(new FlowLayout(FlowLayout.LEFT, 6, 4));
+		commandes.add(new JLabel("Éléments :"));
+		commandes.add(tailleLaboSpinner);
+		commandes.add(new JLabel("Pas :"));
+		commandes.add(pasSpinner);
+		commandes.add(mesurerButton);
+
+		JPanel contenu = new JPanel(new BorderLayout(5, 5));
+		contenu.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+		contenu.add(commandes, BorderLayout.NORTH);
+		JScrollPane defilement = new JScrollPane(table);
+		defilement.setPreferredSize(new Dimension(760, 150));
+		contenu.add(defilement, BorderLayout.CENTER);
+		contenu.add(etatLabel, BorderLayout.SOUTH);
+
+		JDialog dialogue = new JDialog(this, "Localité mémoire", false);
+		dialogue.add(contenu);
+		dialogue.pack();
+		dialogue.setLocation(Math.max(0, Math.min(getX() + getWidth(),
+				Toolkit.getDefaultToolkit().getScreenSize().width - dialogue.getWidth())), getY());
+		dialogue.setVisible(true);
+	}
+
+	/**
+	 * Colore les cases de l'illustration selon leur rang de visite dans un parcours
+	 * @return false si le tableau illustré n'est pas alloué
+	 */
+	private boolean appliquerCarteAcces(LaboratoireLocalite.Parcours parcours, int pas) {
+		if (enExecution || illustrationCasePanels.length == 0 || !illustrationCasePanels[0].isVisible()) return false;
+		int n = illustrationCasePanels.length;
+		int[] rangs = LaboratoireLocalite.rangs(parcours, n, pas);
+		for (int i = 0; i < n; i++) {
+			illustrationCasePanels[i].setBackground(LaboratoireLocalite.couleurRang(rangs[i], n));
+		}
+		return true;
+	}
+
+////////////////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * MODULES DE LEÇONS
+	 * Cartes de méthodes, algorithmes et vues supplémentaires découverts par ServiceLoader.
+	 * Seuls les descripteurs sont instanciés au démarrage, en arrière-plan ; la leçon et sa
+	 * fenêtre ne sont créées qu'au premier choix dans le menu, puis réutilisées.
+	 */
+////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Recherche les modules de leçons en arrière-plan puis remplit le menu Leçons par catégorie
+	 */
+	private void chargerDescripteursLecons() {
+		new SwingWorker<List<DescripteurLecon>, Void>() {
+			private final List<String> ignores = new ArrayList<>();
+
+			@Override
+			protected List<DescripteurLecon> doInBackground() {
+				List<DescripteurLecon> descripteurs = new ArrayList<>();
+				java.util.Iterator<DescripteurLecon> iterateur = java.util.ServiceLoader
+						.load(DescripteurLecon.class, TableauIllustrator.class.getClassLoader()).iterator();
+				while (true) {
+					try {
+						if (!iterateur.hasNext()) break;
+						descripteurs.add(iterateur.next());
+					} catch (java.util.ServiceConfigurationError e) {
+						// Module mal déclaré ou introuvable : signalé dans le menu, les autres restent disponibles
+						ignores.add(e.getMessage());
+					}
+				}
+				return descripteurs;
+			}
+
+			@Override
+			protected void done() {
+				leconsMenu.removeAll();
+				List<DescripteurLecon> descripteurs;
+				try {
+					descripteurs = get();
+				} catch (Exception e) {
+					descripteurs = new ArrayList<>();
+				}
+				Map<String, JMenu> categories = new java.util.TreeMap<>();
+				for (DescripteurLecon descripteur : descripteurs) {
+					JMenuItem item = new JMenuItem(descripteur.nom());
+					if (!descripteur.description().isEmpty()) {
+						item.setToolTipText(descripteur.description());
+					}
+					item.addActionListener(e -> ouvrirLecon(descripteur));
+					categories.computeIfAbsent(descripteur.categorie(), JMenu::new).add(item);
+				}
+				for (JMenu categorie : categories.values()) {
+					leconsMenu.add(categorie);
+				}
+				if (categories.isEmpty()) {
+					JMenuItem vide = new JMenuItem("(aucun module installé)");
+					vide.setEnabled(false);
+					leconsMenu.add(vide);
+				}
+				if (!ignores.isEmpty()) {
+					leconsMenu.addSeparator();
+					JMenuItem ignoresMenuItem = new JMenuItem(ignores.size() == 1
+							? "1 module ignoré" : ignores.size() + " modules ignorés");
+					ignoresMenuItem.setEnabled(false);
+					StringBuilder raisons = new StringBuilder("<html>");
+					for (String raison : ignores) {
+						raisons.append(raison.replace("&", "&amp;").replace("<", "&lt;")).append("<br>");
+					}
+					ignoresMenuItem.setToolTipText(raisons.append("</html>").toString());
+					leconsMenu.add(ignoresMenuItem);
+				}
+			}
+		}.execute();
+	}
+
+	/**
+	 * Ouvre la fenêtre d'une leçon, en la créant au premier choix
+	 * @param descripteur Le module choisi dans le menu
+	 */
+	private void ouvrirLecon(DescripteurLecon descripteur) {
+		JDialog dialogue = dialoguesLecons.get(descripteur);
+		if (dialogue == null) {
+			JComponent vue;
+			try {
+				vue = descripteur.creer().creerVue(contexteLecon());
+			} catch (RuntimeException | LinkageError e) {
+				afficherMessageErreur("Module « " + descripteur.nom() + " » inutilisable : " + e);
+				return;
+			}
+			dialogue = new JDialog(this, descripteur.categorie() + " : " + descripteur.nom(), false);
+			JPanel contenu = new JPanel(new BorderLayout(5, 5));
+			contenu.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+			if (!descripteur.description().isEmpty()) {
+				contenu.add(new JLabel(descripteur.description()), BorderLayout.NORTH);
+			}
+			contenu.add(vue, BorderLayout.CENTER);
+			dialogue.add(contenu);
+			dialogue.pack();
+			dialogue.setLocationRelativeTo(this);
+			dialoguesLecons.put(descripteur, dialogue);
+		}
+		dialogue.setVisible(true);
+		dialogue.toFront();
+	}
+
+	/**
+	 * Contexte partagé par les leçons : il désigne toujours le tableau affiché
+	 */
+	private ContexteLecon contexteLecon() {
+		if (contexteLecon == null) {
+			contexteLecon = new ContexteLecon() {
+				// Fond de chaque case avant sa première coloration par une leçon, puis dernière couleur posée
+				private final Map<CaseAnimee, Color[]> fondsAvantLecon = new java.util.IdentityHashMap<>();
+
+				@Override
+				public String nomTableau() {
+					return nomTextField.getText();
+				}
+
+				@Override
+				public String type() {
+					return descripteur.nom;
+				}
+
+				@Override
+				public int taille() {
+					return estAlloue() ? stockage.taille : 0;
+				}
+
+				@Override
+				public boolean estAlloue() {
+					return illustrationCasePanels.length > 0 && illustrationCasePanels[0].isVisible();
+				}
+
+				@Override
+				public String lire(int index) {
+					return stockage.lire(index);
+				}
+
+				@Override
+				public void affecter(int index, String valeur) {
+					if (!estAlloue()) {
+						throw new IllegalStateException("le tableau n'est pas alloué");
+					}
+					String litteral = descripteur.litteral(valeur);
+					String raison = descripteur.diagnostiquer(litteral);
+					if (raison != null) {
+						throw new IllegalArgumentException(raison);
+					}
+					affecterCase(index, descripteur.valeurAffichee(litteral));
+				}
+
+				@Override
+				public void colorer(int index, Color couleur) {
+					if (index < 0 || index >= taille()) {
+						throw new IndexOutOfBoundsException("indice " + index + " hors du tableau de taille " + taille());
+					}
+					CaseAnimee casePanel = illustrationCasePanels[index];
+					fondsAvantLecon.computeIfAbsent(casePanel, c -> new Color[]{c.getBackground(), null})[1] = couleur;
+					casePanel.setBackground(couleur);
+				}
+
+				@Override
+				public void effacerCouleurs() {
+					for (Map.Entry<CaseAnimee, Color[]> entree : fondsAvantLecon.entrySet()) {
+						// Une case recolorée depuis par l'application (nouvelle affectation) garde sa couleur
+						if (entree.getKey().getBackground().equals(entree.getValue()[1])) {
+							entree.getKey().setBackground(entree.getValue()[0]);
+						}
+					}
+					fondsAvantLecon.clear();
+				}
+			};
+		}
+		return contexteLecon;
+	}
+
+////////////////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * TRACE FLIGHT RECORDER
+	 * Enregistrement à la demande des événements de l'illustrateur, pour analyser un blocage
+	 * signalé par un utilisateur. Les mêmes événements peuvent être activés en ligne de commande
+	 * (-XX:StartFlightRecording avec fenetre.*#enabled=true).
+	 */
+////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Démarre une trace, ou l'arrête et l'enregistre dans un fichier .jfr choisi par l'utilisateur
+	 * @param active true pour démarrer
+	 */
+	private void basculerTrace(boolean active) {
+		if (active) {
+			trace = new jdk.jfr.Recording();
+			trace.setName("Illustrateur de tableaux");
+			trace.enable(EvenementReconstruction.class);
+			trace.enable(EvenementPanneau.class);
+			trace.enable(EvenementFiltres.class);
+			trace.enable(EvenementValidation.class);
+			trace.enable(EvenementEtape.class);
+			trace.enable(EvenementDialogueErreur.class);
+			// Contexte utile pour un blocage : échantillons de pile et pauses du ramasse-miettes
+			trace.enable("jdk.ExecutionSample").withPeriod(java.time.Duration.ofMillis(20));
+			trace.enable("jdk.GarbageCollection");
+			trace.enable("jdk.JavaMonitorWait").withThreshold(java.time.Duration.ofMillis(10));
+			trace.start();
+			return;
+		}
+
+		if (trace == null) return;
+		trace.stop();
+		JFileChooser chooser = new JFileChooser();
+		chooser.setSelectedFile(new java.io.File("illustrateur.jfr"));
+		try {
+			if (chooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+				trace.dump(chooser.getSelectedFile().toPath());
+			}
+		} catch (java.io.IOException e) {
+			afficherMessageErreur("Trace non enregistrée : " + e.getMessage());
+		} finally {
+			trace.close();
+			trace = null;
+		}
+	}
+
+////////////////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * EXPORT D'UNE EXÉCUTION
+	 * Rendu hors écran de toutes les étapes d'un « Exécuter tout » et encodage en GIF animé
+	 * ou en séquence d'images, en arrière-plan.
+	 */
+////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Demande le fichier de destination puis exporte l'exécution complète
+	 */
+	private void choisirEtExporterExecution() {
+		if (enExecution || mesuresRejeu != null) return;
+		ScenarioExecution scenario = preparerScenario();
+		if (scenario == null) return;
+
+		JFileChooser chooser = new JFileChooser();
+		javax.swing.filechooser.FileNameExtensionFilter filtreGif =
+				new javax.swing.filechooser.FileNameExtensionFilter("GIF animé (*.gif)", "gif");
+		javax.swing.filechooser.FileNameExtensionFilter filtreSequence =
+				new javax.swing.filechooser.FileNameExtensionFilter("Séquence PNG et liste ffmpeg (*.txt)", "txt");
+		chooser.addChoosableFileFilter(filtreGif);
+		chooser.addChoosableFileFilter(filtreSequence);
+		chooser.setFileFilter(filtreGif);
+		chooser.setSelectedFile(new java.io.File(nomTextField.getText() + ".gif"));
+		if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+		java.io.File fichier = chooser.getSelectedFile();
+		String nom = fichier.getName().toLowerCase();
+		boolean gif = nom.endsWith(".gif") || (!nom.endsWith(".txt") && chooser.getFileFilter() != filtreSequence);
+		if (!nom.endsWith(gif ? ".gif" : ".txt")) {
+			fichier = new java.io.File(fichier.getPath() + (gif ? ".gif" : ".txt"));
+		}
+		exporterExecution(scenario, fichier, gif);
+	}
+
+	/**
+	 * Fige le déroulement de l'exécution à partir de l'état courant de l'interface
+	 * Les valeurs sont validées (méthodes 1 et 2) ou calculées (méthode 3) d'avance
+	 * @return Le scénario, ou null si une valeur ou l'expression est invalide
+	 */
+	private ScenarioExecution preparerScenario() {
+		String type = (String) typeComboBox.getSelectedItem();
+		String[] valeurs;
+		if (methodeChoisie == 3) {
+			try {
+				valeurs = ExpressionCompilee.compiler(expressionTextField.getText(), nomTextField.getText(), taille, type)
+						.remplir(taille, remplissageParalleleCheckBox.isSelected());
+			} catch (IllegalArgumentException | ArithmeticException e) {
+				afficherMessageErreur("Erreur : " + (e instanceof ArithmeticException ? "division par zéro" : e.getMessage()));
+				return null;
+			}
+		} else {
+			String[] textes = new String[taille];
+			for (int i = 0; i < taille; i++) {
+				textes[i] = valeursFields[i].getText();
+			}
+			List<ErreurValidation> erreurs = validerValeurs(textes, type);
+			if (!erreurs.isEmpty()) {
+				afficherErreursValidation(erreurs);
+				return null;
+			}
+			valeurs = new String[taille];
+			for (int i = 0; i < taille; i++) {
+				valeurs[i] = descripteur.valeurAffichee(textes[i]);
+			}
+		}
+
+		// Texte des lignes de code, sans le compteur de boucle (redessiné à chaque étape)
+		String[] lignes = new String[codeLignes.size()];
+		int ligneCompteur = -1;
+		for (int i = 0; i < lignes.length; i++) {
+			StringBuilder sb = new StringBuilder();
+			if (ajouterTexteLigne(codeLignes.get(i), sb)) {
+				ligneCompteur = i;
+			}
+			lignes[i] = sb.toString();
+		}
+
+		int[] ligneEtape = new int[nombreEtapes()];
+		for (int etape = 0; etape < ligneEtape.length; etape++) {
+			ligneEtape[etape] = ligneDeLEtape(etape);
+		}
+		return new ScenarioExecution(type + "[] " + nomTextField.getText(), lignes, ligneCompteur, valeurs,
+				descripteur.valeurDefaut, methodeChoisie, ligneEtape);
+	}
+
+	/**
+	 * Concatène le texte des étiquettes et des champs d'une ligne de code
+	 * @return true si la ligne contient le compteur de boucle (ignoré)
+	 */
+	private boolean ajouterTexteLigne(Container conteneur, StringBuilder sb) {
+		boolean compteur = false;
+		for (Component composant : conteneur.getComponents()) {
+			if (composant == compteurBoucleLabel) {
+				compteur = true;
+			} else if (composant instanceof JLabel) {
+				sb.append(((JLabel) composant).getText());
+			} else if (composant instanceof JTextField) {
+				sb.append(((JTextField) composant).getText());
+			} else if (composant instanceof Container) {
+				compteur |= ajouterTexteLigne((Container) composant, sb);
+			}
+		}
+		return compteur;
+	}
+
+	/**
+	 * Exporte un scénario en arrière-plan avec une fenêtre de progression
+	 * @param scenario Le déroulement à exporter
+	 * @param fichier Le GIF, ou la liste ffmpeg d'une séquence PNG
+	 * @param gif true pour un GIF animé
+	 */
+	private void exporterExecution(ScenarioExecution scenario, java.io.File fichier, boolean gif) {
+		JProgressBar barre = new JProgressBar(0, 100);
+		barre.setStringPainted(true);
+		JDialog progression = new JDialog(this, "Export de l'exécution", false);
+		JButton annulerButton = new JButton("Annuler");
+		JPanel contenu = new JPanel(new BorderLayout(10, 10));
+		contenu.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+		contenu.add(barre, BorderLayout.CENTER);
+		contenu.add(annulerButton, BorderLayout.EAST);
+		progression.add(contenu);
+		progression.pack();
+		progression.setLocationRelativeTo(this);
+
+		SwingWorker<ExportAnimation.Bilan, Void> export = new SwingWorker<ExportAnimation.Bilan, Void>() {
+			@Override
+			protected ExportAnimation.Bilan doInBackground() throws Exception {
+				return ExportAnimation.exporter(scenario, fichier, gif, PERIODE_ETAPE_MS, this::setProgress, this::isCancelled);
+			}
+
+			@Override
+			protected void done() {
+				progression.dispose();
+				if (isCancelled()) return;
+				try {
+					ExportAnimation.Bilan bilan = get();
+					JOptionPane.showMessageDialog(TableauIllustrator.this, String.format(
+							"%s%n%d images (%d distinctes), %d Ko en %.1f s",
+							fichier.getName(), bilan.images, bilan.distinctes, (bilan.octets + 1023) / 1024,
+							bilan.dureeMillis / 1000.0), "Export terminé", JOptionPane.INFORMATION_MESSAGE);
+				} catch (java.util.concurrent.ExecutionException e) {
+					afficherMessageErreur("Export impossible : " + e.getCause().getMessage());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		export.addPropertyChangeListener(e -> {
+			if ("progress".equals(e.getPropertyName())) {
+				barre.setValue((Integer) e.getNewValue());
+			}
+		});
+		annulerButton.addActionListener(e -> export.cancel(true));
+		progression.setVisible(true);
+		export.execute();
+	}
+
+////////////////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * EXPLORATION D'UN PROJET JAVA
+	 * Recherche des déclarations de tableaux dans une arborescence de sources, avec un index
+	 * sur disque qui évite de ré-analyser les fichiers inchangés.
+	 */
+////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Demande un dossier de sources puis lance son analyse
+	 */
+	private void choisirEtExplorerProjet() {
+		JFileChooser chooser = new JFileChooser();
+		chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+		if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+		explorerProjet(chooser.getSelectedFile().toPath().toAbsolutePath().normalize());
+	}
+
+	/**
+	 * Analyse en arrière-plan les fichiers .java d'un dossier, puis affiche les déclarations trouvées
+	 * @param racine Le dossier racine
+	 */
+	private void explorerProjet(java.nio.file.Path racine) {
+		java.nio.file.Path fichierIndex = IndexSources.emplacement(racine);
+
+		JProgressBar barre = new JProgressBar(0, 100);
+		barre.setStringPainted(true);
+		barre.setString("Recherche des fichiers...");
+		barre.setIndeterminate(true);
+		JDialog progression = new JDialog(this, "Analyse de " + racine.getFileName(), false);
+		progression.add(barre);
+		progression.pack();
+		progression.setSize(Math.max(progression.getWidth(), 360), progression.getHeight());
+		progression.setLocationRelativeTo(this);
+		progression.setVisible(true);
+
+		SwingWorker<IndexSources, Void> analyse = new SwingWorker<IndexSources, Void>() {
+			@Override
+			protected IndexSources doInBackground() throws Exception {
+				IndexSources precedent = IndexSources.charger(fichierIndex, racine);
+				IndexSources index = IndexSources.analyser(racine, precedent, fait -> setProgress(fait));
+				try {
+					index.enregistrer(fichierIndex);
+				} catch (java.io.IOException e) {
+					// Index non enregistrable : l'analyse reste utilisable, la suivante sera complète
+				}
+				return index;
+			}
+
+			@Override
+			protected void done() {
+				progression.dispose();
+				try {
+					afficherDeclarations(racine, get());
+				} catch (java.util.concurrent.ExecutionException e) {
+					afficherMessageErreur("Analyse impossible : " + e.getCause().getMessage());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		analyse.addPropertyChangeListener(e -> {
+			if ("progress".equals(e.getPropertyName())) {
+				barre.setIndeterminate(false);
+				barre.setValue((Integer) e.getNewValue());
+				barre.setString(e.getNewValue() + " %");
+			}
+		});
+		analyse.execute();
+	}
+
+	/**
+	 * Affiche la liste des déclarations trouvées (fenêtre non modale)
+	 * @param racine Le dossier analysé
+	 * @param index Le résultat de l'analyse
+	 */
+	private void afficherDeclarations(java.nio.file.Path racine, IndexSources index) {
+		List<DeclarationTableau> declarations = index.declarations();
+		JList<DeclarationTableau> liste = new JList<>(declarations.toArray(new DeclarationTableau[0]));
+		liste.setFont(new Font("Monospaced", Font.PLAIN, 12));
+		liste.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+		JButton methode1Button = new JButton("Charger (méthode 1)");
+		JButton methode2Button = new JButton("Charger (méthode 2)");
+		methode1Button.setEnabled(false);
+		methode2Button.setEnabled(false);
+		liste.addListSelectionListener(e -> {
+			methode1Button.setEnabled(liste.getSelectedValue() != null);
+			methode2Button.setEnabled(liste.getSelectedValue() != null);
+		});
+		methode1Button.addActionListener(e -> chargerDeclaration(racine, liste.getSelectedValue(), 1));
+		methode2Button.addActionListener(e -> chargerDeclaration(racine, liste.getSelectedValue(), 2));
+		liste.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if (e.getClickCount() == 2 && liste.getSelectedValue() != null) {
+					DeclarationTableau declaration = liste.getSelectedValue();
+					chargerDeclaration(racine, declaration, declaration.tailleAllouee >= 0 ? 1 : 2);
+				}
+			}
+		});
+
+		JLabel bilan = new JLabel(index.nombreFichiers() + " fichiers (" + index.reanalyses + " analysés, "
+				+ (index.nombreFichiers() - index.reanalyses) + " repris de l'index), "
+				+ declarations.size() + " déclarations, " + index.dureeMillis + " ms"
+				+ (index.inaccessibles > 0 ? ", " + index.inaccessibles + " fichiers ou dossiers illisibles ignorés" : ""));
+		bilan.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+		JPanel boutons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+		boutons.add(methode1Button);
+		boutons.add(methode2Button);
+
+		JDialog dialogue = new JDialog(this, "Tableaux de " + racine, false);
+		dialogue.add(bilan, BorderLayout.NORTH);
+		dialogue.add(new JScrollPane(liste), BorderLayout.CENTER);
+		dialogue.add(boutons, BorderLayout.SOUTH);
+		dialogue.setSize(720, 420);
+		dialogue.setLocationRelativeTo(this);
+		dialogue.setVisible(true);
+	}
+
+	/**
+	 * Charge une déclaration trouvée dans la méthode demandée
+	 * Le texte est relu dans le fichier, qui ne doit pas avoir changé depuis l'analyse
+	 * @param racine Le dossier analysé
+	 * @param declaration La déclaration à charger
+	 * @param methode 1 ou 2
+	 */
+	private void chargerDeclaration(java.nio.file.Path racine, DeclarationTableau declaration, int methode) {
+		if (declaration == null || enExecution || mesuresRejeu != null) return;
+		int tailleMax = (Integer) ((SpinnerNumberModel) tailleSpinner.getModel()).getMaximum();
+
+		if (declaration.tailleAllouee >= 0) {
+			// new T[n] : seules la taille et les valeurs par défaut sont connues
+			appliquerInitialiseur(new InitialiseurLu(declaration.type, declaration.nom, null,
+					declaration.tailleAllouee), tailleMax, methode);
+			return;
+		}
+
+		java.nio.file.Path fichier = racine.resolve(declaration.fichier);
+		try {
+			if (java.nio.file.Files.getLastModifiedTime(fichier).toMillis() != declaration.modification) {
+				afficherMessageErreur(declaration.fichier + " a été modifié : relancer l'analyse");
+				return;
+			}
+			CharSequence texte = IndexSources.lireFichier(fichier);
+			String initialiseur = texte.subSequence(declaration.debut, declaration.fin).toString();
+			importerInitialiseur(new java.io.StringReader(initialiseur), initialiseur.length(), methode);
+		} catch (java.io.IOException | IndexOutOfBoundsException e) {
+			afficherMessageErreur("Lecture impossible de " + declaration.fichier + " : " + e.getMessage());
+		}
+	}
+
+////////////////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * DIFFUSION EN CLASSE
+	 * Serveur HTTP embarqué qui retransmet la configuration et chaque étape
+	 * d'exécution aux navigateurs des élèves (Server-Sent Events).
+	 */
+////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Démarre ou arrête la diffusion en classe
+	 * @param activer true pour démarrer le serveur
+	 */
+	private void basculerDiffusion(boolean activer) {
+		if (!activer) {
+			if (serveurDiffusion != null) {
+				serveurDiffusion.arreter();
+				serveurDiffusion = null;
+			}
+			return;
+		}
+
+		String saisie = JOptionPane.showInputDialog(this, "Port d'écoute :", ServeurDiffusion.PORT_DEFAUT);
+		if (saisie == null) {
+			diffusionMenuItem.setSelected(false);
+			return;
+		}
+		try {
+			int port = Integer.parseInt(saisie.trim());
+			serveurDiffusion = new ServeurDiffusion(port);
+			diffuserConfiguration();
+		} catch (NumberFormatException | java.io.IOException e) {
+			diffusionMenuItem.setSelected(false);
+			afficherMessageErreur("Impossible de démarrer la diffusion : " + e.getMessage(), "Diffusion en classe");
+			return;
+		}
+
+		// La résolution du nom de la machine peut attendre le DNS : hors de l'EDT
+		int port = serveurDiffusion.port();
+		new SwingWorker<String, Void>() {
+			@Override
+			protected String doInBackground() {
+				return ServeurDiffusion.adresseLocale();
+			}
+
+			@Override
+			protected void done() {
+				String adresse;
+				try {
+					adresse = get();
+				} catch (Exception e) {
+					adresse = "localhost";
+				}
+				JOptionPane.showMessageDialog(TableauIllustrator.this,
+						"Diffusion active.\nLes élèves peuvent ouvrir http://" + adresse + ":" + port + "/",
+						"Diffusion en classe", JOptionPane.INFORMATION_MESSAGE);
+			}
+		}.execute();
+	}
+
+	/**
+	 * Publie la configuration courante et l'état complet des cases
+	 * Appelée après chaque reconstruction des panels
+	 */
+	private void diffuserConfiguration() {
+		if (serveurDiffusion == null || illustrationLabels == null) return;
+
+		String[] code = new String[codeLignes.size()];
+		for (int i = 0; i < code.length; i++) {
+			code[i] = texteLigneCode(codeLignes.get(i));
+		}
+		String[] valeurs = new String[illustrationLabels.length];
+		for (int i = 0; i < valeurs.length; i++) {
+			valeurs[i] = illustrationLabels[i].getText();
+		}
+		serveurDiffusion.publier(EvenementDiffusion.configuration(
+				(String) typeComboBox.getSelectedItem(), nomTextField.getText(), code, valeurs,
+				illustrationCasePanels.length > 0 && illustrationCasePanels[0].isVisible()));
+	}
+
+	/**
+	 * Reconstitue le texte d'une ligne de code à partir de ses composants
+	 * @param ligne Le panel de la ligne
+	 * @return Le texte de la ligne
+	 */
+	private String texteLigneCode(Container ligne) {
+		StringBuilder sb = new StringBuilder();
+		for (Component c : ligne.getComponents()) {
+			if (c instanceof JLabel) {
+				sb.append(((JLabel) c).getText());
+			} else if (c instanceof JTextField) {
+				sb.append(((JTextField) c).getText());
+			} else if (c instanceof Container) {
+				sb.append(texteLigneCode((Container) c));
+			}
+		}
+		return sb.toString();
+	}
+
+////////////////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * ENREGISTREMENT ET REJEU DE SESSIONS
+	 * Capture des interactions au niveau du modèle (avec horodatage) et rejeu
+	 * à la vitesse enregistrée ou maximale, avec mesure de la latence de chaque action.
+	 */
+////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Enregistre une interaction si un enregistrement est en cours (et hors rejeu)
+	 * @param genre Le genre d'action
+	 * @param entier Paramètre entier (indice, taille ou méthode)
+	 * @param texte Paramètre texte (type, nom ou valeur)
+	 */
+	private void enregistrerAction(GenreAction genre, int entier, String texte) {
+		if (sessionEnCours != null && mesuresRejeu == null) {
+			sessionEnCours.ajouter(genre, entier, texte);
+		}
+	}
+
+	/**
+	 * Démarre ou termine l'enregistrement d'une session
+	 * @param activer true pour démarrer
+	 */
+	private void basculerEnregistrement(boolean activer) {
+		if (activer) {
+			sessionEnCours = new SessionEnregistree();
+			// État initial en tête de session pour un rejeu déterministe
+			sessionEnCours.ajouter(GenreAction.METHODE, methodeChoisie, null);
+			sessionEnCours.ajouter(GenreAction.TYPE, 0, (String) typeComboBox.getSelectedItem());
+			sessionEnCours.ajouter(GenreAction.TAILLE, taille, null);
+			sessionEnCours.ajouter(GenreAction.NOM, 0, nomTextField.getText());
+			sessionEnCours.ajouter(GenreAction.EXPRESSION, 0, expressionTextField.getText());
+			for (int i = 0; i < valeursFields.length; i++) {
+				sessionEnCours.ajouter(GenreAction.VALEUR, i, valeursFields[i].getText());
+			}
+			return;
+		}
+
+		SessionEnregistree session = sessionEnCours;
+		sessionEnCours = null;
+		JFileChooser chooser = new JFileChooser();
+		chooser.setSelectedFile(new java.io.File("session.txt"));
+		if (session != null && chooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+			try {
+				session.sauvegarder(chooser.getSelectedFile().toPath());
+			} catch (java.io.IOException e) {
+				afficherMessageErreur("Impossible d'enregistrer la session : " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Demande un fichier de session et la vitesse de rejeu, puis lance le rejeu
+	 */
+	private void choisirEtRejouerSession() {
+		if (sessionEnCours != null || mesuresRejeu != null) return;
+
+		JFileChooser chooser = new JFileChooser();
+		if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+		SessionEnregistree session;
+		try {
+			session = SessionEnregistree.charger(chooser.getSelectedFile().toPath());
+		} catch (java.io.IOException | RuntimeException e) {
+			afficherMessageErreur("Session illisible : " + e.getMessage());
+			return;
+		}
+
+		Object[] options = {"Vitesse enregistrée", "Vitesse maximale"};
+		int choix = JOptionPane.showOptionDialog(this, session.actions.size() + " actions à rejouer",
+				"Rejeu de session", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE,
+				null, options, options[1]);
+		if (choix < 0) return;
+
+		boolean vitesseMax = choix == 1;
+		mesuresRejeu = new MesuresRejeu();
+		Thread rejeu = new Thread(() -> rejouerSession(session, vitesseMax), "rejeu-session");
+		rejeu.setDaemon(true);
+		rejeu.start();
+	}
+
+	/**
+	 * Rejoue une session (hors EDT) : chaque action est appliquée sur l'EDT et chronométrée
+	 * @param session La session à rejouer
+	 * @param vitesseMax true pour enchaîner les actions sans attendre
+	 */
+	private void rejouerSession(SessionEnregistree session, boolean vitesseMax) {
+		MesuresRejeu mesures = mesuresRejeu;
+		long debutRejeu = System.nanoTime();
+		try {
+			for (ActionSession action : session.actions) {
+				if (!vitesseMax) {
+					long attente = action.instantNanos - (System.nanoTime() - debutRejeu);
+					if (attente > 0) {
+						Thread.sleep(attente / 1_000_000, (int) (attente % 1_000_000));
+					}
+				}
+
+				SwingUtilities.invokeAndWait(() -> {
+					long debut = System.nanoTime();
+					appliquerAction(action);
+					mesures.ajouter(action.genre.name(), System.nanoTime() - debut);
+					// À vitesse maximale, l'animation est pilotée directement plutôt que par l'horloge
+					if (vitesseMax && horlogeAnimation.etapesEnCours()) {
+						horlogeAnimation.arreterEtapes();
+					}
+				});
+
+				if (vitesseMax && action.genre == GenreAction.EXECUTER) {
+					int erreursAvant = mesures.erreurs;
+					boolean[] enCours = {true};
+					while (enCours[0]) {
+						SwingUtilities.invokeAndWait(() -> {
+							executerLigneSuivante();
+							// Une erreur de format bloque l'exécution sur la ligne fautive
+							enCours[0] = enExecution && mesures.erreurs == erreursAvant;
+						});
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (java.lang.reflect.InvocationTargetException e) {
+			mesures.echec = e.getCause();
+		}
+
+		long dureeTotale = System.nanoTime() - debutRejeu;
+		SwingUtilities.invokeLater(() -> {
+			mesuresRejeu = null;
+			afficherRapportRejeu(mesures, dureeTotale, vitesseMax);
+		});
+	}
+
+	/**
+	 * Applique une action enregistrée sur l'interface (sur l'EDT)
+	 */
+	private void appliquerAction(ActionSession action) {
+		switch (action.genre) {
+		case METHODE:
+			boutonMethode(action.entier).doClick(0);
+			break;
+		case EXPRESSION:
+			expressionTextField.setText(action.texte);
+			break;
+		case TYPE:
+			typeComboBox.setSelectedItem(action.texte);
+			break;
+		case TAILLE:
+			tailleSpinner.setValue(action.entier);
+			break;
+		case NOM:
+			nomTextField.setText(action.texte);
+			break;
+		case VALEUR:
+			if (action.entier < valeursFields.length) {
+				valeursFields[action.entier].setText(action.texte);
+			}
+			break;
+		case EXECUTER:
+			executerTout();
+			break;
+		case LIGNE:
+			executerLigne();
+			break;
+		case STOP:
+			stopperExecution();
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Affiche le rapport de latences d'un rejeu (copiable pour comparer deux versions)
+	 */
+	private void afficherRapportRejeu(MesuresRejeu mesures, long dureeTotale, boolean vitesseMax) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Rejeu ").append(vitesseMax ? "à vitesse maximale" : "à vitesse enregistrée")
+		  .append(String.format(" : %.1f ms au total%n", dureeTotale / 1e6));
+		if (mesures.erreurs > 0) {
+			sb.append(mesures.erreurs).append(" erreur(s) de format rencontrée(s)\n");
+		}
+		if (mesures.echec != null) {
+			sb.append("Rejeu interrompu : ").append(mesures.echec).append('\n');
+		}
+		sb.append(mesures.rapport());
+
+		JTextArea zone = new JTextArea(sb.toString(), 14, 70);
+		zone.setFont(new Font("Monospaced", Font.PLAIN, 13));
+		zone.setEditable(false);
+		JOptionPane.showMessageDialog(this, new JScrollPane(zone), "Latences par action", JOptionPane.INFORMATION_MESSAGE);
+	}
+
+////////////////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * VALIDATION ET GESTION DES ERREURS
+	 * Méthodes pour valider les entrées utilisateur, afficher les erreurs
+	 * et gérer les restrictions de saisie.
+	 */
+////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Explique pourquoi une valeur n'est pas valide pour un type donné
+	 * Chaque descripteur analyse caractère par caractère, sans expression régulière, pour
+	 * rester rapide sur les très grands initialiseurs
+	 * @param valeur La valeur à vérifier
+	 * @param type Le descripteur du type souhaité
+	 * @return La raison de l'erreur, ou null si la valeur est valide
+	 */
+	private static String diagnostiquerValeur(String valeur, DescripteurType type) {
+	    return valeur == null ? "valeur absente" : type.diagnostiquer(valeur);
+	}
+
+	/**
+	 * Valeur d'un littéral entier Java, convertie comme le fait javac : décimal, octal (017),
+	 * hexadécimal (0x1F) ou binaire (0b101) ; hors décimal, le motif de bits est lu en complément
+	 * à deux (0xFFFFFFFF vaut -1)
+	 * @param texte Le littéral sans signe, sans suffixe L et sans séparateurs _
+	 * @param estLong true si le littéral porte le suffixe L
+	 * @param negatif true si le littéral est l'opérande d'un moins unaire : 2147483648 (et
+	 * 9223372036854775808L) n'est admis que dans ce cas
+	 * @return La valeur, déjà négativée si negatif
+	 * @throws NumberFormatException avec la raison, si le littéral est mal formé ou hors limites
+	 */
+	static long valeurLitteralEntier(String texte, boolean estLong, boolean negatif) {
+	    int base = 10;
+	    String chiffres = texte;
+	    if (texte.startsWith("0x") || texte.startsWith("0X")) {
+	        base = 16;
+	        chiffres = texte.substring(2);
+	    } else if (texte.startsWith("0b") || texte.startsWith("0B")) {
+	        base = 2;
+	        chiffres = texte.substring(2);
+	    } else if (texte.length() > 1 && texte.charAt(0) == '0') {
+	        base = 8;
+	        chiffres = texte.substring(1);
+	        if (chiffres.indexOf('8') >= 0 || chiffres.indexOf('9') >= 0) {
+	            throw new NumberFormatException("chiffre 8 ou 9 dans un littéral octal");
+	        }
+	    }
+	    if (chiffres.isEmpty()) throw new NumberFormatException("chiffres manquants");
+	    java.math.BigInteger valeur = new java.math.BigInteger(chiffres, base);
+	    int bits = estLong ? 64 : 32;
+	    String nom = estLong ? "long" : "int";
+	    if (base != 10) {
+	        if (valeur.bitLength() > bits) throw new NumberFormatException("plus de " + bits + " bits pour un " + nom);
+	        long motif = valeur.longValue();
+	        if (estLong) return negatif ? -motif : motif;
+	        int entier = (int) motif;
+	        return negatif ? -entier : entier;
+	    }
+	    java.math.BigInteger limite = java.math.BigInteger.ONE.shiftLeft(bits - 1);
+	    int comparaison = valeur.compareTo(limite);
+	    if (comparaison > 0 || (comparaison == 0 && !negatif)) {
+	        throw new NumberFormatException("hors des limites d'un " + nom + (estLong ? "" : " (suffixe L manquant ?)"));
+	    }
+	    return (negatif ? valeur.negate() : valeur).longValue();
+	}
+
+	/**
+	 * Valide toutes les valeurs d'un initialiseur et renvoie chaque erreur, triée par indice
+	 * Au-delà d'un seuil, le diagnostic est réparti par blocs sur le pool fork-join commun.
+	 * Le sélecteur de taille et l'import d'initialiseurs plafonnent le tableau à 100 éléments :
+	 * dans l'application, seule la branche séquentielle s'exécute
+	 * @param valeurs Les textes des éléments
+	 * @param type Le type des éléments
+	 * @return La liste des erreurs (vide si tout est valide)
+	 */
+	private static List<ErreurValidation> validerValeurs(String[] valeurs, String type) {
+	    EvenementValidation evenement = new EvenementValidation();
+	    evenement.begin();
+	    DescripteurType descripteur = DescripteurType.pour(type);
+	    String[] raisons = new String[valeurs.length];
+	    if (valeurs.length >= SEUIL_VALIDATION_PARALLELE) {
+	        java.util.Arrays.parallelSetAll(raisons, i -> diagnostiquerValeur(valeurs[i], descripteur));
+	    } else {
+	        for (int i = 0; i < valeurs.length; i++) {
+	            raisons[i] = diagnostiquerValeur(valeurs[i], descripteur);
+	        }
+	    }
+
+	    List<ErreurValidation> erreurs = new ArrayList<>();
+	    for (int i = 0; i < raisons.length; i++) {
+	        if (raisons[i] != null) {
+	            erreurs.add(new ErreurValidation(i, valeurs[i], raisons[i]));
+	        }
+	    }
+	    evenement.erreurs = erreurs.size();
+	    evenement.parallele = valeurs.length >= SEUIL_VALIDATION_PARALLELE;
+	    evenement.terminer(type, valeurs.length, 2);
+	    return erreurs;
+	}
+
+	/**
+	 * Affiche la liste navigable des erreurs de validation (fenêtre non modale)
+	 * Sélectionner une erreur place le curseur dans le champ correspondant
+	 * @param erreurs Les erreurs à afficher
+	 */
+	private void afficherErreursValidation(List<ErreurValidation> erreurs) {
+	    EvenementDialogueErreur evenement = new EvenementDialogueErreur();
+	    evenement.begin();
+
+	    // Pas de fenêtre pendant un rejeu : elle fausserait la mesure
+	    if (mesuresRejeu != null) {
+	        mesuresRejeu.erreurs++;
+	        evenement.terminer(null, erreurs.size(), (String) typeComboBox.getSelectedItem(), taille, methodeChoisie);
+	        return;
+	    }
+
+	    if (dialogueErreurs == null) {
+	        modeleErreurs = new DefaultListModel<>();
+	        JList<ErreurValidation> liste = new JList<>(modeleErreurs);
+	        liste.setFont(new Font("Monospaced", Font.PLAIN, 13));
+	        liste.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+	        liste.addListSelectionListener(e -> {
+	            ErreurValidation erreur = liste.getSelectedValue();
+	            if (!e.getValueIsAdjusting() && erreur != null && erreur.index < valeursFields.length) {
+	                JTextField champ = valeursFields[erreur.index];
+	                champ.scrollRectToVisible(new Rectangle(champ.getSize()));
+	                champ.requestFocusInWindow();
+	                champ.selectAll();
+	            }
+	        });
+
+	        dialogueErreurs = new JDialog(this, "Erreurs de validation", false);
+	        dialogueErreurs.add(new JScrollPane(liste));
+	        dialogueErreurs.setSize(480, 260);
+	        dialogueErreurs.setLocationRelativeTo(this);
+	    }
+
+	    String nom = nomTextField.getText();
+	    modeleErreurs.clear();
+	    for (ErreurValidation erreur : erreurs) {
+	        erreur.nomTableau = nom;
+	        modeleErreurs.addElement(erreur);
+	    }
+	    dialogueErreurs.setTitle("Erreurs de validation : " + erreurs.size()
+	            + (erreurs.size() > 1 ? " valeurs invalides" : " valeur invalide"));
+	    dialogueErreurs.setVisible(true);
+	    // Fenêtre non modale : la durée couvre sa préparation, pas sa lecture
+	    evenement.terminer(null, erreurs.size(), (String) typeComboBox.getSelectedItem(), taille, methodeChoisie);
+	}
+
+	/**
+	 * Active les filtres de validation des champs selon le type sélectionné
+	 */
+	private void activerFiltresType() {
+		EvenementFiltres evenement = new EvenementFiltres();
+		evenement.begin();
+		String type = (String) typeComboBox.getSelectedItem();
+		DocumentFilter filtre = createFilterForType(descripteur);
+		for (int i = 0; i < valeursFields.length; i++) {
+			// Supprimer l'ancien filtre s'il existe et ajouter le nouveau
+			AbstractDocument doc = (AbstractDocument) valeursFields[i].getDocument();
+			doc.setDocumentFilter(filtre);
+		}
+		evenement.terminer(type, valeursFields.length, methodeChoisie);
+	}
+
+	/**
+	 * Désactive les filtres de validation des champs
+	 */
+	private void desactiverFiltresType() {
+		for (int i = 0; i < valeursFields.length; i++) {
+			AbstractDocument doc = (AbstractDocument) valeursFields[i].getDocument();
+			doc.setDocumentFilter(null);
+		}
+	}
+	
+	/**
+	 * Affiche un message d'erreur dans une boîte de dialogue
+	 * @param message Le message d'erreur à afficher
+	 */
+	private void afficherMessageErreur(String message) {
+	    afficherMessageErreur(message, "Erreur de format");
+	}
+
+	/**
+	 * Affiche un message d'erreur dans une boîte de dialogue au titre donné
+	 * @param message Le message d'erreur à afficher
+	 * @param titre Le titre de la boîte de dialogue
+	 */
+	private void afficherMessageErreur(String message, String titre) {
+	    EvenementDialogueErreur evenement = new EvenementDialogueErreur();
+	    evenement.begin();
+
+	    // Pas de boîte modale pendant un rejeu : elle bloquerait la mesure
+	    if (mesuresRejeu != null) {
+	        mesuresRejeu.erreurs++;
+	    } else {
+	        JOptionPane.showMessageDialog(
+	            this,
+	            message,
+	            titre,
+	            JOptionPane.ERROR_MESSAGE
+	        );
+	    }
+	    evenement.terminer(message, 0, (String) typeComboBox.getSelectedItem(), taille, methodeChoisie);
+	}
+	
+////////////////////////////////////////////////////////////////////////////////////////////////
+	/**
+	 * CLASSES INTERNES ET INTERFACES
+	 * Définition des classes internes et interfaces utilisées par l'application.
+	 */
+////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Agrégation hiérarchique des valeurs du tableau (min, max, somme, nombre de valeurs non par défaut)
+	 * Les cases sont regroupées en blocs de TAILLE_BLOC ; un arbre de segments sur les blocs
+	 * permet une écriture en O(log n) et un résumé de n'importe quel intervalle en O(log n)
+	 */
+	private static class ArbreAgregation {
+		private static final int DECALAGE_BLOC = 4;
+		private static final int TAILLE_BLOC = 1 << DECALAGE_BLOC;
+
+		private int taille;
+		private int nbBlocs;
+		private double[] valeurs = new double[0];     // NaN si la valeur n'est pas numérique
+		private long[] nonDefaut = new long[0];       // un bit par case
+		private double[] arbreMin = new double[0];    // noeuds internes en [1, nbBlocs), blocs en [nbBlocs, 2 * nbBlocs)
+		private double[] arbreMax = new double[0];
+		private double[] arbreSomme = new double[0];
+		private int[] arbreCompte = new int[0];
+
+		/**
+		 * Remet toutes les cases à la valeur par défaut
+		 * @param taille Le nombre de cases
+		 * @param valeurDefaut La valeur numérique par défaut du type
+		 */
+		void reinitialiser(int taille, double valeurDefaut) {
+			this.taille = taille;
+			this.nbBlocs = Math.max(1, (taille + TAILLE_BLOC - 1) >> DECALAGE_BLOC);
+			if (valeurs.length != taille) {
+				valeurs = new double[taille];
+				nonDefaut = new long[(taille + 63) >> 6];
+			} else {
+				java.util.Arrays.fill(nonDefaut, 0L);
+			}
+			if (arbreMin.length != 2 * nbBlocs) {
+				arbreMin = new double[2 * nbBlocs];
+				arbreMax = new double[2 * nbBlocs];
+				arbreSomme = new double[2 * nbBlocs];
+				arbreCompte = new int[2 * nbBlocs];
+			}
+			java.util.Arrays.fill(valeurs, valeurDefaut);
+			for (int b = 0; b < nbBlocs; b++) {
+				recalculerBloc(b);
+			}
+			for (int n = nbBlocs - 1; n >= 1; n--) {
+				combiner(n);
+			}
+		}
+
+		int taille() {
+			return taille;
+		}
+
+		/**
+		 * Modifie une case et met à jour les résumés de ses ancêtres
+		 * @param index L'indice de la case
+		 * @param valeur La valeur numérique (NaN si non numérique)
+		 * @param estNonDefaut true si la valeur diffère de la valeur par défaut du type
+		 */
+		void modifier(int index, double valeur, boolean estNonDefaut) {
+			if (index < 0 || index >= taille) return;
+			valeurs[index] = valeur;
+			if (estNonDefaut) {
+				nonDefaut[index >> 6] |= 1L << index;
+			} else {
+				nonDefaut[index >> 6] &= ~(1L << index);
+			}
+			int bloc = index >> DECALAGE_BLOC;
+			recalculerBloc(bloc);
+			for (int n = (bloc + nbBlocs) >> 1; n >= 1; n >>= 1) {
+				combiner(n);
+			}
+		}
+
+		/**
+		 * Calcule le résumé de l'intervalle [debut, fin[
+		 * @param resume Le résumé à remplir (réutilisé pour éviter les allocations)
+		 */
+		void requete(int debut, int fin, Resume resume) {
+			resume.vider(debut, fin);
+			debut = Math.max(0, debut);
+			fin = Math.min(taille, fin);
+			if (debut >= fin) return;
+
+			int premierBlocComplet = (debut + TAILLE_BLOC - 1) >> DECALAGE_BLOC;
+			int dernierBlocComplet = fin >> DECALAGE_BLOC; // exclu
+			if (premierBlocComplet >= dernierBlocComplet) {
+				parcourir(debut, fin, resume);
+				return;
+			}
+			parcourir(debut, premierBlocComplet << DECALAGE_BLOC, resume);
+			parcourir(dernierBlocComplet << DECALAGE_BLOC, fin, resume);
+			for (int g = premierBlocComplet + nbBlocs, d = dernierBlocComplet + nbBlocs; g < d; g >>= 1, d >>= 1) {
+				if ((g & 1) == 1) resume.ajouter(arbreMin[g], arbreMax[g], arbreSomme[g], arbreCompte[g++]);
+				if ((d & 1) == 1) resume.ajouter(arbreMin[--d], arbreMax[d], arbreSomme[d], arbreCompte[d]);
+			}
+		}
+
+		private void parcourir(int debut, int fin, Resume resume) {
+			for (int i = debut; i < fin; i++) {
+				double v = valeurs[i];
+				resume.ajouter(v, v, v == v ? v : 0, (int) (nonDefaut[i >> 6] >>> i) & 1);
+			}
+		}
+
+		private void recalculerBloc(int bloc) {
+			int debut = bloc << DECALAGE_BLOC;
+			int fin = Math.min(taille, debut + TAILLE_BLOC);
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			double somme = 0;
+			for (int i = debut; i < fin; i++) {
+				double v = valeurs[i];
+				if (v < min) min = v;
+				if (v > max) max = v;
+				if (v == v) somme += v;
+			}
+			int compte = 0;
+			if (debut < fin) {
+				// Les 16 bits du bloc sont contigus dans un même mot
+				long masque = fin - debut == 64 ? -1L : ((1L << (fin - debut)) - 1);
+				compte = Long.bitCount((nonDefaut[debut >> 6] >>> debut) & masque);
+			}
+			int n = bloc + nbBlocs;
+			arbreMin[n] = min;
+			arbreMax[n] = max;
+			arbreSomme[n] = somme;
+			arbreCompte[n] = compte;
+		}
+
+		private void combiner(int n) {
+			arbreMin[n] = Math.min(arbreMin[2 * n], arbreMin[2 * n + 1]);
+			arbreMax[n] = Math.max(arbreMax[2 * n], arbreMax[2 * n + 1]);
+			arbreSomme[n] = arbreSomme[2 * n] + arbreSomme[2 * n + 1];
+			arbreCompte[n] = arbreCompte[2 * n] + arbreCompte[2 * n + 1];
+		}
+	}
+
+	/**
+	 * Index des valeurs du tableau : table de hachage valeur -> indices pour les recherches exactes
+	 * et arbre trié des valeurs numériques pour les recherches par intervalle
+	 * Chaque écriture d'une case met à jour l'index en O(log n)
+	 */
+	private static class IndexValeurs {
+		private String[] valeurs = new String[0];
+		private boolean numerique;
+		private final Map<String, java.util.TreeSet<Integer>> exactes = new HashMap<>();
+		private final java.util.TreeMap<Double, java.util.TreeSet<Integer>> triees = new java.util.TreeMap<>();
+
+		/**
+		 * Reconstruit l'index pour un nouvel ensemble de valeurs
+		 */
+		void reconstruire(String[] valeurs, boolean numerique) {
+			this.valeurs = new String[valeurs.length];
+			this.numerique = numerique;
+			exactes.clear();
+			triees.clear();
+			for (int i = 0; i < valeurs.length; i++) {
+				modifier(i, valeurs[i]);
+			}
+		}
+
+		/**
+		 * Met à jour la valeur d'un indice
+		 */
+		void modifier(int index, String valeur) {
+			if (index < 0 || index >= valeurs.length) return;
+			String ancienne = valeurs[index];
+			if (ancienne != null) {
+				retirer(exactes, ancienne, index);
+				Double nombre = enNombre(ancienne);
+				if (nombre != null) retirer(triees, nombre, index);
+			}
+			valeurs[index] = valeur;
+			if (valeur != null) {
+				exactes.computeIfAbsent(valeur, v -> new java.util.TreeSet<>()).add(index);
+				Double nombre = enNombre(valeur);
+				if (nombre != null) triees.computeIfAbsent(nombre, v -> new java.util.TreeSet<>()).add(index);
+			}
+		}
+
+		/**
+		 * Recherche une valeur exacte, ou un intervalle "min..max" pour les types numériques
+		 * @return Les indices trouvés, triés par ordre croissant
+		 */
+		int[] rechercher(String requete) {
+			java.util.TreeSet<Integer> resultat = new java.util.TreeSet<>();
+			int separateur = requete.indexOf("..");
+			if (numerique && separateur > 0) {
+				Double min = enNombre(requete.substring(0, separateur).trim());
+				Double max = enNombre(requete.substring(separateur + 2).trim());
+				if (min != null && max != null && min <= max) {
+					for (java.util.TreeSet<Integer> indices : triees.subMap(min, true, max, true).values()) {
+						resultat.addAll(indices);
+					}
+				}
+			} else if (numerique && enNombre(requete) != null) {
+				// 2 et 2.0 désignent la même valeur numérique
+				java.util.TreeSet<Integer> indices = triees.get(enNombre(requete));
+				if (indices != null) resultat.addAll(indices);
+			} else {
+				java.util.TreeSet<Integer> indices = exactes.get(requete);
+				if (indices != null) resultat.addAll(indices);
+			}
+
+			int[] indices = new int[resultat.size()];
+			int i = 0;
+			for (int index : resultat) {
+				indices[i++] = index;
+			}
+			return indices;
+		}
+
+		private Double enNombre(String valeur) {
+			if (!numerique) return null;
+			try {
+				return Double.valueOf(valeur);
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+
+		private static <K> void retirer(Map<K, java.util.TreeSet<Integer>> map, K cle, int index) {
+			java.util.TreeSet<Integer> indices = map.get(cle);
+			if (indices != null) {
+				indices.remove(index);
+				if (indices.isEmpty()) map.remove(cle);
+			}
+		}
+	}
+
+	/**
+	 * Résumé d'un intervalle de cases calculé par l'arbre d'agrégation
+	 */
+	private static class Resume {
+		int debut;
+		int fin;
+		double min;
+		double max;
+		double somme;
+		int nonDefaut;
+
+		void vider(int debut, int fin) {
+			this.debut = debut;
+			this.fin = fin;
+			min = Double.POSITIVE_INFINITY;
+			max = Double.NEGATIVE_INFINITY;
+			somme = 0;
+			nonDefaut = 0;
+		}
+
+		void ajouter(double min, double max, double somme, int nonDefaut) {
+			// Les comparaisons ignorent naturellement les NaN
+			if (min < this.min) this.min = min;
+			if (max > this.max) this.max = max;
+			this.somme += somme;
+			this.nonDefaut += nonDefaut;
+		}
+
+		boolean estNumerique() {
+			return min <= max;
+		}
+	}
+
+	/**
+	 * Multiensemble des valeurs non par défaut (char et String) : nombre de valeurs
+	 * distinctes tenu à jour en O(1) à chaque écriture
+	 */
+	private static class ComptageValeurs {
+		private final Map<String, int[]> occurrences = new HashMap<>();
+
+		void vider() {
+			occurrences.clear();
+		}
+
+		/**
+		 * Remplace une valeur par une autre dans le multiensemble
+		 * @param ancienne La valeur retirée, ou null si la case était à la valeur par défaut
+		 * @param nouvelle La valeur ajoutée, ou null si la case revient à la valeur par défaut
+		 */
+		void remplacer(String ancienne, String nouvelle) {
+			if (ancienne != null && ancienne.equals(nouvelle)) return;
+			if (ancienne != null) {
+				int[] compte = occurrences.get(ancienne);
+				if (compte != null && --compte[0] == 0) occurrences.remove(ancienne);
+			}
+			if (nouvelle != null) {
+				occurrences.computeIfAbsent(nouvelle, v -> new int[1])[0]++;
+			}
+		}
+
+		int distinctes() {
+			return occurrences.size();
+		}
+	}
+
+	/**
+	 * Bande d'aperçu zoomable : regroupe les cases en blocs résumés (min/max, valeurs non par défaut)
+	 * Molette : zoom autour du curseur, glisser : déplacement, clic : aller à la case
+	 */
+	private class PanelApercu extends JComponent {
+		private static final long serialVersionUID = 1L;
+		private static final int LARGEUR_BLOC_MIN = 56;
+		private final Color COULEUR_BLOC_VIDE = Color.WHITE;
+		private final Color COULEUR_BLOC_PLEIN = new Color(200, 255, 200);
+		private final Color COULEUR_MIN_MAX = new Color(60, 90, 160);
+		private final Font policeBloc = new Font("Monospaced", Font.PLAIN, 10);
+
+		private double debut = 0;             // premier indice visible (fractionnaire)
+		private double indicesParPixel = -1;  // négatif : tout le tableau tient dans la largeur
+		private final Resume resume = new Resume();
+		private final Resume resumeGlobal = new Resume();
+		private int xPresse;
+		private double debutPresse;
+
+		PanelApercu() {
+			setPreferredSize(new Dimension(800, 75));
+			setToolTipText("");
+
+			addMouseWheelListener(e -> zoomer(e.getX(), e.getPreciseWheelRotation()));
+			MouseAdapter souris = new MouseAdapter() {
+				@Override
+				public void mousePressed(MouseEvent e) {
+					xPresse = e.getX();
+					debutPresse = debut;
+				}
+
+				@Override
+				public void mouseDragged(MouseEvent e) {
+					debut = debutPresse - (e.getX() - xPresse) * indicesParPixelEffectif();
+					limiterDebut();
+					repaint();
+				}
+
+				@Override
+				public void mouseClicked(MouseEvent e) {
+					allerALaCase((int) indiceA(e.getX()));
+				}
+			};
+			addMouseListener(souris);
+			addMouseMotionListener(souris);
+		}
+
+		/**
+		 * Réinitialise le zoom après un changement de taille du tableau
+		 */
+		void tailleChangee() {
+			debut = 0;
+			indicesParPixel = -1;
+			repaint();
+		}
+
+		private Rectangle zone() {
+			Insets in = getInsets();
+			return new Rectangle(in.left, in.top, Math.max(1, getWidth() - in.left - in.right),
+					Math.max(1, getHeight() - in.top - in.bottom));
+		}
+
+		private double indicesParPixelMax() {
+			return Math.max(1.0 / LARGEUR_BLOC_MIN, (double) agregation.taille() / zone().width);
+		}
+
+		private double indicesParPixelEffectif() {
+			double max = indicesParPixelMax();
+			return indicesParPixel <= 0 ? max : Math.max(1.0 / LARGEUR_BLOC_MIN, Math.min(max, indicesParPixel));
+		}
+
+		private int indicesParBloc() {
+			return Math.max(1, (int) Math.round(indicesParPixelEffectif() * LARGEUR_BLOC_MIN));
+		}
+
+		private double indiceA(int x) {
+			return debut + (x - zone().x) * indicesParPixelEffectif();
+		}
+
+		private void limiterDebut() {
+			double maxDebut = agregation.taille() - zone().width * indicesParPixelEffectif();
+			debut = Math.max(0, Math.min(debut, maxDebut));
+		}
+
+		private void zoomer(int x, double rotation) {
+			double ancre = indiceA(x);
+			indicesParPixel = indicesParPixelEffectif() * Math.pow(1.25, rotation);
+			indicesParPixel = indicesParPixelEffectif(); // borné entre une case par bloc et le tableau entier
+			debut = ancre - (x - zone().x) * indicesParPixel;
+			limiterDebut();
+			repaint();
+		}
+
+		private void allerALaCase(int index) {
+			if (illustrationCasePanels == null || index < 0 || index >= illustrationCasePanels.length) return;
+			JPanel casePanel = illustrationCasePanels[index];
+			casePanel.scrollRectToVisible(new Rectangle(0, 0, casePanel.getWidth(), casePanel.getHeight()));
+		}
+
+		@Override
+		protected void paintComponent(Graphics g) {
+			super.paintComponent(g);
+			int n = agregation.taille();
+			if (n == 0) return;
+
+			Graphics2D g2 = (Graphics2D) g;
+			Rectangle z = zone();
+			double ipp = indicesParPixelEffectif();
+			int ipb = indicesParBloc();
+			agregation.requete(0, n, resumeGlobal);
+			g2.setFont(policeBloc);
+			FontMetrics fm = g2.getFontMetrics();
+
+			// Parcours des blocs visibles uniquement : O(largeur / LARGEUR_BLOC_MIN * log n)
+			long premier = ((long) debut / ipb) * ipb;
+			long dernier = Math.min(n, (long) Math.ceil(debut + z.width * ipp));
+			for (long a = premier; a < dernier; a += ipb) {
+				int b = (int) Math.min(n, a + ipb);
+				agregation.requete((int) a, b, resume);
+
+				int x = z.x + (int) Math.round((a - debut) / ipp);
+				int xFin = z.x + (int) Math.round((b - debut) / ipp);
+				int largeur = Math.max(1, xFin - x);
+
+				// Fond : proportion de valeurs non par défaut
+				float part = (float) resume.nonDefaut / (b - a);
+				g2.setColor(melanger(COULEUR_BLOC_VIDE, COULEUR_BLOC_PLEIN, part));
+				g2.fillRect(x, z.y, largeur, z.height);
+
+				// Segment min/max relatif à l'ensemble du tableau
+				if (resume.estNumerique() && resumeGlobal.max > resumeGlobal.min) {
+					double echelle = (z.height - 4) / (resumeGlobal.max - resumeGlobal.min);
+					int yMin = z.y + z.height - 2 - (int) ((resume.min - resumeGlobal.min) * echelle);
+					int yMax = z.y + z.height - 2 - (int) ((resume.max - resumeGlobal.min) * echelle);
+					g2.setColor(COULEUR_MIN_MAX);
+					g2.fillRect(x + largeur - 4, yMax, 3, Math.max(1, yMin - yMax));
+				}
+
+				g2.setColor(Color.GRAY);
+				g2.drawRect(x, z.y, largeur, z.height - 1);
+
+				// Étiquettes si le bloc est assez large
+				g2.setColor(Color.BLACK);
+				String intervalle = (b - a == 1) ? "[" + a + "]" : "[" + a + ".." + (b - 1) + "]";
+				if (fm.stringWidth(intervalle) < largeur - 6) {
+					g2.drawString(intervalle, x + 3, z.y + fm.getAscent());
+				}
+				String detail = resume.estNumerique()
+						? (b - a == 1 ? formaterNombre(resume.min) : formaterNombre(resume.min) + ".." + formaterNombre(resume.max))
+						: resume.nonDefaut + "/" + (b - a);
+				if (fm.stringWidth(detail) < largeur - 6 && z.height > 2 * fm.getHeight()) {
+					g2.drawString(detail, x + 3, z.y + fm.getAscent() + fm.getHeight());
+				}
+			}
+		}
+
+		@Override
+		public String getToolTipText(MouseEvent e) {
+			int n = agregation.taille();
+			if (n == 0) return null;
+			int ipb = indicesParBloc();
+			int a = ((int) indiceA(e.getX()) / ipb) * ipb;
+			if (a >= n) return null;
+			agregation.requete(a, Math.min(n, a + ipb), resume);
+			String texte = "[" + resume.debut + ".." + (resume.fin - 1) + "]  non par défaut : "
+					+ resume.nonDefaut + "/" + (resume.fin - resume.debut);
+			if (resume.estNumerique()) {
+				texte += "  min : " + formaterNombre(resume.min) + "  max : " + formaterNombre(resume.max);
+			}
+			return texte;
+		}
+
+		private Color melanger(Color a, Color b, float t) {
+			return new Color(
+					(int) (a.getRed() + (b.getRed() - a.getRed()) * t),
+					(int) (a.getGreen() + (b.getGreen() - a.getGreen()) * t),
+					(int) (a.getBlue() + (b.getBlue() - a.getBlue()) * t));
+		}
+
+		private String formaterNombre(double v) {
+			if (v == Math.rint(v) && Math.abs(v) < 1e15) {
+				return String.valueOf((long) v);
+			}
+			return String.format("%.2f", v);
+		}
+	}
+
+	/**
+	 * Serveur de diffusion en classe (com.sun.net.httpserver, sans dépendance externe)
+	 * - GET /      : page de visualisation pour les élèves
+	 * - GET /flux  : flux Server-Sent Events
+	 * L'EDT ne fait que déposer les événements dans une file non bloquante. Un thread de
+	 * diffusion les regroupe toutes les PERIODE_LOT_MS, les applique à un état miroir, les
+	 * encode en un seul message JSON et le remet à chaque client. Un client trop lent (file
+	 * pleine) perd ses lots en attente et reçoit à la place un instantané de l'état miroir.
+	 */
+	private static class ServeurDiffusion {
+		static final int PORT_DEFAUT = 8765;
+		private static final int PERIODE_LOT_MS = 100;
+		private static final int LOTS_EN_ATTENTE_MAX = 32;
+		private static final long BATTEMENT_MS = 15000;
+		private static final java.util.logging.Logger JOURNAL = java.util.logging.Logger.getLogger(ServeurDiffusion.class.getName());
+
+		private final com.sun.net.httpserver.HttpServer serveur;
+		private final java.util.concurrent.ExecutorService executeurClients;
+		private final java.util.concurrent.ScheduledExecutorService diffuseur;
+		private final java.util.Queue<EvenementDiffusion> evenements = new java.util.concurrent.ConcurrentLinkedQueue<>();
+		private final List<Client> clients = new java.util.concurrent.CopyOnWriteArrayList<>();
+
+		// État miroir, modifié uniquement par le thread de diffusion (lu sous verrou pour les instantanés)
+		private String type = "";
+		private String nom = "";
+		private String[] code = new String[0];
+		private String[] valeurs = new String[0];
+		private boolean[] affectees = new boolean[0];
+		private boolean declare;
+		private int ligne = -1;
+
+		ServeurDiffusion(int port) throws java.io.IOException {
+			serveur = com.sun.net.httpserver.HttpServer.create(new java.net.InetSocketAddress(port), 0);
+			executeurClients = java.util.concurrent.Executors.newCachedThreadPool(r -> {
+				Thread t = new Thread(r, "diffusion-client");
+				t.setDaemon(true);
+				return t;
+			});
+			diffuseur = java.util.concurrent.Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "diffusion-lots");
+				t.setDaemon(true);
+				return t;
+			});
+			serveur.setExecutor(executeurClients);
+			serveur.createContext("/", this::servirPage);
+			serveur.createContext("/flux", this::servirFlux);
+			serveur.start();
+			diffuseur.scheduleAtFixedRate(this::diffuserLot, PERIODE_LOT_MS, PERIODE_LOT_MS,
+					java.util.concurrent.TimeUnit.MILLISECONDS);
+		}
+
+		/**
+		 * Dépose un événement (appel non bloquant depuis l'EDT)
+		 */
+		void publier(EvenementDiffusion evenement) {
+			evenements.add(evenement);
+		}
+
+		int port() {
+			return serveur.getAddress().getPort();
+		}
+
+		void arreter() {
+			diffuseur.shutdownNow();
+			serveur.stop(0);
+			executeurClients.shutdownNow();
+		}
+
+		/**
+		 * Regroupe les événements en attente en un seul message et le remet aux clients
+		 */
+		private void diffuserLot() {
+			if (evenements.isEmpty()) return;
+
+			StringBuilder lot = new StringBuilder("[");
+			synchronized (this) {
+				EvenementDiffusion evenement;
+				while ((evenement = evenements.poll()) != null) {
+					// Une exception non rattrapée annulerait toutes les exécutions suivantes de la tâche
+					int debut = lot.length();
+					try {
+						if (debut > 1) lot.append(',');
+						evenement.versJson(lot);
+						appliquer(evenement);
+					} catch (RuntimeException e) {
+						lot.setLength(debut);
+						JOURNAL.log(java.util.logging.Level.WARNING, "Événement de diffusion ignoré", e);
+					}
+				}
+			}
+			if (lot.length() == 1) return;
+			lot.append(']');
+
+			String message = lot.toString();
+			for (Client client : clients) {
+				if (!client.instantaneRequis && !client.lots.offer(message)) {
+					// Client trop lent : on abandonne son retard au profit d'un instantané
+					client.instantaneRequis = true;
+					client.lots.clear();
+				}
+			}
+		}
+
+		/**
+		 * Applique un événement à l'état miroir
+		 */
+		private void appliquer(EvenementDiffusion ev) {
+			switch (ev.genre) {
+			case 'c':
+				type = ev.type;
+				nom = ev.nom;
+				code = ev.code;
+				valeurs = ev.valeurs.clone();
+				affectees = new boolean[valeurs.length];
+				declare = ev.declare;
+				break;
+			case 'a':
+				if (ev.index < valeurs.length) {
+					valeurs[ev.index] = ev.valeur;
+					affectees[ev.index] = true;
+				}
+				break;
+			case 'r':
+				declare = ev.declare;
+				java.util.Arrays.fill(valeurs, ev.valeur);
+				java.util.Arrays.fill(affectees, false);
+				break;
+			case 'l':
+				ligne = ev.index;
+				break;
+			default:
+				break;
+			}
+		}
+
+		/**
+		 * Construit un instantané complet de l'état miroir (message d'un seul événement)
+		 */
+		private synchronized String instantane() {
+			StringBuilder sb = new StringBuilder("[{\"t\":\"c\",\"type\":").append(json(type))
+					.append(",\"nom\":").append(json(nom)).append(",\"code\":");
+			tableauJson(sb, code);
+			sb.append(",\"v\":");
+			tableauJson(sb, valeurs);
+			sb.append(",\"d\":").append(declare).append(",\"l\":").append(ligne).append(",\"ok\":[");
+			for (int i = 0; i < affectees.length; i++) {
+				if (i > 0) sb.append(',');
+				sb.append(affectees[i] ? '1' : '0');
+			}
+			return sb.append("]}]").toString();
+		}
+
+		private void servirFlux(com.sun.net.httpserver.HttpExchange echange) throws java.io.IOException {
+			echange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+			echange.getResponseHeaders().set("Cache-Control", "no-cache");
+			echange.sendResponseHeaders(200, 0);
+
+			Client client = new Client();
+			clients.add(client);
+			try (java.io.OutputStream sortie = echange.getResponseBody()) {
+				while (!Thread.currentThread().isInterrupted()) {
+					String message;
+					if (client.instantaneRequis) {
+						client.instantaneRequis = false;
+						message = "data: " + instantane() + "\n\n";
+					} else {
+						String lot = client.lots.poll(BATTEMENT_MS, java.util.concurrent.TimeUnit.MILLISECONDS);
+						message = lot == null ? ": ping\n\n" : "data: " + lot + "\n\n";
+					}
+					sortie.write(message.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+					sortie.flush();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (java.io.IOException e) {
+				// Le spectateur s'est déconnecté
+			} finally {
+				clients.remove(client);
+			}
+		}
+
+		private void servirPage(com.sun.net.httpserver.HttpExchange echange) throws java.io.IOException {
+			if (!echange.getRequestURI().getPath().equals("/")) {
+				echange.sendResponseHeaders(404, -1);
+				echange.close();
+				return;
+			}
+			byte[] page = PAGE_SPECTATEUR.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+			echange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+			echange.sendResponseHeaders(200, page.length);
+			try (java.io.OutputStream sortie = echange.getResponseBody()) {
+				sortie.write(page);
+			}
+		}
+
+		/**
+		 * Encode une chaîne en littéral JSON
+		 */
+		static String json(String s) {
+			StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+			for (int i = 0; i < s.length(); i++) {
+				char c = s.charAt(i);
+				switch (c) {
+				case '"': sb.append("\\\""); break;
+				case '\\': sb.append("\\\\"); break;
+				case '<': sb.append("\\u003c"); break;
+				default:
+					if (c < 0x20) {
+						sb.append(String.format("\\u%04x", (int) c));
+					} else {
+						sb.append(c);
+					}
+				}
+			}
+			return sb.append('"').toString();
+		}
+
+		static void tableauJson(StringBuilder sb, String[] valeurs) {
+			sb.append('[');
+			for (int i = 0; i < valeurs.length; i++) {
+				if (i > 0) sb.append(',');
+				sb.append(json(valeurs[i]));
+			}
+			sb.append(']');
+		}
+
+		/**
+		 * Adresse IP locale à communiquer aux élèves
+		 */
+		static String adresseLocale() {
+			try {
+				return java.net.InetAddress.getLocalHost().getHostAddress();
+			} catch (java.net.UnknownHostException e) {
+				return "localhost";
+			}
+		}
+
+		private static class Client {
+			final java.util.concurrent.BlockingQueue<String> lots = new java.util.concurrent.ArrayBlockingQueue<>(LOTS_EN_ATTENTE_MAX);
+			volatile boolean instantaneRequis = true;
+		}
+
+		private static final String PAGE_SPECTATEUR =
+				"<!DOCTYPE html><html><head><meta charset='utf-8'><title>Tableaux Java</title><style>"
+				+ "body{font-family:sans-serif;margin:20px}pre{font-size:16px}.l{background:#ffffc8}"
+				+ "#t{display:flex;gap:5px}.c{border:2px solid #000;min-width:60px;text-align:center;font-family:monospace}"
+				+ ".c i{display:block;font-weight:bold;font-size:12px}.ok{background:#c8ffc8}</style></head><body>"
+				+ "<h2 id='titre'></h2><pre id='code'></pre><div id='t'></div><script>"
+				+ "var e={code:[],v:[],ok:[],d:false,l:-1,type:'',nom:''};"
+				+ "function ap(x){if(x.t=='c'){e.type=x.type;e.nom=x.nom;e.code=x.code;e.v=x.v.slice();e.d=x.d;"
+				+ "e.ok=x.ok?x.ok.map(Boolean):e.v.map(function(){return false});if('l' in x)e.l=x.l;}"
+				+ "else if(x.t=='a'){e.v[x.i]=x.v;e.ok[x.i]=true;}"
+				+ "else if(x.t=='r'){e.d=x.d;e.v=e.v.map(function(){return x.v});e.ok=e.ok.map(function(){return false});}"
+				+ "else if(x.t=='l'){e.l=x.i;}}"
+				+ "function txt(s){var n=document.createElement('span');n.textContent=s;return n.innerHTML}"
+				+ "function rendu(){document.getElementById('titre').textContent=e.type+'[] '+e.nom;"
+				+ "document.getElementById('code').innerHTML=e.code.map(function(c,i){"
+				+ "return '<span'+(i==e.l?' class=\"l\"':'')+'>'+txt(c)+'</span>'}).join('\\n');"
+				+ "document.getElementById('t').innerHTML=e.d?e.v.map(function(v,i){"
+				+ "return '<div class=\"c'+(e.ok[i]?' ok':'')+'\"><i>['+i+']</i>'+txt(v)+'</div>'}).join(''):'';}"
+				+ "var f=new EventSource('/flux');"
+				+ "f.onmessage=function(m){JSON.parse(m.data).forEach(ap);rendu();};"
+				+ "</script></body></html>";
+	}
+
+	/**
+	 * Événement diffusé aux spectateurs (configuration, affectation, réinitialisation ou ligne courante)
+	 */
+	private static final class EvenementDiffusion {
+		final char genre;
+		final int index;
+		final String valeur;
+		final boolean declare;
+		final String type;
+		final String nom;
+		final String[] code;
+		final String[] valeurs;
+
+		private EvenementDiffusion(char genre, int index, String valeur, boolean declare,
+				String type, String nom, String[] code, String[] valeurs) {
+			this.genre = genre;
+			this.index = index;
+			this.valeur = valeur;
+			this.declare = declare;
+			this.type = type;
+			this.nom = nom;
+			this.code = code;
+			this.valeurs = valeurs;
+		}
+
+		static EvenementDiffusion configuration(String type, String nom, String[] code, String[] valeurs, boolean declare) {
+			return new EvenementDiffusion('c', -1, null, declare, type, nom, code, valeurs);
+		}
+
+		static EvenementDiffusion affectation(int index, String valeur) {
+			return new EvenementDiffusion('a', index, valeur, false, null, null, null, null);
+		}
+
+		/**
+		 * Toutes les cases reviennent à la valeur par défaut du type
+		 */
+		static EvenementDiffusion reinitialisation(String valeurDefaut, boolean declare) {
+			return new EvenementDiffusion('r', -1, valeurDefaut, declare, null, null, null, null);
+		}
+
+		static EvenementDiffusion ligne(int index) {
+			return new EvenementDiffusion('l', index, null, false, null, null, null, null);
+		}
+
+		/**
+		 * Encode l'événement sous forme JSON compacte
+		 */
+		void versJson(StringBuilder sb) {
+			sb.append("{\"t\":\"").append(genre).append('"');
+			switch (genre) {
+			case 'c':
+				sb.append(",\"type\":").append(ServeurDiffusion.json(type))
+				  .append(",\"nom\":").append(ServeurDiffusion.json(nom)).append(",\"code\":");
+				ServeurDiffusion.tableauJson(sb, code);
+				sb.append(",\"v\":");
+				ServeurDiffusion.tableauJson(sb, valeurs);
+				sb.append(",\"d\":").append(declare);
+				break;
+			case 'a':
+				sb.append(",\"i\":").append(index).append(",\"v\":").append(ServeurDiffusion.json(valeur));
+				break;
+			case 'r':
+				sb.append(",\"v\":").append(ServeurDiffusion.json(valeur)).append(",\"d\":").append(declare);
+				break;
+			case 'l':
+				sb.append(",\"i\":").append(index);
+				break;
+			default:
+				break;
+			}
+			sb.append('}');
+		}
+	}
+
+	/**
+	 * Expression d'initialisation de la méthode 3, analysée une seule fois puis compilée en une
+	 * composition de lambdas spécialisées par type : aucune réinterprétation de l'arbre ni
+	 * boxing lors du calcul de chaque case
+	 * Syntaxe : littéraux int, long (suffixe L), float (suffixe f), double, char, String, boolean
+	 * et null ; i ; nom.length ; opérateurs + - * / % < <= > >= == != && || ! ?: ; parenthèses ;
+	 * conversions (int) (long) (float) (double) (char) (byte) (short)
+	 * Les types suivent les règles de Java : promotion numérique binaire, calcul en long ou en
+	 * float quand un opérande l'est, affectation d'une constante int à un byte, short ou char
+	 * si sa valeur y tient.
+	 */
+	private static final class ExpressionCompilee {
+		private enum Genre { BYTE, SHORT, CHAR, INT, LONG, FLOAT, DOUBLE, BOOLEAN, STRING }
+
+		// État de l'analyseur (utilisé uniquement pendant la compilation)
+		private final String source;
+		private final String nomTableau;
+		private final int longueur;
+		private int pos;
+
+		// Résultat : calcule la valeur affichée (sans délimiteurs) de la case i
+		private java.util.function.IntFunction<String> valeurAffichee;
+
+		private ExpressionCompilee(String source, String nomTableau, int longueur) {
+			this.source = source;
+			this.nomTableau = nomTableau;
+			this.longueur = longueur;
+		}
+
+		/**
+		 * Analyse et compile une expression pour un tableau du type donné
+		 * @throws IllegalArgumentException si l'expression est invalide ou de type incompatible
+		 */
+		static ExpressionCompilee compiler(String source, String nomTableau, int longueur, String typeTableau) {
+			ExpressionCompilee expression = new ExpressionCompilee(source, nomTableau, longueur);
+			Code code = expression.ternaire();
+			expression.espaces();
+			if (expression.pos < source.length()) {
+				throw expression.erreur("symbole inattendu '" + source.charAt(expression.pos) + "'");
+			}
+			expression.valeurAffichee = convertirPour(code, typeTableau);
+			return expression;
+		}
+
+		/**
+		 * Calcule les valeurs de toutes les cases
+		 * @param taille Le nombre de cases
+		 * @param parallele true pour répartir le calcul sur le pool fork-join commun
+		 * @return Les valeurs affichées, indice par indice
+		 */
+		String[] remplir(int taille, boolean parallele) {
+			String[] valeurs = new String[taille];
+			if (parallele) {
+				int seuil = Math.max(1, taille / (4 * java.util.concurrent.ForkJoinPool.getCommonPoolParallelism()));
+				java.util.concurrent.ForkJoinPool.commonPool().invoke(new Remplissage(valeurAffichee, valeurs, 0, taille, seuil));
+			} else {
+				for (int i = 0; i < taille; i++) {
+					valeurs[i] = valeurAffichee.apply(i);
+				}
+			}
+			return valeurs;
+		}
+
+		/**
+		 * Tâche fork-join : découpe l'intervalle jusqu'au seuil puis calcule séquentiellement
+		 */
+		private static final class Remplissage extends java.util.concurrent.RecursiveAction {
+			private static final long serialVersionUID = 1L;
+			private final java.util.function.IntFunction<String> fonction;
+			private final String[] valeurs;
+			private final int debut;
+			private final int fin;
+			private final int seuil;
+
+			Remplissage(java.util.function.IntFunction<String> fonction, String[] valeurs, int debut, int fin, int seuil) {
+				this.fonction = fonction;
+				this.valeurs = valeurs;
+				this.debut = debut;
+				this.fin = fin;
+				this.seuil = seuil;
+			}
+
+			@Override
+			protected void compute() {
+				if (fin - debut <= seuil) {
+					for (int i = debut; i < fin; i++) {
+						valeurs[i] = fonction.apply(i);
+					}
+					return;
+				}
+				int milieu = (debut + fin) >>> 1;
+				invokeAll(new Remplissage(fonction, valeurs, debut, milieu, seuil),
+						new Remplissage(fonction, valeurs, milieu, fin, seuil));
+			}
+		}
+
+		/**
+		 * Convertit le résultat de l'expression vers le type des éléments (règles d'affectation Java) :
+		 * conversion élargissante, ou constante entière dont la valeur tient dans un byte, short ou char
+		 */
+		private static java.util.function.IntFunction<String> convertirPour(Code code, String typeTableau) {
+			switch (typeTableau) {
+			case "boolean":
+				if (code.genre == Genre.BOOLEAN) {
+					java.util.function.IntPredicate f = code.booleen();
+					return i -> Boolean.toString(f.test(i));
+				}
+				break;
+			case "String":
+				if (code.genre == Genre.STRING) {
+					java.util.function.IntFunction<String> f = code.texte();
+					return i -> {
+						String s = f.apply(i);
+						return s == null ? "null" : s;
+					};
+				}
+				break;
+			default: {
+				Genre cible = Genre.valueOf(typeTableau.toUpperCase());
+				if (!code.estNumerique() || (!elargissement(code.genre, cible) && !constanteRepresentable(code, cible))) {
+					break;
+				}
+				switch (cible) {
+				case DOUBLE: {
+					java.util.function.IntToDoubleFunction f = code.reel();
+					return i -> Double.toString(f.applyAsDouble(i));
+				}
+				case FLOAT: {
+					java.util.function.IntToDoubleFunction f = code.flottant();
+					return i -> Float.toString((float) f.applyAsDouble(i));
+				}
+				case LONG: {
+					java.util.function.IntToLongFunction f = code.longue();
+					return i -> Long.toString(f.applyAsLong(i));
+				}
+				case CHAR: {
+					java.util.function.IntUnaryOperator f = code.entier();
+					return i -> {
+						char c = (char) f.applyAsInt(i);
+						return c == 0 ? "\\u0000" : String.valueOf(c);
+					};
+				}
+				default: {
+					java.util.function.IntUnaryOperator f = code.entier();
+					return i -> Integer.toString(f.applyAsInt(i));
+				}
+				}
+			}
+			}
+			if (code.constante && code.estEntierInt()) {
+				throw new IllegalArgumentException("la constante " + code.entier().applyAsInt(0)
+						+ " ne tient pas dans un " + typeTableau);
+			}
+			boolean conversionUtile = code.estNumerique() && !typeTableau.equals("boolean") && !typeTableau.equals("String");
+			throw new IllegalArgumentException("type incompatible : une expression " + code.nomGenre()
+					+ " ne peut pas être affectée à un élément " + typeTableau
+					+ (conversionUtile ? " (utiliser une conversion (" + typeTableau + "))" : ""));
+		}
+
+		/**
+		 * Conversion primitive élargissante (JLS 5.1.2) ou identité
+		 */
+		private static boolean elargissement(Genre source, Genre cible) {
+			if (source == cible) return true;
+			switch (source) {
+			case BYTE:
+				return cible != Genre.CHAR;
+			case SHORT:
+			case CHAR:
+				return cible.ordinal() >= Genre.INT.ordinal();
+			default:
+				return source.ordinal() < cible.ordinal();
+			}
+		}
+
+		/**
+		 * Constante de type byte, short, char ou int dont la valeur tient dans le type visé (JLS 5.2)
+		 */
+		private static boolean constanteRepresentable(Code code, Genre cible) {
+			if (!code.constante || !code.estEntierInt()) return false;
+			int valeur;
+			try {
+				valeur = code.entier().applyAsInt(0);
+			} catch (ArithmeticException e) {
+				return false;
+			}
+			switch (cible) {
+			case BYTE: return valeur == (byte) valeur;
+			case SHORT: return valeur == (short) valeur;
+			case CHAR: return valeur == (char) valeur;
+			default: return false;
+			}
+		}
+
+		// ----- Analyse descendante récursive : chaque règle renvoie directement le code compilé -----
+
+		private Code ternaire() {
+			Code condition = ou();
+			if (!accepter("?")) return condition;
+			verifier(condition, Genre.BOOLEAN, "?:");
+			Code siVrai = ternaire();
+			attendre(":");
+			Code siFaux = ternaire();
+			java.util.function.IntPredicate c = condition.booleen();
+			boolean constante = condition.constante && siVrai.constante && siFaux.constante;
+
+			Genre genre = genreCommun(siVrai, siFaux);
+			switch (genre) {
+			case BYTE:
+			case SHORT:
+			case CHAR:
+			case INT: {
+				java.util.function.IntUnaryOperator a = siVrai.entier(), b = siFaux.entier();
+				return new Code(genre, (java.util.function.IntUnaryOperator) i -> c.test(i) ? a.applyAsInt(i) : b.applyAsInt(i), constante);
+			}
+			case LONG: {
+				java.util.function.IntToLongFunction a = siVrai.longue(), b = siFaux.longue();
+				return new Code(genre, (java.util.function.IntToLongFunction) i -> c.test(i) ? a.applyAsLong(i) : b.applyAsLong(i), constante);
+			}
+			case FLOAT: {
+				java.util.function.IntToDoubleFunction a = siVrai.flottant(), b = siFaux.flottant();
+				return new Code(genre, (java.util.function.IntToDoubleFunction) i -> c.test(i) ? a.applyAsDouble(i) : b.applyAsDouble(i), constante);
+			}
+			case DOUBLE: {
+				java.util.function.IntToDoubleFunction a = siVrai.reel(), b = siFaux.reel();
+				return new Code(genre, (java.util.function.IntToDoubleFunction) i -> c.test(i) ? a.applyAsDouble(i) : b.applyAsDouble(i), constante);
+			}
+			case BOOLEAN: {
+				java.util.function.IntPredicate a = siVrai.booleen(), b = siFaux.booleen();
+				return new Code(genre, (java.util.function.IntPredicate) i -> c.test(i) ? a.test(i) : b.test(i), constante);
+			}
+			default: {
+				java.util.function.IntFunction<String> a = siVrai.texte(), b = siFaux.texte();
+				return new Code(genre, (java.util.function.IntFunction<String>) i -> c.test(i) ? a.apply(i) : b.apply(i), constante);
+			}
+			}
+		}
+
+		private Code ou() {
+			Code gauche = et();
+			while (accepter("||")) {
+				Code droite = et();
+				verifier(gauche, Genre.BOOLEAN, "||");
+				verifier(droite, Genre.BOOLEAN, "||");
+				java.util.function.IntPredicate a = gauche.booleen(), b = droite.booleen();
+				gauche = new Code(Genre.BOOLEAN, (java.util.function.IntPredicate) i -> a.test(i) || b.test(i),
+						gauche.constante && droite.constante);
+			}
+			return gauche;
+		}
+
+		private Code et() {
+			Code gauche = egalite();
+			while (accepter("&&")) {
+				Code droite = egalite();
+				verifier(gauche, Genre.BOOLEAN, "&&");
+				verifier(droite, Genre.BOOLEAN, "&&");
+				java.util.function.IntPredicate a = gauche.booleen(), b = droite.booleen();
+				gauche = new Code(Genre.BOOLEAN, (java.util.function.IntPredicate) i -> a.test(i) && b.test(i),
+						gauche.constante && droite.constante);
+			}
+			return gauche;
+		}
+
+		private Code egalite() {
+			Code gauche = comparaison();
+			while (true) {
+				boolean egal;
+				if (accepter("==")) {
+					egal = true;
+				} else if (accepter("!=")) {
+					egal = false;
+				} else {
+					return gauche;
+				}
+				Code droite = comparaison();
+				java.util.function.IntPredicate test;
+				if (gauche.estNumerique() && droite.estNumerique()) {
+					switch (promotion(gauche, droite)) {
+					case DOUBLE: {
+						java.util.function.IntToDoubleFunction a = gauche.reel(), b = droite.reel();
+						test = i -> a.applyAsDouble(i) == b.applyAsDouble(i);
+						break;
+					}
+					case FLOAT: {
+						java.util.function.IntToDoubleFunction a = gauche.flottant(), b = droite.flottant();
+						test = i -> a.applyAsDouble(i) == b.applyAsDouble(i);
+						break;
+					}
+					case LONG: {
+						java.util.function.IntToLongFunction a = gauche.longue(), b = droite.longue();
+						test = i -> a.applyAsLong(i) == b.applyAsLong(i);
+						break;
+					}
+					default: {
+						java.util.function.IntUnaryOperator a = gauche.entier(), b = droite.entier();
+						test = i -> a.applyAsInt(i) == b.applyAsInt(i);
+						break;
+					}
+					}
+				} else if (gauche.genre == Genre.BOOLEAN && droite.genre == Genre.BOOLEAN) {
+					java.util.function.IntPredicate a = gauche.booleen(), b = droite.booleen();
+					test = i -> a.test(i) == b.test(i);
+				} else if (gauche.genre == Genre.STRING && droite.genre == Genre.STRING) {
+					throw erreur("== compare les références des String : utiliser equals");
+				} else {
+					throw erreur("comparaison entre " + gauche.nomGenre() + " et " + droite.nomGenre() + " impossible");
+				}
+				java.util.function.IntPredicate t = test;
+				gauche = new Code(Genre.BOOLEAN, egal ? t : (java.util.function.IntPredicate) i -> !t.test(i),
+						gauche.constante && droite.constante);
+			}
+		}
+
+		private Code comparaison() {
+			Code gauche = additif();
+			while (true) {
+				String op = accepter("<=") ? "<=" : accepter(">=") ? ">=" : accepter("<") ? "<" : accepter(">") ? ">" : null;
+				if (op == null) return gauche;
+				Code droite = additif();
+				verifierNumerique(gauche, op);
+				verifierNumerique(droite, op);
+				java.util.function.IntPredicate test;
+				if (promotion(gauche, droite) == Genre.LONG) {
+					// Au-delà de 2^53, les long ne sont plus tous représentables en double
+					java.util.function.IntToLongFunction a = gauche.longue(), b = droite.longue();
+					switch (op) {
+					case "<=": test = i -> a.applyAsLong(i) <= b.applyAsLong(i); break;
+					case ">=": test = i -> a.applyAsLong(i) >= b.applyAsLong(i); break;
+					case "<": test = i -> a.applyAsLong(i) < b.applyAsLong(i); break;
+					default: test = i -> a.applyAsLong(i) > b.applyAsLong(i); break;
+					}
+				} else {
+					boolean flottants = promotion(gauche, droite) == Genre.FLOAT;
+					java.util.function.IntToDoubleFunction a = flottants ? gauche.flottant() : gauche.reel();
+					java.util.function.IntToDoubleFunction b = flottants ? droite.flottant() : droite.reel();
+					switch (op) {
+					case "<=": test = i -> a.applyAsDouble(i) <= b.applyAsDouble(i); break;
+					case ">=": test = i -> a.applyAsDouble(i) >= b.applyAsDouble(i); break;
+					case "<": test = i -> a.applyAsDouble(i) < b.applyAsDouble(i); break;
+					default: test = i -> a.applyAsDouble(i) > b.applyAsDouble(i); break;
+					}
+				}
+				gauche = new Code(Genre.BOOLEAN, test, gauche.constante && droite.constante);
+			}
+		}
+
+		private Code additif() {
+			Code gauche = multiplicatif();
+			while (true) {
+				char op;
+				if (accepter("+")) {
+					op = '+';
+				} else if (accepter("-")) {
+					op = '-';
+				} else {
+					return gauche;
+				}
+				Code droite = multiplicatif();
+				if (op == '+' && (gauche.genre == Genre.STRING || droite.genre == Genre.STRING)) {
+					// Concaténation
+					java.util.function.IntFunction<String> a = gauche.texte(), b = droite.texte();
+					gauche = new Code(Genre.STRING, (java.util.function.IntFunction<String>) i -> a.apply(i) + b.apply(i),
+							gauche.constante && droite.constante);
+				} else {
+					gauche = arithmetique(gauche, droite, op);
+				}
+			}
+		}
+
+		private Code multiplicatif() {
+			Code gauche = unaire();
+			while (true) {
+				char op;
+				if (accepter("*")) {
+					op = '*';
+				} else if (accepter("/")) {
+					op = '/';
+				} else if (accepter("%")) {
+					op = '%';
+				} else {
+					return gauche;
+				}
+				gauche = arithmetique(gauche, unaire(), op);
+			}
+		}
+
+		/**
+		 * Opération arithmétique avec promotion numérique binaire (int, long, float ou double)
+		 * Un calcul float est fait en double puis arrondi à chaque opération : pour + - * / %,
+		 * le résultat est exactement celui de l'arithmétique float
+		 */
+		private Code arithmetique(Code gauche, Code droite, char op) {
+			verifierNumerique(gauche, String.valueOf(op));
+			verifierNumerique(droite, String.valueOf(op));
+			boolean constante = gauche.constante && droite.constante;
+			Genre genre = promotion(gauche, droite);
+			switch (genre) {
+			case DOUBLE:
+			case FLOAT: {
+				java.util.function.IntToDoubleFunction a = genre == Genre.FLOAT ? gauche.flottant() : gauche.reel();
+				java.util.function.IntToDoubleFunction b = genre == Genre.FLOAT ? droite.flottant() : droite.reel();
+				java.util.function.IntToDoubleFunction f;
+				switch (op) {
+				case '+': f = i -> a.applyAsDouble(i) + b.applyAsDouble(i); break;
+				case '-': f = i -> a.applyAsDouble(i) - b.applyAsDouble(i); break;
+				case '*': f = i -> a.applyAsDouble(i) * b.applyAsDouble(i); break;
+				case '/': f = i -> a.applyAsDouble(i) / b.applyAsDouble(i); break;
+				default: f = i -> a.applyAsDouble(i) % b.applyAsDouble(i); break;
+				}
+				if (genre == Genre.FLOAT) {
+					java.util.function.IntToDoubleFunction calcul = f;
+					f = i -> (float) calcul.applyAsDouble(i);
+				}
+				return new Code(genre, f, constante);
+			}
+			case LONG: {
+				java.util.function.IntToLongFunction a = gauche.longue(), b = droite.longue();
+				java.util.function.IntToLongFunction f;
+				switch (op) {
+				case '+': f = i -> a.applyAsLong(i) + b.applyAsLong(i); break;
+				case '-': f = i -> a.applyAsLong(i) - b.applyAsLong(i); break;
+				case '*': f = i -> a.applyAsLong(i) * b.applyAsLong(i); break;
+				case '/': f = i -> a.applyAsLong(i) / b.applyAsLong(i); break;
+				default: f = i -> a.applyAsLong(i) % b.applyAsLong(i); break;
+				}
+				return new Code(genre, f, constante);
+			}
+			default: {
+				java.util.function.IntUnaryOperator a = gauche.entier(), b = droite.entier();
+				java.util.function.IntUnaryOperator f;
+				switch (op) {
+				case '+': f = i -> a.applyAsInt(i) + b.applyAsInt(i); break;
+				case '-': f = i -> a.applyAsInt(i) - b.applyAsInt(i); break;
+				case '*': f = i -> a.applyAsInt(i) * b.applyAsInt(i); break;
+				case '/': f = i -> a.applyAsInt(i) / b.applyAsInt(i); break;
+				default: f = i -> a.applyAsInt(i) % b.applyAsInt(i); break;
+				}
+				return new Code(Genre.INT, f, constante);
+			}
+			}
+		}
+
+		private Code unaire() {
+			espaces();
+			if (accepter("-")) {
+				// Un littéral négatif est lu d'un bloc : -2147483648 est un int valide
+				espaces();
+				if (pos < source.length() && (Character.isDigit(source.charAt(pos)) || (source.charAt(pos) == '.'
+						&& pos + 1 < source.length() && Character.isDigit(source.charAt(pos + 1))))) {
+					return nombre(true);
+				}
+				Code operande = unaire();
+				verifierNumerique(operande, "-");
+				switch (operande.genre) {
+				case DOUBLE:
+				case FLOAT: {
+					java.util.function.IntToDoubleFunction f = operande.reel();
+					return new Code(operande.genre, (java.util.function.IntToDoubleFunction) i -> -f.applyAsDouble(i), operande.constante);
+				}
+				case LONG: {
+					java.util.function.IntToLongFunction f = operande.longue();
+					return new Code(Genre.LONG, (java.util.function.IntToLongFunction) i -> -f.applyAsLong(i), operande.constante);
+				}
+				default: {
+					java.util.function.IntUnaryOperator f = operande.entier();
+					return new Code(Genre.INT, (java.util.function.IntUnaryOperator) i -> -f.applyAsInt(i), operande.constante);
+				}
+				}
+			}
+			if (accepter("+")) {
+				Code operande = unaire();
+				verifierNumerique(operande, "+");
+				// Promotion numérique unaire : byte, short et char deviennent int
+				return operande.estEntierInt() ? new Code(Genre.INT, operande.fonction, operande.constante) : operande;
+			}
+			if (!source.startsWith("!=", pos) && accepter("!")) {
+				Code operande = unaire();
+				verifier(operande, Genre.BOOLEAN, "!");
+				java.util.function.IntPredicate f = operande.booleen();
+				return new Code(Genre.BOOLEAN, (java.util.function.IntPredicate) i -> !f.test(i), operande.constante);
+			}
+
+			// Conversion explicite : (int), (double), (char), (long), (float), (byte) ou (short)
+			int sauvegarde = pos;
+			if (accepter("(")) {
+				String cible = identifiant();
+				if (cible != null && accepter(")") && DescripteurType.existe(cible) && !cible.equals("boolean") && !cible.equals("String")) {
+					Code operande = unaire();
+					verifierNumerique(operande, "(" + cible + ")");
+					return convertir(operande, Genre.valueOf(cible.toUpperCase()));
+				}
+				pos = sauvegarde;
+			}
+			return primaire();
+		}
+
+		/**
+		 * Conversion explicite d'un nombre (JLS 5.1.3 : vers byte, short ou char, un long, float
+		 * ou double passe d'abord par int)
+		 */
+		private Code convertir(Code operande, Genre cible) {
+			switch (cible) {
+			case DOUBLE:
+				return new Code(cible, operande.reel(), operande.constante);
+			case FLOAT:
+				return new Code(cible, operande.flottant(), operande.constante);
+			case LONG: {
+				if (operande.genre == Genre.DOUBLE || operande.genre == Genre.FLOAT) {
+					java.util.function.IntToDoubleFunction f = operande.reel();
+					return new Code(cible, (java.util.function.IntToLongFunction) i -> (long) f.applyAsDouble(i), operande.constante);
+				}
+				return new Code(cible, operande.longue(), operande.constante);
+			}
+			case INT: {
+				if (operande.genre == Genre.DOUBLE || operande.genre == Genre.FLOAT) {
+					java.util.function.IntToDoubleFunction f = operande.reel();
+					return new Code(cible, (java.util.function.IntUnaryOperator) i -> (int) f.applyAsDouble(i), operande.constante);
+				}
+				if (operande.genre == Genre.LONG) {
+					java.util.function.IntToLongFunction f = operande.longue();
+					return new Code(cible, (java.util.function.IntUnaryOperator) i -> (int) f.applyAsLong(i), operande.constante);
+				}
+				return new Code(cible, operande.fonction, operande.constante);
+			}
+			default: {
+				java.util.function.IntUnaryOperator f = convertir(operande, Genre.INT).entier();
+				java.util.function.IntUnaryOperator reduction;
+				switch (cible) {
+				case BYTE: reduction = i -> (byte) f.applyAsInt(i); break;
+				case SHORT: reduction = i -> (short) f.applyAsInt(i); break;
+				default: reduction = i -> (char) f.applyAsInt(i); break;
+				}
+				return new Code(cible, reduction, operande.constante);
+			}
+			}
+		}
+
+		private Code primaire() {
+			espaces();
+			if (pos >= source.length()) throw erreur("expression incomplète");
+			char c = source.charAt(pos);
+
+			if (accepter("(")) {
+				Code interieur = ternaire();
+				attendre(")");
+				return interieur;
+			}
+			if (Character.isDigit(c) || (c == '.' && pos + 1 < source.length() && Character.isDigit(source.charAt(pos + 1)))) {
+				return nombre(false);
+			}
+			if (c == '\'') {
+				pos++;
+				char caractere = caractereLitteral('\'');
+				if (pos >= source.length() || source.charAt(pos) != '\'') throw erreur("littéral char non terminé");
+				pos++;
+				int valeur = caractere;
+				return new Code(Genre.CHAR, (java.util.function.IntUnaryOperator) i -> valeur, true);
+			}
+			if (c == '"') {
+				pos++;
+				StringBuilder sb = new StringBuilder();
+				while (pos < source.length() && source.charAt(pos) != '"') {
+					sb.append(caractereLitteral('"'));
+				}
+				if (pos >= source.length()) throw erreur("littéral String non terminé");
+				pos++;
+				String valeur = sb.toString();
+				return new Code(Genre.STRING, (java.util.function.IntFunction<String>) i -> valeur, true);
+			}
+
+			String mot = identifiant();
+			if (mot == null) throw erreur("symbole inattendu '" + c + "'");
+			switch (mot) {
+			case "i":
+				return new Code(Genre.INT, (java.util.function.IntUnaryOperator) i -> i, false);
+			case "true":
+				return new Code(Genre.BOOLEAN, (java.util.function.IntPredicate) i -> true, true);
+			case "false":
+				return new Code(Genre.BOOLEAN, (java.util.function.IntPredicate) i -> false, true);
+			case "null":
+				// null n'est pas une expression constante en Java
+				return new Code(Genre.STRING, (java.util.function.IntFunction<String>) i -> null, false);
+			default:
+				if (mot.equals(nomTableau) && accepter(".")) {
+					String membre = identifiant();
+					if ("length".equals(membre)) {
+						// t.length n'est pas une constante : pas de réduction implicite vers byte
+						int n = longueur;
+						return new Code(Genre.INT, (java.util.function.IntUnaryOperator) i -> n, false);
+					}
+				}
+				throw erreur("variable inconnue '" + mot + "' (seuls i et " + nomTableau + ".length sont disponibles)");
+			}
+		}
+
+		/**
+		 * Lit un littéral numérique : entier décimal, octal, hexadécimal ou binaire, séparateurs _,
+		 * décimal avec exposant, suffixes L, f et d
+		 * @param negatif true si le littéral suit un moins unaire (la valeur renvoyée est opposée)
+		 */
+		private Code nombre(boolean negatif) {
+			espaces();
+			int debut = pos;
+			boolean prefixe = source.startsWith("0x", pos) || source.startsWith("0X", pos)
+					|| source.startsWith("0b", pos) || source.startsWith("0B", pos);
+			boolean decimal = false;
+			if (prefixe) {
+				pos += 2;
+				while (pos < source.length() && (Character.digit(source.charAt(pos), 16) >= 0 || source.charAt(pos) == '_')) {
+					pos++;
+				}
+			} else {
+				while (pos < source.length() && (Character.isDigit(source.charAt(pos)) || source.charAt(pos) == '.'
+						|| source.charAt(pos) == '_')) {
+					decimal |= source.charAt(pos) == '.';
+					pos++;
+				}
+				if (pos < source.length() && (source.charAt(pos) == 'e' || source.charAt(pos) == 'E')) {
+					decimal = true;
+					pos++;
+					if (pos < source.length() && (source.charAt(pos) == '+' || source.charAt(pos) == '-')) pos++;
+					while (pos < source.length() && Character.isDigit(source.charAt(pos))) {
+						pos++;
+					}
+				}
+			}
+			String texte = source.substring(debut, pos).replace("_", "");
+			char suffixe = pos < source.length() ? Character.toUpperCase(source.charAt(pos)) : ' ';
+			if (suffixe == 'L' || (!prefixe && (suffixe == 'F' || suffixe == 'D'))) {
+				pos++;
+			} else {
+				suffixe = ' ';
+			}
+			String litteral = source.substring(debut, pos);
+			try {
+				if (suffixe == 'F' || suffixe == 'D' || decimal) {
+					if (suffixe == 'L') throw erreur("un long ne peut pas contenir de point décimal ni d'exposant");
+					boolean flottant = suffixe == 'F';
+					double valeur = flottant ? Float.parseFloat(texte) : Double.parseDouble(texte);
+					if (Double.isInfinite(valeur)) throw erreur("nombre trop grand pour un " + (flottant ? "float" : "double") + " '" + litteral + "'");
+					if (valeur == 0 && texte.replaceAll("[eE].*", "").matches(".*[1-9].*")) {
+						throw erreur("nombre trop petit pour un " + (flottant ? "float" : "double") + " '" + litteral + "'");
+					}
+					double signe = negatif ? -valeur : valeur;
+					return new Code(flottant ? Genre.FLOAT : Genre.DOUBLE, (java.util.function.IntToDoubleFunction) i -> signe, true);
+				}
+				long valeur = valeurLitteralEntier(texte, suffixe == 'L', negatif);
+				if (suffixe == 'L') {
+					return new Code(Genre.LONG, (java.util.function.IntToLongFunction) i -> valeur, true);
+				}
+				int entier = (int) valeur;
+				return new Code(Genre.INT, (java.util.function.IntUnaryOperator) i -> entier, true);
+			} catch (NumberFormatException e) {
+				throw erreur("nombre invalide '" + litteral + "'" + (e.getMessage() != null && !e.getMessage().startsWith("For input")
+						? " : " + e.getMessage() : ""));
+			}
+		}
+
+		/**
+		 * Lit un caractère d'un littéral, séquences d'échappement comprises
+		 */
+		private char caractereLitteral(char delimiteur) {
+			if (pos >= source.length()) throw erreur("littéral non terminé");
+			char c = source.charAt(pos++);
+			if (c != '\\') {
+				if (c == delimiteur) throw erreur("littéral vide");
+				return c;
+			}
+			if (pos >= source.length()) throw erreur("échappement incomplet");
+			char e = source.charAt(pos++);
+			switch (e) {
+			case 'n': return '\n';
+			case 't': return '\t';
+			case 'r': return '\r';
+			case 'b': return '\b';
+			case 'f': return '\f';
+			case '0': return '\0';
+			case '\'': return '\'';
+			case '"': return '"';
+			case '\\': return '\\';
+			case 'u':
+				if (pos + 4 > source.length()) throw erreur("échappement unicode incomplet");
+				try {
+					char u = (char) Integer.parseInt(source.substring(pos, pos + 4), 16);
+					pos += 4;
+					return u;
+				} catch (NumberFormatException ex) {
+					throw erreur("échappement unicode invalide");
+				}
+			default:
+				throw erreur("échappement inconnu '\\" + e + "'");
+			}
+		}
+
+		private String identifiant() {
+			espaces();
+			int debut = pos;
+			while (pos < source.length() && Character.isJavaIdentifierPart(source.charAt(pos))) {
+				pos++;
+			}
+			if (pos == debut || !Character.isJavaIdentifierStart(source.charAt(debut))) {
+				pos = debut;
+				return null;
+			}
+			return source.substring(debut, pos);
+		}
+
+		private void espaces() {
+			while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+				pos++;
+			}
+		}
+
+		private boolean accepter(String symbole) {
+			espaces();
+			if (source.startsWith(symbole, pos)) {
+				pos += symbole.length();
+				return true;
+			}
+			return false;
+		}
+
+		private void attendre(String symbole) {
+			if (!accepter(symbole)) throw erreur("'" + symbole + "' attendu");
+		}
+
+		private void verifier(Code code, Genre attendu, String operateur) {
+			if (code.genre != attendu) {
+				throw erreur("l'opérateur " + operateur + " attend un boolean, pas un " + code.nomGenre());
+			}
+		}
+
+		private void verifierNumerique(Code code, String operateur) {
+			if (!code.estNumerique()) {
+				throw erreur("l'opérateur " + operateur + " attend un nombre, pas un " + code.nomGenre());
+			}
+		}
+
+		/**
+		 * Promotion numérique binaire (JLS 5.6.2) : double, sinon float, sinon long, sinon int
+		 */
+		private static Genre promotion(Code a, Code b) {
+			if (a.genre == Genre.DOUBLE || b.genre == Genre.DOUBLE) return Genre.DOUBLE;
+			if (a.genre == Genre.FLOAT || b.genre == Genre.FLOAT) return Genre.FLOAT;
+			if (a.genre == Genre.LONG || b.genre == Genre.LONG) return Genre.LONG;
+			return Genre.INT;
+		}
+
+		/**
+		 * Type d'une expression conditionnelle (JLS 15.25) : byte ou short avec une constante
+		 * int qui y tient, short pour byte et short, promotion numérique binaire sinon
+		 */
+		private Genre genreCommun(Code a, Code b) {
+			if (a.genre == b.genre) return a.genre;
+			if (a.estNumerique() && b.estNumerique()) {
+				if ((a.genre == Genre.BYTE && b.genre == Genre.SHORT) || (a.genre == Genre.SHORT && b.genre == Genre.BYTE)) {
+					return Genre.SHORT;
+				}
+				if (b.genre == Genre.INT && a.estEntierInt() && constanteRepresentable(b, a.genre)) return a.genre;
+				if (a.genre == Genre.INT && b.estEntierInt() && constanteRepresentable(a, b.genre)) return b.genre;
+				return promotion(a, b);
+			}
+			throw erreur("branches de ?: incompatibles (" + a.nomGenre() + " et " + b.nomGenre() + ")");
+		}
+
+		private IllegalArgumentException erreur(String message) {
+			return new IllegalArgumentException(message + " (position " + (pos + 1) + ")");
+		}
+
+		/**
+		 * Noeud compilé : type statique, lambda spécialisée et caractère constant (sans i ni length)
+		 * BYTE, SHORT, CHAR et INT : IntUnaryOperator, LONG : IntToLongFunction,
+		 * FLOAT et DOUBLE : IntToDoubleFunction (valeurs déjà arrondies au float pour FLOAT),
+		 * BOOLEAN : IntPredicate, STRING : IntFunction<String>
+		 */
+		private static final class Code {
+			final Genre genre;
+			final Object fonction;
+			final boolean constante;
+
+			Code(Genre genre, Object fonction, boolean constante) {
+				this.genre = genre;
+				this.fonction = fonction;
+				this.constante = constante;
+			}
+
+			boolean estNumerique() {
+				return genre != Genre.BOOLEAN && genre != Genre.STRING;
+			}
+
+			/**
+			 * byte, short, char ou int : valeur portée par un IntUnaryOperator
+			 */
+			boolean estEntierInt() {
+				return genre.ordinal() <= Genre.INT.ordinal();
+			}
+
+			String nomGenre() {
+				return genre == Genre.STRING ? "String" : genre.name().toLowerCase();
+			}
+
+			java.util.function.IntUnaryOperator entier() {
+				return (java.util.function.IntUnaryOperator) fonction;
+			}
+
+			java.util.function.IntToLongFunction longue() {
+				if (genre == Genre.LONG) return (java.util.function.IntToLongFunction) fonction;
+				java.util.function.IntUnaryOperator f = entier();
+				return i -> f.applyAsInt(i);
+			}
+
+			java.util.function.IntToDoubleFunction reel() {
+				if (genre == Genre.DOUBLE || genre == Genre.FLOAT) return (java.util.function.IntToDoubleFunction) fonction;
+				if (genre == Genre.LONG) {
+					java.util.function.IntToLongFunction f = longue();
+					return i -> f.applyAsLong(i);
+				}
+				java.util.function.IntUnaryOperator f = entier();
+				return i -> f.applyAsInt(i);
+			}
+
+			/**
+			 * Valeur arrondie au float le plus proche (un int au-delà de 2^24 perd des chiffres)
+			 */
+			java.util.function.IntToDoubleFunction flottant() {
+				switch (genre) {
+				case FLOAT:
+					return (java.util.function.IntToDoubleFunction) fonction;
+				case DOUBLE: {
+					java.util.function.IntToDoubleFunction f = reel();
+					return i -> (float) f.applyAsDouble(i);
+				}
+				case LONG: {
+					java.util.function.IntToLongFunction f = longue();
+					return i -> (float) f.applyAsLong(i);
+				}
+				default: {
+					java.util.function.IntUnaryOperator f = entier();
+					return i -> (float) f.applyAsInt(i);
+				}
+				}
+			}
+
+			java.util.function.IntPredicate booleen() {
+				return (java.util.function.IntPredicate) fonction;
+			}
+
+			@SuppressWarnings("unchecked")
+			java.util.function.IntFunction<String> texte() {
+				switch (genre) {
+				case STRING:
+					return (java.util.function.IntFunction<String>) fonction;
+				case CHAR: {
+					java.util.function.IntUnaryOperator f = entier();
+					return i -> String.valueOf((char) f.applyAsInt(i));
+				}
+				case BYTE:
+				case SHORT:
+				case INT: {
+					java.util.function.IntUnaryOperator f = entier();
+					return i -> Integer.toString(f.applyAsInt(i));
+				}
+				case LONG: {
+					java.util.function.IntToLongFunction f = longue();
+					return i -> Long.toString(f.applyAsLong(i));
+				}
+				case FLOAT: {
+					java.util.function.IntToDoubleFunction f = reel();
+					return i -> Float.toString((float) f.applyAsDouble(i));
+				}
+				case DOUBLE: {
+					java.util.function.IntToDoubleFunction f = reel();
+					return i -> Double.toString(f.applyAsDouble(i));
+				}
+				default: {
+					java.util.function.IntPredicate f = booleen();
+					return i -> Boolean.toString(f.test(i));
+				}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Résultat de l'analyse d'un initialiseur
+	 */
+	private static final class InitialiseurLu {
+		final String type;
+		final String nom;       // null si le littéral ne déclare pas de variable
+		final String[] textes;  // textes des champs (délimiteurs compris), null pour garder les exemples
+		final int nombre;       // nombre total d'éléments lus
+
+		InitialiseurLu(String type, String nom, String[] textes, int nombre) {
+			this.type = type;
+			this.nom = nom;
+			this.textes = textes;
+			this.nombre = nombre;
+		}
+	}
+
+	/**
+	 * Analyseur en flux d'un initialiseur de tableau Java
+	 * Les caractères sont lus par tampon et chaque élément est converti dès sa lecture :
+	 * aucune liste de jetons n'est construite et seuls les premiers éléments sont conservés,
+	 * si bien que la mémoire reste bornée quelle que soit la taille du littéral.
+	 * Formes acceptées : {…}, new T[]{…}, T[] nom = {…}, T nom[] = new T[]{…} (point-virgule facultatif)
+	 */
+	private static final class LecteurInitialiseur {
+		// Genres d'éléments (bits pour la déduction du type)
+		private static final int ENTIER = 1, REEL = 2, CARACTERE = 4, BOOLEEN = 8, CHAINE = 16, NUL = 32,
+				ENTIER_LONG = 64, FLOTTANT = 128;
+		private static final int PAS_PROGRESSION = 1 << 16;
+
+		private static final Pattern DECLARATION_CROCHETS_TYPE =
+				Pattern.compile("\\s*(?:final\\s+)?([\\w.]+)\\s*\\[\\s*\\]\\s*(\\w+)\\s*=\\s*(.*)", Pattern.DOTALL);
+		private static final Pattern DECLARATION_CROCHETS_NOM =
+				Pattern.compile("\\s*(?:final\\s+)?([\\w.]+)\\s+(\\w+)\\s*\\[\\s*\\]\\s*=\\s*(.*)", Pattern.DOTALL);
+		private static final Pattern CREATION = Pattern.compile("\\s*new\\s+([\\w.]+)\\s*\\[\\s*\\]\\s*");
+
+		private final java.io.Reader source;
+		private final int limite;
+		private final java.util.function.LongConsumer progression;
+		private final java.util.function.BooleanSupplier annulation;
+
+		private final char[] tampon = new char[8192];
+		private int remplissage = 0;
+		private int position = 0;
+		private int suivant = -2;   // caractère regardé d'avance (-2 : aucun)
+		private long lus = 0;
+		private int ligne = 1;
+		private int colonne = 0;
+
+		// Éléments conservés : genre et texte brut normalisé
+		private final short[] genres;
+		private final String[] bruts;
+		private int nombre = 0;
+		private int genresVus = 0;
+		private String nombreLu;
+		private String typeDeclare;
+
+		/**
+		 * @param source Le texte à lire
+		 * @param limite Nombre maximal d'éléments conservés (les suivants sont seulement comptés)
+		 * @param progression Reçoit régulièrement le nombre de caractères lus
+		 * @param annulation Interrompt l'analyse lorsqu'elle renvoie true
+		 */
+		LecteurInitialiseur(java.io.Reader source, int limite, java.util.function.LongConsumer progression,
+				java.util.function.BooleanSupplier annulation) {
+			this.source = source;
+			this.limite = limite;
+			this.progression = progression;
+			this.annulation = annulation;
+			this.genres = new short[limite];
+			this.bruts = new String[limite];
+		}
+
+		/**
+		 * Lit l'initialiseur complet
+		 * @throws IllegalArgumentException si le texte n'est pas un initialiseur valide (avec la position)
+		 * @throws java.util.concurrent.CancellationException si l'analyse a été annulée
+		 */
+		InitialiseurLu lire() throws java.io.IOException {
+			// Préfixe éventuel jusqu'à l'accolade ouvrante
+			StringBuilder prefixe = new StringBuilder();
+			int c;
+			espaces();
+			while ((c = lireCaractere()) != '{') {
+				if (c == -1 || prefixe.length() > 200) throw erreur("'{' attendu");
+				prefixe.append((char) c);
+			}
+			String nom = analyserPrefixe(prefixe.toString());
+
+			// Éléments séparés par des virgules (virgule finale permise)
+			espaces();
+			if (regarder() == '}') {
+				lireCaractere();
+			} else {
+				while (true) {
+					element();
+					espaces();
+					c = lireCaractere();
+					if (c == '}') break;
+					if (c != ',') throw erreur("',' ou '}' attendu");
+					espaces();
+					if (regarder() == '}') {
+						lireCaractere();
+						break;
+					}
+				}
+			}
+
+			espaces();
+			if (regarder() == ';') {
+				lireCaractere();
+				espaces();
+			}
+			if (regarder() != -1) throw erreur("texte inattendu après l'initialiseur");
+
+			String type = typeDeclare != null ? typeDeclare : deduireType();
+			String[] textes = new String[Math.min(nombre, limite)];
+			for (int i = 0; i < textes.length; i++) {
+				textes[i] = texteChamp(i, type);
+			}
+			return new InitialiseurLu(type, nom, textes, nombre);
+		}
+
+		/**
+		 * Reconnaît le type et le nom éventuels précédant l'accolade
+		 * @return Le nom déclaré, ou null
+		 */
+		private String analyserPrefixe(String prefixe) {
+			if (prefixe.trim().isEmpty()) return null;
+
+			String nom = null;
+			String reste = prefixe;
+			java.util.regex.Matcher declaration = DECLARATION_CROCHETS_TYPE.matcher(prefixe);
+			if (!declaration.matches()) {
+				declaration = DECLARATION_CROCHETS_NOM.matcher(prefixe);
+			}
+			if (declaration.matches()) {
+				typeDeclare = typeReconnu(declaration.group(1));
+				nom = declaration.group(2);
+				reste = declaration.group(3);
+			}
+
+			if (!reste.trim().isEmpty()) {
+				java.util.regex.Matcher creation = CREATION.matcher(reste);
+				if (!creation.matches()) throw erreur("début d'initialiseur non reconnu : " + prefixe.trim());
+				String type = typeReconnu(creation.group(1));
+				if (typeDeclare != null && !typeDeclare.equals(type)) {
+					throw erreur("types incompatibles : " + typeDeclare + "[] et new " + type + "[]");
+				}
+				typeDeclare = type;
+			}
+			return nom;
+		}
+
+		private String typeReconnu(String type) {
+			String simple = type.equals("java.lang.String") ? "String" : type;
+			if (!DescripteurType.existe(simple)) throw erreur("type " + type + " non pris en charge");
+			return simple;
+		}
+
+		/**
+		 * Lit un élément et le range (s'il reste de la place), en vérifiant le type déclaré
+		 */
+		private void element() throws java.io.IOException {
+			int c = regarder();
+			int genre;
+			String brut;
+			if (c == '"') {
+				lireCaractere();
+				StringBuilder sb = new StringBuilder();
+				while ((c = lireCaractere()) != '"') {
+					if (c == -1 || c == '\n' || c == '\r') throw erreur("chaîne non terminée");
+					sb.append(c == '\\' ? echappement() : (char) c);
+				}
+				genre = CHAINE;
+				brut = sb.toString();
+			} else if (c == '\'') {
+				lireCaractere();
+				c = lireCaractere();
+				if (c == '\'') throw erreur("littéral char vide");
+				if (c == -1 || c == '\n' || c == '\r') throw erreur("littéral char non terminé");
+				char caractere = c == '\\' ? echappement() : (char) c;
+				if (lireCaractere() != '\'') throw erreur("un char contient un seul caractère");
+				genre = CARACTERE;
+				brut = String.valueOf(caractere);
+			} else if (c == '{') {
+				throw erreur("tableaux à plusieurs dimensions non pris en charge");
+			} else if (c == '-' || c == '+' || c == '.' || (c >= '0' && c <= '9')) {
+				genre = nombre();
+				brut = nombreLu;
+			} else if (Character.isJavaIdentifierStart(c)) {
+				StringBuilder mot = new StringBuilder();
+				while (regarder() != -1 && Character.isJavaIdentifierPart(regarder())) {
+					mot.append((char) lireCaractere());
+				}
+				switch (mot.toString()) {
+				case "true":
+				case "false":
+					genre = BOOLEEN;
+					break;
+				case "null":
+					genre = NUL;
+					break;
+				default:
+					throw erreur("'" + mot + "' n'est pas un littéral");
+				}
+				brut = mot.toString();
+			} else {
+				throw erreur(c == -1 ? "initialiseur incomplet" : "élément attendu");
+			}
+
+			if (typeDeclare != null && !compatible(genre, typeDeclare)) {
+				throw erreur("élément " + nombre + " : un " + nomGenre(genre) + " ne peut pas aller dans un " + typeDeclare + "[]");
+			}
+			genresVus |= genre;
+			if (nombre < limite) {
+				genres[nombre] = (short) genre;
+				bruts[nombre] = brut;
+			}
+			nombre++;
+		}
+
+		/**
+		 * Lit un littéral numérique (signe, séparateurs _, exposant, suffixes l/d/f, hexadécimal)
+		 * La valeur normalisée en écriture décimale est placée dans nombreLu ; elle n'est
+		 * calculée que pour les éléments conservés
+		 * @return ENTIER, ENTIER_LONG, REEL ou FLOTTANT
+		 */
+		private int nombre() throws java.io.IOException {
+			StringBuilder sb = new StringBuilder();
+			int c = regarder();
+			if (c == '-' || c == '+') {
+				if (lireCaractere() == '-') sb.append('-');
+				espaces();
+			}
+			int precedent = 0;
+			while ((c = regarder()) != -1 && (Character.isLetterOrDigit(c) || c == '.' || c == '_'
+					|| ((c == '-' || c == '+') && (precedent == 'e' || precedent == 'E')))) {
+				lireCaractere();
+				if (c != '_') sb.append((char) c);
+				precedent = c;
+			}
+			String texte = sb.toString();
+			boolean conserve = nombre < limite;
+			nombreLu = null;
+
+			// Cas courant : entier décimal simple, vérifié sans conversion s'il n'est pas conservé
+			// (un 0 en tête annonce un octal, converti plus bas)
+			int debut = texte.startsWith("-") ? 1 : 0;
+			boolean chiffresSeuls = texte.length() > debut && (texte.charAt(debut) != '0' || texte.length() == debut + 1);
+			for (int i = debut; i < texte.length() && chiffresSeuls; i++) {
+				chiffresSeuls = texte.charAt(i) >= '0' && texte.charAt(i) <= '9';
+			}
+			if (chiffresSeuls) {
+				if (conserve) nombreLu = new java.math.BigInteger(texte).toString();
+				return ENTIER;
+			}
+
+			char dernier = texte.isEmpty() ? ' ' : texte.charAt(texte.length() - 1);
+			boolean suffixeLong = dernier == 'l' || dernier == 'L';
+			if (suffixeLong) texte = texte.substring(0, texte.length() - 1);
+			String absolu = texte.substring(debut);
+			try {
+				if (absolu.startsWith("0x") || absolu.startsWith("0X") || absolu.startsWith("0b") || absolu.startsWith("0B")
+						|| (absolu.length() > 1 && absolu.charAt(0) == '0' && absolu.chars().allMatch(Character::isDigit))) {
+					// Hexadécimal, binaire et octal en complément à deux comme en Java : 0xFFFFFFFF vaut -1,
+					// 0xFFFFFFFFL vaut 4294967295
+					nombreLu = Long.toString(valeurLitteralEntier(absolu, suffixeLong, debut == 1));
+					return suffixeLong ? ENTIER_LONG : ENTIER;
+				}
+				if (suffixeLong) {
+					nombreLu = new java.math.BigInteger(texte).toString();
+					return ENTIER_LONG;
+				}
+				boolean flottant = dernier == 'f' || dernier == 'F';
+				boolean reel = flottant || dernier == 'd' || dernier == 'D';
+				if (reel) texte = texte.substring(0, texte.length() - 1);
+				// Les autres formes sont rares : la conversion sert aussi de vérification
+				// Forme décimale conservée comme à l'affichage Java : 1.0 et non 1, 1e3 devient 1000.0
+				java.math.BigDecimal decimal = new java.math.BigDecimal(texte).stripTrailingZeros();
+				double valeur = flottant ? Float.parseFloat(texte) : Double.parseDouble(texte);
+				if (Double.isInfinite(valeur) || (valeur == 0 && decimal.signum() != 0)) {
+					throw erreur("nombre '" + sb + "' hors des limites d'un " + (flottant ? "float" : "double"));
+				}
+				nombreLu = (decimal.scale() > 0 ? decimal : decimal.setScale(1)).toPlainString();
+				return flottant ? FLOTTANT : REEL;
+			} catch (NumberFormatException e) {
+				throw erreur("nombre invalide '" + sb + "'" + (e.getMessage() != null && !e.getMessage().startsWith("For input")
+						? " : " + e.getMessage() : ""));
+			}
+		}
+
+		/**
+		 * Décode une séquence d'échappement (la barre oblique inverse vient d'être lue)
+		 */
+		private char echappement() throws java.io.IOException {
+			int c = lireCaractere();
+			switch (c) {
+			case 'n': return '\n';
+			case 't': return '\t';
+			case 'b': return '\b';
+			case 'r': return '\r';
+			case 'f': return '\f';
+			case 's': return ' ';
+			case '\'': return '\'';
+			case '"': return '"';
+			case '\\': return '\\';
+			case 'u': {
+				while (regarder() == 'u') lireCaractere();
+				int valeur = 0;
+				for (int i = 0; i < 4; i++) {
+					int chiffre = Character.digit(lireCaractere(), 16);
+					if (chiffre < 0) throw erreur("échappement unicode invalide");
+					valeur = valeur * 16 + chiffre;
+				}
+				return (char) valeur;
+			}
+			default:
+				if (c >= '0' && c <= '7') {
+					// Échappement octal : jusqu'à 3 chiffres, valeur au plus \377
+					int valeur = c - '0';
+					int maxChiffres = c <= '3' ? 3 : 2;
+					for (int i = 1; i < maxChiffres && regarder() >= '0' && regarder() <= '7'; i++) {
+						valeur = valeur * 8 + (lireCaractere() - '0');
+					}
+					return (char) valeur;
+				}
+				throw erreur("échappement inconnu");
+			}
+		}
+
+		private static boolean compatible(int genre, String type) {
+			switch (type) {
+			case "int":
+			case "byte":
+			case "short":
+			case "char": return genre == ENTIER || genre == CARACTERE;
+			case "long": return genre == ENTIER || genre == ENTIER_LONG || genre == CARACTERE;
+			case "float": return genre == ENTIER || genre == ENTIER_LONG || genre == FLOTTANT || genre == CARACTERE;
+			case "double": return genre == ENTIER || genre == ENTIER_LONG || genre == REEL || genre == FLOTTANT || genre == CARACTERE;
+			case "boolean": return genre == BOOLEEN;
+			default: return genre == CHAINE || genre == NUL;
+			}
+		}
+
+		/**
+		 * Déduit le type d'un initialiseur sans type explicite à partir des genres rencontrés
+		 */
+		private String deduireType() {
+			if (genresVus == 0 || (genresVus & ~(CHAINE | NUL)) == 0) return "String";
+			if (genresVus == BOOLEEN) return "boolean";
+			if (genresVus == CARACTERE) return "char";
+			if ((genresVus & ~(ENTIER | CARACTERE)) == 0) return "int";
+			if ((genresVus & ~(ENTIER | ENTIER_LONG | CARACTERE)) == 0) return "long";
+			if ((genresVus & ~(ENTIER | ENTIER_LONG | FLOTTANT | CARACTERE)) == 0) return "float";
+			if ((genresVus & ~(ENTIER | ENTIER_LONG | REEL | FLOTTANT | CARACTERE)) == 0) return "double";
+			throw erreur("éléments de types incompatibles : préciser le type avec new T[]{...}");
+		}
+
+		/**
+		 * Texte du champ de saisie pour l'élément i converti vers le type du tableau
+		 */
+		private String texteChamp(int i, String type) {
+			int genre = genres[i];
+			String brut = bruts[i];
+			switch (type) {
+			case "int": {
+				long valeur = genre == CARACTERE ? brut.charAt(0) : new java.math.BigInteger(brut).longValue();
+				if (genre == ENTIER && new java.math.BigInteger(brut).bitLength() > 31) {
+					throw new IllegalArgumentException("élément " + i + " : nombre hors des limites d'un int");
+				}
+				return Long.toString(valeur);
+			}
+			case "long":
+			case "byte":
+			case "short": {
+				java.math.BigInteger valeur = genre == CARACTERE
+						? java.math.BigInteger.valueOf(brut.charAt(0)) : new java.math.BigInteger(brut);
+				int bits = type.equals("long") ? 63 : type.equals("short") ? 15 : 7;
+				if (valeur.bitLength() > bits || (genre == ENTIER && valeur.bitLength() > 31)) {
+					throw new IllegalArgumentException("élément " + i + " : " + brut + " ne tient pas dans un "
+							+ (genre == ENTIER && bits == 63 ? "int (suffixe L manquant)" : type));
+				}
+				return DescripteurType.pour(type).litteral(valeur.toString());
+			}
+			case "float":
+				return DescripteurType.pour(type).litteral(genre == CARACTERE ? Integer.toString(brut.charAt(0)) : brut);
+			case "double":
+				// Un entier converti en double s'affiche 3.0 en Java
+				if (genre == REEL || genre == FLOTTANT) return brut;
+				return (genre == CARACTERE ? Integer.toString(brut.charAt(0)) : brut) + ".0";
+			case "char": {
+				char caractere;
+				if (genre == ENTIER) {
+					java.math.BigInteger valeur = new java.math.BigInteger(brut);
+					if (valeur.signum() < 0 || valeur.bitLength() > 16) {
+						throw new IllegalArgumentException("élément " + i + " : " + brut + " ne tient pas dans un char");
+					}
+					caractere = (char) valeur.intValue();
+				} else {
+					caractere = brut.charAt(0);
+				}
+				return caractere == 0 ? "\\u0000" : "'" + caractere + "'";
+			}
+			case "String":
+				return genre == NUL ? "null" : "\"" + brut + "\"";
+			default:
+				return brut;
+			}
+		}
+
+		private static String nomGenre(int genre) {
+			switch (genre) {
+			case ENTIER: return "int";
+			case REEL: return "double";
+			case ENTIER_LONG: return "long";
+			case FLOTTANT: return "float";
+			case CARACTERE: return "char";
+			case BOOLEEN: return "boolean";
+			case CHAINE: return "String";
+			default: return "null";
+			}
+		}
+
+		/**
+		 * Ignore espaces et commentaires
+		 */
+		private void espaces() throws java.io.IOException {
+			while (true) {
+				int c = regarder();
+				if (c != -1 && Character.isWhitespace(c)) {
+					lireCaractere();
+				} else if (c == '/') {
+					lireCaractere();
+					int d = lireCaractere();
+					if (d == '/') {
+						while ((c = lireCaractere()) != -1 && c != '\n') {
+							// commentaire de fin de ligne
+						}
+					} else if (d == '*') {
+						int precedent = 0;
+						while ((c = lireCaractere()) != '/' || precedent != '*') {
+							if (c == -1) throw erreur("commentaire non terminé");
+							precedent = c;
+						}
+					} else {
+						throw erreur("'/' inattendu");
+					}
+				} else {
+					return;
+				}
+			}
+		}
+
+		private int regarder() throws java.io.IOException {
+			if (suivant == -2) {
+				suivant = lireBrut();
+			}
+			return suivant;
+		}
+
+		private int lireCaractere() throws java.io.IOException {
+			int c = regarder();
+			suivant = -2;
+			if (c == '\n') {
+				ligne++;
+				colonne = 0;
+			} else if (c != -1) {
+				colonne++;
+			}
+			return c;
+		}
+
+		/**
+		 * Lecture tamponnée ; signale la progression et vérifie l'annulation à chaque tampon
+		 */
+		private int lireBrut() throws java.io.IOException {
+			if (position == remplissage) {
+				if (annulation.getAsBoolean()) throw new java.util.concurrent.CancellationException();
+				remplissage = source.read(tampon);
+				position = 0;
+				if (remplissage <= 0) {
+					remplissage = 0;
+					return -1;
+				}
+				long avant = lus;
+				lus += remplissage;
+				if (avant / PAS_PROGRESSION != lus / PAS_PROGRESSION) {
+					progression.accept(lus);
+				}
+			}
+			return tampon[position++];
+		}
+
+		private IllegalArgumentException erreur(String message) {
+			return new IllegalArgumentException(message + " (ligne " + ligne + ", colonne " + colonne + ")");
+		}
+	}
+
+	/**
+	 * Déclaration de tableau trouvée dans un fichier source
+	 */
+	private static final class DeclarationTableau {
+		final String fichier;       // chemin relatif à la racine analysée
+		final long modification;    // date de modification du fichier lors de l'analyse
+		final int ligne;
+		final String type;
+		final String nom;
+		final int tailleAllouee;    // n pour new T[n], -1 pour un initialiseur
+		final int nombreElements;   // nombre d'éléments de l'initialiseur
+		final int debut;            // intervalle de la déclaration dans le texte du fichier
+		final int fin;
+		final String apercu;
+
+		DeclarationTableau(String fichier, long modification, int ligne, String type, String nom,
+				int tailleAllouee, int nombreElements, int debut, int fin, String apercu) {
+			this.fichier = fichier;
+			this.modification = modification;
+			this.ligne = ligne;
+			this.type = type;
+			this.nom = nom;
+			this.tailleAllouee = tailleAllouee;
+			this.nombreElements = nombreElements;
+			this.debut = debut;
+			this.fin = fin;
+			this.apercu = apercu;
+		}
+
+		@Override
+		public String toString() {
+			return fichier + ":" + ligne + "  " + apercu
+					+ (tailleAllouee >= 0 ? "" : "  (" + nombreElements + (nombreElements > 1 ? " éléments)" : " élément)"));
+		}
+	}
+
+	/**
+	 * Index des déclarations de tableaux d'une arborescence de sources
+	 * Chaque fichier est indexé avec sa date de modification et sa taille : une nouvelle analyse
+	 * ne relit que les fichiers modifiés ou nouveaux. Les fichiers à analyser sont répartis sur
+	 * le pool fork-join commun et lus par projection mémoire.
+	 */
+	private static final class IndexSources {
+		private static final String TYPES = "(int|long|short|byte|double|float|char|boolean|String|java\\.lang\\.String)";
+		private static final Pattern DECLARATION = Pattern.compile(
+				"\\b" + TYPES + "\\s*\\[\\s*\\]\\s*([A-Za-z_$][\\w$]*)\\s*=\\s*"
+				+ "|\\b" + TYPES + "\\s+([A-Za-z_$][\\w$]*)\\s*\\[\\s*\\]\\s*=\\s*");
+		private static final Pattern CREATION = Pattern.compile("\\Gnew\\s+" + TYPES + "\\s*\\[\\s*(\\d*)\\s*\\]\\s*");
+
+		/**
+		 * Entrée de l'index pour un fichier
+		 */
+		private static final class FichierIndexe {
+			final long modification;
+			final long taille;
+			final List<DeclarationTableau> declarations;
+
+			FichierIndexe(long modification, long taille, List<DeclarationTableau> declarations) {
+				this.modification = modification;
+				this.taille = taille;
+				this.declarations = declarations;
+			}
+		}
+
+		// Version du format de l'index (à changer quand les types reconnus ou l'en-tête changent)
+		private static final String FORMAT = "3";
+
+		private final Map<String, FichierIndexe> fichiers = new java.util.TreeMap<>();
+		private String racine = "";
+		int reanalyses;
+		int inaccessibles;          // dossiers et fichiers illisibles, ignorés par l'analyse
+		long dureeMillis;
+
+		int nombreFichiers() {
+			return fichiers.size();
+		}
+
+		/**
+		 * Toutes les déclarations, triées par fichier puis par ligne
+		 */
+		List<DeclarationTableau> declarations() {
+			List<DeclarationTableau> toutes = new ArrayList<>();
+			for (FichierIndexe fichier : fichiers.values()) {
+				toutes.addAll(fichier.declarations);
+			}
+			return toutes;
+		}
+
+		/**
+		 * Emplacement de l'index d'une racine (dans le dossier de l'utilisateur, pas dans le projet)
+		 * Le nom ne dépend que du hashCode du chemin : deux racines peuvent partager le même
+		 * fichier, d'où la racine enregistrée dans l'en-tête et vérifiée au chargement.
+		 */
+		static java.nio.file.Path emplacement(java.nio.file.Path racine) {
+			return java.nio.file.Paths.get(System.getProperty("user.home"), ".tableaux-illustrateur",
+					"index-" + Integer.toHexString(racine.toString().hashCode()) + ".txt");
+		}
+
+		/**
+		 * Analyse une arborescence en reprenant de l'index précédent les fichiers inchangés
+		 * @param racine Le dossier racine
+		 * @param precedent L'index de l'analyse précédente (éventuellement vide)
+		 * @param progression Reçoit le pourcentage de fichiers traités
+		 */
+		static IndexSources analyser(java.nio.file.Path racine, IndexSources precedent,
+				java.util.function.IntConsumer progression) throws java.io.IOException {
+			long debut = System.nanoTime();
+			List<java.nio.file.Path> chemins = new ArrayList<>();
+			java.util.concurrent.atomic.AtomicInteger inaccessibles = new java.util.concurrent.atomic.AtomicInteger();
+			// Un dossier ou un fichier illisible est compté et sauté, sans interrompre le parcours
+			java.nio.file.Files.walkFileTree(racine, new java.nio.file.SimpleFileVisitor<java.nio.file.Path>() {
+				@Override
+				public java.nio.file.FileVisitResult visitFile(java.nio.file.Path fichier,
+						java.nio.file.attribute.BasicFileAttributes attributs) {
+					if (attributs.isRegularFile() && fichier.toString().endsWith(".java")) chemins.add(fichier);
+					return java.nio.file.FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public java.nio.file.FileVisitResult visitFileFailed(java.nio.file.Path fichier, java.io.IOException e) {
+					inaccessibles.incrementAndGet();
+					return java.nio.file.FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public java.nio.file.FileVisitResult postVisitDirectory(java.nio.file.Path dossier, java.io.IOException e) {
+					if (e != null) inaccessibles.incrementAndGet();
+					return java.nio.file.FileVisitResult.CONTINUE;
+				}
+			});
+
+			java.util.concurrent.atomic.AtomicInteger faits = new java.util.concurrent.atomic.AtomicInteger();
+			java.util.concurrent.atomic.AtomicInteger reanalyses = new java.util.concurrent.atomic.AtomicInteger();
+			int total = Math.max(1, chemins.size());
+			Map<String, FichierIndexe> resultats = chemins.parallelStream().collect(java.util.stream.Collectors.toConcurrentMap(
+					p -> racine.relativize(p).toString().replace('\\', '/'),
+					p -> {
+						String relatif = racine.relativize(p).toString().replace('\\', '/');
+						FichierIndexe entree;
+						try {
+							long modification = java.nio.file.Files.getLastModifiedTime(p).toMillis();
+							long taille = java.nio.file.Files.size(p);
+							FichierIndexe ancien = precedent.fichiers.get(relatif);
+							if (ancien != null && ancien.modification == modification && ancien.taille == taille) {
+								entree = ancien;
+							} else {
+								reanalyses.incrementAndGet();
+								entree = new FichierIndexe(modification, taille,
+										analyserTexte(lireFichier(p), relatif, modification));
+							}
+						} catch (java.io.IOException e) {
+							inaccessibles.incrementAndGet();
+							entree = new FichierIndexe(-1, -1, new ArrayList<>());
+						}
+						int fait = faits.incrementAndGet();
+						if (fait % 64 == 0 || fait == total) {
+							progression.accept(fait * 100 / total);
+						}
+						return entree;
+					}));
+
+			IndexSources index = new IndexSources();
+			index.fichiers.putAll(resultats);
+			index.racine = racine.toString();
+			index.reanalyses = reanalyses.get();
+			index.inaccessibles = inaccessibles.get();
+			index.dureeMillis = (System.nanoTime() - debut) / 1_000_000;
+			return index;
+		}
+
+		/**
+		 * Lit un fichier source par projection mémoire (UTF-8, séquences invalides remplacées)
+		 */
+		static CharSequence lireFichier(java.nio.file.Path fichier) throws java.io.IOException {
+			try (java.nio.channels.FileChannel canal = java.nio.channels.FileChannel.open(fichier,
+					java.nio.file.StandardOpenOption.READ)) {
+				java.nio.MappedByteBuffer octets = canal.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, 0, canal.size());
+				return java.nio.charset.StandardCharsets.UTF_8.newDecoder()
+						.onMalformedInput(java.nio.charset.CodingErrorAction.REPLACE)
+						.onUnmappableCharacter(java.nio.charset.CodingErrorAction.REPLACE)
+						.decode(octets);
+			}
+		}
+
+		/**
+		 * Trouve les déclarations de tableaux d'un texte source
+		 * La recherche se fait sur une copie où commentaires et contenus de littéraux sont effacés
+		 * (positions conservées), pour ne pas prendre du texte pour du code
+		 */
+		static List<DeclarationTableau> analyserTexte(CharSequence texte, String fichier, long modification) {
+			char[] code = effacerCommentairesEtLitteraux(texte);
+			CharSequence recherche = java.nio.CharBuffer.wrap(code);
+			List<DeclarationTableau> declarations = new ArrayList<>();
+
+			java.util.regex.Matcher declaration = DECLARATION.matcher(recherche);
+			java.util.regex.Matcher creation = CREATION.matcher(recherche);
+			int ligne = 1;
+			int positionLigne = 0;
+			while (declaration.find()) {
+				String type = declaration.group(1) != null ? declaration.group(1) : declaration.group(3);
+				String nom = declaration.group(1) != null ? declaration.group(2) : declaration.group(4);
+				int apresEgal = declaration.end();
+				int tailleAllouee = -1;
+				int accolade = -1;
+
+				if (apresEgal < code.length && code[apresEgal] == '{') {
+					accolade = apresEgal;
+				} else if (creation.find(apresEgal) && creation.start() == apresEgal) {
+					if (!typeSimple(creation.group(1)).equals(typeSimple(type))) continue;
+					if (creation.group(2).isEmpty()) {
+						if (creation.end() < code.length && code[creation.end()] == '{') accolade = creation.end();
+					} else {
+						try {
+							tailleAllouee = Integer.parseInt(creation.group(2));
+						} catch (NumberFormatException e) {
+							continue;
+						}
+					}
+				}
+				if (accolade < 0 && tailleAllouee < 0) continue;
+
+				int fin;
+				int nombreElements = 0;
+				if (accolade >= 0) {
+					// Accolade fermante correspondante et nombre d'éléments de premier niveau
+					int profondeur = 0;
+					boolean element = false;
+					fin = -1;
+					for (int i = accolade; i < code.length && fin < 0; i++) {
+						char c = code[i];
+						if (c == '{') {
+							profondeur++;
+						} else if (c == '}') {
+							if (--profondeur == 0) fin = i + 1;
+						} else if (c == ',' && profondeur == 1) {
+							if (element) nombreElements++;
+							element = false;
+						} else if (!Character.isWhitespace(c)) {
+							element = true;
+						}
+					}
+					if (fin < 0) continue;
+					if (element) nombreElements++;
+				} else {
+					fin = creation.end();
+				}
+
+				for (; positionLigne < declaration.start(); positionLigne++) {
+					if (code[positionLigne] == '\n') ligne++;
+				}
+				declarations.add(new DeclarationTableau(fichier, modification, ligne, typeSimple(type), nom,
+						tailleAllouee, nombreElements, declaration.start(), fin,
+						apercu(texte, declaration.start(), fin)));
+			}
+			return declarations;
+		}
+
+		private static String typeSimple(String type) {
+			return type.equals("java.lang.String") ? "String" : type;
+		}
+
+		/**
+		 * Début de la déclaration sur une ligne, espaces regroupés
+		 */
+		private static String apercu(CharSequence texte, int debut, int fin) {
+			StringBuilder sb = new StringBuilder();
+			boolean espace = false;
+			for (int i = debut; i < fin && sb.length() < 70; i++) {
+				char c = texte.charAt(i);
+				if (Character.isWhitespace(c)) {
+					espace = true;
+				} else {
+					if (espace && sb.length() > 0) sb.append(' ');
+					espace = false;
+					sb.append(c);
+				}
+			}
+			if (sb.length() >= 70) sb.append('…');
+			return sb.toString();
+		}
+
+		/**
+		 * Copie du texte où commentaires et contenus des littéraux char et String sont remplacés
+		 * par des espaces (délimiteurs et retours à la ligne conservés)
+		 */
+		private static char[] effacerCommentairesEtLitteraux(CharSequence texte) {
+			char[] code = new char[texte.length()];
+			int i = 0;
+			while (i < code.length) {
+				char c = texte.charAt(i);
+				char d = i + 1 < code.length ? texte.charAt(i + 1) : 0;
+				if (c == '/' && d == '/') {
+					while (i < code.length && texte.charAt(i) != '\n') code[i++] = ' ';
+				} else if (c == '/' && d == '*') {
+					code[i++] = ' ';
+					code[i++] = ' ';
+					while (i < code.length && !(texte.charAt(i) == '*' && i + 1 < code.length && texte.charAt(i + 1) == '/')) {
+						code[i] = texte.charAt(i) == '\n' ? '\n' : ' ';
+						i++;
+					}
+					for (int k = 0; k < 2 && i < code.length; k++) code[i++] = ' ';
+				} else if (c == '"' || c == '\'') {
+					code[i++] = c;
+					while (i < code.length && texte.charAt(i) != c && texte.charAt(i) != '\n') {
+						if (texte.charAt(i) == '\\' && i + 1 < code.length) code[i++] = ' ';
+						code[i++] = ' ';
+					}
+					if (i < code.length) {
+						code[i] = texte.charAt(i);
+						i++;
+					}
+				} else {
+					code[i++] = c;
+				}
+			}
+			return code;
+		}
+
+		/**
+		 * Charge un index enregistré (index vide s'il est absent, illisible ou d'une autre racine)
+		 * @param racine La racine analysée, comparée à celle de l'en-tête de l'index
+		 */
+		static IndexSources charger(java.nio.file.Path fichierIndex, java.nio.file.Path racine) {
+			IndexSources index = new IndexSources();
+			if (!java.nio.file.Files.isRegularFile(fichierIndex)) return index;
+			try {
+				String relatif = null;
+				List<DeclarationTableau> declarations = null;
+				List<String> lignes = java.nio.file.Files.readAllLines(fichierIndex, java.nio.charset.StandardCharsets.UTF_8);
+				if (lignes.isEmpty() || !lignes.get(0).equals("V\t" + FORMAT + "\t" + racine)) return index;
+				index.racine = racine.toString();
+				for (String ligne : lignes.subList(1, lignes.size())) {
+					String[] champs = ligne.split("\t", -1);
+					if (champs[0].equals("F")) {
+						relatif = champs[3];
+						declarations = new ArrayList<>();
+						index.fichiers.put(relatif, new FichierIndexe(Long.parseLong(champs[1]),
+								Long.parseLong(champs[2]), declarations));
+					} else if (champs[0].equals("D") && declarations != null) {
+						long modification = index.fichiers.get(relatif).modification;
+						declarations.add(new DeclarationTableau(relatif, modification, Integer.parseInt(champs[1]),
+								champs[2], champs[3], Integer.parseInt(champs[4]), Integer.parseInt(champs[5]),
+								Integer.parseInt(champs[6]), Integer.parseInt(champs[7]), champs[8]));
+					}
+				}
+			} catch (java.io.IOException | RuntimeException e) {
+				// Index corrompu ou d'un ancien format : tout sera ré-analysé
+				return new IndexSources();
+			}
+			return index;
+		}
+
+		/**
+		 * Enregistre l'index (écriture dans un fichier temporaire puis remplacement)
+		 */
+		void enregistrer(java.nio.file.Path fichierIndex) throws java.io.IOException {
+			List<String> lignes = new ArrayList<>();
+			lignes.add("V\t" + FORMAT + "\t" + racine);
+			for (Map.Entry<String, FichierIndexe> entree : fichiers.entrySet()) {
+				FichierIndexe fichier = entree.getValue();
+				lignes.add("F\t" + fichier.modification + "\t" + fichier.taille + "\t" + entree.getKey());
+				for (DeclarationTableau d : fichier.declarations) {
+					lignes.add("D\t" + d.ligne + "\t" + d.type + "\t" + d.nom + "\t" + d.tailleAllouee + "\t"
+							+ d.nombreElements + "\t" + d.debut + "\t" + d.fin + "\t" + d.apercu);
+				}
+			}
+			java.nio.file.Files.createDirectories(fichierIndex.getParent());
+			java.nio.file.Path temporaire = fichierIndex.resolveSibling(fichierIndex.getFileName() + ".tmp");
+			java.nio.file.Files.write(temporaire, lignes, java.nio.charset.StandardCharsets.UTF_8);
+			java.nio.file.Files.move(temporaire, fichierIndex, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Vue mémoire d'un tableau de String : les cases contiennent des références vers des objets
+	 * String du tas, un nœud par référence distincte (==, pas equals). Les littéraux des méthodes 1
+	 * et 2 passent par le pool des constantes et partagent donc leur objet ; une valeur calculée
+	 * (méthode 3, "v" + i) est un nouvel objet, même si son contenu égale celui d'une autre case.
+	 * La disposition est incrémentale : un objet est placé une fois, sous sa première référence,
+	 * et ne bouge plus tant qu'il est référencé. Deux index spatiaux (grille des objets,
+	 * colonnes des flèches) limitent le dessin et la recherche sous la souris à la zone visible.
+	 */
+	private class PanelTas extends JComponent {
+		private static final long serialVersionUID = 1L;
+		private static final int LARGEUR_CASE = 40;
+		private static final int PAS_NOEUD_X = 110;
+		private static final int PAS_NOEUD_Y = 56;
+		private static final int LARGEUR_NOEUD = 96;
+		private static final int HAUTEUR_NOEUD = 30;
+		private static final int MARGE = 20;
+		private static final int Y_CASES = 24;
+		private static final int Y_NOEUDS = 110;
+		private static final int LARGEUR_COLONNE_FLECHES = 256;
+		private final Color COULEUR_PARTAGE = new Color(230, 130, 30);
+		private final Color COULEUR_SURVOL = new Color(40, 110, 220);
+		private final Font policeNoeud = new Font("Monospaced", Font.PLAIN, 12);
+		private final Font policeIndice = new Font("Monospaced", Font.PLAIN, 10);
+		private final Color FOND_PARTAGE = new Color(255, 235, 210);
+		private final Color FOND_NOEUD = new Color(235, 245, 255);
+
+		/**
+		 * Objet String du tas et ensemble des cases qui le référencent
+		 */
+		private final class Noeud {
+			final String valeur;
+			final int colonne;
+			final int rangee;
+			final java.util.BitSet references = new java.util.BitSet();
+
+			Noeud(String valeur, int colonne, int rangee) {
+				this.valeur = valeur;
+				this.colonne = colonne;
+				this.rangee = rangee;
+			}
+
+			int x() {
+				return MARGE + colonne * PAS_NOEUD_X;
+			}
+
+			int y() {
+				return Y_NOEUDS + rangee * PAS_NOEUD_Y;
+			}
+		}
+
+		private Noeud[] cases = new Noeud[0];        // null : référence null
+		private boolean alloue = false;
+		private final Map<String, Noeud> parReference = new java.util.IdentityHashMap<>();
+		private final Map<Long, Noeud> grille = new HashMap<>();                 // (colonne, rangée) -> objet
+		private final List<java.util.BitSet> colonnesFleches = new ArrayList<>(); // cases dont la flèche traverse la colonne
+		private int rangees = 0;
+		private int colonnesNoeuds = 0;
+		private Noeud survole;
+		private final java.util.BitSet aDessiner = new java.util.BitSet();
+
+		PanelTas() {
+			setToolTipText("");
+			addMouseMotionListener(new MouseMotionAdapter() {
+				@Override
+				public void mouseMoved(MouseEvent e) {
+					Noeud noeud = noeudA(e.getX(), e.getY());
+					if (noeud != survole) {
+						survole = noeud;
+						repaint();
+					}
+				}
+			});
+			addMouseListener(new MouseAdapter() {
+				@Override
+				public void mouseClicked(MouseEvent e) {
+					int index = caseA(e.getX(), e.getY());
+					if (index >= 0) {
+						panelApercu.allerALaCase(index);
+					} else {
+						Noeud noeud = noeudA(e.getX(), e.getY());
+						if (noeud != null) panelApercu.allerALaCase(noeud.references.nextSetBit(0));
+					}
+				}
+			});
+		}
+
+		/**
+		 * Repart d'un tableau dont toutes les cases valent null
+		 * @param taille Le nombre de cases
+		 * @param estAlloue false tant que le tableau n'est que déclaré
+		 */
+		void reinitialiser(int taille, boolean estAlloue) {
+			cases = new Noeud[taille];
+			alloue = estAlloue;
+			parReference.clear();
+			grille.clear();
+			colonnesFleches.clear();
+			rangees = 0;
+			colonnesNoeuds = 0;
+			survole = null;
+			revalidate();
+			repaint();
+		}
+
+		/**
+		 * Modifie la référence d'une case ; seuls l'ancien et le nouvel objet sont touchés
+		 * @param index L'indice de la case
+		 * @param valeur La référence stockée dans la case (l'objet lui-même, pas seulement son contenu),
+		 * ou null pour la référence null
+		 */
+		void affecter(int index, String valeur) {
+			if (index < 0 || index >= cases.length) return;
+			alloue = true;
+			Noeud ancien = cases[index];
+			if (ancien != null && ancien.valeur == valeur) return;
+
+			if (ancien != null) {
+				indexerFleche(index, ancien, false);
+				ancien.references.clear(index);
+				if (ancien.references.isEmpty()) {
+					// Plus aucune référence : l'objet devient inaccessible et quitte la vue
+					parReference.remove(ancien.valeur);
+					grille.remove(cle(ancien.colonne, ancien.rangee));
+					repaint(ancien.x(), ancien.y(), LARGEUR_NOEUD + 1, HAUTEUR_NOEUD + 1);
+				}
+			}
+
+			Noeud nouveau = null;
+			if (valeur != null) {
+				nouveau = parReference.get(valeur);
+				if (nouveau == null) {
+					nouveau = placer(valeur, xCase(index) + LARGEUR_CASE / 2);
+					parReference.put(valeur, nouveau);
+				}
+				nouveau.references.set(index);
+				indexerFleche(index, nouveau, true);
+			}
+			cases[index] = nouveau;
+
+			// Repeindre seulement la bande couverte par l'ancienne et la nouvelle flèche
+			int gauche = xCase(index);
+			int droite = gauche + LARGEUR_CASE;
+			if (ancien != null) {
+				gauche = Math.min(gauche, ancien.x());
+				droite = Math.max(droite, ancien.x() + LARGEUR_NOEUD);
+			}
+			if (nouveau != null) {
+				gauche = Math.min(gauche, nouveau.x());
+				droite = Math.max(droite, nouveau.x() + LARGEUR_NOEUD);
+			}
+			revalidate();
+			repaint(gauche - 2, 0, droite - gauche + 4, getHeight());
+		}
+
+		/**
+		 * Place un nouvel objet dans la première cellule libre la plus proche de la colonne visée,
+		 * rangée par rangée ; les objets existants ne sont jamais déplacés
+		 */
+		private Noeud placer(String valeur, int xVise) {
+			int colonneVisee = Math.max(0, (xVise - MARGE - LARGEUR_NOEUD / 2 + PAS_NOEUD_X / 2) / PAS_NOEUD_X);
+			for (int rangee = 0; ; rangee++) {
+				for (int ecart = 0; ecart <= 2; ecart++) {
+					for (int signe = 1; signe >= -1; signe -= 2) {
+						int colonne = colonneVisee + signe * ecart;
+						if (colonne >= 0 && !grille.containsKey(cle(colonne, rangee))) {
+							Noeud noeud = new Noeud(valeur, colonne, rangee);
+							grille.put(cle(colonne, rangee), noeud);
+							rangees = Math.max(rangees, rangee + 1);
+							colonnesNoeuds = Math.max(colonnesNoeuds, colonne + 1);
+							return noeud;
+						}
+						if (ecart == 0) break;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Ajoute ou retire la flèche d'une case dans les colonnes qu'elle traverse
+		 */
+		private void indexerFleche(int index, Noeud noeud, boolean ajouter) {
+			int x1 = xCase(index) + LARGEUR_CASE / 2;
+			int x2 = noeud.x() + LARGEUR_NOEUD / 2;
+			int premiere = Math.min(x1, x2) / LARGEUR_COLONNE_FLECHES;
+			int derniere = Math.max(x1, x2) / LARGEUR_COLONNE_FLECHES;
+			while (colonnesFleches.size() <= derniere) {
+				colonnesFleches.add(new java.util.BitSet());
+			}
+			for (int c = premiere; c <= derniere; c++) {
+				colonnesFleches.get(c).set(index, ajouter);
+			}
+		}
+
+		private long cle(int colonne, int rangee) {
+			return ((long) colonne << 32) | (rangee & 0xffffffffL);
+		}
+
+		private int xCase(int index) {
+			return MARGE + index * LARGEUR_CASE;
+		}
+
+		private int caseA(int x, int y) {
+			if (y < Y_CASES || y > Y_CASES + LARGEUR_CASE) return -1;
+			int index = (x - MARGE) / LARGEUR_CASE;
+			return x >= MARGE && index < cases.length ? index : -1;
+		}
+
+		/**
+		 * Objet sous un point, par consultation directe de la grille
+		 */
+		private Noeud noeudA(int x, int y) {
+			if (x < MARGE || y < Y_NOEUDS) return null;
+			Noeud noeud = grille.get(cle((x - MARGE) / PAS_NOEUD_X, (y - Y_NOEUDS) / PAS_NOEUD_Y));
+			if (noeud == null || x > noeud.x() + LARGEUR_NOEUD || y > noeud.y() + HAUTEUR_NOEUD) return null;
+			return noeud;
+		}
+
+		@Override
+		public Dimension getPreferredSize() {
+			int largeur = Math.max(cases.length * LARGEUR_CASE, colonnesNoeuds * PAS_NOEUD_X) + 2 * MARGE;
+			int hauteur = Y_NOEUDS + Math.max(1, rangees) * PAS_NOEUD_Y;
+			return new Dimension(largeur, hauteur);
+		}
+
+		@Override
+		public String getToolTipText(MouseEvent e) {
+			Noeud noeud = noeudA(e.getX(), e.getY());
+			if (noeud != null) {
+				return "String \"" + noeud.valeur + "\" : " + noeud.references.cardinality() + " référence(s)";
+			}
+			int index = caseA(e.getX(), e.getY());
+			if (index >= 0) {
+				return nomTextField.getText() + "[" + index + "] = "
+						+ (cases[index] == null ? "null" : "référence vers \"" + cases[index].valeur + "\"");
+			}
+			return null;
+		}
+
+		@Override
+		protected void paintComponent(Graphics g) {
+			Graphics2D g2 = (Graphics2D) g;
+			g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			Rectangle zone = g.getClipBounds();
+			if (zone == null) zone = new Rectangle(0, 0, getWidth(), getHeight());
+			g2.setColor(Color.WHITE);
+			g2.fill(zone);
+
+			g2.setColor(Color.DARK_GRAY);
+			g2.setFont(policeIndice);
+			if (!"String".equals(typeComboBox.getSelectedItem())) {
+				g2.drawString("Vue disponible pour les tableaux de String", MARGE, Y_CASES + 20);
+				return;
+			}
+			if (!alloue) {
+				g2.drawString(nomTextField.getText() + " : tableau non alloué", MARGE, Y_CASES + 20);
+				return;
+			}
+
+			// Flèches : seules celles qui traversent les colonnes visibles
+			aDessiner.clear();
+			int premiereColonne = Math.max(0, zone.x / LARGEUR_COLONNE_FLECHES);
+			int derniereColonne = Math.min(colonnesFleches.size() - 1, (zone.x + zone.width) / LARGEUR_COLONNE_FLECHES);
+			for (int c = premiereColonne; c <= derniereColonne; c++) {
+				aDessiner.or(colonnesFleches.get(c));
+			}
+			for (int i = aDessiner.nextSetBit(0); i >= 0; i = aDessiner.nextSetBit(i + 1)) {
+				Noeud noeud = cases[i];
+				if (noeud == null) continue;
+				boolean partage = noeud.references.cardinality() > 1;
+				g2.setColor(noeud == survole ? COULEUR_SURVOL : partage ? COULEUR_PARTAGE : Color.GRAY);
+				fleche(g2, xCase(i) + LARGEUR_CASE / 2, Y_CASES + LARGEUR_CASE / 2,
+						noeud.x() + LARGEUR_NOEUD / 2, noeud.y());
+			}
+
+			// Cases visibles du tableau
+			int premiere = Math.max(0, (zone.x - MARGE) / LARGEUR_CASE);
+			int derniere = Math.min(cases.length - 1, (zone.x + zone.width - MARGE) / LARGEUR_CASE);
+			for (int i = premiere; i <= derniere; i++) {
+				int x = xCase(i);
+				g2.setColor(Color.WHITE);
+				g2.fillRect(x, Y_CASES, LARGEUR_CASE, LARGEUR_CASE);
+				g2.setColor(Color.BLACK);
+				g2.drawRect(x, Y_CASES, LARGEUR_CASE, LARGEUR_CASE);
+				g2.drawString(String.valueOf(i), x + 3, Y_CASES - 4);
+				if (cases[i] == null) {
+					g2.drawString("null", x + 8, Y_CASES + LARGEUR_CASE / 2 + 4);
+				} else {
+					g2.fillOval(x + LARGEUR_CASE / 2 - 4, Y_CASES + LARGEUR_CASE / 2 - 4, 8, 8);
+				}
+			}
+
+			// Objets visibles, par consultation de la grille sur la zone repeinte
+			g2.setFont(policeNoeud);
+			FontMetrics fm = g2.getFontMetrics();
+			int colonneMin = Math.max(0, (zone.x - MARGE) / PAS_NOEUD_X);
+			int colonneMax = Math.min(colonnesNoeuds - 1, (zone.x + zone.width - MARGE) / PAS_NOEUD_X);
+			int rangeeMin = Math.max(0, (zone.y - Y_NOEUDS) / PAS_NOEUD_Y);
+			int rangeeMax = Math.min(rangees - 1, (zone.y + zone.height - Y_NOEUDS) / PAS_NOEUD_Y);
+			for (int colonne = colonneMin; colonne <= colonneMax; colonne++) {
+				for (int rangee = rangeeMin; rangee <= rangeeMax; rangee++) {
+					Noeud noeud = grille.get(cle(colonne, rangee));
+					if (noeud == null) continue;
+					int nbReferences = noeud.references.cardinality();
+					g2.setColor(nbReferences > 1 ? FOND_PARTAGE : FOND_NOEUD);
+					g2.fillRoundRect(noeud.x(), noeud.y(), LARGEUR_NOEUD, HAUTEUR_NOEUD, 10, 10);
+					g2.setColor(noeud == survole ? COULEUR_SURVOL : nbReferences > 1 ? COULEUR_PARTAGE : Color.BLACK);
+					g2.drawRoundRect(noeud.x(), noeud.y(), LARGEUR_NOEUD, HAUTEUR_NOEUD, 10, 10);
+					String texte = "\"" + noeud.valeur + "\"";
+					if (fm.stringWidth(texte) > LARGEUR_NOEUD - 8) {
+						while (texte.length() > 2 && fm.stringWidth(texte + "…") > LARGEUR_NOEUD - 8) {
+							texte = texte.substring(0, texte.length() - 1);
+						}
+						texte += "…";
+					}
+					g2.drawString(texte, noeud.x() + 4, noeud.y() + HAUTEUR_NOEUD / 2 + 4);
+					if (nbReferences > 1) {
+						g2.drawString("×" + nbReferences, noeud.x() + LARGEUR_NOEUD - 22, noeud.y() - 3);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Trace une flèche avec sa pointe
+		 */
+		private void fleche(Graphics2D g2, int x1, int y1, int x2, int y2) {
+			g2.drawLine(x1, y1, x2, y2);
+			double angle = Math.atan2(y2 - y1, x2 - x1);
+			int[] xs = {x2, (int) (x2 - 8 * Math.cos(angle - 0.4)), (int) (x2 - 8 * Math.cos(angle + 0.4))};
+			int[] ys = {y2, (int) (y2 - 8 * Math.sin(angle - 0.4)), (int) (y2 - 8 * Math.sin(angle + 0.4))};
+			g2.fillPolygon(xs, ys, 3);
+		}
+	}
+
+	/**
+	 * Base des événements Flight Recorder de l'illustrateur
+	 * Désactivés par défaut : tant qu'aucun enregistrement ne les active, shouldCommit() renvoie
+	 * false et les champs ne sont même pas renseignés
+	 */
+	@jdk.jfr.Category("Illustrateur de tableaux")
+	@jdk.jfr.Enabled(false)
+	@jdk.jfr.StackTrace(false)
+	private abstract static class EvenementIllustrateur extends jdk.jfr.Event {
+		@jdk.jfr.Label("Type des éléments")
+		String type;
+
+		@jdk.jfr.Label("Taille")
+		int taille;
+
+		@jdk.jfr.Label("Méthode")
+		int methode;
+
+		/**
+		 * Renseigne les champs communs et enregistre l'événement s'il est actif
+		 */
+		void terminer(String type, int taille, int methode) {
+			if (shouldCommit()) {
+				this.type = type;
+				this.taille = taille;
+				this.methode = methode;
+				commit();
+			}
+		}
+	}
+
+	@jdk.jfr.Name("fenetre.Reconstruction")
+	@jdk.jfr.Label("Reconstruction de l'interface")
+	@jdk.jfr.Description("Durée de mettreAJourPanels")
+	private static final class EvenementReconstruction extends EvenementIllustrateur {
+	}
+
+	@jdk.jfr.Name("fenetre.MiseAJourPanneau")
+	@jdk.jfr.Label("Mise à jour d'un panneau")
+	private static final class EvenementPanneau extends EvenementIllustrateur {
+		@jdk.jfr.Label("Panneau")
+		String panneau;
+
+		/**
+		 * @param panneau "Code" (la méthode est dans le champ commun) ou "Illustration"
+		 */
+		void terminer(String panneau, String type, int taille, int methode) {
+			if (shouldCommit()) {
+				this.panneau = panneau;
+			}
+			terminer(type, taille, methode);
+		}
+	}
+
+	@jdk.jfr.Name("fenetre.FiltresType")
+	@jdk.jfr.Label("Activation des filtres de saisie")
+	private static final class EvenementFiltres extends EvenementIllustrateur {
+	}
+
+	@jdk.jfr.Name("fenetre.Validation")
+	@jdk.jfr.Label("Validation d'un lot de valeurs")
+	private static final class EvenementValidation extends EvenementIllustrateur {
+		@jdk.jfr.Label("Erreurs")
+		int erreurs;
+
+		@jdk.jfr.Label("Parallèle")
+		boolean parallele;
+	}
+
+	@jdk.jfr.Name("fenetre.Etape")
+	@jdk.jfr.Label("Étape d'exécution")
+	private static final class EvenementEtape extends EvenementIllustrateur {
+		@jdk.jfr.Label("Ligne")
+		int ligne;
+	}
+
+	@jdk.jfr.Name("fenetre.DialogueErreur")
+	@jdk.jfr.Label("Dialogue d'erreur")
+	@jdk.jfr.Description("Durée d'affichage de la boîte de dialogue (modale : l'EDT est bloqué)")
+	private static final class EvenementDialogueErreur extends EvenementIllustrateur {
+		@jdk.jfr.Label("Message")
+		String message;
+
+		@jdk.jfr.Label("Erreurs de validation")
+		int erreurs;
+
+		/**
+		 * Le message des erreurs de validation n'est composé que si l'événement est enregistré
+		 * @param message Le message affiché, ou null pour une liste d'erreurs de validation
+		 * @param erreurs Le nombre d'erreurs de validation (0 pour un message simple)
+		 */
+		void terminer(String message, int erreurs, String type, int taille, int methode) {
+			if (shouldCommit()) {
+				this.message = message != null ? message : erreurs + " valeurs invalides";
+				this.erreurs = erreurs;
+			}
+			terminer(type, taille, methode);
+		}
+	}
+
+	/**
+	 * Générateurs de valeurs pour tous les types d'éléments
+	 * Le remplissage est découpé en blocs de taille fixe sur le pool fork-join commun ; chaque
+	 * découpage donne à la moitié droite un SplittableRandom obtenu par split(). L'arbre de
+	 * découpage ne dépend que de la taille, donc le résultat ne dépend que de la graine,
+	 * quel que soit le nombre de cœurs.
+	 */
+	private static final class GenerateurValeurs {
+		private static final int TAILLE_BLOC = 1 << 14;
+		private static final String[] MOTS_DOUBLONS = {"pomme", "poire", "kiwi", "prune"};
+
+		enum Modele {
+			ALEATOIRE("Aléatoire uniforme"),
+			ALEATOIRE_GRAINE("Aléatoire avec graine..."),
+			CROISSANT("Croissant"),
+			DECROISSANT("Décroissant"),
+			PRESQUE_TRIE("Presque trié"),
+			DOUBLONS("Nombreux doublons");
+
+			final String libelle;
+
+			Modele(String libelle) {
+				this.libelle = libelle;
+			}
+		}
+
+		/**
+		 * Calcule la valeur d'une case à partir de son indice et du générateur du bloc
+		 */
+		private interface Producteur {
+			String valeur(int i, java.util.SplittableRandom alea);
+		}
+
+		/**
+		 * Génère les valeurs d'un tableau
+		 * @param type Le type des éléments
+		 * @param taille Le nombre d'éléments
+		 * @param modele Le modèle de génération
+		 * @param graine La graine (même graine, même résultat)
+		 * @param avecDelimiteurs true pour obtenir les textes des champs ("…" et '…' compris)
+		 * @return Les valeurs générées
+		 */
+		static String[] generer(String type, int taille, Modele modele, long graine, boolean avecDelimiteurs) {
+			Producteur producteur = producteur(type, taille, modele);
+			if (avecDelimiteurs) {
+				DescripteurType descripteur = DescripteurType.pour(type);
+				Producteur brut = producteur;
+				producteur = (i, alea) -> descripteur.litteral(brut.valeur(i, alea));
+			}
+			String[] valeurs = new String[taille];
+			java.util.concurrent.ForkJoinPool.commonPool().invoke(
+					new Remplissage(producteur, new java.util.SplittableRandom(graine), valeurs, 0, taille));
+			return valeurs;
+		}
+
+		/**
+		 * Tâche fork-join : la moitié droite reçoit un générateur issu de split()
+		 */
+		private static final class Remplissage extends java.util.concurrent.RecursiveAction {
+			private static final long serialVersionUID = 1L;
+			private final Producteur producteur;
+			private final java.util.SplittableRandom alea;
+			private final String[] valeurs;
+			private final int debut;
+			private final int fin;
+
+			Remplissage(Producteur producteur, java.util.SplittableRandom alea, String[] valeurs, int debut, int fin) {
+				this.producteur = producteur;
+				this.alea = alea;
+				this.valeurs = valeurs;
+				this.debut = debut;
+				this.fin = fin;
+			}
+
+			@Override
+			protected void compute() {
+				if (fin - debut <= TAILLE_BLOC) {
+					for (int i = debut; i < fin; i++) {
+						valeurs[i] = producteur.valeur(i, alea);
+					}
+					return;
+				}
+				int milieu = (debut + fin) >>> 1;
+				java.util.SplittableRandom droite = alea.split();
+				invokeAll(new Remplissage(producteur, alea, valeurs, debut, milieu),
+						new Remplissage(producteur, droite, valeurs, milieu, fin));
+			}
+		}
+
+		/**
+		 * Choisit la fonction de génération pour un type et un modèle
+		 * Les modèles ordonnés calculent un rang entre 0 et taille - 1, puis le convertissent en
+		 * valeur du type de façon croissante
+		 */
+		private static Producteur producteur(String type, int taille, Modele modele) {
+			switch (modele) {
+			case ALEATOIRE:
+			case ALEATOIRE_GRAINE:
+				return aleatoire(type);
+			case CROISSANT:
+				return (i, alea) -> valeurDeRang(type, i, taille);
+			case DECROISSANT:
+				return (i, alea) -> valeurDeRang(type, taille - 1 - i, taille);
+			case PRESQUE_TRIE:
+				// Une case sur vingt s'écarte de quelques rangs de sa place
+				return (i, alea) -> {
+					int rang = alea.nextInt(20) == 0 ? i + alea.nextInt(-3, 4) : i;
+					return valeurDeRang(type, Math.max(0, Math.min(taille - 1, rang)), taille);
+				};
+			default: {
+				// Quatre valeurs distinctes seulement (deux pour boolean)
+				if (type.equals("String")) {
+					return (i, alea) -> MOTS_DOUBLONS[alea.nextInt(MOTS_DOUBLONS.length)];
+				}
+				int pas = Math.max(1, (taille - 1) / 3);
+				return (i, alea) -> valeurDeRang(type, Math.min(taille - 1, alea.nextInt(4) * pas), taille);
+			}
+			}
+		}
+
+		private static Producteur aleatoire(String type) {
+			switch (type) {
+			case "int":
+				return (i, alea) -> Integer.toString(alea.nextInt(-1000, 1001));
+			case "long":
+				return (i, alea) -> Long.toString(alea.nextLong(-10_000_000_000L, 10_000_000_001L));
+			case "byte":
+				return (i, alea) -> Integer.toString(alea.nextInt(Byte.MIN_VALUE, Byte.MAX_VALUE + 1));
+			case "short":
+				return (i, alea) -> Integer.toString(alea.nextInt(Short.MIN_VALUE, Short.MAX_VALUE + 1));
+			case "double":
+			case "float":
+				return (i, alea) -> {
+					int centiemes = alea.nextInt(10000);
+					return (centiemes / 100) + "." + (centiemes % 100 / 10) + (centiemes % 10);
+				};
+			case "char":
+				return (i, alea) -> String.valueOf((char) ('a' + alea.nextInt(26)));
+			case "boolean":
+				return (i, alea) -> Boolean.toString(alea.nextBoolean());
+			default:
+				return (i, alea) -> {
+					char[] mot = new char[3 + alea.nextInt(4)];
+					for (int k = 0; k < mot.length; k++) {
+						mot[k] = (char) ('a' + alea.nextInt(26));
+					}
+					return new String(mot);
+				};
+			}
+		}
+
+		/**
+		 * Valeur croissante avec le rang (au sens de l'ordre naturel du type)
+		 */
+		private static String valeurDeRang(String type, int rang, int taille) {
+			switch (type) {
+			case "int":
+			case "long":
+				return Integer.toString(rang);
+			case "byte":
+				return Integer.toString(rangBorne(rang, taille, Byte.MIN_VALUE, Byte.MAX_VALUE));
+			case "short":
+				return Integer.toString(rangBorne(rang, taille, Short.MIN_VALUE, Short.MAX_VALUE));
+			case "double":
+			case "float":
+				return (rang / 2) + ((rang & 1) == 0 ? ".0" : ".5");
+			case "char":
+				return String.valueOf((char) ('a' + (int) ((long) rang * 26 / Math.max(1, taille))));
+			case "boolean":
+				return Boolean.toString(rang >= taille / 2);
+			default: {
+				// Zéros de tête : l'ordre lexicographique des String suit celui des rangs
+				String chiffres = Integer.toString(rang);
+				int largeur = Integer.toString(Math.max(0, taille - 1)).length();
+				StringBuilder sb = new StringBuilder(largeur + 1).append('e');
+				for (int k = chiffres.length(); k < largeur; k++) {
+					sb.append('0');
+				}
+				return sb.append(chiffres).toString();
+			}
+			}
+		}
+
+		/**
+		 * Rang ramené dans [min, max] en conservant l'ordre (le rang lui-même s'il y tient)
+		 */
+		private static int rangBorne(int rang, int taille, int min, int max) {
+			if (taille <= max + 1) return rang;
+			return min + (int) ((long) rang * (max - min + 1) / taille);
+		}
+	}
+
+	/**
+	 * Description d'un type d'éléments : valeur par défaut, délimiteurs des littéraux,
+	 * validation, conversion et stockage primitif
+	 * Le registre associe chaque nom de type à son descripteur ; le descripteur est résolu
+	 * une fois par changement de type, puis la saisie, la validation et l'affectation des
+	 * cases l'appellent directement au lieu de comparer des noms de types
+	 */
+	private abstract static class DescripteurType {
+		private static final Map<String, DescripteurType> REGISTRE = new java.util.LinkedHashMap<>();
+
+		final String nom;
+		final String valeurDefaut;   // valeur affichée d'une case non affectée
+		final char delimiteur;       // '"' ou '\'' autour des littéraux, 0 sinon
+		final boolean numerique;     // recherche par intervalle possible
+		private final Pattern saisie;  // textes admis pendant la frappe
+
+		DescripteurType(String nom, String valeurDefaut, char delimiteur, boolean numerique, String saisie) {
+			this.nom = nom;
+			this.valeurDefaut = valeurDefaut;
+			this.delimiteur = delimiteur;
+			this.numerique = numerique;
+			this.saisie = Pattern.compile(saisie);
+		}
+
+		/**
+		 * Renvoie le descripteur d'un type
+		 * @throws IllegalArgumentException si le type n'est pas pris en charge
+		 */
+		static DescripteurType pour(String nom) {
+			DescripteurType descripteur = REGISTRE.get(nom);
+			if (descripteur == null) {
+				throw new IllegalArgumentException("type " + nom + " non pris en charge");
+			}
+			return descripteur;
+		}
+
+		static boolean existe(String nom) {
+			return REGISTRE.containsKey(nom);
+		}
+
+		/**
+		 * Noms des types dans l'ordre d'enregistrement (ordre du menu des types)
+		 */
+		static String[] noms() {
+			return REGISTRE.keySet().toArray(new String[0]);
+		}
+
+		private static void enregistrer(DescripteurType descripteur) {
+			REGISTRE.put(descripteur.nom, descripteur);
+		}
+
+		/**
+		 * Explique pourquoi un littéral n'est pas valide pour ce type
+		 * @return La raison de l'erreur, ou null si le littéral est valide
+		 */
+		abstract String diagnostiquer(String litteral);
+
+		/**
+		 * Convertit une valeur affichée en nombre pour l'agrégation (min/max)
+		 * @return La valeur numérique, ou NaN si le type n'est pas ordonnable numériquement
+		 */
+		abstract double enNombre(String valeurAffichee);
+
+		/**
+		 * Alloue un tableau de ce type, rempli de la valeur par défaut
+		 */
+		abstract StockageTableau creerStockage(int taille);
+
+		/**
+		 * Indique si un texte en cours de frappe peut encore devenir un littéral valide
+		 */
+		boolean accepteSaisie(String texte) {
+			return saisie.matcher(texte).matches();
+		}
+
+		/**
+		 * Retire les délimiteurs (guillemets, apostrophes) d'un littéral
+		 */
+		String valeurAffichee(String litteral) {
+			if (delimiteur == 0 || litteral == null || litteral.length() < (delimiteur == '"' ? 2 : 3)) return litteral;
+			if (litteral.charAt(0) == delimiteur && litteral.charAt(litteral.length() - 1) == delimiteur) {
+				return litteral.substring(1, litteral.length() - 1);
+			}
+			return litteral;
+		}
+
+		/**
+		 * Écrit une valeur affichée sous forme de littéral Java (délimiteurs, suffixe)
+		 */
+		String litteral(String valeurAffichee) {
+			if (delimiteur == 0 || valeurAffichee.equals(valeurDefaut)) return valeurAffichee;
+			return delimiteur + valeurAffichee + delimiteur;
+		}
+
+		// ----- Règles communes aux types numériques -----
+
+		/**
+		 * Diagnostic d'un entier décimal borné, sans conversion intermédiaire
+		 * (accumulation négative, comme Long.parseLong, pour couvrir Long.MIN_VALUE)
+		 */
+		static String diagnostiquerEntier(String valeur, long min, long max, String nomType) {
+			if (valeur.isEmpty()) return "valeur vide";
+			boolean negatif = valeur.charAt(0) == '-';
+			int debut = negatif ? 1 : 0;
+			if (debut == valeur.length()) return "nombre incomplet";
+			long limite = negatif ? min : -max;
+			long multiplicateurMin = limite / 10;
+			long resultat = 0;
+			for (int i = debut; i < valeur.length(); i++) {
+				char c = valeur.charAt(i);
+				if (c < '0' || c > '9') {
+					return "caractère '" + c + "' non numérique pour un " + nomType;
+				}
+				int chiffre = c - '0';
+				if (resultat < multiplicateurMin || resultat * 10 < limite + chiffre) {
+					return "nombre hors des limites d'un " + nomType + " (" + min + " à " + max + ")";
+				}
+				resultat = resultat * 10 - chiffre;
+			}
+			return null;
+		}
+
+		/**
+		 * Diagnostic d'un nombre décimal (signe, chiffres, un point au plus)
+		 */
+		static String diagnostiquerDecimal(String valeur, String nomType) {
+			if (valeur.isEmpty()) return "valeur vide";
+			int debut = valeur.charAt(0) == '-' ? 1 : 0;
+			boolean point = false;
+			boolean chiffre = false;
+			for (int i = debut; i < valeur.length(); i++) {
+				char c = valeur.charAt(i);
+				if (c == '.') {
+					if (point) return "plusieurs points décimaux";
+					point = true;
+				} else if (c >= '0' && c <= '9') {
+					chiffre = true;
+				} else {
+					return "caractère '" + c + "' non numérique pour un " + nomType;
+				}
+			}
+			return chiffre ? null : "nombre incomplet";
+		}
+
+		static boolean finitPar(String valeur, char suffixe) {
+			return !valeur.isEmpty() && Character.toLowerCase(valeur.charAt(valeur.length() - 1)) == suffixe;
+		}
+
+		static double parseDouble(String valeur) {
+			try {
+				return Double.parseDouble(valeur);
+			} catch (NumberFormatException e) {
+				return Double.NaN;
+			}
+		}
+
+		// ----- Registre des types -----
+
+		static {
+			enregistrer(new DescripteurType("int", "0", (char) 0, true, "-?\\d*") {
+				@Override
+				String diagnostiquer(String litteral) {
+					return diagnostiquerEntier(litteral, Integer.MIN_VALUE, Integer.MAX_VALUE, nom);
+				}
+
+				@Override
+				double enNombre(String valeurAffichee) {
+					return parseDouble(valeurAffichee);
+				}
+
+				@Override
+				StockageTableau creerStockage(int taille) {
+					int[] valeurs = new int[taille];
+					return new StockageTableau(valeurs) {
+						@Override
+						void affecter(int index, String valeurAffichee) {
+							valeurs[index] = Integer.parseInt(valeurAffichee);
+						}
+
+						@Override
+						String lire(int index) {
+							return Integer.toString(valeurs[index]);
+						}
+
+						@Override
+						double nombre(int index) {
+							return valeurs[index];
+						}
+
+						@Override
+						boolean estDefaut(int index) {
+							return valeurs[index] == 0;
+						}
+					};
+				}
+			});
+
+			enregistrer(new DescripteurType("double", "0.0", (char) 0, true, "-?\\d*\\.?\\d*") {
+				@Override
+				String diagnostiquer(String litteral) {
+					return diagnostiquerDecimal(litteral, nom);
+				}
+
+				@Override
+				double enNombre(String valeurAffichee) {
+					return parseDouble(valeurAffichee);
+				}
+
+				@Override
+				StockageTableau creerStockage(int taille) {
+					double[] valeurs = new double[taille];
+					return new StockageTableau(valeurs) {
+						@Override
+						void affecter(int index, String valeurAffichee) {
+							valeurs[index] = Double.parseDouble(valeurAffichee);
+						}
+
+						@Override
+						String lire(int index) {
+							return Double.toString(valeurs[index]);
+						}
+
+						@Override
+						double nombre(int index) {
+							return valeurs[index];
+						}
+
+						@Override
+						boolean estDefaut(int index) {
+							return Double.doubleToRawLongBits(valeurs[index]) == 0L;
+						}
+					};
+				}
+			});
+
+			enregistrer(new DescripteurType("String", "null", '"', false, "\".*\"|null") {
+				@Override
+				String diagnostiquer(String litteral) {
+					// Accepte "texte" ou null
+					if (litteral.equals("null")) return null;
+					if (!litteral.startsWith("\"")) return "une String s'écrit entre guillemets : \"texte\"";
+					if (litteral.length() == 1 || !litteral.endsWith("\"")) return "chaîne non terminée";
+					return null;
+				}
+
+				@Override
+				boolean accepteSaisie(String texte) {
+					// Autoriser "null" ou du texte entre guillemets, éventuellement en cours de frappe
+					if (texte.equals("null")) return true;
+					return super.accepteSaisie(texte)
+							|| (texte.startsWith("\"") && (texte.length() == 1 || !texte.substring(1).contains("\"")));
+				}
+
+				@Override
+				String valeurAffichee(String litteral) {
+					// Valeurs répétées : une seule instance partagée par les cases, étiquettes et index
+					return PoolChaines.COMMUN.canonique(super.valeurAffichee(litteral));
+				}
+
+				@Override
+				double enNombre(String valeurAffichee) {
+					return Double.NaN;
+				}
+
+				@Override
+				StockageTableau creerStockage(int taille) {
+					String[] valeurs = new String[taille];
+					return new StockageTableau(valeurs) {
+						@Override
+						void affecter(int index, String valeurAffichee) {
+							valeurs[index] = valeurAffichee.equals("null") ? null : valeurAffichee;
+						}
+
+						@Override
+						String lire(int index) {
+							return valeurs[index] == null ? "null" : valeurs[index];
+						}
+
+						@Override
+						double nombre(int index) {
+							return Double.NaN;
+						}
+
+						@Override
+						boolean estDefaut(int index) {
+							return valeurs[index] == null;
+						}
+					};
+				}
+			});
+
+			enregistrer(new DescripteurType("char", "\\u0000", '\'', false, "'.'|\\\\u0000") {
+				@Override
+				String diagnostiquer(String litteral) {
+					// Accepte 'c' ou \u0000
+					if (litteral.equals("\\u0000")) return null;
+					if (litteral.isEmpty()) return "valeur vide";
+					if (litteral.charAt(0) != '\'') return "un char s'écrit entre apostrophes : 'a'";
+					if (litteral.length() == 1 || litteral.charAt(litteral.length() - 1) != '\'') return "littéral char non terminé";
+					if (litteral.length() == 2) return "littéral char vide";
+					if (litteral.length() > 3) return "un char contient un seul caractère";
+					if (litteral.charAt(1) == '\n' || litteral.charAt(1) == '\r') return "retour à la ligne interdit dans un char";
+					return null;
+				}
+
+				@Override
+				boolean accepteSaisie(String texte) {
+					// Autoriser soit '\u0000', soit un seul caractère entre apostrophes
+					return super.accepteSaisie(texte) || (texte.startsWith("'") && texte.length() <= 3);
+				}
+
+				@Override
+				double enNombre(String valeurAffichee) {
+					return valeurAffichee.length() == 1 ? valeurAffichee.charAt(0) : 0;
+				}
+
+				@Override
+				StockageTableau creerStockage(int taille) {
+					char[] valeurs = new char[taille];
+					return new StockageTableau(valeurs) {
+						@Override
+						void affecter(int index, String valeurAffichee) {
+							valeurs[index] = valeurAffichee.length() == 1 ? valeurAffichee.charAt(0) : 0;
+						}
+
+						@Override
+						String lire(int index) {
+							return valeurs[index] == 0 ? "\\u0000" : String.valueOf(valeurs[index]);
+						}
+
+						@Override
+						double nombre(int index) {
+							return valeurs[index];
+						}
+
+						@Override
+						boolean estDefaut(int index) {
+							return valeurs[index] == 0;
+						}
+					};
+				}
+			});
+
+			enregistrer(new DescripteurType("boolean", "false", (char) 0, false, "true|false|") {
+				@Override
+				String diagnostiquer(String litteral) {
+					if (litteral.equals("true") || litteral.equals("false")) return null;
+					return litteral.equalsIgnoreCase("true") || litteral.equalsIgnoreCase("false")
+							? "true et false s'écrivent en minuscules" : "true ou false attendu";
+				}
+
+				@Override
+				double enNombre(String valeurAffichee) {
+					return valeurAffichee.equals("true") ? 1 : 0;
+				}
+
+				@Override
+				StockageTableau creerStockage(int taille) {
+					boolean[] valeurs = new boolean[taille];
+					return new StockageTableau(valeurs) {
+						@Override
+						void affecter(int index, String valeurAffichee) {
+							valeurs[index] = valeurAffichee.equals("true");
+						}
+
+						@Override
+						String lire(int index) {
+							return Boolean.toString(valeurs[index]);
+						}
+
+						@Override
+						double nombre(int index) {
+							return valeurs[index] ? 1 : 0;
+						}
+
+						@Override
+						boolean estDefaut(int index) {
+							return !valeurs[index];
+						}
+					};
+				}
+			});
+
+			enregistrer(new DescripteurType("long", "0", (char) 0, true, "-?\\d*[lL]?") {
+				@Override
+				String diagnostiquer(String litteral) {
+					if (finitPar(litteral, 'l')) {
+						return diagnostiquerEntier(litteral.substring(0, litteral.length() - 1),
+								Long.MIN_VALUE, Long.MAX_VALUE, nom);
+					}
+					String raison = diagnostiquerEntier(litteral, Long.MIN_VALUE, Long.MAX_VALUE, nom);
+					if (raison != null) return raison;
+					// Sans suffixe L, le littéral est un int et doit en respecter les limites
+					if (diagnostiquerEntier(litteral, Integer.MIN_VALUE, Integer.MAX_VALUE, nom) != null) {
+						return "nombre hors des limites d'un int : ajouter le suffixe L";
+					}
+					return null;
+				}
+
+				@Override
+				String valeurAffichee(String litteral) {
+					return litteral != null && finitPar(litteral, 'l') ? litteral.substring(0, litteral.length() - 1) : litteral;
+				}
+
+				@Override
+				String litteral(String valeurAffichee) {
+					boolean horsInt = valeurAffichee.length() >= 10 && diagnostiquerEntier(valeurAffichee,
+							Integer.MIN_VALUE, Integer.MAX_VALUE, nom) != null;
+					return horsInt ? valeurAffichee + "L" : valeurAffichee;
+				}
+
+				@Override
+				double enNombre(String valeurAffichee) {
+					return parseDouble(valeurAffichee);
+				}
+
+				@Override
+				StockageTableau creerStockage(int taille) {
+					long[] valeurs = new long[taille];
+					return new StockageTableau(valeurs) {
+						@Override
+						void affecter(int index, String valeurAffichee) {
+							valeurs[index] = Long.parseLong(valeurAffichee);
+						}
+
+						@Override
+						String lire(int index) {
+							return Long.toString(valeurs[index]);
+						}
+
+						@Override
+						double nombre(int index) {
+							return valeurs[index];
+						}
+
+						@Override
+						boolean estDefaut(int index) {
+							return valeurs[index] == 0L;
+						}
+					};
+				}
+			});
+
+			enregistrer(new DescripteurType("float", "0.0", (char) 0, true, "-?\\d*\\.?\\d*[fF]?") {
+				@Override
+				String diagnostiquer(String litteral) {
+					// Un littéral décimal sans suffixe est un double : il faut écrire 1.5f
+					if (finitPar(litteral, 'f')) {
+						return diagnostiquerDecimal(litteral.substring(0, litteral.length() - 1), nom);
+					}
+					String raison = diagnostiquerDecimal(litteral, nom);
+					if (raison == null && litteral.indexOf('.') >= 0) {
+						return "un float décimal s'écrit avec le suffixe f : " + litteral + "f";
+					}
+					return raison;
+				}
+
+				@Override
+				String valeurAffichee(String litteral) {
+					return litteral != null && finitPar(litteral, 'f') ? litteral.substring(0, litteral.length() - 1) : litteral;
+				}
+
+				@Override
+				String litteral(String valeurAffichee) {
+					return valeurAffichee.indexOf('.') >= 0 ? valeurAffichee + "f" : valeurAffichee;
+				}
+
+				@Override
+				double enNombre(String valeurAffichee) {
+					return (float) parseDouble(valeurAffichee);
+				}
+
+				@Override
+				StockageTableau creerStockage(int taille) {
+					float[] valeurs = new float[taille];
+					return new StockageTableau(valeurs) {
+						@Override
+						void affecter(int index, String valeurAffichee) {
+							valeurs[index] = Float.parseFloat(valeurAffichee);
+						}
+
+						@Override
+						String lire(int index) {
+							return Float.toString(valeurs[index]);
+						}
+
+						@Override
+						double nombre(int index) {
+							return valeurs[index];
+						}
+
+						@Override
+						boolean estDefaut(int index) {
+							return Float.floatToRawIntBits(valeurs[index]) == 0;
+						}
+					};
+				}
+			});
+
+			enregistrer(new DescripteurType("byte", "0", (char) 0, true, "-?\\d*") {
+				@Override
+				String diagnostiquer(String litteral) {
+					return diagnostiquerEntier(litteral, Byte.MIN_VALUE, Byte.MAX_VALUE, nom);
+				}
+
+				@Override
+				double enNombre(String valeurAffichee) {
+					return parseDouble(valeurAffichee);
+				}
+
+				@Override
+				StockageTableau creerStockage(int taille) {
+					byte[] valeurs = new byte[taille];
+					return new StockageTableau(valeurs) {
+						@Override
+						void affecter(int index, String valeurAffichee) {
+							valeurs[index] = Byte.parseByte(valeurAffichee);
+						}
+
+						@Override
+						String lire(int index) {
+							return Byte.toString(valeurs[index]);
+						}
+
+						@Override
+						double nombre(int index) {
+							return valeurs[index];
+						}
+
+						@Override
+						boolean estDefaut(int index) {
+							return valeurs[index] == 0;
+						}
+					};
+				}
+			});
+
+			enregistrer(new DescripteurType("short", "0", (char) 0, true, "-?\\d*") {
+				@Override
+				String diagnostiquer(String litteral) {
+					return diagnostiquerEntier(litteral, Short.MIN_VALUE, Short.MAX_VALUE, nom);
+				}
+
+				@Override
+				double enNombre(String valeurAffichee) {
+					return parseDouble(valeurAffichee);
+				}
+
+				@Override
+				StockageTableau creerStockage(int taille) {
+					short[] valeurs = new short[taille];
+					return new StockageTableau(valeurs) {
+						@Override
+						void affecter(int index, String valeurAffichee) {
+							valeurs[index] = Short.parseShort(valeurAffichee);
+						}
+
+						@Override
+						String lire(int index) {
+							return Short.toString(valeurs[index]);
+						}
+
+						@Override
+						double nombre(int index) {
+							return valeurs[index];
+						}
+
+						@Override
+						boolean estDefaut(int index) {
+							return valeurs[index] == 0;
+						}
+					};
+				}
+			});
+		}
+	}
+
+	/**
+	 * Pool de canonisation des valeurs String : des valeurs égales partagent une seule instance
+	 * Les entrées sont des références faibles, si bien qu'une valeur que plus aucune case ni
+	 * étiquette ne référence est récupérée par le ramasse-miettes et quitte le pool ; le nombre
+	 * d'entrées est borné, au-delà les nouvelles valeurs sont rendues telles quelles
+	 */
+	private static final class PoolChaines {
+		static final PoolChaines COMMUN = new PoolChaines(1 << 20);
+
+		/**
+		 * Entrée de la table de hachage (chaînage), vidée par le ramasse-miettes
+		 */
+		private static final class Entree extends java.lang.ref.WeakReference<String> {
+			final int hachage;
+			Entree suivante;
+
+			Entree(String valeur, int hachage, Entree suivante, java.lang.ref.ReferenceQueue<String> file) {
+				super(valeur, file);
+				this.hachage = hachage;
+				this.suivante = suivante;
+			}
+		}
+
+		private final int capacite;
+		private final java.lang.ref.ReferenceQueue<String> file = new java.lang.ref.ReferenceQueue<>();
+		private Entree[] table = new Entree[16];
+		private int nombre = 0;
+		private long requetes = 0;
+		private long partagees = 0;   // requêtes servies par une instance déjà présente
+		private long refusees = 0;    // valeurs non retenues, pool plein
+
+		PoolChaines(int capacite) {
+			this.capacite = capacite;
+		}
+
+		/**
+		 * Renvoie l'instance partagée égale à la valeur, en retenant celle-ci si elle est nouvelle
+		 * @param valeur La valeur à canoniser (null est rendu tel quel)
+		 */
+		synchronized String canonique(String valeur) {
+			if (valeur == null) return null;
+			requetes++;
+			purger();
+			int hachage = valeur.hashCode();
+			int position = hachage & (table.length - 1);
+			for (Entree entree = table[position]; entree != null; entree = entree.suivante) {
+				if (entree.hachage == hachage) {
+					String existante = entree.get();
+					if (valeur.equals(existante)) {
+						partagees++;
+						return existante;
+					}
+				}
+			}
+			if (nombre >= capacite) {
+				refusees++;
+				return valeur;
+			}
+			if (nombre >= table.length - (table.length >> 2) && table.length < 2 * capacite) {
+				agrandir();
+				position = hachage & (table.length - 1);
+			}
+			table[position] = new Entree(valeur, hachage, table[position], file);
+			nombre++;
+			return valeur;
+		}
+
+		/**
+		 * Retire de la table les entrées dont la valeur a été récupérée
+		 */
+		private void purger() {
+			for (Object ref; (ref = file.poll()) != null; ) {
+				Entree morte = (Entree) ref;
+				int position = morte.hachage & (table.length - 1);
+				Entree precedente = null;
+				for (Entree entree = table[position]; entree != null; precedente = entree, entree = entree.suivante) {
+					if (entree == morte) {
+						if (precedente == null) table[position] = entree.suivante;
+						else precedente.suivante = entree.suivante;
+						nombre--;
+						break;
+					}
+				}
+			}
+		}
+
+		private void agrandir() {
+			Entree[] nouvelle = new Entree[table.length * 2];
+			for (Entree tete : table) {
+				for (Entree entree = tete; entree != null; ) {
+					Entree suivante = entree.suivante;
+					int position = entree.hachage & (nouvelle.length - 1);
+					entree.suivante = nouvelle[position];
+					nouvelle[position] = entree;
+					entree = suivante;
+				}
+			}
+			table = nouvelle;
+		}
+
+		/**
+		 * Taille approximative d'un objet String sur le tas (en-tête, tableau de caractères
+		 * compacté en Latin-1 si possible, alignement sur 8 octets)
+		 */
+		static long tailleEstimee(String valeur) {
+			boolean latin1 = true;
+			for (int i = 0; i < valeur.length() && latin1; i++) {
+				latin1 = valeur.charAt(i) < 256;
+			}
+			long contenu = 16 + (long) valeur.length() * (latin1 ? 1 : 2);
+			return 24 + ((contenu + 7) & ~7L);
+		}
+
+		/**
+		 * Résumé de l'activité du pool pour la fenêtre de statistiques
+		 */
+		synchronized String bilan() {
+			purger();
+			return String.format("Pool : %d valeurs vivantes (max %d), %d requêtes, %d partagées (%.1f %%), %d refusées",
+					nombre, capacite, requetes, partagees, requetes == 0 ? 0.0 : 100.0 * partagees / requetes, refusees);
+		}
+	}
+
+	/**
+	 * Tableau primitif réellement alloué pour l'illustration (int[], long[], char[]...),
+	 * comme celui du programme illustré ; les valeurs y arrivent sous leur forme affichée
+	 */
+	private abstract static class StockageTableau {
+		final Object tableau;  // le tableau primitif lui-même (pour System.arraycopy, Arrays...)
+		final int taille;
+
+		StockageTableau(Object tableau) {
+			this.tableau = tableau;
+			this.taille = java.lang.reflect.Array.getLength(tableau);
+		}
+
+		/**
+		 * Range une valeur (déjà validée, sans délimiteurs ni suffixe)
+		 */
+		abstract void affecter(int index, String valeurAffichee);
+
+		/**
+		 * Relit une valeur telle que Java l'afficherait
+		 */
+		abstract String lire(int index);
+
+		/**
+		 * Valeur numérique d'une case pour l'agrégation, NaN si le type n'est pas ordonnable
+		 */
+		abstract double nombre(int index);
+
+		/**
+		 * Indique si la case contient encore la valeur par défaut du type
+		 */
+		abstract boolean estDefaut(int index);
+	}
+
+	/**
+	 * Opérations parallèles d'Arrays et des flux, exécutées sur le tableau alloué (int[],
+	 * long[] ou double[]) par les ouvriers du pool fork-join commun
+	 * Deux passes : une passe instrumentée relève chaque morceau (intervalle, ouvrier, instants)
+	 * dans des tableaux préalloués, puis les versions séquentielle et parallèle de l'API,
+	 * sans instrumentation, sont chronométrées pour calculer l'accélération.
+	 */
+	private static final class OperationsParalleles {
+		private static final long DUREE_MESURE = 200_000_000L;  // par version chronométrée
+		private static final int GRAIN_PREFIXE_MIN = 16;         // MIN_PARTITION de parallelPrefix
+
+		enum Operation {
+			TRI("Arrays.parallelSort(t)"),
+			MAP("Arrays.stream(t).parallel().map(x -> x * 2).toArray()"),
+			SOMME_PAIRS("Arrays.stream(t).parallel().filter(x -> x % 2 == 0).sum()"),
+			PREFIXE("Arrays.parallelPrefix(t, (x, y) -> x + y)");
+
+			final String libelle;
+
+			Operation(String libelle) {
+				this.libelle = libelle;
+			}
+		}
+
+		/**
+		 * Morceaux traités, rangés sans verrou : un curseur atomique attribue les emplacements
+		 */
+		static final class Trace {
+			final int[] debut;
+			final int[] fin;
+			final int[] ouvrier;     // indice de l'ouvrier dans le pool, -1 pour le fil appelant
+			final long[] instantDebut;
+			final long[] instantFin;
+			final String[] phase;
+			private final java.util.concurrent.atomic.AtomicInteger curseur = new java.util.concurrent.atomic.AtomicInteger();
+			final long origine = System.nanoTime();
+
+			Trace(int capacite) {
+				debut = new int[capacite];
+				fin = new int[capacite];
+				ouvrier = new int[capacite];
+				instantDebut = new long[capacite];
+				instantFin = new long[capacite];
+				phase = new String[capacite];
+			}
+
+			void relever(int de, int a, long instant, String nomPhase) {
+				long maintenant = System.nanoTime();
+				int k = curseur.getAndIncrement();
+				if (k >= debut.length) return;
+				Thread fil = Thread.currentThread();
+				debut[k] = de;
+				fin[k] = a;
+				ouvrier[k] = fil instanceof java.util.concurrent.ForkJoinWorkerThread
+						? ((java.util.concurrent.ForkJoinWorkerThread) fil).getPoolIndex() : -1;
+				instantDebut[k] = instant - origine;
+				instantFin[k] = maintenant - origine;
+				phase[k] = nomPhase;
+			}
+
+			int nombre() {
+				return Math.min(curseur.get(), debut.length);
+			}
+		}
+
+		static final class Resultat {
+			Operation operation;
+			Trace trace;
+			Object tableau;          // nouveau contenu (même type), null pour une réduction
+			String valeur;           // résultat d'une réduction
+			long nanosSequentiel;
+			long nanosParallele;
+			int parallelisme;
+			int taille;
+		}
+
+		/**
+		 * Indique si le tableau se prête aux opérations (flux primitifs d'Arrays.stream)
+		 */
+		static boolean accepte(Object tableau) {
+			return tableau instanceof int[] || tableau instanceof long[] || tableau instanceof double[];
+		}
+
+		/**
+		 * Exécute une opération sur une copie du tableau, puis la chronomètre
+		 * @param tableau Le tableau alloué (int[], long[] ou double[]), non modifié
+		 */
+		static Resultat executer(Operation operation, Object tableau) {
+			Resultat resultat = new Resultat();
+			resultat.operation = operation;
+			resultat.parallelisme = java.util.concurrent.ForkJoinPool.getCommonPoolParallelism();
+			resultat.taille = java.lang.reflect.Array.getLength(tableau);
+			resultat.trace = new Trace(4 * resultat.taille + 64);
+
+			boolean flottant = tableau instanceof double[];
+			int n = resultat.taille;
+			long[] entiers = new long[flottant ? 0 : n];
+			double[] reels = flottant ? ((double[]) tableau).clone() : new double[0];
+			for (int i = 0; i < entiers.length; i++) {
+				entiers[i] = tableau instanceof int[] ? ((int[]) tableau)[i] : ((long[]) tableau)[i];
+			}
+			java.util.concurrent.ForkJoinPool pool = java.util.concurrent.ForkJoinPool.commonPool();
+			Trace trace = resultat.trace;
+			switch (operation) {
+			case TRI: {
+				int grain = Math.max(GRAIN_PREFIXE_MIN, n / (resultat.parallelisme << 2));
+				pool.invoke(new TriFusion(entiers, reels, new long[entiers.length], new double[reels.length], 0, n, grain, trace));
+				resultat.tableau = retyper(tableau, entiers, reels);
+				break;
+			}
+			case MAP:
+				if (flottant) {
+					reels = java.util.stream.StreamSupport.intStream(new Indices(0, n, trace), true)
+							.mapToDouble(i -> ((double[]) tableau)[i] * 2).toArray();
+				} else {
+					long[] source = entiers;
+					entiers = java.util.stream.StreamSupport.intStream(new Indices(0, n, trace), true)
+							.mapToLong(i -> source[i] * 2).toArray();
+				}
+				resultat.tableau = retyper(tableau, entiers, reels);
+				break;
+			case SOMME_PAIRS:
+				if (flottant) {
+					double[] source = reels;
+					resultat.valeur = String.valueOf(java.util.stream.StreamSupport.intStream(new Indices(0, n, trace), true)
+							.filter(i -> source[i] % 2 == 0).mapToDouble(i -> source[i]).sum());
+				} else {
+					long[] source = entiers;
+					long somme = java.util.stream.StreamSupport.intStream(new Indices(0, n, trace), true)
+							.filter(i -> source[i] % 2 == 0).mapToLong(i -> source[i]).sum();
+					resultat.valeur = String.valueOf(tableau instanceof int[] ? (int) somme : somme);
+				}
+				break;
+			case PREFIXE: {
+				int grain = Math.max(GRAIN_PREFIXE_MIN, n / (resultat.parallelisme << 3));
+				prefixer(entiers, reels, grain, trace, tableau instanceof int[]);
+				resultat.tableau = retyper(tableau, entiers, reels);
+				break;
+			}
+			}
+
+			Runnable[] versions = versions(operation, tableau);
+			mesurer(versions[0]);   // préchauffage des deux versions
+			mesurer(versions[1]);
+			resultat.nanosSequentiel = mesurer(versions[0]);
+			resultat.nanosParallele = mesurer(versions[1]);
+			return resultat;
+		}
+
+		/**
+		 * Recopie la copie de travail dans un tableau du type d'origine (un int déborde comme en Java)
+		 */
+		private static Object retyper(Object tableau, long[] entiers, double[] reels) {
+			if (tableau instanceof double[]) return reels;
+			if (tableau instanceof long[]) return entiers;
+			int[] resultat = new int[entiers.length];
+			for (int i = 0; i < resultat.length; i++) {
+				resultat[i] = (int) entiers[i];
+			}
+			return resultat;
+		}
+
+		/**
+		 * Versions séquentielle et parallèle de l'API, sans instrumentation
+		 * Les opérations en place travaillent sur un clone, copié dans les deux versions
+		 */
+		private static Runnable[] versions(Operation operation, Object tableau) {
+			Object[] puits = new Object[1];   // empêche l'élimination du calcul
+			if (tableau instanceof int[]) {
+				int[] t = (int[]) tableau;
+				switch (operation) {
+				case TRI: return new Runnable[]{() -> java.util.Arrays.sort(puits(puits, t.clone())),
+						() -> java.util.Arrays.parallelSort(puits(puits, t.clone()))};
+				case MAP: return new Runnable[]{() -> puits[0] = java.util.Arrays.stream(t).map(x -> x * 2).toArray(),
+						() -> puits[0] = java.util.Arrays.stream(t).parallel().map(x -> x * 2).toArray()};
+				case SOMME_PAIRS: return new Runnable[]{() -> puits[0] = java.util.Arrays.stream(t).filter(x -> x % 2 == 0).sum(),
+						() -> puits[0] = java.util.Arrays.stream(t).parallel().filter(x -> x % 2 == 0).sum()};
+				default: return new Runnable[]{() -> {
+							int[] c = puits(puits, t.clone());
+							for (int i = 1; i < c.length; i++) c[i] += c[i - 1];
+						}, () -> java.util.Arrays.parallelPrefix(puits(puits, t.clone()), Integer::sum)};
+				}
+			}
+			if (tableau instanceof long[]) {
+				long[] t = (long[]) tableau;
+				switch (operation) {
+				case TRI: return new Runnable[]{() -> java.util.Arrays.sort(puits(puits, t.clone())),
+						() -> java.util.Arrays.parallelSort(puits(puits, t.clone()))};
+				case MAP: return new Runnable[]{() -> puits[0] = java.util.Arrays.stream(t).map(x -> x * 2).toArray(),
+						() -> puits[0] = java.util.Arrays.stream(t).parallel().map(x -> x * 2).toArray()};
+				case SOMME_PAIRS: return new Runnable[]{() -> puits[0] = java.util.Arrays.stream(t).filter(x -> x % 2 == 0).sum(),
+						() -> puits[0] = java.util.Arrays.stream(t).parallel().filter(x -> x % 2 == 0).sum()};
+				default: return new Runnable[]{() -> {
+							long[] c = puits(puits, t.clone());
+							for (int i = 1; i < c.length; i++) c[i] += c[i - 1];
+						}, () -> java.util.Arrays.parallelPrefix(puits(puits, t.clone()), Long::sum)};
+				}
+			}
+			double[] t = (double[]) tableau;
+			switch (operation) {
+			case TRI: return new Runnable[]{() -> java.util.Arrays.sort(puits(puits, t.clone())),
+					() -> java.util.Arrays.parallelSort(puits(puits, t.clone()))};
+			case MAP: return new Runnable[]{() -> puits[0] = java.util.Arrays.stream(t).map(x -> x * 2).toArray(),
+					() -> puits[0] = java.util.Arrays.stream(t).parallel().map(x -> x * 2).toArray()};
+			case SOMME_PAIRS: return new Runnable[]{() -> puits[0] = java.util.Arrays.stream(t).filter(x -> x % 2 == 0).sum(),
+					() -> puits[0] = java.util.Arrays.stream(t).parallel().filter(x -> x % 2 == 0).sum()};
+			default: return new Runnable[]{() -> {
+						double[] c = puits(puits, t.clone());
+						for (int i = 1; i < c.length; i++) c[i] += c[i - 1];
+					}, () -> java.util.Arrays.parallelPrefix(puits(puits, t.clone()), Double::sum)};
+			}
+		}
+
+		private static <T> T puits(Object[] puits, T valeur) {
+			puits[0] = valeur;
+			return valeur;
+		}
+
+		/**
+		 * Durée médiane d'une exécution, répétée pendant DUREE_MESURE (au moins 5 fois)
+		 */
+		private static long mesurer(Runnable version) {
+			List<Long> durees = new ArrayList<>();
+			long limite = System.nanoTime() + DUREE_MESURE;
+			while (durees.size() < 5 || (System.nanoTime() < limite && durees.size() < 100_000)) {
+				long debut = System.nanoTime();
+				version.run();
+				durees.add(System.nanoTime() - debut);
+			}
+			java.util.Collections.sort(durees);
+			return durees.get(durees.size() / 2);
+		}
+
+		/**
+		 * Intervalle d'indices découpé par moitiés ; chaque morceau parcouru est relevé
+		 */
+		private static final class Indices implements java.util.Spliterator.OfInt {
+			private int debut;
+			private final int fin;
+			private final Trace trace;
+
+			Indices(int debut, int fin, Trace trace) {
+				this.debut = debut;
+				this.fin = fin;
+				this.trace = trace;
+			}
+
+			@Override
+			public Indices trySplit() {
+				int milieu = (debut + fin) >>> 1;
+				if (milieu <= debut) return null;
+				Indices gauche = new Indices(debut, milieu, trace);
+				debut = milieu;
+				return gauche;
+			}
+
+			@Override
+			public void forEachRemaining(java.util.function.IntConsumer action) {
+				int de = debut;
+				long instant = System.nanoTime();
+				for (int i = debut; i < fin; i++) {
+					action.accept(i);
+				}
+				debut = fin;
+				if (de < fin) trace.relever(de, fin, instant, "flux");
+			}
+
+			@Override
+			public boolean tryAdvance(java.util.function.IntConsumer action) {
+				if (debut >= fin) return false;
+				long instant = System.nanoTime();
+				action.accept(debut++);
+				trace.relever(debut - 1, debut, instant, "flux");
+				return true;
+			}
+
+			@Override
+			public long estimateSize() {
+				return fin - debut;
+			}
+
+			@Override
+			public int characteristics() {
+				return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+			}
+		}
+
+		/**
+		 * Tri fusion fork-join : feuilles triées par Arrays.sort, puis fusions deux à deux
+		 * (un seul des deux tableaux de travail est non vide selon le type)
+		 */
+		private static final class TriFusion extends java.util.concurrent.RecursiveAction {
+			private static final long serialVersionUID = 1L;
+			private final long[] entiers;
+			private final double[] reels;
+			private final long[] tamponEntiers;
+			private final double[] tamponReels;
+			private final int debut;
+			private final int fin;
+			private final int grain;
+			private final Trace trace;
+
+			TriFusion(long[] entiers, double[] reels, long[] tamponEntiers, double[] tamponReels,
+					int debut, int fin, int grain, Trace trace) {
+				this.entiers = entiers;
+				this.reels = reels;
+				this.tamponEntiers = tamponEntiers;
+				this.tamponReels = tamponReels;
+				this.debut = debut;
+				this.fin = fin;
+				this.grain = grain;
+				this.trace = trace;
+			}
+
+			@Override
+			protected void compute() {
+				long instant = System.nanoTime();
+				if (fin - debut <= grain) {
+					if (reels.length > 0) java.util.Arrays.sort(reels, debut, fin);
+					else java.util.Arrays.sort(entiers, debut, fin);
+					trace.relever(debut, fin, instant, "tri");
+					return;
+				}
+				int milieu = (debut + fin) >>> 1;
+				invokeAll(new TriFusion(entiers, reels, tamponEntiers, tamponReels, debut, milieu, grain, trace),
+						new TriFusion(entiers, reels, tamponEntiers, tamponReels, milieu, fin, grain, trace));
+				instant = System.nanoTime();
+				int i = debut;
+				int j = milieu;
+				for (int k = debut; k < fin; k++) {
+					if (reels.length > 0) {
+						tamponReels[k] = j >= fin || (i < milieu && Double.compare(reels[i], reels[j]) <= 0) ? reels[i++] : reels[j++];
+					} else {
+						tamponEntiers[k] = j >= fin || (i < milieu && entiers[i] <= entiers[j]) ? entiers[i++] : entiers[j++];
+					}
+				}
+				if (reels.length > 0) System.arraycopy(tamponReels, debut, reels, debut, fin - debut);
+				else System.arraycopy(tamponEntiers, debut, entiers, debut, fin - debut);
+				trace.relever(debut, fin, instant, "fusion");
+			}
+		}
+
+		/**
+		 * Préfixe parallèle en deux passes sur des morceaux de taille grain : sommes locales
+		 * en parallèle, décalages cumulés par le fil appelant, puis cumul de chaque morceau
+		 * @param entierInt true pour reproduire le débordement d'un int
+		 */
+		private static void prefixer(long[] entiers, double[] reels, int grain, Trace trace, boolean entierInt) {
+			int n = Math.max(entiers.length, reels.length);
+			int morceaux = (n + grain - 1) / grain;
+			long[] sommesEntieres = new long[morceaux];
+			double[] sommesReelles = new double[morceaux];
+			java.util.stream.IntStream.range(0, morceaux).parallel().forEach(m -> {
+				long instant = System.nanoTime();
+				int fin = Math.min(n, (m + 1) * grain);
+				for (int i = m * grain; i < fin; i++) {
+					if (reels.length > 0) sommesReelles[m] += reels[i];
+					else sommesEntieres[m] += entiers[i];
+				}
+				trace.relever(m * grain, fin, instant, "somme");
+			});
+			long decalageEntier = 0;
+			double decalageReel = 0;
+			for (int m = 0; m < morceaux; m++) {
+				long sommeEntiere = sommesEntieres[m];
+				double sommeReelle = sommesReelles[m];
+				sommesEntieres[m] = decalageEntier;
+				sommesReelles[m] = decalageReel;
+				decalageEntier = entierInt ? (int) (decalageEntier + sommeEntiere) : decalageEntier + sommeEntiere;
+				decalageReel += sommeReelle;
+			}
+			java.util.stream.IntStream.range(0, morceaux).parallel().forEach(m -> {
+				long instant = System.nanoTime();
+				int fin = Math.min(n, (m + 1) * grain);
+				long cumulEntier = sommesEntieres[m];
+				double cumulReel = sommesReelles[m];
+				for (int i = m * grain; i < fin; i++) {
+					if (reels.length > 0) {
+						cumulReel += reels[i];
+						reels[i] = cumulReel;
+					} else {
+						cumulEntier = entierInt ? (int) (cumulEntier + entiers[i]) : cumulEntier + entiers[i];
+						entiers[i] = cumulEntier;
+					}
+				}
+				trace.relever(m * grain, fin, instant, "cumul");
+			});
+		}
+	}
+
+	/**
+	 * Chronologie des morceaux d'une opération parallèle : une rangée par fil,
+	 * un rectangle par morceau (couleur du fil, intervalle d'indices et phase)
+	 */
+	private static final class PanelTraceParallele extends JComponent {
+		private static final long serialVersionUID = 1L;
+		private static final int HAUTEUR_RANGEE = 28;
+		private static final int MARGE_GAUCHE = 110;
+		private final OperationsParalleles.Trace trace;
+		private final List<Integer> ouvriers = new ArrayList<>();
+		private final long duree;
+
+		PanelTraceParallele(OperationsParalleles.Trace trace) {
+			this.trace = trace;
+			long fin = 1;
+			for (int k = 0; k < trace.nombre(); k++) {
+				if (!ouvriers.contains(trace.ouvrier[k])) ouvriers.add(trace.ouvrier[k]);
+				fin = Math.max(fin, trace.instantFin[k]);
+			}
+			ouvriers.sort(null);
+			duree = fin;
+			setPreferredSize(new Dimension(760, 40 + HAUTEUR_RANGEE * Math.max(1, ouvriers.size())));
+			setToolTipText("");
+		}
+
+		/**
+		 * Couleur d'un fil : une teinte par ouvrier du pool, gris pour le fil appelant
+		 */
+		static Color couleur(int ouvrier) {
+			if (ouvrier < 0) return new Color(190, 190, 190);
+			return Color.getHSBColor((ouvrier * 0.618034f) % 1f, 0.45f, 1f);
+		}
+
+		private Rectangle zone(int k) {
+			int largeur = getWidth() - MARGE_GAUCHE - 10;
+			int x = MARGE_GAUCHE + (int) (trace.instantDebut[k] * largeur / duree);
+			int x2 = MARGE_GAUCHE + (int) (trace.instantFin[k] * largeur / duree);
+			int y = 10 + ouvriers.indexOf(trace.ouvrier[k]) * HAUTEUR_RANGEE;
+			return new Rectangle(x, y, Math.max(2, x2 - x), HAUTEUR_RANGEE - 6);
+		}
+
+		@Override
+		protected void paintComponent(Graphics g) {
+			Graphics2D g2 = (Graphics2D) g;
+			g2.setColor(Color.WHITE);
+			g2.fillRect(0, 0, getWidth(), getHeight());
+			g2.setFont(new Font("Monospaced", Font.PLAIN, 11));
+			FontMetrics fm = g2.getFontMetrics();
+			for (int r = 0; r < ouvriers.size(); r++) {
+				g2.setColor(Color.BLACK);
+				int ouvrier = ouvriers.get(r);
+				g2.drawString(ouvrier < 0 ? "fil appelant" : "ouvrier " + ouvrier, 6, 10 + r * HAUTEUR_RANGEE + fm.getAscent() + 4);
+			}
+			for (int k = 0; k < trace.nombre(); k++) {
+				Rectangle zone = zone(k);
+				g2.setColor(couleur(trace.ouvrier[k]));
+				g2.fillRect(zone.x, zone.y, zone.width, zone.height);
+				g2.setColor(Color.DARK_GRAY);
+				g2.drawRect(zone.x, zone.y, zone.width, zone.height);
+				String texte = "[" + trace.debut[k] + "," + trace.fin[k] + ")";
+				if (fm.stringWidth(texte) < zone.width - 4) {
+					g2.drawString(texte, zone.x + 3, zone.y + fm.getAscent() + 3);
+				}
+			}
+			g2.setColor(Color.GRAY);
+			int yAxe = getHeight() - 14;
+			g2.drawLine(MARGE_GAUCHE, yAxe, getWidth() - 10, yAxe);
+			g2.drawString("0", MARGE_GAUCHE, yAxe + 12);
+			String total = String.format("%.1f µs", duree / 1000.0);
+			g2.drawString(total, getWidth() - 10 - fm.stringWidth(total), yAxe + 12);
+		}
+
+		@Override
+		public String getToolTipText(MouseEvent e) {
+			for (int k = trace.nombre() - 1; k >= 0; k--) {
+				if (zone(k).contains(e.getPoint())) {
+					return String.format("%s [%d, %d) : %d éléments, %.1f µs", trace.phase[k], trace.debut[k], trace.fin[k],
+							trace.fin[k] - trace.debut[k], (trace.instantFin[k] - trace.instantDebut[k]) / 1000.0);
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Simulation d'un ArrayList : tableau de stockage, agrandissements et décalages
+	 * Reproduit la politique d'OpenJDK (capacité 10 au premier ajout, puis + 50 % par
+	 * Arrays.copyOf) et compte chaque élément recopié. En mode résumé, seuls la taille et
+	 * la capacité sont suivies : aucune case n'est allouée, si bien que des millions
+	 * d'opérations se rejouent en quelques dizaines de millisecondes.
+	 */
+	private static final class SimulationArrayList {
+		static final int CAPACITE_DEFAUT = 10;
+		private static final int POINTS_COURBE = 1024;
+		// Annulation consultée au plus tous les 256 pas et toutes les 20 ms : un remove(0) sur une
+		// grande liste coûte une copie de tout le tableau, un nombre fixe de pas ne suffit pas
+		private static final int MASQUE_SONDAGE = 0xFF;
+		private static final long PERIODE_SONDAGE_NANOS = 20_000_000L;
+
+		enum Retrait {
+			FIN("remove(size() - 1)"),
+			DEBUT("remove(0)"),
+			ALEATOIRE("remove(indice aléatoire)");
+
+			final String libelle;
+
+			Retrait(String libelle) {
+				this.libelle = libelle;
+			}
+
+			@Override
+			public String toString() {
+				return libelle;
+			}
+		}
+
+		final long graine;
+		final int pourcentageRetraits;
+		final Retrait retrait;
+		final String[] valeurs;        // valeurs ajoutées, prises tour à tour
+		private final java.util.SplittableRandom alea;
+		private final boolean detaille;
+
+		String[] elements = new String[0];   // tableau de stockage (mode détaillé)
+		String[] ancienStockage;             // avant le dernier agrandissement, null sinon
+		int capacite = 0;
+		int taille = 0;
+		int tailleMax = 0;
+		long operations = 0;
+		long ajouts = 0;
+		long retraits = 0;
+		long redimensionnements = 0;
+		long copies = 0;        // éléments recopiés par Arrays.copyOf
+		long decalages = 0;     // éléments décalés par System.arraycopy dans remove
+		int dernierIndice = -1;
+		boolean dernierAjout;
+
+		// Courbe taille/capacité échantillonnée (le pas double quand elle est pleine)
+		int[] courbeTaille = new int[POINTS_COURBE];
+		int[] courbeCapacite = new int[POINTS_COURBE];
+		int points = 0;
+		long pasCourbe = 1;
+
+		SimulationArrayList(long graine, int pourcentageRetraits, Retrait retrait, String[] valeurs, boolean detaille) {
+			this.graine = graine;
+			this.pourcentageRetraits = pourcentageRetraits;
+			this.retrait = retrait;
+			this.valeurs = valeurs;
+			this.detaille = detaille;
+			this.alea = new java.util.SplittableRandom(graine);
+		}
+
+		/**
+		 * Tire l'opération suivante d'une séquence
+		 * @return -1 pour un add, sinon l'indice passé à remove
+		 */
+		static int prochaineOperation(java.util.SplittableRandom alea, int taille, int pourcentageRetraits, Retrait retrait) {
+			if (taille == 0 || alea.nextInt(100) >= pourcentageRetraits) return -1;
+			switch (retrait) {
+			case DEBUT: return 0;
+			case ALEATOIRE: return alea.nextInt(taille);
+			default: return taille - 1;
+			}
+		}
+
+		/**
+		 * Nouvelle capacité d'ArrayList.grow : 10 au premier ajout, puis ancienne + ancienne / 2
+		 */
+		static int nouvelleCapacite(int capacite, int minimum) {
+			if (capacite == 0) return Math.max(CAPACITE_DEFAUT, minimum);
+			return Math.max(minimum, capacite + (capacite >> 1));
+		}
+
+		/**
+		 * Exécute une opération de la séquence
+		 */
+		void pas() {
+			int indice = prochaineOperation(alea, taille, pourcentageRetraits, retrait);
+			ancienStockage = null;
+			operations++;
+			if (indice < 0) {
+				if (taille == capacite) {
+					int nouvelle = nouvelleCapacite(capacite, taille + 1);
+					if (detaille) {
+						ancienStockage = elements;
+						elements = java.util.Arrays.copyOf(elements, nouvelle);
+					}
+					redimensionnements++;
+					copies += taille;
+					capacite = nouvelle;
+				}
+				if (detaille) elements[taille] = valeurs[(int) (ajouts % valeurs.length)];
+				dernierIndice = taille++;
+				dernierAjout = true;
+				ajouts++;
+				tailleMax = Math.max(tailleMax, taille);
+			} else {
+				int deplaces = taille - indice - 1;
+				if (detaille) {
+					System.arraycopy(elements, indice + 1, elements, indice, deplaces);
+					elements[taille - 1] = null;
+				}
+				decalages += deplaces;
+				taille--;
+				dernierIndice = indice;
+				dernierAjout = false;
+				retraits++;
+			}
+			if (operations % pasCourbe == 0) echantillonner();
+		}
+
+		/**
+		 * Rejoue un grand nombre d'opérations (mode résumé)
+		 * @param annulation Consultée toutes les 2^16 opérations
+		 */
+		void executer(long nombre, java.util.function.BooleanSupplier annulation) {
+			for (long k = 0; k < nombre; k++) {
+				pas();
+				if ((k & 0xFFFF) == 0 && annulation.getAsBoolean()) return;
+			}
+		}
+
+		private void echantillonner() {
+			if (points == POINTS_COURBE) {
+				for (int i = 0; i < POINTS_COURBE / 2; i++) {
+					courbeTaille[i] = courbeTaille[2 * i + 1];
+					courbeCapacite[i] = courbeCapacite[2 * i + 1];
+				}
+				points = POINTS_COURBE / 2;
+				pasCourbe *= 2;
+				if (operations % pasCourbe != 0) return;
+			}
+			courbeTaille[points] = taille;
+			courbeCapacite[points] = capacite;
+			points++;
+		}
+
+		/**
+		 * Écritures dans un tableau par opération : l'écriture de l'élément, plus les copies
+		 * d'agrandissement et les décalages, répartis sur toutes les opérations
+		 */
+		double coutAmorti() {
+			return operations == 0 ? 0 : (ajouts + copies + decalages) / (double) operations;
+		}
+
+		/**
+		 * Rejoue la même séquence sur un vrai java.util.ArrayList
+		 * @return La durée en nanosecondes, ou -1 si annulé
+		 */
+		long chronometrerArrayList(long nombre, java.util.function.BooleanSupplier annulation) {
+			java.util.SplittableRandom sequence = new java.util.SplittableRandom(graine);
+			ArrayList<String> liste = new ArrayList<>();
+			long debut = System.nanoTime();
+			long prochainSondage = debut + PERIODE_SONDAGE_NANOS;
+			for (long k = 0, ajoutes = 0; k < nombre; k++) {
+				int indice = prochaineOperation(sequence, liste.size(), pourcentageRetraits, retrait);
+				if (indice < 0) {
+					liste.add(valeurs[(int) (ajoutes++ % valeurs.length)]);
+				} else {
+					liste.remove(indice);
+				}
+				if ((k & MASQUE_SONDAGE) == 0 && System.nanoTime() >= prochainSondage) {
+					if (annulation.getAsBoolean()) return -1;
+					prochainSondage = System.nanoTime() + PERIODE_SONDAGE_NANOS;
+				}
+			}
+			return System.nanoTime() - debut;
+		}
+
+		/**
+		 * Rejoue la même séquence sur un tableau brut alloué d'emblée à la taille maximale
+		 * atteinte (connue après la simulation) : aucun agrandissement
+		 * @return La durée en nanosecondes, ou -1 si annulé
+		 */
+		long chronometrerTableauBrut(long nombre, java.util.function.BooleanSupplier annulation) {
+			java.util.SplittableRandom sequence = new java.util.SplittableRandom(graine);
+			String[] tableau = new String[Math.max(1, tailleMax)];
+			int n = 0;
+			long debut = System.nanoTime();
+			long prochainSondage = debut + PERIODE_SONDAGE_NANOS;
+			for (long k = 0, ajoutes = 0; k < nombre; k++) {
+				int indice = prochaineOperation(sequence, n, pourcentageRetraits, retrait);
+				if (indice < 0) {
+					tableau[n++] = valeurs[(int) (ajoutes++ % valeurs.length)];
+				} else {
+					System.arraycopy(tableau, indice + 1, tableau, indice, n - indice - 1);
+					tableau[--n] = null;
+				}
+				if ((k & MASQUE_SONDAGE) == 0 && System.nanoTime() >= prochainSondage) {
+					if (annulation.getAsBoolean()) return -1;
+					prochainSondage = System.nanoTime() + PERIODE_SONDAGE_NANOS;
+				}
+			}
+			return System.nanoTime() - debut;
+		}
+	}
+
+	/**
+	 * Dessin d'une simulation d'ArrayList : le tableau de stockage (et l'ancien lors d'un
+	 * agrandissement), puis la courbe de la taille et de la capacité au fil des opérations
+	 */
+	private static final class PanelArrayList extends JComponent {
+		private static final long serialVersionUID = 1L;
+		private static final int CASES_MAX = 40;
+		private static final int LARGEUR_CASE = 32;
+		private static final Color COULEUR_PLEINE = new Color(200, 255, 200);
+		private static final Color COULEUR_CAPACITE = new Color(60, 90, 160);
+		private SimulationArrayList simulation;
+
+		PanelArrayList() {
+			setPreferredSize(new Dimension(CASES_MAX * (LARGEUR_CASE - 4) + 40, 360));
+		}
+
+		void afficher(SimulationArrayList simulation) {
+			this.simulation = simulation;
+			repaint();
+		}
+
+		@Override
+		protected void paintComponent(Graphics g) {
+			Graphics2D g2 = (Graphics2D) g;
+			g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			g2.setColor(Color.WHITE);
+			g2.fillRect(0, 0, getWidth(), getHeight());
+			if (simulation == null) return;
+			g2.setFont(new Font("Monospaced", Font.PLAIN, 11));
+
+			int y = 16;
+			if (simulation.ancienStockage != null) {
+				g2.setColor(Color.GRAY);
+				g2.drawString("ancien elementData (capacité " + simulation.ancienStockage.length + ") : Arrays.copyOf, "
+						+ simulation.ancienStockage.length + " éléments recopiés", 12, y);
+				dessinerStockage(g2, simulation.ancienStockage, simulation.ancienStockage.length, -1, 12, y + 6, Color.LIGHT_GRAY);
+				y += 60;
+			}
+			g2.setColor(Color.BLACK);
+			g2.drawString(String.format("elementData : capacité %d, size %d", simulation.capacite, simulation.taille), 12, y);
+			dessinerStockage(g2, simulation.elements, simulation.taille, simulation.dernierIndice, 12, y + 6, COULEUR_PLEINE);
+			dessinerCourbe(g2, new Rectangle(12, y + 60, getWidth() - 24, getHeight() - y - 72));
+		}
+
+		/**
+		 * Cases du tableau de stockage, ou une barre proportionnelle au-delà de CASES_MAX
+		 */
+		private void dessinerStockage(Graphics2D g2, String[] elements, int taille, int marque, int x, int y, Color plein) {
+			int capacite = elements.length > 0 ? elements.length : simulation.capacite;
+			int hauteur = 28;
+			if (capacite <= CASES_MAX && elements.length == capacite) {
+				FontMetrics fm = g2.getFontMetrics();
+				for (int i = 0; i < capacite; i++) {
+					int xi = x + i * (LARGEUR_CASE - 4);
+					g2.setColor(i < taille ? plein : Color.WHITE);
+					g2.fillRect(xi, y, LARGEUR_CASE - 6, hauteur);
+					g2.setColor(i == marque ? (simulation.dernierAjout ? new Color(0, 150, 0) : Color.RED) : Color.DARK_GRAY);
+					g2.drawRect(xi, y, LARGEUR_CASE - 6, hauteur);
+					if (elements[i] != null) {
+						String texte = elements[i];
+						while (texte.length() > 1 && fm.stringWidth(texte) > LARGEUR_CASE - 8) {
+							texte = texte.substring(0, texte.length() - 1);
+						}
+						g2.setColor(Color.BLACK);
+						g2.drawString(texte, xi + 2, y + hauteur / 2 + fm.getAscent() / 2 - 1);
+					}
+				}
+			} else {
+				int largeur = getWidth() - 2 * x;
+				g2.setColor(Color.WHITE);
+				g2.fillRect(x, y, largeur, hauteur);
+				g2.setColor(plein);
+				g2.fillRect(x, y, (int) ((long) largeur * taille / Math.max(1, capacite)), hauteur);
+				g2.setColor(Color.DARK_GRAY);
+				g2.drawRect(x, y, largeur, hauteur);
+			}
+		}
+
+		/**
+		 * Taille (surface) et capacité (marches) en fonction du numéro d'opération
+		 */
+		private void dessinerCourbe(Graphics2D g2, Rectangle zone) {
+			int points = simulation.points;
+			if (points < 2 || zone.height < 20) return;
+			int maximum = 1;
+			for (int i = 0; i < points; i++) {
+				maximum = Math.max(maximum, simulation.courbeCapacite[i]);
+			}
+			java.awt.geom.Path2D taille = new java.awt.geom.Path2D.Double();
+			java.awt.geom.Path2D capacite = new java.awt.geom.Path2D.Double();
+			taille.moveTo(zone.x, zone.y + zone.height);
+			for (int i = 0; i < points; i++) {
+				double x = zone.x + (double) i * zone.width / (points - 1);
+				double yTaille = zone.y + zone.height - (double) simulation.courbeTaille[i] * zone.height / maximum;
+				double yCapacite = zone.y + zone.height - (double) simulation.courbeCapacite[i] * zone.height / maximum;
+				taille.lineTo(x, yTaille);
+				if (i == 0) capacite.moveTo(x, yCapacite);
+				else {
+					capacite.lineTo(x, capacite.getCurrentPoint().getY());
+					capacite.lineTo(x, yCapacite);
+				}
+			}
+			taille.lineTo(zone.x + zone.width, zone.y + zone.height);
+			taille.closePath();
+			g2.setColor(COULEUR_PLEINE);
+			g2.fill(taille);
+			g2.setColor(COULEUR_CAPACITE);
+			g2.draw(capacite);
+			g2.setColor(Color.GRAY);
+			g2.drawRect(zone.x, zone.y, zone.width, zone.height);
+			g2.drawString("capacité max " + maximum + " — " + simulation.operations + " opérations (1 point / "
+					+ simulation.pasCourbe + ")", zone.x + 4, zone.y + 12);
+		}
+	}
+
+	/**
+	 * Laboratoire de localité mémoire : parcours réels de tableaux int[] (et int[][]) dont le
+	 * débit est mesuré après préchauffage
+	 * Chaque parcours somme les éléments visités et la somme est versée dans un puits volatile,
+	 * ce qui interdit au compilateur JIT d'éliminer la boucle ; les données sont aléatoires pour
+	 * que la somme ne soit pas constante. Chaque parcours a sa propre méthode (boucle monomorphe).
+	 */
+	private static final class LaboratoireLocalite {
+		private static final long DUREE_PRECHAUFFAGE = 300_000_000L;
+		private static final long DUREE_MESURE = 700_000_000L;
+		private static final int MESURES_MIN = 5;
+		private static final long GRAINE = 42;
+		static volatile long puits;
+
+		// Dégradé de la carte d'accès réduit à 16 teintes : le CacheTuiles (64 tuiles, clé sur la
+		// couleur de fond) garde alors toutes les cases coloriées au lieu d'en recréer une par case
+		private static final Color[] CARTE = new Color[16];
+		static {
+			for (int k = 0; k < CARTE.length; k++) {
+				CARTE[k] = Color.getHSBColor(0.66f * (1 - k / (float) (CARTE.length - 1)), 0.45f, 1f);
+			}
+		}
+
+		enum Parcours {
+			SEQUENTIEL("Séquentiel  t[0], t[1], ..."),
+			INVERSE("Inverse  t[n-1], t[n-2], ..."),
+			PAS("Par pas  t[0], t[p], t[2p], ..."),
+			ALEATOIRE("Permutation aléatoire  t[perm[i]]"),
+			LIGNES("Matrice ligne par ligne  m[l][c]"),
+			COLONNES("Matrice colonne par colonne  m[l][c]");
+
+			final String libelle;
+
+			Parcours(String libelle) {
+				this.libelle = libelle;
+			}
+		}
+
+		static final class Mesure {
+			Parcours parcours;
+			double nanosParElement;   // moyenne
+			double ecartType;         // écart type des mesures (ns / élément)
+			double minimum;
+			int mesures;
+			int elements;
+		}
+
+		private final int[] donnees;
+		private final int[] permutation;
+		private final int[][] matrice;
+		private final int pas;
+
+		/**
+		 * Alloue les tableaux du laboratoire
+		 * @param taille Nombre d'éléments (la matrice carrée en a autant, arrondi au carré inférieur)
+		 * @param pas Écart entre deux accès du parcours par pas
+		 */
+		LaboratoireLocalite(int taille, int pas) {
+			java.util.SplittableRandom alea = new java.util.SplittableRandom(GRAINE);
+			this.pas = Math.max(1, pas);
+			donnees = new int[taille];
+			for (int i = 0; i < taille; i++) {
+				donnees[i] = alea.nextInt();
+			}
+			permutation = permutation(taille, GRAINE);
+			int cote = (int) Math.sqrt(taille);
+			matrice = new int[cote][cote];
+			for (int[] ligne : matrice) {
+				for (int c = 0; c < cote; c++) {
+					ligne[c] = alea.nextInt();
+				}
+			}
+		}
+
+		/**
+		 * Permutation aléatoire de [0, n[ (Fisher-Yates)
+		 */
+		static int[] permutation(int n, long graine) {
+			java.util.SplittableRandom alea = new java.util.SplittableRandom(graine);
+			int[] resultat = new int[n];
+			for (int i = 0; i < n; i++) {
+				resultat[i] = i;
+			}
+			for (int i = n - 1; i > 0; i--) {
+				int j = alea.nextInt(i + 1);
+				int t = resultat[i];
+				resultat[i] = resultat[j];
+				resultat[j] = t;
+			}
+			return resultat;
+		}
+
+		/**
+		 * Teinte de la carte d'accès pour un rang de visite : du bleu (premier) au rouge (dernier)
+		 */
+		static Color couleurRang(int rang, int n) {
+			return CARTE[n == 1 ? 0 : (int) ((long) rang * (CARTE.length - 1) / (n - 1))];
+		}
+
+		/**
+		 * Rang de visite de chaque case d'un tableau de n cases (carte de chaleur)
+		 * Les parcours de matrice considèrent le tableau comme une matrice rangée ligne par ligne
+		 */
+		static int[] rangs(Parcours parcours, int n, int pas) {
+			int[] rang = new int[n];
+			int k = 0;
+			switch (parcours) {
+			case INVERSE:
+				for (int i = n - 1; i >= 0; i--) rang[i] = k++;
+				break;
+			case PAS:
+				for (int debut = 0; debut < pas && debut < n; debut++) {
+					for (int i = debut; i < n; i += pas) rang[i] = k++;
+				}
+				break;
+			case ALEATOIRE:
+				int[] permutation = permutation(n, GRAINE);
+				for (int i = 0; i < n; i++) rang[permutation[i]] = i;
+				break;
+			case COLONNES:
+				int colonnes = (int) Math.ceil(Math.sqrt(n));
+				for (int c = 0; c < colonnes; c++) {
+					for (int i = c; i < n; i += colonnes) rang[i] = k++;
+				}
+				break;
+			default:
+				for (int i = 0; i < n; i++) rang[i] = i;
+			}
+			return rang;
+		}
+
+		/**
+		 * Mesure un parcours : préchauffage, puis mesures répétées jusqu'à DUREE_MESURE
+		 */
+		Mesure mesurer(Parcours parcours) {
+			int elements = parcours == Parcours.LIGNES || parcours == Parcours.COLONNES
+					? matrice.length * matrice.length : donnees.length;
+			long fin = System.nanoTime() + DUREE_PRECHAUFFAGE;
+			for (int k = 0; k < MESURES_MIN || System.nanoTime() < fin; k++) {
+				puits += executer(parcours);
+			}
+			List<Double> durees = new ArrayList<>();
+			fin = System.nanoTime() + DUREE_MESURE;
+			while (durees.size() < MESURES_MIN || (System.nanoTime() < fin && durees.size() < 1000)) {
+				long debut = System.nanoTime();
+				long somme = executer(parcours);
+				long duree = System.nanoTime() - debut;
+				puits += somme;
+				durees.add(duree / (double) Math.max(1, elements));
+			}
+
+			Mesure mesure = new Mesure();
+			mesure.parcours = parcours;
+			mesure.elements = elements;
+			mesure.mesures = durees.size();
+			double somme = 0;
+			double minimum = Double.POSITIVE_INFINITY;
+			for (double d : durees) {
+				somme += d;
+				minimum = Math.min(minimum, d);
+			}
+			mesure.nanosParElement = somme / durees.size();
+			mesure.minimum = minimum;
+			double carres = 0;
+			for (double d : durees) {
+				carres += (d - mesure.nanosParElement) * (d - mesure.nanosParElement);
+			}
+			mesure.ecartType = Math.sqrt(carres / (durees.size() - 1));
+			return mesure;
+		}
+
+		private long executer(Parcours parcours) {
+			switch (parcours) {
+			case INVERSE: return inverse();
+			case PAS: return parPas();
+			case ALEATOIRE: return aleatoire();
+			case LIGNES: return lignes();
+			case COLONNES: return colonnes();
+			default: return sequentiel();
+			}
+		}
+
+		private long sequentiel() {
+			int[] t = donnees;
+			long somme = 0;
+			for (int i = 0; i < t.length; i++) somme += t[i];
+			return somme;
+		}
+
+		private long inverse() {
+			int[] t = donnees;
+			long somme = 0;
+			for (int i = t.length - 1; i >= 0; i--) somme += t[i];
+			return somme;
+		}
+
+		private long parPas() {
+			int[] t = donnees;
+			long somme = 0;
+			for (int debut = 0; debut < pas; debut++) {
+				for (int i = debut; i < t.length; i += pas) somme += t[i];
+			}
+			return somme;
+		}
+
+		private long aleatoire() {
+			int[] t = donnees;
+			int[] p = permutation;
+			long somme = 0;
+			for (int i = 0; i < p.length; i++) somme += t[p[i]];
+			return somme;
+		}
+
+		private long lignes() {
+			int[][] m = matrice;
+			long somme = 0;
+			for (int l = 0; l < m.length; l++) {
+				int[] ligne = m[l];
+				for (int c = 0; c < ligne.length; c++) somme += ligne[c];
+			}
+			return somme;
+		}
+
+		private long colonnes() {
+			int[][] m = matrice;
+			long somme = 0;
+			int cote = m.length;
+			for (int c = 0; c < cote; c++) {
+				for (int l = 0; l < cote; l++) somme += m[l][c];
+			}
+			return somme;
+		}
+	}
+
+	/**
+	 * Déroulement complet d'une exécution, figé au moment de l'export
+	 * Les valeurs sont validées d'avance et les cases sont affectées dans l'ordre : l'état
+	 * après chaque étape se déduit de son seul numéro, si bien que les images peuvent être
+	 * dessinées indépendamment les unes des autres
+	 */
+	private static final class ScenarioExecution {
+		final String titre;          // "int[] tableau"
+		final String[] lignes;       // texte des lignes de code (valeurs saisies comprises)
+		final int ligneCompteur;     // ligne du commentaire "// i = ..." (méthode 3), -1 sinon
+		final String[] valeurs;      // valeurs affichées dans les cases une fois affectées
+		final String valeurDefaut;
+		final int methode;
+		final int[] ligneEtape;      // ligne mise en évidence par chaque étape
+
+		ScenarioExecution(String titre, String[] lignes, int ligneCompteur, String[] valeurs,
+				String valeurDefaut, int methode, int[] ligneEtape) {
+			this.titre = titre;
+			this.lignes = lignes;
+			this.ligneCompteur = ligneCompteur;
+			this.valeurs = valeurs;
+			this.valeurDefaut = valeurDefaut;
+			this.methode = methode;
+			this.ligneEtape = ligneEtape;
+		}
+
+		/**
+		 * Une image pour l'état initial, puis une par étape
+		 */
+		int nombreImages() {
+			return ligneEtape.length + 1;
+		}
+
+		/**
+		 * Ligne mise en évidence sur une image (-1 pour l'état initial)
+		 */
+		int ligne(int image) {
+			return image == 0 ? -1 : ligneEtape[image - 1];
+		}
+
+		/**
+		 * Le tableau est alloué dès la première étape, quelle que soit la méthode
+		 */
+		boolean alloue(int image) {
+			return image > 0;
+		}
+
+		/**
+		 * Nombre de cases déjà affectées sur une image
+		 */
+		int affectees(int image) {
+			int etape = image - 1;
+			if (etape < 0) return 0;
+			switch (methode) {
+			case 2:
+				return valeurs.length;
+			case 3:
+				return Math.max(0, Math.min(valeurs.length, etape - 1));
+			default:
+				return Math.min(valeurs.length, etape);
+			}
+		}
+
+		/**
+		 * Commentaire du compteur de boucle (méthode 3) sur une image
+		 */
+		String compteur(int image) {
+			int etape = image - 1;
+			if (methode != 3 || etape < 2) return "";
+			return etape < valeurs.length + 2 ? "   // i = " + (etape - 2)
+					: "   // i = " + valeurs.length + " : sortie de boucle";
+		}
+	}
+
+	/**
+	 * Export d'une exécution en GIF animé ou en séquence d'images PNG, sans la fenêtre
+	 * Pipeline à deux étages : les images sont dessinées en parallèle sur le pool fork-join
+	 * commun, quelques images en avance, pendant que le fil d'export les encode dans l'ordre.
+	 * Toutes les images partagent la même palette indexée (aucune quantification par image) ;
+	 * une image identique à la précédente ne fait qu'allonger la durée de celle-ci, et dans
+	 * le GIF seul le rectangle qui a changé est écrit.
+	 */
+	private static final class ExportAnimation {
+		private static final int LARGEUR = 960;
+		private static final int MARGE = 16;
+		private static final int LIGNES_VISIBLES = 10;
+		private static final int HAUTEUR_LIGNE = 20;
+		private static final int TAILLE_CASE = 64;
+		private static final int ESPACE_CASES = 6;
+		private static final int HAUTEUR_BANDEAU = 16;
+		private static final int Y_TITRE = MARGE + LIGNES_VISIBLES * HAUTEUR_LIGNE + 34;
+		private static final int Y_CASES = Y_TITRE + 14;
+		private static final int Y_PIED = Y_CASES + TAILLE_CASE + 26;
+		private static final int HAUTEUR = Y_PIED + 10;
+		private static final int CASES_VISIBLES = (LARGEUR - 2 * MARGE + ESPACE_CASES) / (TAILLE_CASE + ESPACE_CASES);
+		private static final int PAUSE_FINALE_MS = 2000;
+
+		private static final Color FOND_CODE = new Color(238, 238, 238);
+		private static final Color SURLIGNAGE = new Color(255, 255, 200);
+		private static final Color AFFECTEE = new Color(200, 255, 200);
+		private static final Font POLICE_CODE = new Font("Monospaced", Font.PLAIN, 14);
+		private static final Font POLICE_TITRE = new Font("Monospaced", Font.BOLD, 16);
+		private static final Font POLICE_PIED = new Font("SansSerif", Font.PLAIN, 12);
+
+		// Palette commune à toutes les images : exactement les couleurs dessinées
+		private static final java.awt.image.IndexColorModel PALETTE = palette(Color.WHITE, Color.BLACK,
+				Color.GRAY, FOND_CODE, SURLIGNAGE, AFFECTEE, Color.DARK_GRAY, Color.LIGHT_GRAY);
+
+		private static java.awt.image.IndexColorModel palette(Color... couleurs) {
+			byte[] r = new byte[couleurs.length];
+			byte[] v = new byte[couleurs.length];
+			byte[] b = new byte[couleurs.length];
+			for (int i = 0; i < couleurs.length; i++) {
+				r[i] = (byte) couleurs[i].getRed();
+				v[i] = (byte) couleurs[i].getGreen();
+				b[i] = (byte) couleurs[i].getBlue();
+			}
+			return new java.awt.image.IndexColorModel(8, couleurs.length, r, v, b);
+		}
+
+		/**
+		 * Résultat d'un export
+		 */
+		static final class Bilan {
+			int images;
+			int distinctes;
+			long octets;
+			long dureeMillis;
+		}
+
+		/**
+		 * Destination des images distinctes, reçues dans l'ordre
+		 * Fermée sans avoir été terminée (annulation, erreur), elle efface ce qu'elle a déjà écrit.
+		 */
+		private interface Sortie extends java.io.Closeable {
+			void ecrire(BufferedImage image, Rectangle zone, int dureeMillis) throws java.io.IOException;
+
+			void terminer() throws java.io.IOException;
+
+			/**
+			 * Nombre d'octets écrits (après terminer)
+			 */
+			long octets() throws java.io.IOException;
+		}
+
+		/**
+		 * Exporte toutes les étapes d'un scénario
+		 * @param scenario Le déroulement à exporter
+		 * @param fichier Le GIF, ou la liste des images pour une séquence PNG
+		 * @param gif true pour un GIF animé, false pour une séquence PNG
+		 * @param dureeEtapeMillis Durée d'affichage de chaque étape
+		 * @param progression Reçoit le pourcentage d'images encodées
+		 * @param annulation Interrompt l'export lorsqu'elle renvoie true
+		 * @throws java.util.concurrent.CancellationException si l'export a été annulé
+		 */
+		static Bilan exporter(ScenarioExecution scenario, java.io.File fichier, boolean gif, int dureeEtapeMillis,
+				java.util.function.IntConsumer progression, java.util.function.BooleanSupplier annulation)
+				throws java.io.IOException {
+			long debut = System.nanoTime();
+			Bilan bilan = new Bilan();
+			bilan.images = scenario.nombreImages();
+			int avance = 2 * java.util.concurrent.ForkJoinPool.getCommonPoolParallelism() + 2;
+			java.util.ArrayDeque<java.util.concurrent.ForkJoinTask<BufferedImage>> enCours = new java.util.ArrayDeque<>();
+			int suivante = 0;
+
+			try (Sortie sortie = gif ? new SortieGif(fichier) : new SortieSequence(fichier)) {
+				byte[] precedente = null;
+				BufferedImage enAttente = null;
+				Rectangle zoneEnAttente = null;
+				int dureeEnAttente = 0;
+
+				for (int image = 0; image < bilan.images; image++) {
+					// Garder quelques images en cours de dessin en avance sur l'encodage
+					while (suivante < bilan.images && enCours.size() < avance) {
+						int numero = suivante++;
+						enCours.add(java.util.concurrent.ForkJoinPool.commonPool().submit(() -> dessiner(scenario, numero)));
+					}
+					if (annulation.getAsBoolean()) throw new java.util.concurrent.CancellationException();
+
+					BufferedImage courante = enCours.poll().join();
+					byte[] pixels = ((java.awt.image.DataBufferByte) courante.getRaster().getDataBuffer()).getData();
+					Rectangle zone = precedente == null
+							? new Rectangle(0, 0, LARGEUR, HAUTEUR) : difference(precedente, pixels);
+					if (zone == null) {
+						// Image identique : la précédente reste affichée plus longtemps
+						dureeEnAttente += dureeEtapeMillis;
+					} else {
+						if (enAttente != null) {
+							sortie.ecrire(enAttente, zoneEnAttente, dureeEnAttente);
+						}
+						enAttente = courante;
+						zoneEnAttente = zone;
+						dureeEnAttente = dureeEtapeMillis;
+						precedente = pixels;
+						bilan.distinctes++;
+					}
+					progression.accept((image + 1) * 100 / bilan.images);
+				}
+				if (enAttente != null) {
+					sortie.ecrire(enAttente, zoneEnAttente, dureeEnAttente + PAUSE_FINALE_MS);
+				}
+				sortie.terminer();
+				bilan.octets = sortie.octets();
+			} finally {
+				for (java.util.concurrent.ForkJoinTask<BufferedImage> tache : enCours) {
+					tache.cancel(true);
+				}
+			}
+
+			bilan.dureeMillis = (System.nanoTime() - debut) / 1_000_000;
+			return bilan;
+		}
+
+		/**
+		 * Rectangle englobant des pixels qui diffèrent entre deux images, null si elles sont identiques
+		 */
+		static Rectangle difference(byte[] avant, byte[] apres) {
+			int haut = -1;
+			int bas = -1;
+			int gauche = LARGEUR;
+			int droite = -1;
+			for (int y = 0; y < HAUTEUR; y++) {
+				int ligne = y * LARGEUR;
+				int x = 0;
+				while (x < LARGEUR && avant[ligne + x] == apres[ligne + x]) x++;
+				if (x == LARGEUR) continue;
+				int dernier = LARGEUR - 1;
+				while (avant[ligne + dernier] == apres[ligne + dernier]) dernier--;
+				if (haut < 0) haut = y;
+				bas = y;
+				gauche = Math.min(gauche, x);
+				droite = Math.max(droite, dernier);
+			}
+			return haut < 0 ? null : new Rectangle(gauche, haut, droite - gauche + 1, bas - haut + 1);
+		}
+
+		/**
+		 * Dessine une image du scénario (sans composant Swing : utilisable depuis n'importe quel fil)
+		 * Le code et les cases défilent pour garder la ligne et la case courantes visibles
+		 */
+		static BufferedImage dessiner(ScenarioExecution scenario, int image) {
+			BufferedImage resultat = new BufferedImage(LARGEUR, HAUTEUR, BufferedImage.TYPE_BYTE_INDEXED, PALETTE);
+			Graphics2D g = resultat.createGraphics();
+			try {
+				// Sans anticrénelage : seules les couleurs de la palette sont produites
+				g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+				g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+				g.setColor(Color.WHITE);
+				g.fillRect(0, 0, LARGEUR, HAUTEUR);
+
+				dessinerCode(g, scenario, image);
+
+				g.setFont(POLICE_TITRE);
+				g.setColor(Color.BLACK);
+				FontMetrics fm = g.getFontMetrics();
+				g.drawString(scenario.titre, (LARGEUR - fm.stringWidth(scenario.titre)) / 2, Y_TITRE);
+
+				if (scenario.alloue(image)) {
+					dessinerCases(g, scenario, image);
+				}
+
+				g.setFont(POLICE_PIED);
+				g.setColor(Color.DARK_GRAY);
+				g.drawString(image == 0 ? "État initial" : "Étape " + image + " / " + (scenario.nombreImages() - 1),
+						MARGE, Y_PIED);
+			} finally {
+				g.dispose();
+			}
+			return resultat;
+		}
+
+		private static void dessinerCode(Graphics2D g, ScenarioExecution scenario, int image) {
+			int hauteurCode = LIGNES_VISIBLES * HAUTEUR_LIGNE;
+			g.setColor(FOND_CODE);
+			g.fillRect(MARGE, MARGE, LARGEUR - 2 * MARGE, hauteurCode);
+
+			int courante = scenario.ligne(image);
+			int premiere = Math.max(0, Math.min(courante - LIGNES_VISIBLES / 2, scenario.lignes.length - LIGNES_VISIBLES));
+			g.setFont(POLICE_CODE);
+			FontMetrics fm = g.getFontMetrics();
+			int largeurMax = LARGEUR - 2 * MARGE - 16;
+			for (int i = premiere; i < scenario.lignes.length && i < premiere + LIGNES_VISIBLES; i++) {
+				int y = MARGE + (i - premiere) * HAUTEUR_LIGNE;
+				if (i == courante) {
+					g.setColor(SURLIGNAGE);
+					g.fillRect(MARGE, y, LARGEUR - 2 * MARGE, HAUTEUR_LIGNE);
+				}
+				int base = y + (HAUTEUR_LIGNE + fm.getAscent() - fm.getDescent()) / 2;
+				String texte = tronquer(scenario.lignes[i], fm, largeurMax);
+				g.setColor(Color.BLACK);
+				g.drawString(texte, MARGE + 8, base);
+				if (i == scenario.ligneCompteur) {
+					String compteur = scenario.compteur(image);
+					int x = MARGE + 8 + fm.stringWidth(texte);
+					g.setColor(Color.GRAY);
+					g.drawString(tronquer(compteur, fm, Math.max(0, largeurMax - x)), x, base);
+				}
+			}
+		}
+
+		private static void dessinerCases(Graphics2D g, ScenarioExecution scenario, int image) {
+			int taille = scenario.valeurs.length;
+			int affectees = scenario.affectees(image);
+			int focus = Math.max(0, affectees - 1);
+			int premiere = Math.max(0, Math.min(focus - CASES_VISIBLES / 2, taille - CASES_VISIBLES));
+			int nombre = Math.min(CASES_VISIBLES, taille - premiere);
+			int x0 = (LARGEUR - nombre * (TAILLE_CASE + ESPACE_CASES) + ESPACE_CASES) / 2;
+
+			for (int k = 0; k < nombre; k++) {
+				int i = premiere + k;
+				int x = x0 + k * (TAILLE_CASE + ESPACE_CASES);
+				g.setColor(i < affectees ? AFFECTEE : Color.WHITE);
+				g.fillRect(x, Y_CASES, TAILLE_CASE, TAILLE_CASE);
+				g.setColor(FOND_CODE);
+				g.fillRect(x, Y_CASES, TAILLE_CASE, HAUTEUR_BANDEAU);
+				g.setColor(Color.BLACK);
+				g.fillRect(x, Y_CASES, TAILLE_CASE, 2);
+				g.fillRect(x, Y_CASES + TAILLE_CASE - 2, TAILLE_CASE, 2);
+				g.fillRect(x, Y_CASES, 2, TAILLE_CASE);
+				g.fillRect(x + TAILLE_CASE - 2, Y_CASES, 2, TAILLE_CASE);
+
+				g.setFont(CacheTuiles.POLICE_INDICE);
+				FontMetrics fm = g.getFontMetrics();
+				String indice = "[" + i + "]";
+				g.drawString(indice, x + (TAILLE_CASE - fm.stringWidth(indice)) / 2, Y_CASES + 2 + fm.getAscent());
+
+				g.setFont(POLICE_CODE);
+				fm = g.getFontMetrics();
+				String valeur = tronquer(i < affectees ? scenario.valeurs[i] : scenario.valeurDefaut, fm, TAILLE_CASE - 8);
+				int milieu = Y_CASES + HAUTEUR_BANDEAU + (TAILLE_CASE - HAUTEUR_BANDEAU) / 2;
+				g.drawString(valeur, x + (TAILLE_CASE - fm.stringWidth(valeur)) / 2,
+						milieu + (fm.getAscent() - fm.getDescent()) / 2);
+			}
+
+			// Indiquer les cases hors champ
+			g.setFont(POLICE_TITRE);
+			g.setColor(Color.GRAY);
+			int yPoints = Y_CASES + TAILLE_CASE / 2;
+			if (premiere > 0) g.drawString("…", MARGE, yPoints);
+			if (premiere + nombre < taille) g.drawString("…", LARGEUR - MARGE - 10, yPoints);
+		}
+
+		private static String tronquer(String texte, FontMetrics fm, int largeur) {
+			if (fm.stringWidth(texte) <= largeur) return texte;
+			// Recherche dichotomique : la ligne de la méthode 2 peut compter des milliers de caractères
+			int disponible = largeur - fm.stringWidth("…");
+			int bas = 0;
+			int haut = texte.length();
+			while (bas < haut) {
+				int milieu = (bas + haut + 1) >>> 1;
+				if (fm.stringWidth(texte.substring(0, milieu)) <= disponible) {
+					bas = milieu;
+				} else {
+					haut = milieu - 1;
+				}
+			}
+			return texte.substring(0, bas) + "…";
+		}
+
+		/**
+		 * GIF animé en boucle : la première image est complète, les suivantes ne contiennent que
+		 * le rectangle modifié, posé sur l'image précédente (disposition doNotDispose)
+		 */
+		private static final class SortieGif implements Sortie {
+			private final java.io.File fichier;
+			private final java.io.File partiel;
+			private final javax.imageio.ImageWriter redacteur;
+			private final javax.imageio.stream.ImageOutputStream flux;
+			private boolean premiere = true;
+			private boolean fluxFerme = false;
+			private boolean termine = false;
+			private long octets;
+
+			SortieGif(java.io.File fichier) throws java.io.IOException {
+				// Écriture à côté du fichier, mis en place seulement une fois le GIF complet
+				this.fichier = fichier;
+				partiel = new java.io.File(fichier.getPath() + ".part");
+				// Le flux écrit par-dessus l'ancien contenu sans le tronquer
+				java.nio.file.Files.deleteIfExists(partiel.toPath());
+				redacteur = javax.imageio.ImageIO.getImageWritersByFormatName("gif").next();
+				flux = javax.imageio.ImageIO.createImageOutputStream(partiel);
+				if (flux == null) throw new java.io.IOException("impossible d'écrire " + partiel);
+				try {
+					redacteur.setOutput(flux);
+					redacteur.prepareWriteSequence(null);
+				} catch (java.io.IOException | RuntimeException e) {
+					close();
+					throw e;
+				}
+			}
+
+			@Override
+			public void ecrire(BufferedImage image, Rectangle zone, int dureeMillis) throws java.io.IOException {
+				BufferedImage morceau = extraire(image, zone);
+				javax.imageio.metadata.IIOMetadata meta = redacteur.getDefaultImageMetadata(
+						javax.imageio.ImageTypeSpecifier.createFromRenderedImage(morceau), null);
+				String format = meta.getNativeMetadataFormatName();
+				javax.imageio.metadata.IIOMetadataNode racine = (javax.imageio.metadata.IIOMetadataNode) meta.getAsTree(format);
+
+				javax.imageio.metadata.IIOMetadataNode descripteur = noeud(racine, "ImageDescriptor");
+				descripteur.setAttribute("imageLeftPosition", Integer.toString(zone.x));
+				descripteur.setAttribute("imageTopPosition", Integer.toString(zone.y));
+				descripteur.setAttribute("imageWidth", Integer.toString(zone.width));
+				descripteur.setAttribute("imageHeight", Integer.toString(zone.height));
+				descripteur.setAttribute("interlaceFlag", "FALSE");
+
+				javax.imageio.metadata.IIOMetadataNode controle = noeud(racine, "GraphicControlExtension");
+				controle.setAttribute("disposalMethod", "doNotDispose");
+				controle.setAttribute("userInputFlag", "FALSE");
+				controle.setAttribute("transparentColorFlag", "FALSE");
+				controle.setAttribute("delayTime", Integer.toString(Math.max(1, dureeMillis / 10)));
+				controle.setAttribute("transparentColorIndex", "0");
+
+				if (premiere) {
+					// Extension NETSCAPE2.0 : lecture en boucle infinie
+					javax.imageio.metadata.IIOMetadataNode extension = new javax.imageio.metadata.IIOMetadataNode("ApplicationExtension");
+					extension.setAttribute("applicationID", "NETSCAPE");
+					extension.setAttribute("authenticationCode", "2.0");
+					extension.setUserObject(new byte[]{1, 0, 0});
+					noeud(racine, "ApplicationExtensions").appendChild(extension);
+					premiere = false;
+				}
+				meta.setFromTree(format, racine);
+				redacteur.writeToSequence(new javax.imageio.IIOImage(morceau, null, meta), null);
+			}
+
+			@Override
+			public void terminer() throws java.io.IOException {
+				redacteur.endWriteSequence();
+				octets = flux.length();
+				fluxFerme = true;
+				flux.close();
+				java.nio.file.Files.move(partiel.toPath(), fichier.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+				termine = true;
+			}
+
+			@Override
+			public long octets() {
+				return octets;
+			}
+
+			@Override
+			public void close() throws java.io.IOException {
+				redacteur.dispose();
+				try {
+					if (!fluxFerme) {
+						fluxFerme = true;
+						flux.close();
+					}
+				} finally {
+					// GIF incomplet : l'ancien fichier éventuel reste intact
+					if (!termine) java.nio.file.Files.deleteIfExists(partiel.toPath());
+				}
+			}
+
+			private static BufferedImage extraire(BufferedImage image, Rectangle zone) {
+				if (zone.width == image.getWidth() && zone.height == image.getHeight()) return image;
+				BufferedImage morceau = new BufferedImage(zone.width, zone.height, BufferedImage.TYPE_BYTE_INDEXED, PALETTE);
+				byte[] source = ((java.awt.image.DataBufferByte) image.getRaster().getDataBuffer()).getData();
+				byte[] cible = ((java.awt.image.DataBufferByte) morceau.getRaster().getDataBuffer()).getData();
+				for (int y = 0; y < zone.height; y++) {
+					System.arraycopy(source, (zone.y + y) * image.getWidth() + zone.x, cible, y * zone.width, zone.width);
+				}
+				return morceau;
+			}
+
+			private static javax.imageio.metadata.IIOMetadataNode noeud(javax.imageio.metadata.IIOMetadataNode racine, String nom) {
+				for (int i = 0; i < racine.getLength(); i++) {
+					if (racine.item(i).getNodeName().equalsIgnoreCase(nom)) {
+						return (javax.imageio.metadata.IIOMetadataNode) racine.item(i);
+					}
+				}
+				javax.imageio.metadata.IIOMetadataNode noeud = new javax.imageio.metadata.IIOMetadataNode(nom);
+				racine.appendChild(noeud);
+				return noeud;
+			}
+		}
+
+		/**
+		 * Séquence d'images PNG complètes (nom-0001.png...) et liste au format ffconcat donnant la
+		 * durée de chaque image, pour assembler une vidéo : ffmpeg -f concat -i liste.txt video.mp4
+		 */
+		private static final class SortieSequence implements Sortie {
+			private final java.io.File liste;
+			private final String base;
+			private final List<String> lignes = new ArrayList<>();
+			private final List<java.io.File> images = new ArrayList<>();
+			private boolean termine = false;
+			private String derniere;
+			private int numero = 0;
+			private long octets = 0;
+
+			SortieSequence(java.io.File liste) {
+				this.liste = liste;
+				this.base = baseDesImages(liste);
+				lignes.add("ffconcat version 1.0");
+			}
+
+			static String baseDesImages(java.io.File liste) {
+				String nom = liste.getName();
+				int point = nom.lastIndexOf('.');
+				return point > 0 ? nom.substring(0, point) : nom;
+			}
+
+			@Override
+			public void ecrire(BufferedImage image, Rectangle zone, int dureeMillis) throws java.io.IOException {
+				derniere = String.format("%s-%04d.png", base, ++numero);
+				java.io.File fichier = new java.io.File(liste.getAbsoluteFile().getParentFile(), derniere);
+				images.add(fichier);
+				javax.imageio.ImageIO.write(image, "png", fichier);
+				octets += fichier.length();
+				lignes.add("file '" + derniere + "'");
+				lignes.add(String.format(java.util.Locale.ROOT, "duration %.3f", dureeMillis / 1000.0));
+			}
+
+			@Override
+			public void terminer() throws java.io.IOException {
+				// ffmpeg ignore la durée de la dernière entrée : elle est répétée
+				if (derniere != null) lignes.add("file '" + derniere + "'");
+				try {
+					java.nio.file.Files.write(liste.toPath(), lignes, java.nio.charset.StandardCharsets.UTF_8);
+				} catch (java.io.IOException e) {
+					java.nio.file.Files.deleteIfExists(liste.toPath());
+					throw e;
+				}
+				termine = true;
+			}
+
+			@Override
+			public long octets() {
+				return octets + liste.length();
+			}
+
+			@Override
+			public void close() throws java.io.IOException {
+				// Séquence incomplète : les images déjà écrites sont effacées
+				if (termine) return;
+				for (java.io.File fichier : images) {
+					java.nio.file.Files.deleteIfExists(fichier.toPath());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Erreur de validation d'un élément de l'initialiseur (méthode 2)
+	 */
+	private static final class ErreurValidation {
+		final int index;
+		final String valeur;
+		final String raison;
+		String nomTableau = "";
+
+		ErreurValidation(int index, String valeur, String raison) {
+			this.index = index;
+			this.valeur = valeur;
+			this.raison = raison;
+		}
+
+		@Override
+		public String toString() {
+			return nomTableau + "[" + index + "] = " + valeur + "  →  " + raison;
+		}
+	}
+
+	/**
+	 * Tableau de l'espace de travail : sa déclaration et, une fois alloué, l'objet tableau
+	 * Un onglet inactif ne garde aucun composant, seulement ce modèle et sa vignette ;
+	 * deux onglets dont l'objet est le même StockageTableau sont des alias (b = a)
+	 */
+	private static final class OngletTableau {
+		String nom;
+		EtatTableau etat;             // type, méthode, taille et textes des champs (null : exemples par défaut)
+		String expression = "i * i";  // expression de la méthode 3
+		StockageTableau objet;        // null tant que le tableau n'est pas alloué
+		java.util.Deque<EtatTableau> annulations = new java.util.ArrayDeque<>();
+		java.util.Deque<EtatTableau> retablissements = new java.util.ArrayDeque<>();
+		ImageIcon vignette;           // null : à redessiner
+
+		OngletTableau(String nom) {
+			this.nom = nom;
+		}
+
+		int taille() {
+			return objet != null ? objet.taille : etat != null ? etat.taille : 4;
+		}
+
+		String type() {
+			return etat != null ? etat.type : "int";
+		}
+	}
+
+	/**
+	 * État immuable du tableau mémorisé dans l'historique d'annulation
+	 */
+	private static final class EtatTableau {
+		final String type;
+		final int methode;
+		final int taille;
+		final VecteurPersistant valeurs;  // textes des champs, délimiteurs compris (vide pour la méthode 3)
+
+		EtatTableau(String type, int methode, int taille, VecteurPersistant valeurs) {
+			this.type = type;
+			this.methode = methode;
+			this.taille = taille;
+			this.valeurs = valeurs;
+		}
+
+		EtatTableau avecValeur(int index, String valeur) {
+			return new EtatTableau(type, methode, taille, valeurs.avec(index, valeur));
+		}
+
+		boolean estIdentique(EtatTableau autre) {
+			if (!type.equals(autre.type) || methode != autre.methode || taille != autre.taille
+					|| valeurs.taille() != autre.valeurs.taille()) {
+				return false;
+			}
+			boolean[] different = {false};
+			valeurs.differences(autre.valeurs, i -> different[0] = true);
+			return !different[0];
+		}
+	}
+
+	/**
+	 * Vecteur persistant de chaînes (arbre à 32 branches, à la manière de Clojure)
+	 * Une modification copie uniquement le chemin de la racine à la feuille : O(log32 n)
+	 * en temps et en mémoire, toutes les autres feuilles étant partagées avec l'ancienne version.
+	 */
+	private static final class VecteurPersistant {
+		private static final int BITS = 5;
+		private static final int LARGEUR = 1 << BITS;
+		private static final int MASQUE = LARGEUR - 1;
+
+		private final int taille;
+		private final int decalage;   // BITS * (profondeur - 1)
+		private final Object[] racine;
+
+		private VecteurPersistant(int taille, int decalage, Object[] racine) {
+			this.taille = taille;
+			this.decalage = decalage;
+			this.racine = racine;
+		}
+
+		/**
+		 * Construit un vecteur à partir d'un tableau (O(n))
+		 */
+		static VecteurPersistant de(String[] valeurs) {
+			int n = valeurs.length;
+			Object[] niveau = new Object[Math.max(1, (n + MASQUE) >>> BITS)];
+			for (int f = 0; f < niveau.length; f++) {
+				int debut = f << BITS;
+				niveau[f] = java.util.Arrays.copyOfRange(valeurs, debut, Math.min(n, debut + LARGEUR), Object[].class);
+			}
+			int decalage = 0;
+			while (niveau.length > 1) {
+				Object[] parent = new Object[(niveau.length + MASQUE) >>> BITS];
+				for (int p = 0; p < parent.length; p++) {
+					int debut = p << BITS;
+					parent[p] = java.util.Arrays.copyOfRange(niveau, debut, Math.min(niveau.length, debut + LARGEUR));
+				}
+				niveau = parent;
+				decalage += BITS;
+			}
+			return new VecteurPersistant(n, decalage, (Object[]) niveau[0]);
+		}
+
+		int taille() {
+			return taille;
+		}
+
+		String get(int index) {
+			Object[] noeud = racine;
+			for (int d = decalage; d > 0; d -= BITS) {
+				noeud = (Object[]) noeud[(index >>> d) & MASQUE];
+			}
+			return (String) noeud[index & MASQUE];
+		}
+
+		/**
+		 * Renvoie une nouvelle version dont la case index vaut valeur
+		 */
+		VecteurPersistant avec(int index, String valeur) {
+			return new VecteurPersistant(taille, decalage, avec(racine, decalage, index, valeur));
+		}
+
+		private static Object[] avec(Object[] noeud, int decalage, int index, String valeur) {
+			Object[] copie = noeud.clone();
+			int emplacement = (index >>> decalage) & MASQUE;
+			copie[emplacement] = decalage == 0 ? valeur : avec((Object[]) noeud[emplacement], decalage - BITS, index, valeur);
+			return copie;
+		}
+
+		String[] versTableau() {
+			String[] tableau = new String[taille];
+			for (int i = 0; i < taille; i++) {
+				tableau[i] = get(i);
+			}
+			return tableau;
+		}
+
+		/**
+		 * Signale les indices dont la valeur diffère entre deux vecteurs de même taille
+		 * Les sous-arbres partagés (même référence) sont ignorés : le coût est proportionnel
+		 * au nombre de chemins modifiés, pas à la taille du tableau
+		 */
+		void differences(VecteurPersistant autre, java.util.function.IntConsumer action) {
+			differences(racine, autre.racine, decalage, 0, action);
+		}
+
+		private static void differences(Object[] a, Object[] b, int decalage, int base, java.util.function.IntConsumer action) {
+			if (a == b) return;
+			for (int i = 0; i < a.length; i++) {
+				if (decalage == 0) {
+					if (!java.util.Objects.equals(a[i], b[i])) action.accept(base + i);
+				} else {
+					differences((Object[]) a[i], (Object[]) b[i], decalage - BITS, base + (i << decalage), action);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Genres d'interactions enregistrées
+	 */
+	private enum GenreAction {
+		METHODE, TYPE, TAILLE, NOM, EXPRESSION, VALEUR, EXECUTER, LIGNE, STOP
+	}
+
+	/**
+	 * Interaction horodatée (instant relatif au début de l'enregistrement)
+	 */
+	private static final class ActionSession {
+		final long instantNanos;
+		final GenreAction genre;
+		final int entier;
+		final String texte;
+
+		ActionSession(long instantNanos, GenreAction genre, int entier, String texte) {
+			this.instantNanos = instantNanos;
+			this.genre = genre;
+			this.entier = entier;
+			this.texte = texte;
+		}
+	}
+
+	/**
+	 * Session enregistrée : suite d'interactions, sauvegardée au format texte
+	 * (une action par ligne : instant, genre, entier, texte, séparés par des tabulations)
+	 */
+	private static final class SessionEnregistree {
+		final List<ActionSession> actions = new ArrayList<>();
+		private final long debut = System.nanoTime();
+
+		void ajouter(GenreAction genre, int entier, String texte) {
+			long instant = actions.isEmpty() ? 0 : System.nanoTime() - debut;
+			actions.add(new ActionSession(instant, genre, entier, texte));
+		}
+
+		void sauvegarder(java.nio.file.Path fichier) throws java.io.IOException {
+			List<String> lignes = new ArrayList<>();
+			for (ActionSession a : actions) {
+				lignes.add(a.instantNanos + "\t" + a.genre + "\t" + a.entier + "\t" + (a.texte == null ? "" : echapper(a.texte)));
+			}
+			java.nio.file.Files.write(fichier, lignes, java.nio.charset.StandardCharsets.UTF_8);
+		}
+
+		static SessionEnregistree charger(java.nio.file.Path fichier) throws java.io.IOException {
+			SessionEnregistree session = new SessionEnregistree();
+			for (String ligne : java.nio.file.Files.readAllLines(fichier, java.nio.charset.StandardCharsets.UTF_8)) {
+				if (ligne.isEmpty()) continue;
+				String[] champs = ligne.split("\t", 4);
+				GenreAction genre = GenreAction.valueOf(champs[1]);
+				String texte = champs.length > 3 ? desechapper(champs[3]) : "";
+				boolean avecTexte = genre == GenreAction.TYPE || genre == GenreAction.NOM
+						|| genre == GenreAction.EXPRESSION || genre == GenreAction.VALEUR;
+				session.actions.add(new ActionSession(Long.parseLong(champs[0]), genre,
+						Integer.parseInt(champs[2]), avecTexte ? texte : null));
+			}
+			return session;
+		}
+
+		private static String echapper(String s) {
+			return s.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+		}
+
+		private static String desechapper(String s) {
+			StringBuilder sb = new StringBuilder(s.length());
+			for (int i = 0; i < s.length(); i++) {
+				char c = s.charAt(i);
+				if (c == '\\' && i + 1 < s.length()) {
+					char suivant = s.charAt(++i);
+					sb.append(suivant == 't' ? '\t' : suivant == 'n' ? '\n' : suivant);
+				} else {
+					sb.append(c);
+				}
+			}
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * Latences mesurées pendant un rejeu, regroupées par genre d'action
+	 */
+	private static final class MesuresRejeu {
+		private final Map<String, long[]> durees = new java.util.TreeMap<>();
+		private final Map<String, Integer> nombres = new HashMap<>();
+		int erreurs;
+		Throwable echec;
+
+		void ajouter(String genre, long dureeNanos) {
+			int n = nombres.getOrDefault(genre, 0);
+			long[] tableau = durees.get(genre);
+			if (tableau == null || n == tableau.length) {
+				tableau = tableau == null ? new long[64] : java.util.Arrays.copyOf(tableau, n * 2);
+				durees.put(genre, tableau);
+			}
+			tableau[n] = dureeNanos;
+			nombres.put(genre, n + 1);
+		}
+
+		/**
+		 * Tableau des percentiles (rang le plus proche) par genre d'action, en millisecondes
+		 */
+		String rapport() {
+			StringBuilder sb = new StringBuilder(String.format("%-10s %7s %9s %9s %9s %9s%n",
+					"action", "n", "p50", "p90", "p99", "max"));
+			for (Map.Entry<String, long[]> entree : durees.entrySet()) {
+				int n = nombres.get(entree.getKey());
+				long[] tries = java.util.Arrays.copyOf(entree.getValue(), n);
+				java.util.Arrays.sort(tries);
+				sb.append(String.format("%-10s %7d %9.3f %9.3f %9.3f %9.3f%n", entree.getKey(), n,
+						percentile(tries, 50), percentile(tries, 90), percentile(tries, 99), tries[n - 1] / 1e6));
+			}
+			return sb.toString();
+		}
+
+		private static double percentile(long[] tries, int p) {
+			int rang = (int) Math.ceil(p / 100.0 * tries.length);
+			return tries[Math.max(0, rang - 1)] / 1e6;
+		}
+	}
+
+	/**
+	 * Élément animé par l'horloge : son état est une fonction analytique du temps écoulé
+	 */
+	private interface Animable {
+		/** Démarre (ou redémarre) la transition à l'instant donné */
+		void commencer(long instantNanos);
+
+		/**
+		 * Calcule l'état de la transition à l'instant donné et demande le repaint
+		 * @return true tant que la transition n'est pas terminée
+		 */
+		boolean avancer(long instantNanos);
+
+		/** Termine immédiatement la transition (état final) */
+		void terminer();
+	}
+
+	/**
+	 * Horloge d'animation cadencée au rafraîchissement de l'écran
+	 * Le rythme des étapes logiques (exécution ligne par ligne) est indépendant du rythme
+	 * d'affichage ; les transitions sont recalculées à chaque image d'après l'instant courant,
+	 * si bien qu'une image perdue est simplement sautée (pas de file d'images en retard)
+	 */
+	private static final class HorlogeAnimation {
+		private final long periodeEtapeNanos;
+		private final Runnable etape;
+		private final Timer images;
+		private final ArrayList<Animable> transitions = new ArrayList<>();
+		// Appartenance à transitions en O(1), sans allocation une fois la table dimensionnée
+		private final java.util.Set<Animable> enTransition = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+		private boolean etapesActives = false;
+		private long prochaineEtape;
+
+		/**
+		 * @param periodeEtapeMillis Durée d'une étape logique
+		 * @param etape Action exécutée à chaque étape
+		 */
+		HorlogeAnimation(int periodeEtapeMillis, Runnable etape) {
+			this.periodeEtapeNanos = periodeEtapeMillis * 1_000_000L;
+			this.etape = etape;
+			this.images = new Timer(Math.max(1, 1000 / frequenceEcran()), e -> image());
+			// Les événements en retard sont fusionnés : au plus une image en attente
+			this.images.setCoalesce(true);
+		}
+
+		/**
+		 * Fréquence de rafraîchissement de l'écran principal (60 Hz si inconnue)
+		 */
+		private static int frequenceEcran() {
+			if (GraphicsEnvironment.isHeadless()) return 60;
+			int frequence = GraphicsEnvironment.getLocalGraphicsEnvironment()
+					.getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+			return frequence == DisplayMode.REFRESH_RATE_UNKNOWN ? 60 : frequence;
+		}
+
+		void demarrerEtapes() {
+			etapesActives = true;
+			prochaineEtape = System.nanoTime() + periodeEtapeNanos;
+			images.start();
+		}
+
+		void arreterEtapes() {
+			etapesActives = false;
+		}
+
+		boolean etapesEnCours() {
+			return etapesActives;
+		}
+
+		/**
+		 * Lance (ou relance) la transition d'un élément
+		 */
+		void animer(Animable element) {
+			element.commencer(System.nanoTime());
+			if (enTransition.add(element)) {
+				transitions.add(element);
+			}
+			images.start();
+		}
+
+		/**
+		 * Termine toutes les transitions (par exemple avant de reconstruire l'illustration)
+		 */
+		void annulerTransitions() {
+			for (int i = 0; i < transitions.size(); i++) {
+				transitions.get(i).terminer();
+			}
+			transitions.clear();
+			enTransition.clear();
+		}
+
+		/**
+		 * Traitement d'une image : étape logique éventuelle puis avancement des transitions
+		 */
+		private void image() {
+			long maintenant = System.nanoTime();
+
+			if (etapesActives && maintenant >= prochaineEtape) {
+				// Très en retard : les étapes manquées ne sont pas rattrapées en rafale
+				prochaineEtape = maintenant - prochaineEtape >= periodeEtapeNanos
+						? maintenant + periodeEtapeNanos : prochaineEtape + periodeEtapeNanos;
+				etape.run();
+			}
+
+			// Parcours indexé et retrait par permutation : aucune allocation par image
+			for (int i = transitions.size() - 1; i >= 0; i--) {
+				if (!transitions.get(i).avancer(maintenant)) {
+					enTransition.remove(transitions.get(i));
+					int dernier = transitions.size() - 1;
+					transitions.set(i, transitions.get(dernier));
+					transitions.remove(dernier);
+				}
+			}
+
+			if (!etapesActives && transitions.isEmpty()) {
+				images.stop();
+			} else {
+				Toolkit.getDefaultToolkit().sync();
+			}
+		}
+
+		/**
+		 * Courbe d'accélération « ease-out » cubique
+		 * @param t Progression linéaire entre 0 et 1
+		 */
+		static double adoucir(double t) {
+			double u = 1 - t;
+			return 1 - u * u * u;
+		}
+	}
+
+	/**
+	 * Case de l'illustration capable d'apparaître en fondu
+	 * Les niveaux d'opacité sont quantifiés et leurs AlphaComposite créés une seule fois.
+	 * Le décor (bordure, fond, bandeau d'indice) est copié depuis une tuile partagée du
+	 * CacheTuiles ; seuls le texte de l'indice et la valeur sont dessinés par-dessus.
+	 */
+	private static final class CaseAnimee extends JPanel implements Animable {
+		private static final long serialVersionUID = 1L;
+		private static final long DUREE_FONDU = 250_000_000L;
+		private static final int NIVEAUX = 32;
+		private static final AlphaComposite[] OPACITES = new AlphaComposite[NIVEAUX + 1];
+		static {
+			for (int i = 0; i <= NIVEAUX; i++) {
+				OPACITES[i] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, i / (float) NIVEAUX);
+			}
+		}
+
+		private long debut;
+		private int niveau = NIVEAUX;
+		private final String texteIndice;
+
+		/**
+		 * @param index L'indice affiché dans le bandeau de la case
+		 */
+		CaseAnimee(int index) {
+			super(new BorderLayout());
+			texteIndice = "[" + index + "]";
+			FontMetrics fm = getFontMetrics(CacheTuiles.POLICE_INDICE);
+			add(Box.createRigidArea(new Dimension(fm.stringWidth(texteIndice), fm.getHeight())), BorderLayout.NORTH);
+		}
+
+		/**
+		 * Copie la tuile du décor puis écrit l'indice ; la valeur est dessinée par l'étiquette enfant
+		 */
+		@Override
+		protected void paintComponent(Graphics g) {
+			Color bordure = Color.BLACK;
+			int epaisseur = 0;
+			if (getBorder() instanceof javax.swing.border.LineBorder) {
+				javax.swing.border.LineBorder ligne = (javax.swing.border.LineBorder) getBorder();
+				bordure = ligne.getLineColor();
+				epaisseur = ligne.getThickness();
+			}
+			CacheTuiles.dessiner((Graphics2D) g, this, getBackground(), bordure, epaisseur);
+
+			g.setFont(CacheTuiles.POLICE_INDICE);
+			g.setColor(Color.BLACK);
+			FontMetrics fm = g.getFontMetrics();
+			g.drawString(texteIndice, (getWidth() - fm.stringWidth(texteIndice)) / 2, epaisseur + fm.getAscent());
+		}
+
+		/**
+		 * La bordure fait partie de la tuile (elle ne fixe plus que les marges)
+		 */
+		@Override
+		protected void paintBorder(Graphics g) {
+		}
+
+		@Override
+		public void commencer(long instantNanos) {
+			debut = instantNanos;
+			niveau = 0;
+			repaint();
+		}
+
+		@Override
+		public boolean avancer(long instantNanos) {
+			double t = Math.min(1.0, (instantNanos - debut) / (double) DUREE_FONDU);
+			int nouveau = (int) Math.round(HorlogeAnimation.adoucir(t) * NIVEAUX);
+			if (nouveau != niveau) {
+				niveau = nouveau;
+				repaint();
+			}
+			return t < 1.0;
+		}
+
+		@Override
+		public void terminer() {
+			niveau = NIVEAUX;
+			repaint();
+		}
+
+		/**
+		 * Transparente pendant le fondu, pour que le fond du parent soit repeint sous la case
+		 */
+		@Override
+		public boolean isOpaque() {
+			return niveau == NIVEAUX && super.isOpaque();
+		}
+
+		@Override
+		public void paint(Graphics g) {
+			if (niveau == NIVEAUX) {
+				super.paint(g);
+				return;
+			}
+			Graphics2D g2 = (Graphics2D) g;
+			Composite ancien = g2.getComposite();
+			g2.setComposite(OPACITES[niveau]);
+			super.paint(g2);
+			g2.setComposite(ancien);
+		}
+	}
+
+	/**
+	 * Cache des tuiles pré-rendues du décor des cases, en VolatileImage (accélérées)
+	 * Une tuile dépend de l'état de la case (fond, couleur et épaisseur de bordure), de sa taille
+	 * et de l'échelle d'affichage (HiDPI) : elle est partagée par toutes les cases dans le même état.
+	 * Le cache est borné (LRU) ; une tuile perdue par le système est redessinée, une tuile
+	 * incompatible avec l'écran (déplacement de fenêtre, changement d'échelle) est recréée.
+	 * Utilisé uniquement sur l'EDT.
+	 */
+	private static final class CacheTuiles {
+		static final Font POLICE_INDICE = new Font("Monospaced", Font.BOLD, 12);
+		private static final int CAPACITE = 64;
+		private static final Color FOND_BANDEAU = new Color(238, 238, 238);
+
+		private static final Map<CleTuile, java.awt.image.VolatileImage> TUILES =
+				new java.util.LinkedHashMap<CleTuile, java.awt.image.VolatileImage>(16, 0.75f, true) {
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected boolean removeEldestEntry(Map.Entry<CleTuile, java.awt.image.VolatileImage> plusAncienne) {
+						if (size() <= CAPACITE) return false;
+						plusAncienne.getValue().flush();
+						return true;
+					}
+				};
+
+		/**
+		 * Clé d'une tuile : état visuel, taille logique et échelle
+		 */
+		private static final class CleTuile {
+			final int fond;
+			final int bordure;
+			final int epaisseur;
+			final int largeur;
+			final int hauteur;
+			final double echelle;
+
+			CleTuile(int fond, int bordure, int epaisseur, int largeur, int hauteur, double echelle) {
+				this.fond = fond;
+				this.bordure = bordure;
+				this.epaisseur = epaisseur;
+				this.largeur = largeur;
+				this.hauteur = hauteur;
+				this.echelle = echelle;
+			}
+
+			@Override
+			public boolean equals(Object o) {
+				if (!(o instanceof CleTuile)) return false;
+				CleTuile c = (CleTuile) o;
+				return fond == c.fond && bordure == c.bordure && epaisseur == c.epaisseur
+						&& largeur == c.largeur && hauteur == c.hauteur && echelle == c.echelle;
+			}
+
+			@Override
+			public int hashCode() {
+				int h = fond;
+				h = 31 * h + bordure;
+				h = 31 * h + epaisseur;
+				h = 31 * h + largeur;
+				h = 31 * h + hauteur;
+				return 31 * h + Double.hashCode(echelle);
+			}
+		}
+
+		/**
+		 * Dessine le décor d'une case en copiant la tuile correspondante (créée au besoin)
+		 */
+		static void dessiner(Graphics2D g, JComponent composant, Color fond, Color bordure, int epaisseur) {
+			int largeur = composant.getWidth();
+			int hauteur = composant.getHeight();
+			if (largeur <= 0 || hauteur <= 0) return;
+
+			GraphicsConfiguration gc = composant.getGraphicsConfiguration();
+			if (gc == null) {
+				// Composant pas encore affiché (ou rendu hors écran) : dessin direct
+				peindre(g, largeur, hauteur, fond, bordure, epaisseur);
+				return;
+			}
+			double echelle = g.getTransform().getScaleX();
+			CleTuile cle = new CleTuile(fond.getRGB(), bordure.getRGB(), epaisseur, largeur, hauteur, echelle);
+			java.awt.image.VolatileImage tuile = TUILES.get(cle);
+			int largeurPixels = (int) Math.ceil(largeur * echelle);
+			int hauteurPixels = (int) Math.ceil(hauteur * echelle);
+
+			do {
+				int etat = tuile == null ? java.awt.image.VolatileImage.IMAGE_INCOMPATIBLE : tuile.validate(gc);
+				if (etat == java.awt.image.VolatileImage.IMAGE_INCOMPATIBLE) {
+					if (tuile != null) tuile.flush();
+					tuile = gc.createCompatibleVolatileImage(largeurPixels, hauteurPixels, Transparency.OPAQUE);
+					TUILES.put(cle, tuile);
+					etat = java.awt.image.VolatileImage.IMAGE_RESTORED;
+				}
+				if (etat == java.awt.image.VolatileImage.IMAGE_RESTORED) {
+					Graphics2D gt = tuile.createGraphics();
+					try {
+						gt.scale(echelle, echelle);
+						peindre(gt, largeur, hauteur, fond, bordure, epaisseur);
+					} finally {
+						gt.dispose();
+					}
+				}
+				g.drawImage(tuile, 0, 0, largeur, hauteur, null);
+			} while (tuile.contentsLost());
+		}
+
+		/**
+		 * Rendu du décor : fond selon l'état, bandeau d'indice, bordure
+		 */
+		private static void peindre(Graphics2D g, int largeur, int hauteur, Color fond, Color bordure, int epaisseur) {
+			int hauteurBandeau = g.getFontMetrics(POLICE_INDICE).getHeight();
+			g.setColor(fond);
+			g.fillRect(0, 0, largeur, hauteur);
+			g.setColor(FOND_BANDEAU);
+			g.fillRect(epaisseur, epaisseur, largeur - 2 * epaisseur, hauteurBandeau);
+			g.setColor(bordure);
+			for (int i = 0; i < epaisseur; i++) {
+				g.drawRect(i, i, largeur - 2 * i - 1, hauteur - 2 * i - 1);
+			}
+		}
+	}
+
+	/**
+	 * Étiquette de valeur dont le contenu glisse en place lors d'une affectation
+	 */
+	private static final class EtiquetteValeur extends JLabel implements Animable {
+		private static final long serialVersionUID = 1L;
+		private static final long DUREE_GLISSEMENT = 200_000_000L;
+
+		private long debut;
+		private int decalage = 0;
+
+		EtiquetteValeur(String texte) {
+			super(texte, SwingConstants.CENTER);
+		}
+
+		@Override
+		public void commencer(long instantNanos) {
+			debut = instantNanos;
+			decalage = -getHeight();
+			repaint();
+		}
+
+		@Override
+		public boolean avancer(long instantNanos) {
+			double t = Math.min(1.0, (instantNanos - debut) / (double) DUREE_GLISSEMENT);
+			int nouveau = (int) Math.round(-(1 - HorlogeAnimation.adoucir(t)) * getHeight());
+			if (nouveau != decalage) {
+				decalage = nouveau;
+				repaint();
+			}
+			return t < 1.0;
+		}
+
+		@Override
+		public void terminer() {
+			decalage = 0;
+			repaint();
+		}
+
+		@Override
+		protected void paintComponent(Graphics g) {
+			if (decalage == 0) {
+				super.paintComponent(g);
+				return;
+			}
+			// Le texte entre par le haut ; le débordement est coupé par la zone de l'étiquette
+			g.translate(0, decalage);
+			super.paintComponent(g);
+			g.translate(0, -decalage);
+		}
+	}
 
 	/**
 	 * Interface fonctionnelle pour les actions de document